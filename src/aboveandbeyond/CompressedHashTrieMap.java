@@ -1,20 +1,72 @@
 package aboveandbeyond;
 
-import cse332.exceptions.NotYetImplementedException;
 import cse332.interfaces.misc.BString;
 import cse332.interfaces.trie.TrieMap;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
+/**
+ * See cse332/interfaces/trie/TrieMap.java
+ * and cse332/interfaces/misc/Dictionary.java
+ * for method specifications.
+ *
+ * A path-compressed (radix/Patricia) version of HashTrieMap. Every edge is
+ * labelled by a run of letters instead of a single letter, and a node that
+ * has no value and only one child is merged with that child. Hence, every
+ * node other than the root either has a value or branches, and a trie with
+ * n keys has fewer than 2n nodes no matter how long the keys are.
+ *
+ * The pointers map of a node is keyed by the first letter of the label of
+ * each child. Every node also keeps the number of keys in its subtree, so
+ * countPrefix does not have to search.
+ */
 public class CompressedHashTrieMap<A extends Comparable<A>, K extends BString<A>, V> extends TrieMap<A, K, V> {
     public class CompressedHashTrieNode extends TrieNode<Map<A, CompressedHashTrieNode>, CompressedHashTrieNode> {
+        /**
+         * The letters on the edge leading into this node (empty for the root).
+         */
+        private A[] label;
+
+        /**
+         * The number of keys in the subtree rooted at this node.
+         */
+        private int count;
+
         public CompressedHashTrieNode() {
             this(null);
         }
 
         public CompressedHashTrieNode(V value) {
-            throw new NotYetImplementedException();
+            this(newLetters(0), value);
+        }
+
+        private CompressedHashTrieNode(A[] label, V value) {
+            this.pointers = new HashMap<A, CompressedHashTrieNode>();
+            this.label = label;
+            this.value = value;
+        }
+
+        @Override
+        protected int edgeLength() {
+            return this.label.length;
+        }
+
+        @Override
+        protected A edgeLetter(int i) {
+            return this.label[i];
+        }
+
+        @Override
+        protected int subtreeSize() {
+            return this.count;
+        }
+
+        @Override
+        protected CompressedHashTrieNode child(A letter) {
+            return this.pointers.get(letter);
         }
 
         @Override
@@ -28,28 +80,192 @@ public class CompressedHashTrieMap<A extends Comparable<A>, K extends BString<A>
         this.root = new CompressedHashTrieNode();
     }
 
+    private A[] letters(K key) {
+        A[] letters = newLetters(key.size());
+        int i = 0;
+        for (A letter : key) {
+            letters[i++] = letter;
+        }
+        return letters;
+    }
+
+    /**
+     * Returns the length of the longest common prefix of label and
+     * key[from...].
+     */
+    private int match(A[] label, A[] key, int from) {
+        int i = 0;
+        while (i < label.length && from + i < key.length && label[i].equals(key[from + i])) {
+            i++;
+        }
+        return i;
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompressedHashTrieNode root() {
+        return (CompressedHashTrieNode) this.root;
+    }
+
     @Override
     public V insert(K key, V value) {
-        throw new NotYetImplementedException();
+        if (key == null || value == null) {
+            throw new IllegalArgumentException();
+        }
+        A[] letters = letters(key);
+        CompressedHashTrieNode current = root();
+        int i = 0;
+        while (i < letters.length) {
+            CompressedHashTrieNode child = current.pointers.get(letters[i]);
+            if (child == null) {
+                current.pointers.put(letters[i],
+                        new CompressedHashTrieNode(Arrays.copyOfRange(letters, i, letters.length), value));
+                this.size++;
+                addToCounts(letters, 1);
+                return null;
+            }
+
+            int matched = match(child.label, letters, i);
+            if (matched < child.label.length) {
+                // The key leaves the edge part of the way along it, so split
+                // the edge in two at that point.
+                CompressedHashTrieNode middle =
+                        new CompressedHashTrieNode(Arrays.copyOfRange(child.label, 0, matched), null);
+                middle.count = child.count;
+                child.label = Arrays.copyOfRange(child.label, matched, child.label.length);
+                middle.pointers.put(child.label[0], child);
+                current.pointers.put(letters[i], middle);
+                child = middle;
+            }
+            current = child;
+            i += matched;
+        }
+
+        V oldValue = current.value;
+        current.value = value;
+        if (oldValue == null) {
+            this.size++;
+            addToCounts(letters, 1);
+        }
+        return oldValue;
     }
 
     @Override
     public V find(K key) {
-        throw new NotYetImplementedException();
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        A[] letters = letters(key);
+        CompressedHashTrieNode current = root();
+        int i = 0;
+        while (i < letters.length) {
+            current = current.pointers.get(letters[i]);
+            if (current == null || match(current.label, letters, i) < current.label.length) {
+                return null;
+            }
+            i += current.label.length;
+        }
+        return current.value;
     }
 
     @Override
     public boolean findPrefix(K key) {
-        throw new NotYetImplementedException();
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        A[] letters = letters(key);
+        CompressedHashTrieNode current = root();
+        int i = 0;
+        while (i < letters.length) {
+            current = current.pointers.get(letters[i]);
+            if (current == null) {
+                return false;
+            }
+            int matched = match(current.label, letters, i);
+            if (i + matched == letters.length) {
+                // Every non-root node leads to at least one key.
+                return true;
+            }
+            if (matched < current.label.length) {
+                return false;
+            }
+            i += matched;
+        }
+        return current.value != null || !current.pointers.isEmpty();
     }
 
     @Override
     public void delete(K key) {
-        throw new NotYetImplementedException();
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        A[] letters = letters(key);
+        CompressedHashTrieNode parent = null;
+        CompressedHashTrieNode current = root();
+        int i = 0;
+        while (i < letters.length) {
+            CompressedHashTrieNode child = current.pointers.get(letters[i]);
+            if (child == null || match(child.label, letters, i) < child.label.length) {
+                return;
+            }
+            parent = current;
+            current = child;
+            i += child.label.length;
+        }
+        if (current.value == null) {
+            return;
+        }
+        current.value = null;
+        this.size--;
+        addToCounts(letters, -1);
+
+        if (parent == null) {
+            return;
+        }
+        if (current.pointers.isEmpty()) {
+            parent.pointers.remove(current.label[0]);
+            // The parent may now be a valueless node with a single child.
+            // (The grandparent's map is keyed by the parent's first letter,
+            // which does not change when the parent absorbs its child.)
+            if (parent != root() && parent.value == null && parent.pointers.size() == 1) {
+                absorbOnlyChild(parent);
+            }
+        }
+        else if (current.pointers.size() == 1) {
+            absorbOnlyChild(current);
+        }
+    }
+
+    /**
+     * Merges the only child of node into node, concatenating their labels.
+     */
+    private void absorbOnlyChild(CompressedHashTrieNode node) {
+        CompressedHashTrieNode child = node.pointers.values().iterator().next();
+        A[] label = Arrays.copyOf(node.label, node.label.length + child.label.length);
+        System.arraycopy(child.label, 0, label, node.label.length, child.label.length);
+        node.label = label;
+        node.value = child.value;
+        node.pointers = child.pointers;
+        node.count = child.count;
+    }
+
+    /**
+     * Adds delta to the count of every node on the path of the key letters,
+     * which must exist, from the root down to the node of the key itself.
+     */
+    private void addToCounts(A[] letters, int delta) {
+        CompressedHashTrieNode current = root();
+        current.count += delta;
+        int i = 0;
+        while (i < letters.length) {
+            current = current.pointers.get(letters[i]);
+            current.count += delta;
+            i += current.label.length;
+        }
     }
 
     @Override
     public void clear() {
-        throw new NotYetImplementedException();
+        this.root = new CompressedHashTrieNode();
+        this.size = 0;
     }
 }
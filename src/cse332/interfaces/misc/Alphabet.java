@@ -0,0 +1,115 @@
+package cse332.interfaces.misc;
+
+/**
+ * A finite alphabet whose letters can be mapped to and from dense integer
+ * ordinals in [0, size()). The ordinals respect the natural ordering of the
+ * letters, so a trie that indexes its children by ordinal visits them in
+ * letter order.
+ *
+ * Tries over a small fixed alphabet (bits, bytes) use the ordinal of a letter
+ * to index an array directly instead of hashing the boxed letter.
+ *
+ * @param <A>
+ *            the type of the letters of the alphabet
+ */
+public abstract class Alphabet<A extends Comparable<A>> {
+    public static final Alphabet<Boolean> BITS = new Alphabet<Boolean>() {
+        @Override
+        public int size() {
+            return 2;
+        }
+
+        @Override
+        public int ordinal(Boolean letter) {
+            return letter ? 1 : 0;
+        }
+
+        @Override
+        public Boolean letter(int ordinal) {
+            return ordinal != 0;
+        }
+    };
+
+    public static final Alphabet<Byte> BYTES = new Alphabet<Byte>() {
+        @Override
+        public int size() {
+            return 256;
+        }
+
+        @Override
+        public int ordinal(Byte letter) {
+            return letter + 128;
+        }
+
+        @Override
+        public Byte letter(int ordinal) {
+            return (byte) (ordinal - 128);
+        }
+    };
+
+    public static final Alphabet<Character> CHARACTERS = new Alphabet<Character>() {
+        @Override
+        public int size() {
+            return Character.MAX_VALUE + 1;
+        }
+
+        @Override
+        public int ordinal(Character letter) {
+            return letter;
+        }
+
+        @Override
+        public Character letter(int ordinal) {
+            return (char) ordinal;
+        }
+    };
+
+    /**
+     * Returns the number of letters in this alphabet.
+     *
+     * @return the number of letters in this alphabet
+     */
+    public abstract int size();
+
+    /**
+     * Returns the ordinal of a letter of this alphabet.
+     *
+     * @param letter
+     *            the letter to look up
+     * @return an integer in [0, size()) that is unique to letter
+     */
+    public abstract int ordinal(A letter);
+
+    /**
+     * Returns the letter with the given ordinal.
+     *
+     * @param ordinal
+     *            an integer in [0, size())
+     * @return the letter l such that ordinal(l) == ordinal
+     */
+    public abstract A letter(int ordinal);
+
+    /**
+     * Returns the alphabet for one of the letter types used by the BString
+     * types in this project.
+     *
+     * @param letterType
+     *            the class of the letters
+     * @return the alphabet of letterType
+     * @throws IllegalArgumentException
+     *             if there is no known alphabet for letterType
+     */
+    @SuppressWarnings("unchecked")
+    public static <A extends Comparable<A>> Alphabet<A> forLetterType(Class<A> letterType) {
+        if (letterType == Boolean.class) {
+            return (Alphabet<A>) BITS;
+        }
+        else if (letterType == Byte.class) {
+            return (Alphabet<A>) BYTES;
+        }
+        else if (letterType == Character.class) {
+            return (Alphabet<A>) CHARACTERS;
+        }
+        throw new IllegalArgumentException("no alphabet for " + letterType.getName());
+    }
+}
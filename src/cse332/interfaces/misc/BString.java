@@ -1,6 +1,6 @@
 package cse332.interfaces.misc;
 
-import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
 import java.util.Iterator;
 
 import cse332.interfaces.worklists.FixedSizeFIFOWorkList;
@@ -9,6 +9,19 @@ import datastructures.worklists.CircularArrayFIFOQueue;
 public abstract class BString<Alphabet extends Comparable<Alphabet>> implements Iterable<Alphabet>, Comparable<BString<Alphabet>> {
     protected FixedSizeFIFOWorkList<Alphabet> str;
 
+    /*
+     * Fingerprints are polynomials in BASE over the letter codes, modulo the
+     * Mersenne prime P, so reducing a product needs no division.
+     */
+    private static final long P = (1L << 61) - 1;
+    private static final long BASE = 0x1C3F0E2D4B5A6978L % P;
+    private static final long UNKNOWN = -1;
+
+    private static volatile long[] powers = { 1 };
+
+    private volatile long fingerprint = UNKNOWN;
+    private volatile long[] prefixes;
+
     public BString(Alphabet[] str) {
         this.str = new CircularArrayFIFOQueue<Alphabet>(str.length);
         for (int i = 0; i < str.length; i++) {
@@ -25,28 +38,34 @@ public abstract class BString<Alphabet extends Comparable<Alphabet>> implements
         return this.str.iterator();
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Returns the letter type of the key type clz.
+     *
+     * @throws IllegalArgumentException
+     *             if clz is not a key type with a known letter type
+     */
     public static <A extends Comparable<A>, X extends BString<A>> Class<A> getLetterType(Class<X> clz) {
-        try {
-            return (Class<A>) clz.getMethod("getLetterType", (Class<?>[]) null)
-                    .invoke(null, (Object[]) null);
-        } catch (IllegalAccessException | IllegalArgumentException
-                | InvocationTargetException | NoSuchMethodException
-                | SecurityException e) {
-            e.printStackTrace();
-            System.err.println(clz.getName() + " does not have a getLetterType() method");
-            System.exit(1);
-
-            /* This is not reachable... */
-            return null;
-        }
-
+        return BStringFactory.<A, X>forKeyType(clz).letterType();
     }
 
     public int size() {
         return this.str.size();
     }
 
+    /**
+     * Returns the ith letter of this string, without an iterator. Views
+     * read it straight out of the storage they wrap.
+     *
+     * @throws IndexOutOfBoundsException
+     *             if i < 0 or i >= size()
+     */
+    public Alphabet letterAt(int i) {
+        if (i < 0 || i >= size()) {
+            throw new IndexOutOfBoundsException();
+        }
+        return this.str.peek(i);
+    }
+
     public final boolean isEmpty() {
         return this.str.size() == 0;
     }
@@ -76,22 +95,153 @@ public abstract class BString<Alphabet extends Comparable<Alphabet>> implements
         return out;
     }
 
+    /**
+     * Returns the index of the first letter at which this string and other
+     * differ, the length of the shorter string if one is a prefix of the
+     * other, or -1 if they are equal, like Arrays.mismatch.
+     *
+     * @throws IllegalArgumentException
+     *             if other is null.
+     */
+    public int mismatch(BString<Alphabet> other) {
+        if (other == null) {
+            throw new IllegalArgumentException();
+        }
+        int length = Math.min(size(), other.size());
+        for (int i = 0; i < length; i++) {
+            if (!this.str.peek(i).equals(other.str.peek(i))) {
+                return i;
+            }
+        }
+        return size() == other.size() ? -1 : length;
+    }
+
+    /**
+     * Returns the polynomial hash of the whole string, a number in
+     * [0, 2^61 - 1). It is computed once and cached.
+     */
+    public long fingerprint() {
+        long fingerprint = this.fingerprint;
+        if (fingerprint == UNKNOWN) {
+            long[] prefixes = this.prefixes;
+            if (prefixes != null) {
+                fingerprint = prefixes[prefixes.length - 1];
+            }
+            else {
+                fingerprint = 0;
+                for (int i = 0, size = size(); i < size; i++) {
+                    fingerprint = add(mul(fingerprint, BASE), code(this.str.peek(i)));
+                }
+            }
+            this.fingerprint = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Returns the polynomial hash of the letters from, ..., to - 1, so that
+     * equal substrings of any two strings have equal fingerprints. The first
+     * call takes time proportional to size() to record the hash of every
+     * prefix; after that each call takes constant time.
+     *
+     * The fingerprints of different substrings collide with probability
+     * about length / 2^61, so a match must still be confirmed when a false
+     * positive matters.
+     *
+     * @throws IndexOutOfBoundsException
+     *             if from < 0, to > size() or from > to
+     */
+    public long fingerprint(int from, int to) {
+        if (from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+        long[] prefixes = this.prefixes;
+        if (prefixes == null) {
+            prefixes = new long[size() + 1];
+            for (int i = 0; i < prefixes.length - 1; i++) {
+                prefixes[i + 1] = add(mul(prefixes[i], BASE), code(this.str.peek(i)));
+            }
+            this.prefixes = prefixes;
+        }
+        return add(prefixes[to], P - mul(prefixes[from], power(to - from)));
+    }
+
     @Override
     public int compareTo(BString<Alphabet> other) {
-        return this.str.compareTo(other.str);
+        int i = mismatch(other);
+        if (i < 0) {
+            return 0;
+        }
+        if (i == size() || i == other.size()) {
+            return Integer.compare(size(), other.size());
+        }
+        return this.str.peek(i).compareTo(other.str.peek(i));
     }
 
     @Override
     public int hashCode() {
-        return this.str.hashCode();
+        long fingerprint = fingerprint();
+        return (int) (fingerprint ^ (fingerprint >>> 32));
     }
 
+    /**
+     * Two strings are equal if they have the same letters. Fingerprints that
+     * are already cached and differ settle it without looking at the
+     * letters.
+     */
     @Override
     @SuppressWarnings("unchecked")
     public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
         if (!(other instanceof BString)) {
             return false;
         }
-        return this.str.equals(((BString<Alphabet>) other).str);
+        BString<Alphabet> that = (BString<Alphabet>) other;
+        if (size() != that.size()) {
+            return false;
+        }
+        long fingerprint = this.fingerprint;
+        long thatFingerprint = that.fingerprint;
+        if (fingerprint != UNKNOWN && thatFingerprint != UNKNOWN && fingerprint != thatFingerprint) {
+            return false;
+        }
+        return mismatch(that) < 0;
+    }
+
+    private static long code(Object letter) {
+        return (letter.hashCode() & 0xFFFFFFFFL) + 1;
+    }
+
+    private static long add(long a, long b) {
+        long sum = a + b;
+        return sum >= P ? sum - P : sum;
+    }
+
+    private static long mul(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        long sum = (low & P) + ((low >>> 61) | (high << 3));
+        sum = (sum & P) + (sum >>> 61);
+        return sum >= P ? sum - P : sum;
+    }
+
+    private static long power(int n) {
+        long[] table = powers;
+        if (n >= table.length) {
+            synchronized (BString.class) {
+                table = powers;
+                if (n >= table.length) {
+                    int length = table.length;
+                    table = Arrays.copyOf(table, Math.max(n + 1, 2 * length));
+                    for (int i = length; i < table.length; i++) {
+                        table[i] = mul(table[i - 1], BASE);
+                    }
+                    powers = table;
+                }
+            }
+        }
+        return table[n];
     }
 }
@@ -0,0 +1,115 @@
+package cse332.interfaces.misc;
+
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import cse332.interfaces.worklists.FixedSizeFIFOWorkList;
+import cse332.types.AlphabeticString;
+import cse332.types.BitString;
+import cse332.types.ByteString;
+import cse332.types.PackedBitString;
+import datastructures.worklists.ArraySliceWorkList;
+
+/**
+ * Builds the keys of one BString type, so that a trie can turn the letters
+ * it has collected into a key without reflection. Each key type in this
+ * project supplies one as its FACTORY constant.
+ *
+ * @param <A>
+ *            the type of the letters
+ * @param <K>
+ *            the type of the keys
+ */
+public interface BStringFactory<A extends Comparable<A>, K extends BString<A>> {
+    /**
+     * Returns the class of the keys.
+     */
+    Class<K> keyType();
+
+    /**
+     * Returns the class of the letters.
+     */
+    Class<A> letterType();
+
+    /**
+     * Returns a new array of letters of the given length.
+     */
+    A[] newLetters(int length);
+
+    /**
+     * Returns the key made of letters[0], ..., letters[length - 1]. The key
+     * may be a view of letters rather than a copy, so letters must not change
+     * afterwards.
+     */
+    K keyOf(A[] letters, int length);
+
+    /**
+     * Returns the key made of all of letters, which must not change
+     * afterwards.
+     */
+    default K keyOf(A[] letters) {
+        return keyOf(letters, letters.length);
+    }
+
+    /**
+     * Returns a factory that builds each key by passing a FixedSizeFIFOWorkList
+     * view of the letters to fromLetters, which is usually a constructor
+     * reference such as AlphabeticString::new, and builds arrays of letters
+     * with newLetters, such as Character[]::new.
+     */
+    static <A extends Comparable<A>, K extends BString<A>> BStringFactory<A, K> of(Class<K> keyType,
+            Class<A> letterType, IntFunction<A[]> newLetters, Function<FixedSizeFIFOWorkList<A>, K> fromLetters) {
+        return new BStringFactory<A, K>() {
+            @Override
+            public Class<K> keyType() {
+                return keyType;
+            }
+
+            @Override
+            public Class<A> letterType() {
+                return letterType;
+            }
+
+            @Override
+            public A[] newLetters(int length) {
+                return newLetters.apply(length);
+            }
+
+            @Override
+            public K keyOf(A[] letters, int length) {
+                return fromLetters.apply(new ArraySliceWorkList<A>(letters, 0, length));
+            }
+        };
+    }
+
+    /**
+     * Returns the factory of one of the key types of this project without
+     * reflection. For any other key type, returns a factory that looks up
+     * its static getLetterType() method and a constructor that takes a
+     * FixedSizeFIFOWorkList or an array of letters, once, the first time it
+     * is needed.
+     *
+     * @throws IllegalArgumentException
+     *             if keyType is null, or (when the factory is first used) if
+     *             keyType has neither the method nor either constructor.
+     */
+    @SuppressWarnings("unchecked")
+    static <A extends Comparable<A>, K extends BString<A>> BStringFactory<A, K> forKeyType(Class<K> keyType) {
+        if (keyType == null) {
+            throw new IllegalArgumentException();
+        }
+        if (keyType == AlphabeticString.class) {
+            return (BStringFactory<A, K>) AlphabeticString.FACTORY;
+        }
+        else if (keyType == ByteString.class) {
+            return (BStringFactory<A, K>) ByteString.FACTORY;
+        }
+        else if (keyType == BitString.class) {
+            return (BStringFactory<A, K>) BitString.FACTORY;
+        }
+        else if (keyType == PackedBitString.class) {
+            return (BStringFactory<A, K>) PackedBitString.FACTORY;
+        }
+        return new ReflectiveBStringFactory<>(keyType);
+    }
+}
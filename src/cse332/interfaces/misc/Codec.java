@@ -0,0 +1,47 @@
+package cse332.interfaces.misc;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts values to and from bytes, for the dictionaries that can be saved
+ * to a file.
+ *
+ * @param <V>
+ *            the type of the values
+ */
+public interface Codec<V> {
+    Codec<String> STRINGS = new Codec<String>() {
+        @Override
+        public byte[] encode(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(ByteBuffer bytes) {
+            return StandardCharsets.UTF_8.decode(bytes).toString();
+        }
+    };
+
+    Codec<Integer> INTEGERS = new Codec<Integer>() {
+        @Override
+        public byte[] encode(Integer value) {
+            return ByteBuffer.allocate(4).putInt(value).array();
+        }
+
+        @Override
+        public Integer decode(ByteBuffer bytes) {
+            return bytes.getInt();
+        }
+    };
+
+    /**
+     * Returns the bytes that represent value.
+     */
+    byte[] encode(V value);
+
+    /**
+     * Returns the value represented by the remaining bytes of bytes.
+     */
+    V decode(ByteBuffer bytes);
+}
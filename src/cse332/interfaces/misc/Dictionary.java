@@ -1,6 +1,14 @@
 package cse332.interfaces.misc;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import cse332.datastructures.containers.Item;
 
@@ -59,6 +67,120 @@ public abstract class Dictionary<K, V> implements Iterable<Item<K, V>> {
      */
     public abstract void delete(K key);
 
+    /**
+     * Associates value with key unless key is already mapped.
+     *
+     * This implementation calls find and then insert. Implementations that
+     * can do it in one traversal should override it.
+     *
+     * @param key
+     *            key with which the specified value is to be associated
+     * @param value
+     *            value to be associated with the specified key
+     * @return the value already associated with <tt>key</tt>, or
+     *         <tt>null</tt> if there was none (in which case value is now
+     *         associated with key).
+     * @throws IllegalArgumentException
+     *             if either key or value is null.
+     */
+    public V putIfAbsent(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException();
+        }
+        V oldValue = find(key);
+        if (oldValue == null) {
+            insert(key, value);
+        }
+        return oldValue;
+    }
+
+    /**
+     * If key is not mapped, associates it with mapping(key), unless that is
+     * null.
+     *
+     * This implementation calls find and then insert. Implementations that
+     * can do it in one traversal should override it.
+     *
+     * @param key
+     *            key with which the computed value is to be associated
+     * @param mapping
+     *            the function that computes the value
+     * @return the value now associated with <tt>key</tt>, or <tt>null</tt>
+     *         if there is none
+     * @throws IllegalArgumentException
+     *             if either key or mapping is null.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mapping) {
+        if (key == null || mapping == null) {
+            throw new IllegalArgumentException();
+        }
+        V value = find(key);
+        if (value == null) {
+            value = mapping.apply(key);
+            if (value != null) {
+                insert(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Associates key with remapping(key, old value), where the old value is
+     * null if key is not mapped. If the new value is null, the mapping for
+     * key is removed.
+     *
+     * This implementation calls find and then insert or delete.
+     * Implementations that can do it in one traversal should override it.
+     *
+     * @param key
+     *            key with which the computed value is to be associated
+     * @param remapping
+     *            the function that computes the value
+     * @return the value now associated with <tt>key</tt>, or <tt>null</tt>
+     *         if there is none
+     * @throws IllegalArgumentException
+     *             if either key or remapping is null.
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        if (key == null || remapping == null) {
+            throw new IllegalArgumentException();
+        }
+        V oldValue = find(key);
+        V value = remapping.apply(key, oldValue);
+        if (value != null) {
+            insert(key, value);
+        }
+        else if (oldValue != null) {
+            delete(key);
+        }
+        return value;
+    }
+
+    /**
+     * Associates key with value if key is not mapped, and otherwise with
+     * remapping(old value, value). If that is null, the mapping for key is
+     * removed. This is the usual way to count: merge(word, 1, Integer::sum).
+     *
+     * This implementation calls compute.
+     *
+     * @param key
+     *            key with which the resulting value is to be associated
+     * @param value
+     *            the value to use if key is not mapped
+     * @param remapping
+     *            the function that combines the old value and value
+     * @return the value now associated with <tt>key</tt>, or <tt>null</tt>
+     *         if there is none
+     * @throws IllegalArgumentException
+     *             if key, value or remapping is null.
+     */
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remapping) {
+        if (key == null || value == null || remapping == null) {
+            throw new IllegalArgumentException();
+        }
+        return compute(key, (k, oldValue) -> oldValue == null ? value : remapping.apply(oldValue, value));
+    }
+
     /**
      * Resets the state of this map to be the same as if the constructor were
      * just called.
@@ -89,6 +211,100 @@ public abstract class Dictionary<K, V> implements Iterable<Item<K, V>> {
     @Override
     public abstract Iterator<Item<K, V>> iterator();
 
+    /**
+     * Returns a cursor over the mappings of this map, in iterator() order. By
+     * default, it keeps the Items of iterator(); maps that can walk their
+     * structure without building an Item for every mapping should override
+     * it.
+     *
+     * @return a cursor before the first mapping of this map
+     */
+    public DictionaryCursor<K, V> cursor() {
+        return new IteratorCursor();
+    }
+
+    /**
+     * Performs action on the key and value of every mapping in this map, in
+     * iterator() order, by moving a single cursor().
+     *
+     * @param action
+     *            the action to perform on each mapping
+     * @throws IllegalArgumentException
+     *             if action is null.
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (action == null) {
+            throw new IllegalArgumentException();
+        }
+        DictionaryCursor<K, V> cursor = cursor();
+        while (cursor.advance()) {
+            action.accept(cursor.key(), cursor.value());
+        }
+    }
+
+    private class IteratorCursor implements DictionaryCursor<K, V> {
+        private Iterator<Item<K, V>> items = iterator();
+        private Item<K, V> current;
+
+        @Override
+        public boolean advance() {
+            this.current = this.items.hasNext() ? this.items.next() : null;
+            return this.current != null;
+        }
+
+        @Override
+        public K key() {
+            return current().key;
+        }
+
+        @Override
+        public V value() {
+            return current().value;
+        }
+
+        @Override
+        public void reset() {
+            this.items = iterator();
+            this.current = null;
+        }
+
+        private Item<K, V> current() {
+            if (this.current == null) {
+                throw new NoSuchElementException();
+            }
+            return this.current;
+        }
+    }
+
+    /**
+     * A spliterator over the mappings of the map. By default, this splits by
+     * copying batches out of iterator(); maps that can split their structure
+     * directly should override it.
+     */
+    @Override
+    public Spliterator<Item<K, V>> spliterator() {
+        return Spliterators.spliterator(iterator(), size(), Spliterator.NONNULL);
+    }
+
+    /**
+     * Returns a sequential stream over the mappings in this map.
+     *
+     * @return a sequential stream over the mappings in this map
+     */
+    public Stream<Item<K, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream over the mappings in this map. How well it
+     * scales depends on how evenly spliterator() splits the map.
+     *
+     * @return a possibly parallel stream over the mappings in this map
+     */
+    public Stream<Item<K, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     @Override
     public String toString() {
         StringBuilder result = new StringBuilder();
@@ -0,0 +1,48 @@
+package cse332.interfaces.misc;
+
+/**
+ * A cursor over the mappings of a Dictionary, in the order of its iterator.
+ * Unlike an iterator, a cursor does not hand out a new Item for every
+ * mapping: advance() moves it, and key() and value() read the mapping it is
+ * on. It can be rewound with reset() and used again.
+ *
+ * Like an iterator, a cursor must not be advanced across changes to the
+ * dictionary. reset() starts a new walk, which sees every change made before
+ * it, unless the dictionary says otherwise.
+ *
+ * @param <K>
+ *            the type of the keys
+ * @param <V>
+ *            the type of the values
+ */
+public interface DictionaryCursor<K, V> {
+    /**
+     * Moves to the next mapping.
+     *
+     * @return true if there was one, false if the cursor is past the last
+     *         mapping
+     */
+    boolean advance();
+
+    /**
+     * Returns the key of the current mapping.
+     *
+     * @throws java.util.NoSuchElementException
+     *             if the cursor is not on a mapping
+     */
+    K key();
+
+    /**
+     * Returns the value of the current mapping.
+     *
+     * @throws java.util.NoSuchElementException
+     *             if the cursor is not on a mapping
+     */
+    V value();
+
+    /**
+     * Moves the cursor back before the first mapping of the dictionary as it
+     * is now.
+     */
+    void reset();
+}
@@ -0,0 +1,96 @@
+package cse332.interfaces.misc;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+import cse332.interfaces.worklists.FixedSizeFIFOWorkList;
+import datastructures.worklists.ArraySliceWorkList;
+
+/**
+ * The BStringFactory for key types that do not supply one. It finds what it
+ * needs by reflection the first time it is used and caches it.
+ */
+final class ReflectiveBStringFactory<A extends Comparable<A>, K extends BString<A>> implements BStringFactory<A, K> {
+    private final Class<K> keyType;
+    private volatile Class<A> letterType;
+    private volatile Constructor<K> constructor;
+
+    /**
+     * Whether constructor takes a FixedSizeFIFOWorkList rather than an array
+     * of letters. It is written before constructor is published.
+     */
+    private boolean fromWorkList;
+
+    ReflectiveBStringFactory(Class<K> keyType) {
+        this.keyType = keyType;
+    }
+
+    @Override
+    public Class<K> keyType() {
+        return this.keyType;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Class<A> letterType() {
+        Class<A> letterType = this.letterType;
+        if (letterType == null) {
+            try {
+                letterType = (Class<A>) this.keyType.getMethod("getLetterType").invoke(null);
+            } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException
+                    | SecurityException | NullPointerException e) {
+                throw new IllegalArgumentException(this.keyType.getName() + " does not have a getLetterType() method", e);
+            }
+            this.letterType = letterType;
+        }
+        return letterType;
+    }
+
+    @Override
+    public K keyOf(A[] letters, int length) {
+        Constructor<K> constructor = constructor();
+        try {
+            if (this.fromWorkList) {
+                return constructor.newInstance(new ArraySliceWorkList<A>(letters, 0, length));
+            }
+            A[] copy = letters;
+            if (length != letters.length) {
+                copy = newLetters(length);
+                System.arraycopy(letters, 0, copy, 0, length);
+            }
+            return constructor.newInstance((Object) copy);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("can not build a " + this.keyType.getName(), e);
+        }
+    }
+
+    private Constructor<K> constructor() {
+        Constructor<K> constructor = this.constructor;
+        if (constructor == null) {
+            synchronized (this) {
+                constructor = this.constructor;
+                if (constructor == null) {
+                    try {
+                        constructor = this.keyType.getConstructor(FixedSizeFIFOWorkList.class);
+                        this.fromWorkList = true;
+                    } catch (NoSuchMethodException e) {
+                        try {
+                            constructor = this.keyType.getConstructor(newLetters(0).getClass());
+                        } catch (NoSuchMethodException f) {
+                            throw new IllegalArgumentException(this.keyType.getName() + " has no constructor for letters", f);
+                        }
+                    }
+                    this.constructor = constructor;
+                }
+            }
+        }
+        return constructor;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public A[] newLetters(int length) {
+        return (A[]) Array.newInstance(letterType(), length);
+    }
+}
@@ -1,6 +1,10 @@
 package cse332.interfaces.misc;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import cse332.datastructures.containers.Item;
 
@@ -54,6 +58,79 @@ public abstract class Set<E> implements Iterable<E> {
         }
     }
 
+    /**
+     * Walks the keys of the backing map with its forEach, without a
+     * SetIterator or an Item for each element.
+     */
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        if (action == null) {
+            throw new IllegalArgumentException();
+        }
+        this.map.forEach((e, present) -> action.accept(e));
+    }
+
+    /**
+     * Splits the same way as the spliterator of the backing map.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new KeySpliterator<>(this.map.spliterator());
+    }
+
+    /**
+     * Returns a sequential stream over the elements of this set.
+     *
+     * @return a sequential stream over the elements of this set
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream over the elements of this set. How well it
+     * scales depends on how evenly spliterator() splits the backing map.
+     *
+     * @return a possibly parallel stream over the elements of this set
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    private static class KeySpliterator<E> implements Spliterator<E> {
+        private final Spliterator<Item<E, Boolean>> items;
+
+        public KeySpliterator(Spliterator<Item<E, Boolean>> items) {
+            this.items = items;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            return this.items.tryAdvance(item -> action.accept(item.key));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            this.items.forEachRemaining(item -> action.accept(item.key));
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            Spliterator<Item<E, Boolean>> prefix = this.items.trySplit();
+            return prefix == null ? null : new KeySpliterator<>(prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.items.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return (this.items.characteristics() & ~Spliterator.SORTED) | Spliterator.DISTINCT;
+        }
+    }
+
     public void clear() {
         this.map.clear();
     }
@@ -0,0 +1,36 @@
+package cse332.interfaces.trie;
+
+import cse332.interfaces.misc.BString;
+import cse332.interfaces.misc.DictionaryCursor;
+
+/**
+ * A DictionaryCursor over a TrieMap. The letters of the current key can be
+ * read in place with length() and letterAt(i), without building the key;
+ * key() builds it the first time it is asked for at each mapping.
+ *
+ * @param <A>
+ *            the type of the letters
+ * @param <K>
+ *            the type of the keys
+ * @param <V>
+ *            the type of the values
+ */
+public interface TrieCursor<A extends Comparable<A>, K extends BString<A>, V> extends DictionaryCursor<K, V> {
+    /**
+     * Returns the number of letters in the current key.
+     *
+     * @throws java.util.NoSuchElementException
+     *             if the cursor is not on a mapping
+     */
+    int length();
+
+    /**
+     * Returns the ith letter of the current key.
+     *
+     * @throws java.util.NoSuchElementException
+     *             if the cursor is not on a mapping
+     * @throws IndexOutOfBoundsException
+     *             if i < 0 or i >= length()
+     */
+    A letterAt(int i);
+}
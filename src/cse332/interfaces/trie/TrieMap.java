@@ -1,12 +1,23 @@
 package cse332.interfaces.trie;
 
-import java.lang.reflect.Array;
-import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 import cse332.datastructures.containers.Item;
 import cse332.interfaces.misc.BString;
+import cse332.interfaces.misc.BStringFactory;
 import cse332.interfaces.misc.Dictionary;
 import cse332.interfaces.misc.SimpleIterator;
 import cse332.interfaces.worklists.LIFOWorkList;
@@ -35,10 +46,15 @@ public abstract class TrieMap<A extends Comparable<A>, K extends BString<A>, V>
 
     /**
      * This variable is a hack to get the type of the key at runtime. It is
-     * initialized when the first key is inserted or removed from the map.
+     * set by the constructor, from the key class or from keyFactory.
      */
     protected Class<K> KClass;
 
+    /**
+     * Builds the keys this map hands out, and knows their letter type.
+     */
+    protected BStringFactory<A, K> keyFactory;
+
     /**
      * The constructor for the TrieMap class must take an instance of the key
      * class. Such a variable looks like <class name>.class and is necessary
@@ -52,6 +68,24 @@ public abstract class TrieMap<A extends Comparable<A>, K extends BString<A>, V>
      */
     public TrieMap(Class<K> KClass) {
         this.KClass = KClass;
+        this.keyFactory = KClass == null ? null : BStringFactory.forKeyType(KClass);
+    }
+
+    /**
+     * Creates a TrieMap that builds its keys with keyFactory, so that it
+     * never needs reflection.
+     *
+     * @param keyFactory
+     *            the factory of the key type
+     * @throws IllegalArgumentException
+     *             if keyFactory is null
+     */
+    public TrieMap(BStringFactory<A, K> keyFactory) {
+        if (keyFactory == null) {
+            throw new IllegalArgumentException();
+        }
+        this.KClass = keyFactory.keyType();
+        this.keyFactory = keyFactory;
     }
 
     /**
@@ -83,6 +117,94 @@ public abstract class TrieMap<A extends Comparable<A>, K extends BString<A>, V>
         public PType pointers;
         public V value;
 
+        /**
+         * Returns the number of letters on the edge leading into this node.
+         * In an uncompressed trie every edge is labelled by exactly the one
+         * letter that the parent maps this node under.
+         *
+         * @return the length of the edge label of this node
+         */
+        protected int edgeLength() {
+            return 1;
+        }
+
+        /**
+         * Returns the ith letter on the edge leading into this node, for
+         * 0 < i < edgeLength(). (The 0th letter is the one that the parent
+         * maps this node under.)
+         *
+         * @param i
+         *            the index of the letter on the edge
+         * @return the ith letter of the edge label of this node
+         */
+        protected A edgeLetter(int i) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        /**
+         * Returns the child that this node maps letter to, or null if there is
+         * none. Subclasses should override this with a direct lookup; the
+         * default implementation scans the children.
+         *
+         * @param letter
+         *            the first letter of the edge to the child
+         * @return the child reached by letter
+         */
+        protected X child(A letter) {
+            for (Entry<A, X> entry : this) {
+                if (entry.getKey().equals(letter)) {
+                    return entry.getValue();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Performs action on the first letter of the edge to each child and
+         * the child, in iterator() order. The default implementation uses
+         * iterator(); implementations that can visit their children without
+         * allocating should override it.
+         *
+         * @param action
+         *            the action to perform on each child
+         */
+        protected void forEachChild(BiConsumer<? super A, ? super X> action) {
+            for (Entry<A, X> entry : this) {
+                action.accept(entry.getKey(), entry.getValue());
+            }
+        }
+
+        /**
+         * Returns the number of keys in the subtree rooted at this node. The
+         * default implementation walks the subtree; implementations that keep
+         * a count in every node should return it instead.
+         *
+         * @return the number of values in this subtree
+         */
+        protected int subtreeSize() {
+            int count = this.value != null ? 1 : 0;
+            for (Entry<A, X> entry : this) {
+                if (entry.getValue() != null) {
+                    count += entry.getValue().subtreeSize();
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Returns the greatest value (according to ranking) in the subtree
+         * rooted at this node, if the implementation keeps that value in every
+         * node for this particular ranking. Otherwise, returns null.
+         *
+         * @param ranking
+         *            the order in which values are ranked
+         * @return the best value in this subtree, or null if it is not known
+         *         without searching the subtree
+         */
+        protected V subtreeBest(Comparator<? super V> ranking) {
+            return null;
+        }
+
         @Override
         public String toString() {
             StringBuilder b = new StringBuilder();
@@ -122,7 +244,11 @@ public abstract class TrieMap<A extends Comparable<A>, K extends BString<A>, V>
                 }
 
                 V value = node.value;
-                s.append(spaces(indent) + idx + (value != null ? "[" + value + "]" : ""));
+                s.append(spaces(indent) + idx);
+                for (int i = 1; i < node.edgeLength(); i++) {
+                    s.append(node.edgeLetter(i));
+                }
+                s.append(value != null ? "[" + value + "]" : "");
                 s.append("-> {\n");
                 boolean bc = node.toString(s, indent + 2);
                 if (!bc) {
@@ -140,6 +266,15 @@ public abstract class TrieMap<A extends Comparable<A>, K extends BString<A>, V>
         }
     }
 
+    /**
+     * Returns the child in entry, which came from the iterator of a
+     * TrieNode, as a TrieNode.
+     */
+    @SuppressWarnings("unchecked")
+    private TrieNode<?, ?> childOf(Entry<A, ?> entry) {
+        return (TrieNode<?, ?>) entry.getValue();
+    }
+
     /**
      * Removes the mapping for the specified key from this map if present.
      *
@@ -152,56 +287,356 @@ public abstract class TrieMap<A extends Comparable<A>, K extends BString<A>, V>
         delete(keyFromLetters(key));
     }
 
-    private class TrieMapIterator extends SimpleIterator<Item<K, V>> {
-        private final WorkList<K> keys;
+    /**
+     * Inserts every mapping of items into this map, in order, as if by
+     * insert. If a key occurs more than once, its last value wins.
+     * Implementations that can build many keys at once faster than one at a
+     * time may override this.
+     *
+     * @param items
+     *            the mappings to insert
+     * @throws IllegalArgumentException
+     *             if items, or any key or value in it, is null.
+     */
+    public void bulkLoad(Iterable<Item<K, V>> items) {
+        if (items == null) {
+            throw new IllegalArgumentException();
+        }
+        for (Item<K, V> item : items) {
+            insert(item.key, item.value);
+        }
+    }
 
-        public TrieMapIterator() {
-            this.keys = new ListFIFOQueue<>();
-            initialize(new ArrayStack<A>(), TrieMap.this.root);
+    /**
+     * Merges every mapping of other into this map. A key that is only in
+     * other is inserted with its value from other; a key that is in both is
+     * mapped to combine(this value, other value), or removed if that is null.
+     * Keys that are only in this map are left alone.
+     *
+     * This implementation inserts the mappings of other one at a time.
+     * Implementations that can walk both tries at once should override it.
+     *
+     * @param other
+     *            the map whose mappings to merge into this map
+     * @param combine
+     *            the function that picks the value of a key that is in both
+     * @throws IllegalArgumentException
+     *             if other or combine is null.
+     */
+    public void merge(TrieMap<A, K, V> other, BiFunction<? super V, ? super V, ? extends V> combine) {
+        if (other == null || combine == null) {
+            throw new IllegalArgumentException();
+        }
+        // copy first, since other may be this map
+        List<Item<K, V>> items = new ArrayList<>(other.size());
+        for (Item<K, V> item : other) {
+            items.add(item);
         }
+        for (Item<K, V> item : items) {
+            V oldValue = find(item.key);
+            V value = oldValue == null ? item.value : combine.apply(oldValue, item.value);
+            if (value == null) {
+                delete(item.key);
+            }
+            else {
+                insert(item.key, value);
+            }
+        }
+    }
 
-        @SuppressWarnings("unchecked")
-        protected K makeKeyFromLIFOWorkList(LIFOWorkList<A> list) {
-            A[] letters = (A[]) Array
-                    .newInstance(BString.getLetterType(TrieMap.this.KClass), list.size());
+    /**
+     * Removes every mapping of this map whose key is not in other.
+     *
+     * This implementation probes other once per key of this map.
+     * Implementations that can walk both tries at once should override it.
+     *
+     * @param other
+     *            the map whose keys to keep
+     * @throws IllegalArgumentException
+     *             if other is null.
+     */
+    public void intersect(TrieMap<A, K, ?> other) {
+        if (other == null) {
+            throw new IllegalArgumentException();
+        }
+        List<K> removed = new ArrayList<>();
+        for (Item<K, V> item : this) {
+            if (other.find(item.key) == null) {
+                removed.add(item.key);
+            }
+        }
+        for (K key : removed) {
+            delete(key);
+        }
+    }
 
-            int i = letters.length - 1;
-            while (list.hasWork()) {
-                letters[i--] = list.next();
+    /**
+     * Removes every mapping of this map whose key is in other.
+     *
+     * This implementation deletes the keys of other one at a time.
+     * Implementations that can walk both tries at once should override it.
+     *
+     * @param other
+     *            the map whose keys to remove
+     * @throws IllegalArgumentException
+     *             if other is null.
+     */
+    public void subtract(TrieMap<A, K, ?> other) {
+        if (other == null) {
+            throw new IllegalArgumentException();
+        }
+        List<K> removed = new ArrayList<>(other.size());
+        for (Item<K, ?> item : other) {
+            removed.add(item.key);
+        }
+        for (K key : removed) {
+            delete(key);
+        }
+    }
+
+    /**
+     * Removes every mapping whose key starts with prefix.
+     *
+     * This implementation deletes the keys below prefix one at a time.
+     * Implementations that keep subtree sizes should override it to detach
+     * the whole subtree at once.
+     *
+     * @param prefix
+     *            the prefix of the keys to remove
+     * @return the number of mappings removed
+     * @throws IllegalArgumentException
+     *             if prefix is null.
+     */
+    public int deletePrefix(K prefix) {
+        List<K> removed = new ArrayList<>();
+        Iterator<Item<K, V>> items = prefixIterator(prefix);
+        while (items.hasNext()) {
+            removed.add(items.next().key);
+        }
+        for (K key : removed) {
+            delete(key);
+        }
+        return removed.size();
+    }
+
+    /**
+     * Replaces the mappings whose keys start with prefix by the mappings of
+     * other, with prefix put in front of their keys. Afterwards, prefix + key
+     * maps to value in this map exactly when key maps to value in other.
+     * Keys that do not start with prefix are left alone, and other is left
+     * unchanged.
+     *
+     * This implementation calls deletePrefix and then inserts the mappings
+     * of other one at a time. Implementations should override it to copy
+     * the subtree at once where they can.
+     *
+     * @param prefix
+     *            the prefix of the keys to replace
+     * @param other
+     *            the mappings to put below prefix
+     * @throws IllegalArgumentException
+     *             if prefix or other is null.
+     */
+    public void replaceSubtree(K prefix, TrieMap<A, K, V> other) {
+        if (prefix == null || other == null) {
+            throw new IllegalArgumentException();
+        }
+        // copy first, since other may be this map
+        List<Item<K, V>> items = new ArrayList<>(other.size());
+        for (Item<K, V> item : other) {
+            items.add(item);
+        }
+        deletePrefix(prefix);
+
+        Path path = new Path();
+        for (A letter : prefix) {
+            path.append(letter);
+        }
+        int length = path.length;
+        for (Item<K, V> item : items) {
+            path.length = length;
+            for (A letter : item.key) {
+                path.append(letter);
+            }
+            insert(keyFromLetters(path.toLetters()), item.value);
+        }
+    }
+
+    /**
+     * A growable buffer holding the letters on a path from the root.
+     */
+    private class Path {
+        private A[] letters;
+        private int length;
+
+        public Path() {
+            this.letters = newLetters(16);
+            this.length = 0;
+        }
+
+        public Path(Path other) {
+            this.letters = Arrays.copyOf(other.letters, other.letters.length);
+            this.length = other.length;
+        }
+
+        public void append(A letter) {
+            if (this.length == this.letters.length) {
+                this.letters = Arrays.copyOf(this.letters, 2 * this.letters.length);
             }
+            this.letters[this.length++] = letter;
+        }
 
-            for (i = 0; i < letters.length; i++) {
-                list.add(letters[i]);
+        public void append(TrieNode<?, ?> child, A first) {
+            append(first);
+            for (int i = 1; i < child.edgeLength(); i++) {
+                append(child.edgeLetter(i));
             }
+        }
 
-            return keyFromLetters(letters);
+        public A[] toLetters() {
+            return Arrays.copyOf(this.letters, this.length);
         }
+    }
 
-        @SuppressWarnings("unchecked")
-        private void initialize(LIFOWorkList<A> acc, TrieNode<?, ?> current) {
-            if (current != null) {
-                if (current.value != null) {
-                    this.keys.add(makeKeyFromLIFOWorkList(acc));
+    /**
+     * Returns a new array of letters whose runtime type is the letter type of
+     * the keys of this map.
+     *
+     * @param length
+     *            the length of the array
+     * @return a new A[] of the given length
+     */
+    protected A[] newLetters(int length) {
+        return this.keyFactory.newLetters(length);
+    }
+
+    /**
+     * Walks down the trie along the letters of prefix and returns the node at
+     * which the walk ends, appending the letters of the path to path. If
+     * prefix ends part of the way along an edge, the walk continues to the
+     * end of that edge, since every key below the edge starts with all of its
+     * letters.
+     *
+     * @return the node whose subtree holds exactly the keys that start with
+     *         prefix, or null if there is no such key.
+     */
+    private TrieNode<?, ?> descend(K prefix, Path path) {
+        if (prefix == null) {
+            throw new IllegalArgumentException();
+        }
+        TrieNode<?, ?> current = this.root;
+        Iterator<A> letters = prefix.iterator();
+        while (current != null && letters.hasNext()) {
+            A letter = letters.next();
+            TrieNode<?, ?> child = current.child(letter);
+            if (child == null) {
+                return null;
+            }
+            path.append(letter);
+            for (int i = 1; i < child.edgeLength(); i++) {
+                A edgeLetter = child.edgeLetter(i);
+                if (letters.hasNext() && !letters.next().equals(edgeLetter)) {
+                    return null;
                 }
-                for (Entry<A, ?> entry : current) {
-                    if (entry != null) {
-                        acc.add(entry.getKey());
-                        initialize(acc, (TrieNode<?, ?>) entry.getValue());
-                        acc.next();
-                    }
+                path.append(edgeLetter);
+            }
+            current = child;
+        }
+        return current;
+    }
+
+    /**
+     * A lazy depth-first iterator over the mappings of a subtree of the trie.
+     * It keeps an explicit stack with one cursor (an iterator over the
+     * children) per node on the path to the current node, and a single buffer
+     * with the letters of that path. A key object is only built when its
+     * mapping is returned, and the value is read straight out of the node.
+     *
+     * Like the iterators of java.util, this iterator is not guaranteed to
+     * behave sensibly if the map is modified while it is in use.
+     */
+    private class TrieMapIterator extends SimpleIterator<Item<K, V>> {
+        private final LIFOWorkList<Cursor> cursors;
+        private final Path path;
+
+        private TrieNode<?, ?> next;
+        private boolean advanced;
+
+        private class Cursor {
+            private final Iterator<? extends Entry<A, ?>> children;
+            private final int depth;
+
+            public Cursor(TrieNode<?, ?> node, int depth) {
+                this.children = node.iterator();
+                this.depth = depth;
+            }
+        }
+
+        public TrieMapIterator() {
+            this(TrieMap.this.root, new Path());
+        }
+
+        /**
+         * Iterates over the subtree rooted at start, where path holds the
+         * letters on the way from the root to start.
+         */
+        public TrieMapIterator(TrieNode<?, ?> start, Path path) {
+            this.cursors = new ArrayStack<>();
+            this.path = path;
+            if (start != null) {
+                this.cursors.add(new Cursor(start, path.length));
+                this.next = start.value != null ? start : null;
+                this.advanced = this.next != null;
+            }
+            else {
+                this.advanced = true;
+            }
+        }
+
+        /**
+         * Moves to the next node (in depth-first order) that has a value.
+         */
+        private void advance() {
+            this.next = null;
+            while (this.cursors.hasWork()) {
+                Cursor top = this.cursors.peek();
+                if (!top.children.hasNext()) {
+                    this.cursors.next();
+                    continue;
+                }
+                Entry<A, ?> entry = top.children.next();
+                TrieNode<?, ?> child = childOf(entry);
+                if (child == null) {
+                    continue;
+                }
+
+                this.path.length = top.depth;
+                this.path.append(child, entry.getKey());
+                this.cursors.add(new Cursor(child, this.path.length));
+
+                if (child.value != null) {
+                    this.next = child;
+                    return;
                 }
             }
         }
 
         @Override
         public Item<K, V> next() {
-            K key = this.keys.next();
-            return new Item<K, V>(key, find(key));
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.advanced = false;
+            return new Item<K, V>(keyFromLetters(this.path.toLetters()), this.next.value);
         }
 
         @Override
         public boolean hasNext() {
-            return this.keys.hasWork();
+            if (!this.advanced) {
+                advance();
+                this.advanced = true;
+            }
+            return this.next != null;
         }
     }
 
@@ -211,20 +646,597 @@ public abstract class TrieMap<A extends Comparable<A>, K extends BString<A>, V>
     }
 
     /**
-     * Returns a new key instance from an array of letters instances
+     * Walks the trie in iterator() order with one letter buffer and one stack
+     * of pending children, both reused for the whole walk and after reset().
+     * Nodes hand their children to the stack through forEachChild, so for
+     * nodes that override it (like those of HashTrieMap) moving to the next
+     * mapping allocates nothing, and a key is only built when key() asks
+     * for one. reset() starts over from the current root.
+     */
+    private class TrieMapCursor implements TrieCursor<A, K, V> {
+        private final Path path = new Path();
+        private TrieNode<?, ?> start;
+        private final BiConsumer<A, TrieNode<?, ?>> pusher = this::push;
+
+        // the stack of children still to visit, and the length of the path
+        // to each of their parents
+        private Object[] letters;
+        private Object[] nodes;
+        private int[] depths;
+        private int top;
+        private int pushDepth;
+
+        private boolean started;
+        private TrieNode<?, ?> current;
+        private K key;
+
+        public TrieMapCursor() {
+            this.start = TrieMap.this.root;
+            this.letters = new Object[16];
+            this.nodes = new Object[16];
+            this.depths = new int[16];
+        }
+
+        private void push(A letter, TrieNode<?, ?> child) {
+            if (child == null) {
+                return;
+            }
+            if (this.top == this.nodes.length) {
+                this.letters = Arrays.copyOf(this.letters, 2 * this.top);
+                this.nodes = Arrays.copyOf(this.nodes, 2 * this.top);
+                this.depths = Arrays.copyOf(this.depths, 2 * this.top);
+            }
+            this.letters[this.top] = letter;
+            this.nodes[this.top] = child;
+            this.depths[this.top] = this.pushDepth;
+            this.top++;
+        }
+
+        /**
+         * Pushes the children of node so that the first one is on top.
+         */
+        private void expand(TrieNode<?, ?> node, int depth) {
+            int from = this.top;
+            this.pushDepth = depth;
+            node.forEachChild(this.pusher);
+            for (int i = from, j = this.top - 1; i < j; i++, j--) {
+                Object letter = this.letters[i];
+                this.letters[i] = this.letters[j];
+                this.letters[j] = letter;
+                Object child = this.nodes[i];
+                this.nodes[i] = this.nodes[j];
+                this.nodes[j] = child;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean advance() {
+            this.current = null;
+            this.key = null;
+            if (!this.started) {
+                this.started = true;
+                if (this.start == null) {
+                    return false;
+                }
+                expand(this.start, 0);
+                if (this.start.value != null) {
+                    this.current = this.start;
+                    return true;
+                }
+            }
+            while (this.top > 0) {
+                this.top--;
+                TrieNode<?, ?> node = (TrieNode<?, ?>) this.nodes[this.top];
+                A letter = (A) this.letters[this.top];
+                this.nodes[this.top] = null;
+                this.letters[this.top] = null;
+
+                this.path.length = this.depths[this.top];
+                this.path.append(node, letter);
+                expand(node, this.path.length);
+                if (node.value != null) {
+                    this.current = node;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private TrieNode<?, ?> current() {
+            if (this.current == null) {
+                throw new NoSuchElementException();
+            }
+            return this.current;
+        }
+
+        @Override
+        public K key() {
+            current();
+            if (this.key == null) {
+                this.key = keyFromLetters(this.path.toLetters());
+            }
+            return this.key;
+        }
+
+        @Override
+        public V value() {
+            return current().value;
+        }
+
+        @Override
+        public int length() {
+            current();
+            return this.path.length;
+        }
+
+        @Override
+        public A letterAt(int i) {
+            current();
+            if (i < 0 || i >= this.path.length) {
+                throw new IndexOutOfBoundsException();
+            }
+            return this.path.letters[i];
+        }
+
+        @Override
+        public void reset() {
+            Arrays.fill(this.letters, 0, this.top, null);
+            Arrays.fill(this.nodes, 0, this.top, null);
+            this.top = 0;
+            this.path.length = 0;
+            this.start = TrieMap.this.root;
+            this.started = false;
+            this.current = null;
+            this.key = null;
+        }
+    }
+
+    /**
+     * Returns a cursor over the mappings of this map, in iterator() order,
+     * that can read the letters of each key without building it.
+     */
+    @Override
+    public TrieCursor<A, K, V> cursor() {
+        return new TrieMapCursor();
+    }
+
+    /**
+     * A subtree that has not been handed to a TrieMapIterator yet.
+     */
+    private class Subtree {
+        public final TrieNode<?, ?> node;
+        public final Path path;
+
+        public Subtree(TrieNode<?, ?> node, Path path) {
+            this.node = node;
+            this.path = path;
+        }
+    }
+
+    /**
+     * Covers the values of some already expanded nodes followed by a run of
+     * sibling subtrees, in iterator() order. Splitting hands the values and
+     * the first half of the subtrees to a new spliterator; when only one
+     * subtree is left, it is first expanded into its value and its children.
+     * Nothing is copied out of the trie, and once a subtree is being
+     * traversed the spliterator no longer splits.
+     */
+    private class TrieMapSpliterator implements Spliterator<Item<K, V>> {
+        private List<Item<K, V>> values;
+        private List<Subtree> subtrees;
+        private int nextValue;
+        private int nextSubtree;
+        private TrieMapIterator current;
+        private long estimate;
+
+        public TrieMapSpliterator(List<Item<K, V>> values, List<Subtree> subtrees, long estimate) {
+            this.values = values;
+            this.subtrees = subtrees;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Item<K, V>> action) {
+            if (this.nextValue < this.values.size()) {
+                action.accept(this.values.get(this.nextValue++));
+                return true;
+            }
+            while (this.current == null || !this.current.hasNext()) {
+                if (this.nextSubtree == this.subtrees.size()) {
+                    return false;
+                }
+                Subtree subtree = this.subtrees.get(this.nextSubtree++);
+                this.current = new TrieMapIterator(subtree.node, subtree.path);
+            }
+            action.accept(this.current.next());
+            return true;
+        }
+
+        @Override
+        public Spliterator<Item<K, V>> trySplit() {
+            if (this.current != null) {
+                return null;
+            }
+            while (this.subtrees.size() - this.nextSubtree == 1) {
+                expand();
+            }
+            int remaining = this.subtrees.size() - this.nextSubtree;
+            if (remaining < 2) {
+                return null;
+            }
+
+            int middle = this.nextSubtree + remaining / 2;
+            TrieMapSpliterator prefix = new TrieMapSpliterator(
+                    new ArrayList<>(this.values.subList(this.nextValue, this.values.size())),
+                    new ArrayList<>(this.subtrees.subList(this.nextSubtree, middle)), this.estimate / 2);
+            this.values = new ArrayList<>();
+            this.subtrees = new ArrayList<>(this.subtrees.subList(middle, this.subtrees.size()));
+            this.nextValue = 0;
+            this.nextSubtree = 0;
+            this.estimate -= prefix.estimate;
+            return prefix;
+        }
+
+        /**
+         * Replaces the last remaining subtree by the value at its root and
+         * one subtree per child.
+         */
+        private void expand() {
+            Subtree subtree = this.subtrees.remove(this.nextSubtree);
+            if (subtree.node.value != null) {
+                this.values.add(new Item<K, V>(keyFromLetters(subtree.path.toLetters()), subtree.node.value));
+            }
+            Iterator<? extends Entry<A, ?>> children = subtree.node.iterator();
+            while (children.hasNext()) {
+                Entry<A, ?> entry = children.next();
+                TrieNode<?, ?> child = childOf(entry);
+                if (child == null) {
+                    continue;
+                }
+                Path path = new Path(subtree.path);
+                path.append(child, entry.getKey());
+                this.subtrees.add(new Subtree(child, path));
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.NONNULL;
+        }
+    }
+
+    /**
+     * Returns a spliterator that splits this map along child subtrees, so
+     * parallel streams over a large trie divide the work without first
+     * collecting the keys.
+     */
+    @Override
+    public Spliterator<Item<K, V>> spliterator() {
+        List<Subtree> subtrees = new ArrayList<>();
+        if (this.root != null) {
+            subtrees.add(new Subtree(this.root, new Path()));
+        }
+        return new TrieMapSpliterator(new ArrayList<>(), subtrees, size());
+    }
+
+    /**
+     * Returns an iterator over the mappings whose keys start with prefix. Only
+     * the subtree below prefix is visited.
+     *
+     * @param prefix
+     *            the prefix of the keys to iterate over
+     * @return an iterator over every mapping whose key starts with prefix
+     * @throws IllegalArgumentException
+     *             if prefix is null.
+     */
+    public Iterator<Item<K, V>> prefixIterator(K prefix) {
+        Path path = new Path();
+        return new TrieMapIterator(descend(prefix, path), path);
+    }
+
+    /**
+     * Returns the number of keys in this map that start with prefix.
+     *
+     * @param prefix
+     *            the prefix of the keys to count
+     * @return the number of keys that start with prefix
+     * @throws IllegalArgumentException
+     *             if prefix is null.
+     */
+    public int countPrefix(K prefix) {
+        TrieNode<?, ?> node = descend(prefix, new Path());
+        return node == null ? 0 : node.subtreeSize();
+    }
+
+    /**
+     * Returns the mapping whose key is the longest prefix of key (possibly
+     * key itself), or null if no key of this map is a prefix of key. This is
+     * the lookup of a routing table.
+     *
+     * @param key
+     *            the key whose prefixes to look up
+     * @return the mapping of the longest prefix of key, or null if there is
+     *         none
+     * @throws IllegalArgumentException
+     *             if key is null.
+     */
+    public Item<K, V> longestPrefixMatch(K key) {
+        List<Item<K, V>> matches = prefixMatches(key, true);
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
+    /**
+     * Returns the mappings whose keys are prefixes of key (possibly key
+     * itself), from the shortest key to the longest.
+     *
+     * @param key
+     *            the key whose prefixes to look up
+     * @return the mappings of the prefixes of key
+     * @throws IllegalArgumentException
+     *             if key is null.
+     */
+    public List<Item<K, V>> allPrefixMatches(K key) {
+        return prefixMatches(key, false);
+    }
+
+    /**
+     * Walks down the trie along key once, and returns the mappings of the
+     * nodes on the way, or only the last of them if longestOnly.
+     */
+    private List<Item<K, V>> prefixMatches(K key, boolean longestOnly) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        Path path = new Path();
+        for (A letter : key) {
+            path.append(letter);
+        }
+
+        List<Item<K, V>> matches = new ArrayList<>();
+        int longest = -1;
+        V longestValue = null;
+        TrieNode<?, ?> current = this.root;
+        int depth = 0;
+        while (current != null) {
+            if (current.value != null) {
+                if (longestOnly) {
+                    longest = depth;
+                    longestValue = current.value;
+                }
+                else {
+                    matches.add(new Item<K, V>(keyFromLetters(Arrays.copyOf(path.letters, depth)), current.value));
+                }
+            }
+            if (depth == path.length) {
+                break;
+            }
+            TrieNode<?, ?> child = current.child(path.letters[depth]);
+            if (child == null || !edgeMatches(child, path, depth)) {
+                break;
+            }
+            depth += child.edgeLength();
+            current = child;
+        }
+        if (longestValue != null) {
+            matches.add(new Item<K, V>(keyFromLetters(Arrays.copyOf(path.letters, longest)), longestValue));
+        }
+        return matches;
+    }
+
+    /**
+     * Returns whether the whole edge leading into child matches the letters
+     * of path from depth on.
+     */
+    private boolean edgeMatches(TrieNode<?, ?> child, Path path, int depth) {
+        if (depth + child.edgeLength() > path.length) {
+            return false;
+        }
+        for (int i = 1; i < child.edgeLength(); i++) {
+            if (!child.edgeLetter(i).equals(path.letters[depth + i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the (at most) k mappings with the greatest values, according to
+     * ranking, among the keys that start with prefix. The result is ordered
+     * from best to worst.
+     *
+     * If the implementation keeps the best value of every subtree for this
+     * ranking, only the subtrees that contribute to the result are explored.
+     * Otherwise, the subtree below prefix is scanned once.
+     *
+     * @param prefix
+     *            the prefix of the keys to consider
+     * @param k
+     *            the maximum number of mappings to return
+     * @param ranking
+     *            the order in which values are ranked
+     * @return the best k mappings whose keys start with prefix
+     * @throws IllegalArgumentException
+     *             if prefix or ranking is null, or k is negative.
+     */
+    public List<Item<K, V>> topK(K prefix, int k, Comparator<? super V> ranking) {
+        if (ranking == null || k < 0) {
+            throw new IllegalArgumentException();
+        }
+        Path path = new Path();
+        TrieNode<?, ?> start = descend(prefix, path);
+        List<Item<K, V>> result = new ArrayList<>();
+        if (start == null || k == 0) {
+            return result;
+        }
+        if (start.subtreeBest(ranking) != null) {
+            bestFirst(start, path.toLetters(), k, ranking, result);
+        }
+        else {
+            scan(new TrieMapIterator(start, path), k, (x, y) -> ranking.compare(x.value, y.value), result);
+        }
+        return result;
+    }
+
+    /**
+     * A candidate for topK: either the value of a node (whole is false) or the
+     * entire subtree below it (whole is true), ranked by the best value it can
+     * contribute.
+     */
+    private class Candidate {
+        private final TrieNode<?, ?> node;
+        private final A[] letters;
+        private final V rank;
+        private final boolean whole;
+
+        public Candidate(TrieNode<?, ?> node, A[] letters, V rank, boolean whole) {
+            this.node = node;
+            this.letters = letters;
+            this.rank = rank;
+            this.whole = whole;
+        }
+    }
+
+    private void bestFirst(TrieNode<?, ?> start, A[] letters, int k,
+            Comparator<? super V> ranking, List<Item<K, V>> result) {
+        Queue<Candidate> candidates = new PriorityQueue<>((x, y) -> ranking.compare(y.rank, x.rank));
+        candidates.add(new Candidate(start, letters, start.subtreeBest(ranking), true));
+
+        while (result.size() < k && !candidates.isEmpty()) {
+            Candidate best = candidates.remove();
+            if (!best.whole) {
+                result.add(new Item<K, V>(keyFromLetters(best.letters), best.rank));
+                continue;
+            }
+            TrieNode<?, ?> node = best.node;
+            if (node.value != null) {
+                candidates.add(new Candidate(node, best.letters, node.value, false));
+            }
+            for (Entry<A, ?> entry : node) {
+                TrieNode<?, ?> child = childOf(entry);
+                V rank = child == null ? null : child.subtreeBest(ranking);
+                if (rank == null) {
+                    continue;
+                }
+                A[] childLetters = Arrays.copyOf(best.letters, best.letters.length + child.edgeLength());
+                childLetters[best.letters.length] = entry.getKey();
+                for (int i = 1; i < child.edgeLength(); i++) {
+                    childLetters[best.letters.length + i] = child.edgeLetter(i);
+                }
+                candidates.add(new Candidate(child, childLetters, rank, true));
+            }
+        }
+    }
+
+    /**
+     * Fills the empty list result with the (at most) k greatest of items,
+     * according to ranking, from best to worst. Every item is visited once.
+     */
+    static <T> void scan(Iterator<T> items, int k, Comparator<? super T> ranking, List<T> result) {
+        // A min-heap of the best k items seen so far.
+        Queue<T> best = new PriorityQueue<>(ranking);
+        while (k > 0 && items.hasNext()) {
+            T item = items.next();
+            if (best.size() < k) {
+                best.add(item);
+            }
+            else if (ranking.compare(item, best.peek()) > 0) {
+                best.remove();
+                best.add(item);
+            }
+        }
+        while (!best.isEmpty()) {
+            result.add(best.remove());
+        }
+        Collections.reverse(result);
+    }
+
+    /**
+     * A node of the trie that forEachNodeInLevelOrder has yet to visit: the
+     * node {@code offset} letters along the edge leading into {@code node}.
+     */
+    private class Frontier {
+        private final TrieNode<?, ?> node;
+        private final int offset;
+
+        public Frontier(TrieNode<?, ?> node, int offset) {
+            this.node = node;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Returns the key class of this map.
+     *
+     * @return the class of the keys of this map
+     */
+    public Class<K> keyType() {
+        return this.KClass;
+    }
+
+    /**
+     * Calls visit on every node of the trie in level order, with the value
+     * of the node (or null if it has none) and the sorted letters leading to
+     * its children. Every letter of a multi-letter edge counts as a node of
+     * its own. This is the order in which SuccinctTrie.freeze lays out a
+     * copy of this map.
+     *
+     * @param visit
+     *            the action to perform on each node
+     * @throws IllegalArgumentException
+     *             if visit is null.
+     */
+    public void forEachNodeInLevelOrder(BiConsumer<? super V, ? super List<A>> visit) {
+        if (visit == null) {
+            throw new IllegalArgumentException();
+        }
+        WorkList<Frontier> frontier = new ListFIFOQueue<Frontier>();
+        frontier.add(new Frontier(this.root, this.root.edgeLength() - 1));
+        List<Entry<A, ?>> children = new ArrayList<>();
+        List<A> letters = new ArrayList<>();
+        while (frontier.hasWork()) {
+            Frontier next = frontier.next();
+            TrieNode<?, ?> node = next.node;
+            letters.clear();
+            if (next.offset + 1 < node.edgeLength()) {
+                letters.add(node.edgeLetter(next.offset + 1));
+                visit.accept(null, letters);
+                frontier.add(new Frontier(node, next.offset + 1));
+                continue;
+            }
+
+            children.clear();
+            for (Entry<A, ?> child : node) {
+                if (child.getValue() != null) {
+                    children.add(child);
+                }
+            }
+            children.sort((x, y) -> x.getKey().compareTo(y.getKey()));
+            for (Entry<A, ?> child : children) {
+                letters.add(child.getKey());
+            }
+            visit.accept(node.value, letters);
+            for (Entry<A, ?> child : children) {
+                frontier.add(new Frontier(childOf(child), 0));
+            }
+        }
+    }
+
+    /**
+     * Returns a new key instance from an array of letters instances. The key
+     * may be a view of letters rather than a copy, so letters must not change
+     * afterwards.
      *
      * @param letters
      *            the underlying array of the new key instance
      * @return a new key instance with the same letters as letters
      */
     public K keyFromLetters(A[] letters) {
-        try {
-            return this.KClass.getConstructor(letters.getClass())
-                    .newInstance((Object) letters);
-        } catch (InstantiationException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException | SecurityException
-                | NoSuchMethodException e) {
-            throw new RuntimeException("this should never happen!");
-        }
+        return this.keyFactory.keyOf(letters, letters.length);
     }
 }
@@ -1,5 +1,11 @@
 package cse332.interfaces.trie;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import cse332.datastructures.containers.Item;
 import cse332.interfaces.misc.BString;
 import cse332.interfaces.misc.Set;
 
@@ -13,7 +19,95 @@ public abstract class TrieSet<A extends Comparable<A>, E extends BString<A>> ext
     }
 
     @SuppressWarnings("unchecked")
+    private TrieMap<A, E, Boolean> trieMap() {
+        return (TrieMap<A, E, Boolean>) this.map;
+    }
+
+    /**
+     * Adds every element of other to this set. See TrieMap.merge.
+     *
+     * @throws IllegalArgumentException
+     *             if other is null.
+     */
+    public final void union(TrieSet<A, E> other) {
+        if (other == null) {
+            throw new IllegalArgumentException();
+        }
+        trieMap().merge(other.trieMap(), (mine, theirs) -> mine);
+    }
+
+    /**
+     * Removes every element of this set that is not in other. See
+     * TrieMap.intersect.
+     *
+     * @throws IllegalArgumentException
+     *             if other is null.
+     */
+    public final void intersect(TrieSet<A, E> other) {
+        if (other == null) {
+            throw new IllegalArgumentException();
+        }
+        trieMap().intersect(other.trieMap());
+    }
+
+    /**
+     * Removes every element of other from this set. See TrieMap.subtract.
+     *
+     * @throws IllegalArgumentException
+     *             if other is null.
+     */
+    public final void subtract(TrieSet<A, E> other) {
+        if (other == null) {
+            throw new IllegalArgumentException();
+        }
+        trieMap().subtract(other.trieMap());
+    }
+
     public final boolean findPrefix(E e) {
-        return ((TrieMap<A, E, Boolean>) this.map).findPrefix(e);
+        return trieMap().findPrefix(e);
+    }
+
+    /**
+     * Returns an iterator over the elements of this set that start with
+     * prefix. See TrieMap.prefixIterator.
+     */
+    public final Iterator<E> prefixIterator(E prefix) {
+        Iterator<Item<E, Boolean>> items = trieMap().prefixIterator(prefix);
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return items.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return items.next().key;
+            }
+        };
+    }
+
+    /**
+     * Returns the number of elements of this set that start with prefix. See
+     * TrieMap.countPrefix.
+     */
+    public final int countPrefix(E prefix) {
+        return trieMap().countPrefix(prefix);
+    }
+
+    /**
+     * Returns the (at most) k greatest elements, according to ranking, that
+     * start with prefix, from best to worst. Only the elements below prefix
+     * are visited.
+     *
+     * @throws IllegalArgumentException
+     *             if prefix or ranking is null, or k is negative.
+     */
+    public final List<E> topK(E prefix, int k, Comparator<? super E> ranking) {
+        if (ranking == null || k < 0) {
+            throw new IllegalArgumentException();
+        }
+        List<E> result = new ArrayList<>();
+        TrieMap.scan(prefixIterator(prefix), k, ranking, result);
+        return result;
     }
 }
@@ -0,0 +1,107 @@
+package cse332.interfaces.worklists;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only FixedSizeFIFOWorkList that presents a slice of some existing
+ * storage (an array, a buffer, a CharSequence) in place, without copying it.
+ * A BString built on a slice is a view: it sees later changes to the
+ * storage, so the storage must not change while the view is in use.
+ *
+ * The slice is always full. add, next, update and clear throw
+ * UnsupportedOperationException. Two slices are equal if they hold equal
+ * elements in the same order, and they compare lexicographically.
+ *
+ * @param <E>
+ *            the type of element in the worklist
+ */
+public abstract class SliceWorkList<E> extends FixedSizeFIFOWorkList<E> {
+    protected SliceWorkList(int size) {
+        super(size);
+    }
+
+    /**
+     * Throws the exception that peek(i) must throw if i is not the index of
+     * an element.
+     */
+    protected final void checkIndex(int i) {
+        if (!hasWork()) {
+            throw new NoSuchElementException();
+        }
+        if (i < 0 || i >= size()) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    @Override
+    public int size() {
+        return capacity();
+    }
+
+    @Override
+    public E peek() {
+        return peek(0);
+    }
+
+    @Override
+    public void add(E work) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public E next() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void update(int i, E value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int compareTo(FixedSizeFIFOWorkList<E> other) {
+        int length = Math.min(size(), other.size());
+        for (int i = 0; i < length; i++) {
+            int c = ((Comparable<E>) peek(i)).compareTo(other.peek(i));
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(size(), other.size());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof FixedSizeFIFOWorkList<?>)) {
+            return false;
+        }
+        FixedSizeFIFOWorkList<?> other = (FixedSizeFIFOWorkList<?>) obj;
+        if (size() != other.size()) {
+            return false;
+        }
+        for (int i = 0; i < size(); i++) {
+            if (!peek(i).equals(other.peek(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size(); i++) {
+            hash = 31 * hash + peek(i).hashCode();
+        }
+        return hash;
+    }
+}
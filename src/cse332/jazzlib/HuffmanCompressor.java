@@ -39,8 +39,7 @@ package cse332.jazzlib;
 
 import java.util.*;
 
-import cse332.datastructures.containers.Item;
-import cse332.types.BitString;
+import cse332.types.PackedBitString;
 import datastructures.dictionaries.HashTrieMap;
 
 /**
@@ -68,7 +67,7 @@ public class HuffmanCompressor
     private final static String bit4Reverse =
             "\000\010\004\014\002\012\006\016\001\011\005\015\003\013\007\017";
 
-    class Tree extends HashTrieMap<Boolean, BitString, Integer>{
+    class Tree extends HashTrieMap<Boolean, PackedBitString, Integer>{
         short[] freqs;
         short[] codes;
         byte[]  length;
@@ -77,7 +76,7 @@ public class HuffmanCompressor
         int     maxLength;
 
         Tree(int elems, int minCodes, int maxLength) {
-            super(BitString.class);
+            super(PackedBitString.FACTORY);
 
             this.minNumCodes = minCodes;
             this.maxLength  = maxLength;
@@ -181,17 +180,17 @@ public class HuffmanCompressor
 
             int overflow = this.getOverflow();
 
-            List<BitString> tree = new ArrayList<>(this.size());
-
-
-            for (Item<BitString, Integer> k : this) {
-                tree.add(k.key);
-            }
+            /* Only the length of each code matters here, so walk the leaves in
+             * iteration order instead of building a key for each of them.
+             */
+            int[] symbols = new int[this.size()];
+            int[] depths = new int[this.size()];
+            int leaves = collectLeaves((Node)this.root, 0, symbols, depths, 0);
 
-            for (BitString k : tree) {
-                int size = Math.min(k.size(), maxLength);
+            for (int i = 0; i < leaves; i++) {
+                int size = Math.min(depths[i], maxLength);
                 bl_counts[size - 1]++;
-                length[this.find(k)] = (byte)(size);
+                length[symbols[i]] = (byte)(size);
             }
 
             if (overflow != 0) {
@@ -213,21 +212,46 @@ public class HuffmanCompressor
                 bl_counts[maxLength - 1] += overflow;
                 bl_counts[maxLength - 2] -= overflow;
 
-                Collections.sort(tree, (x, y) -> x.size() - y.size());
+                /* Hand out the lengths to the leaves from shallowest to deepest,
+                 * keeping the walk order among leaves of the same depth (the
+                 * sort is stable).
+                 */
+                Integer[] order = new Integer[leaves];
+                for (int i = 0; i < leaves; i++) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, (x, y) -> Integer.compare(depths[x], depths[y]));
 
                 int pointer = -1;
                 int remaining = 0;
-                for (BitString k : tree) {
+                for (int i : order) {
                     while (remaining == 0) {
                         pointer++;
                         remaining = bl_counts[pointer];
                     }
-                    length[this.find(k)] = (byte)(pointer + 1);
+                    length[symbols[i]] = (byte)(pointer + 1);
                     remaining--;
                 }
             }
         }
 
+        /**
+         * Records the symbol and depth of every leaf below node, zero branch
+         * first, starting at index leaves, and returns the new leaf count.
+         */
+        private int collectLeaves(Node node, int depth, int[] symbols, int[] depths, int leaves) {
+            if (node == null) {
+                return leaves;
+            }
+            if (node.value != null) {
+                symbols[leaves] = node.value;
+                depths[leaves] = depth;
+                leaves++;
+            }
+            leaves = collectLeaves((Node)node.pointers.get(false), depth + 1, symbols, depths, leaves);
+            return collectLeaves((Node)node.pointers.get(true), depth + 1, symbols, depths, leaves);
+        }
+
         public void buildCodes() {
             int[] nextCode = new int[maxLength];
             int code = 0;
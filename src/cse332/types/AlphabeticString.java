@@ -1,11 +1,16 @@
 package cse332.types;
 
 import cse332.interfaces.misc.BString;
+import cse332.interfaces.misc.BStringFactory;
 import cse332.interfaces.worklists.FixedSizeFIFOWorkList;
+import cse332.interfaces.worklists.SliceWorkList;
 
 public class AlphabeticString extends BString<Character> { 
+    public static final BStringFactory<Character, AlphabeticString> FACTORY =
+            BStringFactory.of(AlphabeticString.class, Character.class, Character[]::new, AlphabeticString::new);
+
     public AlphabeticString(String s) {
-        super(BString.wrap(s.toCharArray()));
+        super(new CharSlice(s, 0, s.length()));
     }
 
     public AlphabeticString(FixedSizeFIFOWorkList<Character> q) {
@@ -15,6 +20,89 @@ public class AlphabeticString extends BString<Character> {
     public AlphabeticString(Character[] s) {
         super(s);
     }
+
+    /**
+     * Returns an AlphabeticString that reads chars.charAt(start), ...,
+     * chars.charAt(end - 1) in place, without copying them. The characters
+     * must not change while the view is in use.
+     *
+     * @throws IllegalArgumentException
+     *             if chars is null.
+     * @throws IndexOutOfBoundsException
+     *             if start and end do not describe a slice of chars.
+     */
+    public static AlphabeticString view(CharSequence chars, int start, int end) {
+        if (chars == null) {
+            throw new IllegalArgumentException();
+        }
+        if (start < 0 || start > end || end > chars.length()) {
+            throw new IndexOutOfBoundsException();
+        }
+        return new AlphabeticString(new CharSlice(chars, start, end - start));
+    }
+
+    public static AlphabeticString view(CharSequence chars) {
+        return view(chars, 0, chars == null ? 0 : chars.length());
+    }
+
+    /**
+     * Returns the ith character of this string without boxing it if this is
+     * a view.
+     *
+     * @throws IndexOutOfBoundsException
+     *             if i < 0 or i >= size()
+     */
+    public char charAt(int i) {
+        if (this.str instanceof CharSlice) {
+            return ((CharSlice) this.str).get(i);
+        }
+        return letterAt(i);
+    }
     
+    /**
+     * Compares the characters of two strings backed by CharSequences
+     * without boxing them.
+     */
+    @Override
+    public int mismatch(BString<Character> other) {
+        if (this.str instanceof CharSlice && other instanceof AlphabeticString
+                && ((AlphabeticString) other).str instanceof CharSlice) {
+            CharSlice a = (CharSlice) this.str;
+            CharSlice b = (CharSlice) ((AlphabeticString) other).str;
+            int length = Math.min(a.size(), b.size());
+            for (int i = 0; i < length; i++) {
+                if (a.chars.charAt(a.offset + i) != b.chars.charAt(b.offset + i)) {
+                    return i;
+                }
+            }
+            return a.size() == b.size() ? -1 : length;
+        }
+        return super.mismatch(other);
+    }
+
     public static Class<Character> getLetterType() { return Character.class; }
+
+    private static final class CharSlice extends SliceWorkList<Character> {
+        private final CharSequence chars;
+        private final int offset;
+
+        private CharSlice(CharSequence chars, int offset, int length) {
+            super(length);
+            this.chars = chars;
+            this.offset = offset;
+        }
+
+        private char get(int i) {
+            if (i < 0 || i >= size()) {
+                throw new IndexOutOfBoundsException();
+            }
+            return this.chars.charAt(this.offset + i);
+        }
+
+        @Override
+        public Character peek(int i) {
+            checkIndex(i);
+            return this.chars.charAt(this.offset + i);
+        }
+    }
 }
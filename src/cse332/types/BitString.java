@@ -1,9 +1,13 @@
 package cse332.types;
 
 import cse332.interfaces.misc.BString;
+import cse332.interfaces.misc.BStringFactory;
 import cse332.interfaces.worklists.FixedSizeFIFOWorkList;
 
 public class BitString extends BString<Boolean> {
+    public static final BStringFactory<Boolean, BitString> FACTORY =
+            BStringFactory.of(BitString.class, Boolean.class, Boolean[]::new, BitString::new);
+
     public BitString(FixedSizeFIFOWorkList<Boolean> q) {
         super(q);
     }
@@ -24,6 +28,29 @@ public class BitString extends BString<Boolean> {
         return result;
     }
 
+    /**
+     * Hashes the bits 64 at a time, packed as in PackedBitString, so that
+     * equal BitStrings and PackedBitStrings have equal hash codes.
+     */
+    @Override
+    public int hashCode() {
+        int hash = str.size();
+        long word = 0;
+        for (int i = 0; i < str.size(); i++) {
+            if (str.peek(i)) {
+                word |= Long.MIN_VALUE >>> i;
+            }
+            if ((i & 63) == 63) {
+                hash = 31 * hash + Long.hashCode(word);
+                word = 0;
+            }
+        }
+        if ((str.size() & 63) != 0) {
+            hash = 31 * hash + Long.hashCode(word);
+        }
+        return hash;
+    }
+
     public String toString() {
         StringBuilder b = new StringBuilder();
         for (int i = 0; i < str.size(); i++) {
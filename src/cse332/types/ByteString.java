@@ -2,17 +2,24 @@ package cse332.types;
 
 import java.io.ByteArrayOutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import cse332.interfaces.misc.BString;
+import cse332.interfaces.misc.BStringFactory;
 import cse332.interfaces.worklists.FixedSizeFIFOWorkList;
+import cse332.interfaces.worklists.SliceWorkList;
 
 public class ByteString extends BString<Byte> {
+    public static final BStringFactory<Byte, ByteString> FACTORY =
+            BStringFactory.of(ByteString.class, Byte.class, Byte[]::new, ByteString::new);
+
     public ByteString(String s) {
-        super(BString.wrap(s.getBytes()));
+        super(ArraySlice.of(s.getBytes()));
     }
 
     public ByteString(byte[] s) {
-        super(BString.wrap(s));
+        super(ArraySlice.of(s.clone()));
     }
 
     public ByteString(FixedSizeFIFOWorkList<Byte> q) {
@@ -23,6 +30,79 @@ public class ByteString extends BString<Byte> {
         super(s);
     }
 
+    /**
+     * Returns a ByteString that reads bytes[off], ..., bytes[off + len - 1]
+     * in place, without copying or boxing them. The bytes must not change
+     * while the view is in use.
+     *
+     * @throws IllegalArgumentException
+     *             if bytes is null.
+     * @throws IndexOutOfBoundsException
+     *             if off and len do not describe a slice of bytes.
+     */
+    public static ByteString view(byte[] bytes, int off, int len) {
+        if (bytes == null) {
+            throw new IllegalArgumentException();
+        }
+        if (off < 0 || len < 0 || off > bytes.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        return new ByteString(new ArraySlice(bytes, off, len));
+    }
+
+    public static ByteString view(byte[] bytes) {
+        return view(bytes, 0, bytes == null ? 0 : bytes.length);
+    }
+
+    /**
+     * Returns a ByteString that reads the remaining bytes of buffer in
+     * place. The position of buffer is not changed, and later changes to it
+     * do not move the view, but the bytes must not change while the view is
+     * in use.
+     *
+     * @throws IllegalArgumentException
+     *             if buffer is null.
+     */
+    public static ByteString view(ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException();
+        }
+        if (buffer.hasArray()) {
+            return new ByteString(new ArraySlice(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                    buffer.remaining()));
+        }
+        return new ByteString(new BufferSlice(buffer, buffer.position(), buffer.remaining()));
+    }
+
+    /**
+     * Returns the ith byte of this string without boxing it if this is a
+     * view.
+     *
+     * @throws IndexOutOfBoundsException
+     *             if i < 0 or i >= size()
+     */
+    public byte byteAt(int i) {
+        if (this.str instanceof ArraySlice) {
+            return ((ArraySlice) this.str).get(i);
+        }
+        return letterAt(i);
+    }
+
+    /**
+     * Compares the bytes of two array-backed strings with Arrays.mismatch
+     * rather than letter by letter.
+     */
+    @Override
+    public int mismatch(BString<Byte> other) {
+        if (this.str instanceof ArraySlice && other instanceof ByteString
+                && ((ByteString) other).str instanceof ArraySlice) {
+            ArraySlice a = (ArraySlice) this.str;
+            ArraySlice b = (ArraySlice) ((ByteString) other).str;
+            return Arrays.mismatch(a.bytes, a.offset, a.offset + a.size(), b.bytes, b.offset, b.offset + b.size());
+        }
+        return super.mismatch(other);
+    }
+
     public static Class<Byte> getLetterType() {
         return Byte.class;
     }
@@ -38,4 +118,49 @@ public class ByteString extends BString<Byte> {
             return out.toString();
         }
     }
+
+    private static final class ArraySlice extends SliceWorkList<Byte> {
+        private final byte[] bytes;
+        private final int offset;
+
+        private ArraySlice(byte[] bytes, int offset, int length) {
+            super(length);
+            this.bytes = bytes;
+            this.offset = offset;
+        }
+
+        private static ArraySlice of(byte[] bytes) {
+            return new ArraySlice(bytes, 0, bytes.length);
+        }
+
+        private byte get(int i) {
+            if (i < 0 || i >= size()) {
+                throw new IndexOutOfBoundsException();
+            }
+            return this.bytes[this.offset + i];
+        }
+
+        @Override
+        public Byte peek(int i) {
+            checkIndex(i);
+            return this.bytes[this.offset + i];
+        }
+    }
+
+    private static final class BufferSlice extends SliceWorkList<Byte> {
+        private final ByteBuffer buffer;
+        private final int offset;
+
+        private BufferSlice(ByteBuffer buffer, int offset, int length) {
+            super(length);
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        @Override
+        public Byte peek(int i) {
+            checkIndex(i);
+            return this.buffer.get(this.offset + i);
+        }
+    }
 }
@@ -0,0 +1,385 @@
+package cse332.types;
+
+import java.util.Arrays;
+
+import cse332.interfaces.misc.BString;
+import cse332.interfaces.misc.BStringFactory;
+import cse332.interfaces.worklists.FixedSizeFIFOWorkList;
+import cse332.interfaces.worklists.SliceWorkList;
+import datastructures.worklists.ArraySliceWorkList;
+
+/**
+ * An immutable BitString that keeps its bits packed 64 to a long instead of
+ * one Boolean per bit. Bit i is bit 63 - (i % 64) of words[i / 64], so the
+ * first bit is the most significant bit of the first word, and the bits past
+ * the end of the last word are always 0. This is the layout of the long[]
+ * keys of BitPatriciaTrieMap.
+ *
+ * append, prefix, the shifts, comparisons and hashing all work a word at a
+ * time. A PackedBitString is still a BitString, so it can be used as a key
+ * anywhere a BitString can, and a TrieMap built with PackedBitString.class
+ * hands out packed keys.
+ */
+public class PackedBitString extends BitString {
+    public static final BStringFactory<Boolean, PackedBitString> FACTORY =
+            BStringFactory.of(PackedBitString.class, Boolean.class, Boolean[]::new,
+                    PackedBitString::new);
+
+    public static final PackedBitString EMPTY = new PackedBitString(new long[0], 0);
+
+    private final long[] words;
+    private final int length;
+
+    /**
+     * The hash code, or 0 if it has not been computed yet.
+     */
+    private int hash;
+
+    public PackedBitString(FixedSizeFIFOWorkList<Boolean> q) {
+        this(pack(q), q.size());
+    }
+
+    public PackedBitString(Boolean[] s) {
+        this(pack(new ArraySliceWorkList<>(s)), s.length);
+    }
+
+    private PackedBitString(long[] words, int length) {
+        super(new Bits(words, length));
+        this.words = words;
+        this.length = length;
+    }
+
+    /**
+     * Returns the low length bits of bits, most significant first, so that
+     * of(5, 4) is 0101. This is the order BitString.get uses.
+     *
+     * @throws IndexOutOfBoundsException
+     *             if length < 0 or length > 64
+     */
+    public static PackedBitString of(long bits, int length) {
+        if (length < 0 || length > 64) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (length == 0) {
+            return EMPTY;
+        }
+        return new PackedBitString(new long[] { bits << (64 - length) }, length);
+    }
+
+    /**
+     * Returns the first length bits of words, in the layout described above.
+     * The words are copied.
+     *
+     * @throws IllegalArgumentException
+     *             if words is null.
+     * @throws IndexOutOfBoundsException
+     *             if length < 0 or length > 64 * words.length
+     */
+    public static PackedBitString of(long[] words, int length) {
+        if (words == null) {
+            throw new IllegalArgumentException();
+        }
+        if (length < 0 || length > 64L * words.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        long[] copy = Arrays.copyOf(words, wordsFor(length));
+        clearTail(copy, length);
+        return new PackedBitString(copy, length);
+    }
+
+    /**
+     * Returns the bits written as a string of 0s and 1s, like "0101".
+     *
+     * @throws IllegalArgumentException
+     *             if bits is null or has a character other than 0 and 1.
+     */
+    public static PackedBitString valueOf(CharSequence bits) {
+        if (bits == null) {
+            throw new IllegalArgumentException();
+        }
+        long[] words = new long[wordsFor(bits.length())];
+        for (int i = 0; i < bits.length(); i++) {
+            char c = bits.charAt(i);
+            if (c == '1') {
+                words[i >>> 6] |= Long.MIN_VALUE >>> i;
+            }
+            else if (c != '0') {
+                throw new IllegalArgumentException();
+            }
+        }
+        return new PackedBitString(words, bits.length());
+    }
+
+    /**
+     * Returns the ith bit without boxing it.
+     *
+     * @throws IndexOutOfBoundsException
+     *             if i < 0 or i >= size()
+     */
+    public boolean bit(int i) {
+        if (i < 0 || i >= this.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return (this.words[i >>> 6] << i) < 0;
+    }
+
+    /**
+     * Returns a copy of the words that hold the bits.
+     */
+    public long[] toWords() {
+        return this.words.clone();
+    }
+
+    /**
+     * Returns the bits as the low size() bits of a long, the inverse of
+     * of(long, int).
+     *
+     * @throws IllegalStateException
+     *             if size() > 64
+     */
+    public long toLong() {
+        if (this.length > 64) {
+            throw new IllegalStateException();
+        }
+        return this.length == 0 ? 0 : this.words[0] >>> (64 - this.length);
+    }
+
+    /**
+     * Returns the low 16 bits of the value of the bits without looking at
+     * them one at a time. This is what BitString.get returns for strings of
+     * up to 32 bits.
+     */
+    @Override
+    public short get() {
+        if (this.length <= 64) {
+            return (short) toLong();
+        }
+        // the low bits straddle the last two words
+        int end = this.length;
+        int last = (end - 1) >>> 6;
+        int used = end - (last << 6);
+        long low = this.words[last] >>> (64 - used);
+        if (used < 16) {
+            low |= this.words[last - 1] << used;
+        }
+        return (short) low;
+    }
+
+    /**
+     * Returns this string followed by bit.
+     */
+    public PackedBitString append(boolean bit) {
+        long[] words = Arrays.copyOf(this.words, wordsFor(this.length + 1));
+        if (bit) {
+            words[this.length >>> 6] |= Long.MIN_VALUE >>> this.length;
+        }
+        return new PackedBitString(words, this.length + 1);
+    }
+
+    /**
+     * Returns this string followed by the bits of other.
+     *
+     * @throws IllegalArgumentException
+     *             if other is null.
+     */
+    public PackedBitString append(BitString other) {
+        if (other == null) {
+            throw new IllegalArgumentException();
+        }
+        PackedBitString that = packed(other);
+        if (that.length == 0) {
+            return this;
+        }
+        long[] words = Arrays.copyOf(this.words, wordsFor(this.length + that.length));
+        orInto(words, this.length, that.words, that.length);
+        return new PackedBitString(words, this.length + that.length);
+    }
+
+    /**
+     * Returns the first length bits of this string.
+     *
+     * @throws IndexOutOfBoundsException
+     *             if length < 0 or length > size()
+     */
+    public PackedBitString prefix(int length) {
+        if (length < 0 || length > this.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (length == this.length) {
+            return this;
+        }
+        long[] words = Arrays.copyOf(this.words, wordsFor(length));
+        clearTail(words, length);
+        return new PackedBitString(words, length);
+    }
+
+    /**
+     * Returns this string without its first n bits, so the rest move n
+     * places towards the front.
+     *
+     * @throws IndexOutOfBoundsException
+     *             if n < 0 or n > size()
+     */
+    public PackedBitString shiftLeft(int n) {
+        if (n < 0 || n > this.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (n == 0) {
+            return this;
+        }
+        int length = this.length - n;
+        long[] words = new long[wordsFor(length)];
+        int skip = n >>> 6;
+        int shift = n & 63;
+        for (int w = 0; w < words.length; w++) {
+            long word = this.words[w + skip] << shift;
+            if (shift != 0 && w + skip + 1 < this.words.length) {
+                word |= this.words[w + skip + 1] >>> (64 - shift);
+            }
+            words[w] = word;
+        }
+        clearTail(words, length);
+        return new PackedBitString(words, length);
+    }
+
+    /**
+     * Returns this string after n 0s, so its bits move n places towards the
+     * end.
+     *
+     * @throws IndexOutOfBoundsException
+     *             if n < 0
+     */
+    public PackedBitString shiftRight(int n) {
+        if (n < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (n == 0) {
+            return this;
+        }
+        long[] words = new long[wordsFor(this.length + n)];
+        orInto(words, n, this.words, this.length);
+        return new PackedBitString(words, this.length + n);
+    }
+
+    /**
+     * Compares two packed strings a word at a time.
+     */
+    @Override
+    public int mismatch(BString<Boolean> other) {
+        if (!(other instanceof PackedBitString)) {
+            return super.mismatch(other);
+        }
+        PackedBitString that = (PackedBitString) other;
+        int length = Math.min(this.length, that.length);
+        for (int w = 0; (w << 6) < length; w++) {
+            long diff = this.words[w] ^ that.words[w];
+            if (diff != 0) {
+                return Math.min((w << 6) + Long.numberOfLeadingZeros(diff), length);
+            }
+        }
+        return this.length == that.length ? -1 : length;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof PackedBitString)) {
+            return super.equals(other);
+        }
+        PackedBitString that = (PackedBitString) other;
+        return this.length == that.length && hashCode() == that.hashCode() && Arrays.equals(this.words, that.words);
+    }
+
+    /**
+     * Hashes the words, the same way BitString.hashCode hashes the bits, and
+     * caches the result.
+     */
+    @Override
+    public int hashCode() {
+        int hash = this.hash;
+        if (hash == 0) {
+            hash = this.length;
+            for (long word : this.words) {
+                hash = 31 * hash + Long.hashCode(word);
+            }
+            this.hash = hash;
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder(this.length);
+        for (int i = 0; i < this.length; i++) {
+            b.append(bit(i) ? '1' : '0');
+        }
+        return b.toString();
+    }
+
+    private static PackedBitString packed(BitString bits) {
+        if (bits instanceof PackedBitString) {
+            return (PackedBitString) bits;
+        }
+        long[] words = new long[wordsFor(bits.size())];
+        for (int i = 0; i < bits.size(); i++) {
+            if (bits.letterAt(i)) {
+                words[i >>> 6] |= Long.MIN_VALUE >>> i;
+            }
+        }
+        return new PackedBitString(words, bits.size());
+    }
+
+    private static int wordsFor(int length) {
+        return (length + 63) >>> 6;
+    }
+
+    /**
+     * Clears the bits of words from length on.
+     */
+    private static void clearTail(long[] words, int length) {
+        if ((length & 63) != 0) {
+            words[length >>> 6] &= -1L << (64 - (length & 63));
+        }
+    }
+
+    /**
+     * ORs the first length bits of from into to, starting at bit at.
+     */
+    private static void orInto(long[] to, int at, long[] from, int length) {
+        int skip = at >>> 6;
+        int shift = at & 63;
+        for (int w = 0; w < wordsFor(length); w++) {
+            to[w + skip] |= from[w] >>> shift;
+            if (shift != 0 && w + skip + 1 < to.length) {
+                to[w + skip + 1] |= from[w] << (64 - shift);
+            }
+        }
+    }
+
+    private static long[] pack(FixedSizeFIFOWorkList<Boolean> bits) {
+        long[] words = new long[wordsFor(bits.size())];
+        for (int i = 0; i < bits.size(); i++) {
+            if (bits.peek(i)) {
+                words[i >>> 6] |= Long.MIN_VALUE >>> i;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * The packed bits, as the work list BString reads.
+     */
+    private static final class Bits extends SliceWorkList<Boolean> {
+        private final long[] words;
+
+        private Bits(long[] words, int length) {
+            super(length);
+            this.words = words;
+        }
+
+        @Override
+        public Boolean peek(int i) {
+            checkIndex(i);
+            return (this.words[i >>> 6] << i) < 0;
+        }
+    }
+}
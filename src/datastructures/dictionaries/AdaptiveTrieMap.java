@@ -0,0 +1,755 @@
+package datastructures.dictionaries;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import cse332.interfaces.misc.Alphabet;
+import cse332.interfaces.misc.BString;
+import cse332.interfaces.trie.TrieMap;
+
+/**
+ * See cse332/interfaces/trie/TrieMap.java
+ * and cse332/interfaces/misc/Dictionary.java
+ * for method specifications.
+ *
+ * An adaptive radix tree (Leis, Kemper and Neumann, "The Adaptive Radix Tree:
+ * ARTful Indexing for Main-Memory Databases", 2013). Keys are turned into
+ * strings of bytes: every letter becomes the big-endian bytes of its ordinal
+ * (one byte for bits and bytes, two for characters), which keeps keys in
+ * letter order. Each inner node branches on one byte and picks the smallest
+ * of four layouts that holds its children:
+ *
+ * - Node4 and Node16 keep up to 4 or 16 sorted key bytes next to their
+ *   children;
+ * - Node48 maps every byte to a slot among 48 children;
+ * - Node256 indexes its children by byte directly.
+ *
+ * Nodes grow into the next layout when they fill up, and shrink back when
+ * enough children are deleted. A subtree that holds a single key is just a
+ * Leaf with the whole key, and is only expanded when a second key arrives
+ * (lazy expansion). The bytes that every key below an inner node shares are
+ * kept inline in that node instead of as a chain of one-child nodes (path
+ * compression).
+ *
+ * The TrieNode view that the generic iterator and prefix queries walk
+ * presents the tree one letter at a time.
+ */
+public class AdaptiveTrieMap<A extends Comparable<A>, K extends BString<A>, V> extends TrieMap<A, K, V> {
+    private final Alphabet<A> alphabet;
+
+    /**
+     * The number of bytes that each letter takes.
+     */
+    private final int width;
+
+    /**
+     * The root of the tree: null, a Leaf or an Inner node.
+     */
+    private Object tree;
+
+    /**
+     * A subtree holding a single key.
+     */
+    private static final class Leaf {
+        private final byte[] key;
+        private Object value;
+
+        private Leaf(byte[] key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A node that branches on one byte. The bytes of prefix come first, then
+     * the value of the key that ends there (if any), then the children.
+     */
+    private abstract static class Inner {
+        protected byte[] prefix;
+        protected Object value;
+        protected int count;
+
+        protected Inner(byte[] prefix) {
+            this.prefix = prefix;
+        }
+
+        /**
+         * Returns the child reached by byte b, or null.
+         */
+        abstract Object find(int b);
+
+        abstract boolean isFull();
+
+        /**
+         * Adds a child under b, which must not have one yet. The node must
+         * not be full.
+         */
+        abstract void add(int b, Object child);
+
+        /**
+         * Replaces the child under b, which must have one.
+         */
+        abstract void replace(int b, Object child);
+
+        abstract void remove(int b);
+
+        /**
+         * Returns the least byte that is at least from and has a child, or -1.
+         */
+        abstract int next(int from);
+
+        /**
+         * Returns a copy of this node in the next larger layout.
+         */
+        abstract Inner grow();
+
+        /**
+         * Returns a copy of this node in the next smaller layout if its
+         * children fit there comfortably, or this node.
+         */
+        abstract Inner shrink();
+
+        /**
+         * Copies the children of this node into target.
+         */
+        protected Inner copyInto(Inner target) {
+            target.value = this.value;
+            for (int b = next(0); b >= 0; b = next(b + 1)) {
+                target.add(b, find(b));
+            }
+            return target;
+        }
+    }
+
+    /**
+     * Up to capacity children with their key bytes, sorted by key byte.
+     */
+    private abstract static class SortedInner extends Inner {
+        protected final byte[] keys;
+        protected final Object[] children;
+
+        protected SortedInner(byte[] prefix, int capacity) {
+            super(prefix);
+            this.keys = new byte[capacity];
+            this.children = new Object[capacity];
+        }
+
+        private int indexOf(int b) {
+            for (int i = 0; i < this.count; i++) {
+                int key = this.keys[i] & 0xFF;
+                if (key >= b) {
+                    return key == b ? i : -(i + 1);
+                }
+            }
+            return -(this.count + 1);
+        }
+
+        @Override
+        Object find(int b) {
+            int i = indexOf(b);
+            return i < 0 ? null : this.children[i];
+        }
+
+        @Override
+        boolean isFull() {
+            return this.count == this.keys.length;
+        }
+
+        @Override
+        void add(int b, Object child) {
+            int i = -(indexOf(b) + 1);
+            System.arraycopy(this.keys, i, this.keys, i + 1, this.count - i);
+            System.arraycopy(this.children, i, this.children, i + 1, this.count - i);
+            this.keys[i] = (byte) b;
+            this.children[i] = child;
+            this.count++;
+        }
+
+        @Override
+        void replace(int b, Object child) {
+            this.children[indexOf(b)] = child;
+        }
+
+        @Override
+        void remove(int b) {
+            int i = indexOf(b);
+            if (i < 0) {
+                return;
+            }
+            this.count--;
+            System.arraycopy(this.keys, i + 1, this.keys, i, this.count - i);
+            System.arraycopy(this.children, i + 1, this.children, i, this.count - i);
+            this.children[this.count] = null;
+        }
+
+        @Override
+        int next(int from) {
+            for (int i = 0; i < this.count; i++) {
+                int key = this.keys[i] & 0xFF;
+                if (key >= from) {
+                    return key;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static final class Node4 extends SortedInner {
+        private Node4(byte[] prefix) {
+            super(prefix, 4);
+        }
+
+        @Override
+        Inner grow() {
+            return copyInto(new Node16(this.prefix));
+        }
+
+        @Override
+        Inner shrink() {
+            return this;
+        }
+    }
+
+    private static final class Node16 extends SortedInner {
+        private Node16(byte[] prefix) {
+            super(prefix, 16);
+        }
+
+        @Override
+        Inner grow() {
+            return copyInto(new Node48(this.prefix));
+        }
+
+        @Override
+        Inner shrink() {
+            return this.count <= 3 ? copyInto(new Node4(this.prefix)) : this;
+        }
+    }
+
+    private static final class Node48 extends Inner {
+        /**
+         * The slot of the child under each byte, plus one; 0 if there is none.
+         */
+        private final byte[] index = new byte[256];
+        private final Object[] children = new Object[48];
+
+        private Node48(byte[] prefix) {
+            super(prefix);
+        }
+
+        @Override
+        Object find(int b) {
+            int slot = this.index[b];
+            return slot == 0 ? null : this.children[slot - 1];
+        }
+
+        @Override
+        boolean isFull() {
+            return this.count == this.children.length;
+        }
+
+        @Override
+        void add(int b, Object child) {
+            int slot = 0;
+            while (this.children[slot] != null) {
+                slot++;
+            }
+            this.children[slot] = child;
+            this.index[b] = (byte) (slot + 1);
+            this.count++;
+        }
+
+        @Override
+        void replace(int b, Object child) {
+            this.children[this.index[b] - 1] = child;
+        }
+
+        @Override
+        void remove(int b) {
+            int slot = this.index[b];
+            if (slot == 0) {
+                return;
+            }
+            this.children[slot - 1] = null;
+            this.index[b] = 0;
+            this.count--;
+        }
+
+        @Override
+        int next(int from) {
+            for (int b = from; b < 256; b++) {
+                if (this.index[b] != 0) {
+                    return b;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Inner grow() {
+            return copyInto(new Node256(this.prefix));
+        }
+
+        @Override
+        Inner shrink() {
+            return this.count <= 12 ? copyInto(new Node16(this.prefix)) : this;
+        }
+    }
+
+    private static final class Node256 extends Inner {
+        private final Object[] children = new Object[256];
+
+        private Node256(byte[] prefix) {
+            super(prefix);
+        }
+
+        @Override
+        Object find(int b) {
+            return this.children[b];
+        }
+
+        @Override
+        boolean isFull() {
+            return false;
+        }
+
+        @Override
+        void add(int b, Object child) {
+            this.children[b] = child;
+            this.count++;
+        }
+
+        @Override
+        void replace(int b, Object child) {
+            this.children[b] = child;
+        }
+
+        @Override
+        void remove(int b) {
+            if (this.children[b] != null) {
+                this.children[b] = null;
+                this.count--;
+            }
+        }
+
+        @Override
+        int next(int from) {
+            for (int b = from; b < 256; b++) {
+                if (this.children[b] != null) {
+                    return b;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Inner grow() {
+            return this;
+        }
+
+        @Override
+        Inner shrink() {
+            return this.count <= 37 ? copyInto(new Node48(this.prefix)) : this;
+        }
+    }
+
+    /**
+     * A position in the tree at a letter boundary: offset bytes into the
+     * prefix of an Inner node, or into the key of a Leaf.
+     */
+    public class AdaptiveNode extends TrieNode<Void, AdaptiveNode> {
+        private final Object node;
+        private final int depth;
+        private final int offset;
+
+        @SuppressWarnings("unchecked")
+        private AdaptiveNode(Object node, int depth, int offset) {
+            this.node = node;
+            this.depth = depth;
+            this.offset = offset;
+            if (node instanceof Leaf) {
+                Leaf leaf = (Leaf) node;
+                this.value = offset == leaf.key.length ? (V) leaf.value : null;
+            }
+            else if (node != null) {
+                Inner inner = (Inner) node;
+                this.value = offset == inner.prefix.length ? (V) inner.value : null;
+            }
+        }
+
+        /**
+         * Returns the position one byte further down along b, or null.
+         */
+        private AdaptiveNode step(int b) {
+            if (this.node instanceof Leaf) {
+                byte[] key = ((Leaf) this.node).key;
+                return this.offset < key.length && (key[this.offset] & 0xFF) == b
+                        ? new AdaptiveNode(this.node, this.depth + 1, this.offset + 1) : null;
+            }
+            if (this.node == null) {
+                return null;
+            }
+            Inner inner = (Inner) this.node;
+            if (this.offset < inner.prefix.length) {
+                return (inner.prefix[this.offset] & 0xFF) == b
+                        ? new AdaptiveNode(this.node, this.depth + 1, this.offset + 1) : null;
+            }
+            Object child = inner.find(b);
+            if (child == null) {
+                return null;
+            }
+            return new AdaptiveNode(child, this.depth + 1, child instanceof Leaf ? this.depth + 1 : 0);
+        }
+
+        /**
+         * Returns the least byte that is at least from and leads somewhere,
+         * or -1.
+         */
+        private int next(int from) {
+            if (this.node instanceof Leaf) {
+                byte[] key = ((Leaf) this.node).key;
+                return this.offset < key.length && (key[this.offset] & 0xFF) >= from ? key[this.offset] & 0xFF : -1;
+            }
+            if (this.node == null) {
+                return -1;
+            }
+            Inner inner = (Inner) this.node;
+            if (this.offset < inner.prefix.length) {
+                return (inner.prefix[this.offset] & 0xFF) >= from ? inner.prefix[this.offset] & 0xFF : -1;
+            }
+            return inner.next(from);
+        }
+
+        @Override
+        protected AdaptiveNode child(A letter) {
+            int ordinal = AdaptiveTrieMap.this.alphabet.ordinal(letter);
+            AdaptiveNode current = this;
+            for (int shift = 8 * (AdaptiveTrieMap.this.width - 1); current != null && shift >= 0; shift -= 8) {
+                current = current.step((ordinal >>> shift) & 0xFF);
+            }
+            return current;
+        }
+
+        private void collect(int ordinal, int digits, List<Entry<A, AdaptiveNode>> children) {
+            for (int b = next(0); b >= 0; b = next(b + 1)) {
+                AdaptiveNode child = step(b);
+                if (digits == 1) {
+                    children.add(new SimpleImmutableEntry<>(
+                            AdaptiveTrieMap.this.alphabet.letter((ordinal << 8) | b), child));
+                }
+                else {
+                    child.collect((ordinal << 8) | b, digits - 1, children);
+                }
+            }
+        }
+
+        @Override
+        public Iterator<Entry<A, AdaptiveNode>> iterator() {
+            List<Entry<A, AdaptiveNode>> children = new ArrayList<>();
+            collect(0, AdaptiveTrieMap.this.width, children);
+            return children.iterator();
+        }
+    }
+
+    public AdaptiveTrieMap(Class<K> KClass) {
+        super(KClass);
+        this.alphabet = Alphabet.forLetterType(BString.getLetterType(KClass));
+        this.width = this.alphabet.size() <= 256 ? 1 : 2;
+        this.root = new AdaptiveNode(null, 0, 0);
+    }
+
+    private byte[] encode(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        byte[] bytes = new byte[key.size() * this.width];
+        int i = 0;
+        for (A letter : key) {
+            int ordinal = this.alphabet.ordinal(letter);
+            for (int shift = 8 * (this.width - 1); shift >= 0; shift -= 8) {
+                bytes[i++] = (byte) (ordinal >>> shift);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Points root at the current tree. The view caches the value at its
+     * position, so this has to be done after every change.
+     */
+    private void updateRoot() {
+        this.root = new AdaptiveNode(this.tree, 0, 0);
+    }
+
+    private void replace(Inner parent, int b, Object node) {
+        if (parent == null) {
+            this.tree = node;
+        }
+        else {
+            parent.replace(b, node);
+        }
+    }
+
+    /**
+     * Hangs the key of leaf, which agrees with inner up to at, below inner.
+     */
+    private static void attach(Inner inner, Leaf leaf, int at) {
+        if (leaf.key.length == at) {
+            inner.value = leaf.value;
+        }
+        else {
+            inner.add(leaf.key[at] & 0xFF, leaf);
+        }
+    }
+
+    @Override
+    public V insert(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException();
+        }
+        V oldValue = put(encode(key), value);
+        updateRoot();
+        return oldValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V put(byte[] k, V value) {
+        Inner parent = null;
+        int parentByte = -1;
+        Object node = this.tree;
+        int d = 0;
+        while (node != null) {
+            if (node instanceof Leaf) {
+                Leaf leaf = (Leaf) node;
+                if (Arrays.equals(leaf.key, k)) {
+                    V oldValue = (V) leaf.value;
+                    leaf.value = value;
+                    return oldValue;
+                }
+                // lazy expansion: only now does the leaf need an inner node
+                int m = d;
+                while (m < leaf.key.length && m < k.length && leaf.key[m] == k[m]) {
+                    m++;
+                }
+                Inner inner = new Node4(Arrays.copyOfRange(k, d, m));
+                attach(inner, leaf, m);
+                attach(inner, new Leaf(k, value), m);
+                replace(parent, parentByte, inner);
+                this.size++;
+                return null;
+            }
+
+            Inner inner = (Inner) node;
+            byte[] prefix = inner.prefix;
+            int p = 0;
+            while (p < prefix.length && d + p < k.length && prefix[p] == k[d + p]) {
+                p++;
+            }
+            if (p < prefix.length) {
+                // the key leaves the compressed path part of the way along it
+                Inner split = new Node4(Arrays.copyOf(prefix, p));
+                split.add(prefix[p] & 0xFF, inner);
+                inner.prefix = Arrays.copyOfRange(prefix, p + 1, prefix.length);
+                attach(split, new Leaf(k, value), d + p);
+                replace(parent, parentByte, split);
+                this.size++;
+                return null;
+            }
+            d += p;
+            if (d == k.length) {
+                V oldValue = (V) inner.value;
+                inner.value = value;
+                if (oldValue == null) {
+                    this.size++;
+                }
+                return oldValue;
+            }
+            int b = k[d] & 0xFF;
+            Object child = inner.find(b);
+            if (child == null) {
+                if (inner.isFull()) {
+                    Inner grown = inner.grow();
+                    replace(parent, parentByte, grown);
+                    inner = grown;
+                }
+                inner.add(b, new Leaf(k, value));
+                this.size++;
+                return null;
+            }
+            parent = inner;
+            parentByte = b;
+            node = child;
+            d++;
+        }
+        this.tree = new Leaf(k, value);
+        this.size++;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V find(K key) {
+        byte[] k = encode(key);
+        Object node = this.tree;
+        int d = 0;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            byte[] prefix = inner.prefix;
+            if (k.length - d < prefix.length || !Arrays.equals(prefix, 0, prefix.length, k, d, d + prefix.length)) {
+                return null;
+            }
+            d += prefix.length;
+            if (d == k.length) {
+                return (V) inner.value;
+            }
+            node = inner.find(k[d++] & 0xFF);
+        }
+        if (node instanceof Leaf && Arrays.equals(((Leaf) node).key, k)) {
+            return (V) ((Leaf) node).value;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean findPrefix(K key) {
+        byte[] k = encode(key);
+        Object node = this.tree;
+        int d = 0;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            byte[] prefix = inner.prefix;
+            for (int p = 0; p < prefix.length; p++, d++) {
+                if (d == k.length) {
+                    return true;
+                }
+                if (prefix[p] != k[d]) {
+                    return false;
+                }
+            }
+            if (d == k.length) {
+                return true;
+            }
+            node = inner.find(k[d++] & 0xFF);
+        }
+        if (node instanceof Leaf) {
+            byte[] leafKey = ((Leaf) node).key;
+            return leafKey.length >= k.length && Arrays.equals(leafKey, d, k.length, k, d, k.length);
+        }
+        return false;
+    }
+
+    @Override
+    public void delete(K key) {
+        remove(encode(key));
+        updateRoot();
+    }
+
+    private void remove(byte[] k) {
+        Inner grandparent = null;
+        int grandparentByte = -1;
+        Inner parent = null;
+        int parentByte = -1;
+        Object node = this.tree;
+        int d = 0;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            byte[] prefix = inner.prefix;
+            if (k.length - d < prefix.length || !Arrays.equals(prefix, 0, prefix.length, k, d, d + prefix.length)) {
+                return;
+            }
+            d += prefix.length;
+            if (d == k.length) {
+                if (inner.value != null) {
+                    inner.value = null;
+                    this.size--;
+                    collapse(parent, parentByte, inner, k, d);
+                }
+                return;
+            }
+            int b = k[d++] & 0xFF;
+            grandparent = parent;
+            grandparentByte = parentByte;
+            parent = inner;
+            parentByte = b;
+            node = inner.find(b);
+        }
+        if (node instanceof Leaf && Arrays.equals(((Leaf) node).key, k)) {
+            this.size--;
+            if (parent == null) {
+                this.tree = null;
+            }
+            else {
+                parent.remove(parentByte);
+                collapse(grandparent, grandparentByte, parent, k, d - 1);
+            }
+        }
+    }
+
+    /**
+     * Restores the shape of inner after it lost its value or a child: a node
+     * with nothing but a value becomes a Leaf, a node with a single child and
+     * no value is merged into that child, and a sparse node shrinks. The
+     * prefix of inner ends at k[end].
+     */
+    private void collapse(Inner parent, int parentByte, Inner inner, byte[] k, int end) {
+        Object replacement;
+        if (inner.count == 0) {
+            replacement = inner.value == null ? null : new Leaf(Arrays.copyOf(k, end), inner.value);
+        }
+        else if (inner.count == 1 && inner.value == null) {
+            int b = inner.next(0);
+            Object child = inner.find(b);
+            if (child instanceof Inner) {
+                Inner merged = (Inner) child;
+                byte[] prefix = Arrays.copyOf(inner.prefix, inner.prefix.length + 1 + merged.prefix.length);
+                prefix[inner.prefix.length] = (byte) b;
+                System.arraycopy(merged.prefix, 0, prefix, inner.prefix.length + 1, merged.prefix.length);
+                merged.prefix = prefix;
+            }
+            replacement = child;
+        }
+        else {
+            replacement = inner.shrink();
+        }
+        if (replacement == null && parent != null) {
+            parent.remove(parentByte);
+        }
+        else if (replacement != inner) {
+            replace(parent, parentByte, replacement);
+        }
+    }
+
+    @Override
+    public void clear() {
+        this.tree = null;
+        updateRoot();
+        this.size = 0;
+    }
+
+    /**
+     * Returns the number of inner nodes of each layout, in the order Node4,
+     * Node16, Node48, Node256, followed by the number of leaves.
+     */
+    public int[] nodeCounts() {
+        int[] counts = new int[5];
+        count(this.tree, counts);
+        return counts;
+    }
+
+    private static void count(Object node, int[] counts) {
+        if (node instanceof Leaf) {
+            counts[4]++;
+        }
+        else if (node != null) {
+            Inner inner = (Inner) node;
+            counts[inner instanceof Node4 ? 0 : inner instanceof Node16 ? 1 : inner instanceof Node48 ? 2 : 3]++;
+            for (int b = inner.next(0); b >= 0; b = inner.next(b + 1)) {
+                count(inner.find(b), counts);
+            }
+        }
+    }
+}
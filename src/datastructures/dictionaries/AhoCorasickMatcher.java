@@ -0,0 +1,388 @@
+package datastructures.dictionaries;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import cse332.interfaces.misc.Alphabet;
+import cse332.interfaces.misc.BString;
+import cse332.interfaces.trie.TrieSet;
+
+/**
+ * Finds every occurrence of every element of a TrieSet in a text, in a single
+ * pass over the text (Aho and Corasick, "Efficient String Matching: An Aid to
+ * Bibliographic Search", 1975).
+ *
+ * The patterns are compiled into a trie whose states are numbered in
+ * breadth-first order, so the children of every state are consecutive states
+ * and the edges fit in two int arrays (firstChild and label). Each state also
+ * has a failure link to the state of the longest proper suffix of its string
+ * that is in the trie, and an output link to the nearest state on its failure
+ * chain at which a pattern ends. Both are computed in breadth-first order.
+ * The children of the root fail to the root. Any other state reached from s
+ * by letter x fails to the state that the failure link of s reaches by x,
+ * following further failure links until one has a child by x or the root is
+ * reached. Its output link is that state if a pattern ends there, and that
+ * state's own output link otherwise. The root has a dense table indexed by
+ * letter code, since almost every failure chain ends there.
+ *
+ * The letters of the patterns are renumbered 1, ..., m; code 0 stands for any
+ * letter that occurs in no pattern. Bytes of the text are read as letters of
+ * the pattern alphabet: for ByteString patterns a byte is itself, and for
+ * AlphabeticString patterns a byte is the ISO-8859-1 character with the same
+ * value. Characters of a CharSequence are read as themselves for
+ * AlphabeticString patterns; for ByteString patterns a character below 256
+ * is the byte with the same low 8 bits, and any other character matches no
+ * letter.
+ *
+ * The matcher is immutable, so it can be shared between threads.
+ */
+public class AhoCorasickMatcher<A extends Comparable<A>, E extends BString<A>> {
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Receives the matches found by a scan.
+     */
+    public interface MatchListener<E> {
+        /**
+         * Called once for every occurrence of a pattern, in order of end
+         * offset; occurrences that end at the same offset are reported
+         * longest first.
+         *
+         * @param start
+         *            the offset of the first letter of the occurrence
+         * @param end
+         *            the offset just past its last letter
+         * @param pattern
+         *            the pattern that occurs
+         */
+        void match(long start, long end, E pattern);
+    }
+
+    private final Alphabet<A> alphabet;
+    private final boolean byteAlphabet;
+
+    /**
+     * The code of the letter with each ordinal, and of each byte value.
+     */
+    private final int[] codes;
+    private final int[] byteCodes;
+
+    private final int[] rootNext;
+    private final int[] firstChild;
+    private final int[] label;
+    private final int[] fail;
+    private final int[] output;
+    private final int[] outputLink;
+
+    private final List<E> patterns;
+    private final int[] lengths;
+
+    /**
+     * Compiles the elements of patterns into a matcher.
+     *
+     * @param EClass
+     *            the element class of patterns
+     * @param patterns
+     *            the strings to look for; it is not changed
+     * @throws IllegalArgumentException
+     *             if EClass or patterns is null
+     */
+    public AhoCorasickMatcher(Class<E> EClass, TrieSet<A, E> patterns) {
+        if (EClass == null || patterns == null) {
+            throw new IllegalArgumentException();
+        }
+        this.alphabet = Alphabet.forLetterType(BString.getLetterType(EClass));
+        this.byteAlphabet = this.alphabet == Alphabet.BYTES;
+
+        // turn the patterns into arrays of ordinals, and find the letters in use
+        List<int[]> keys = new ArrayList<>();
+        List<E> elements = new ArrayList<>();
+        boolean[] used = new boolean[this.alphabet.size()];
+        for (E e : patterns) {
+            int[] key = new int[e.size()];
+            int i = 0;
+            for (A letter : e) {
+                key[i] = this.alphabet.ordinal(letter);
+                used[key[i++]] = true;
+            }
+            keys.add(key);
+            elements.add(e);
+        }
+        this.codes = new int[used.length];
+        int m = 0;
+        for (int ordinal = 0; ordinal < used.length; ordinal++) {
+            if (used[ordinal]) {
+                this.codes[ordinal] = ++m;
+            }
+        }
+        this.byteCodes = new int[256];
+        for (int b = 0; b < 256; b++) {
+            int ordinal = this.byteAlphabet ? (byte) b + 128 : b;
+            this.byteCodes[b] = ordinal < this.codes.length ? this.codes[ordinal] : 0;
+        }
+
+        int n = keys.size();
+        int letters = 0;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            int[] key = keys.get(i);
+            for (int j = 0; j < key.length; j++) {
+                key[j] = this.codes[key[j]];
+            }
+            letters += key.length;
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> Arrays.compare(keys.get(x), keys.get(y)));
+        int[][] sorted = new int[n][];
+        this.patterns = new ArrayList<>(n);
+        this.lengths = new int[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = keys.get(order[i]);
+            this.patterns.add(elements.get(order[i]));
+            this.lengths[i] = sorted[i].length;
+        }
+
+        // build the trie breadth first; state s stands for sorted[lo[s]...hi[s] - 1],
+        // which all agree on their first depth[s] letters
+        int capacity = letters + 1;
+        int[] lo = new int[capacity];
+        int[] hi = new int[capacity];
+        int[] depth = new int[capacity];
+        int[] parent = new int[capacity];
+        int[] firstChild = new int[capacity + 1];
+        int[] label = new int[capacity];
+        int[] output = new int[capacity];
+        lo[ROOT] = 0;
+        hi[ROOT] = n;
+        parent[ROOT] = NONE;
+        int states = 1;
+        for (int s = 0; s < states; s++) {
+            int i = lo[s];
+            output[s] = NONE;
+            if (i < hi[s] && sorted[i].length == depth[s]) {
+                output[s] = i++;
+            }
+            firstChild[s] = states;
+            while (i < hi[s]) {
+                int code = sorted[i][depth[s]];
+                int j = i + 1;
+                while (j < hi[s] && sorted[j][depth[s]] == code) {
+                    j++;
+                }
+                lo[states] = i;
+                hi[states] = j;
+                depth[states] = depth[s] + 1;
+                parent[states] = s;
+                label[states] = code;
+                states++;
+                i = j;
+            }
+        }
+        firstChild[states] = states;
+        this.firstChild = Arrays.copyOf(firstChild, states + 1);
+        this.label = Arrays.copyOf(label, states);
+        this.output = Arrays.copyOf(output, states);
+
+        this.rootNext = new int[m + 1];
+        for (int t = this.firstChild[ROOT]; t < this.firstChild[ROOT + 1]; t++) {
+            this.rootNext[this.label[t]] = t;
+        }
+
+        // states are in breadth-first order, so the failure link of a state is
+        // known before those of its children
+        this.fail = new int[states];
+        this.outputLink = new int[states];
+        this.outputLink[ROOT] = NONE;
+        for (int t = 1; t < states; t++) {
+            int s = parent[t];
+            this.fail[t] = s == ROOT ? ROOT : next(this.fail[s], this.label[t]);
+            int f = this.fail[t];
+            this.outputLink[t] = this.output[f] != NONE ? f : this.outputLink[f];
+        }
+    }
+
+    /**
+     * Returns the child of state by code, or NONE if there is none.
+     */
+    private int child(int state, int code) {
+        int lo = this.firstChild[state];
+        int hi = this.firstChild[state + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = this.label[mid];
+            if (c < code) {
+                lo = mid + 1;
+            }
+            else if (c > code) {
+                hi = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Returns the state reached from state by a letter with the given code.
+     */
+    private int next(int state, int code) {
+        if (code == 0) {
+            return ROOT;
+        }
+        while (state != ROOT) {
+            int t = child(state, code);
+            if (t != NONE) {
+                return t;
+            }
+            state = this.fail[state];
+        }
+        return this.rootNext[code];
+    }
+
+    private void report(int state, long end, MatchListener<? super E> listener) {
+        if (this.output[state] == NONE) {
+            state = this.outputLink[state];
+        }
+        while (state != NONE) {
+            int pattern = this.output[state];
+            listener.match(end - this.lengths[pattern], end, this.patterns.get(pattern));
+            state = this.outputLink[state];
+        }
+    }
+
+    private int charCode(char c) {
+        if (this.byteAlphabet) {
+            return c < 256 ? this.byteCodes[c] : 0;
+        }
+        return c < this.codes.length ? this.codes[c] : 0;
+    }
+
+    /**
+     * Reports every occurrence of a pattern in text[offset...offset + length - 1].
+     * Offsets are relative to the start of the array.
+     *
+     * @throws IllegalArgumentException
+     *             if text or listener is null
+     * @throws IndexOutOfBoundsException
+     *             if the range is not inside text
+     */
+    public void scan(byte[] text, int offset, int length, MatchListener<? super E> listener) {
+        if (text == null || listener == null) {
+            throw new IllegalArgumentException();
+        }
+        if (offset < 0 || length < 0 || offset > text.length - length) {
+            throw new IndexOutOfBoundsException();
+        }
+        int state = ROOT;
+        report(state, offset, listener);
+        for (int i = offset; i < offset + length; i++) {
+            state = next(state, this.byteCodes[text[i] & 0xFF]);
+            report(state, i + 1, listener);
+        }
+    }
+
+    /**
+     * Reports every occurrence of a pattern in text.
+     *
+     * @throws IllegalArgumentException
+     *             if text or listener is null
+     */
+    public void scan(byte[] text, MatchListener<? super E> listener) {
+        if (text == null) {
+            throw new IllegalArgumentException();
+        }
+        scan(text, 0, text.length, listener);
+    }
+
+    /**
+     * Reports every occurrence of a pattern in the remaining bytes of text,
+     * and consumes them. Offsets are relative to the position of text when
+     * the scan starts.
+     *
+     * @throws IllegalArgumentException
+     *             if text or listener is null
+     */
+    public void scan(ByteBuffer text, MatchListener<? super E> listener) {
+        if (text == null || listener == null) {
+            throw new IllegalArgumentException();
+        }
+        if (text.hasArray()) {
+            int start = text.position();
+            scan(text.array(), text.arrayOffset() + start, text.remaining(), (s, e, p) -> listener
+                    .match(s - text.arrayOffset() - start, e - text.arrayOffset() - start, p));
+            text.position(text.limit());
+            return;
+        }
+        int state = ROOT;
+        report(state, 0, listener);
+        for (long end = 1; text.hasRemaining(); end++) {
+            state = next(state, this.byteCodes[text.get() & 0xFF]);
+            report(state, end, listener);
+        }
+    }
+
+    /**
+     * Reports every occurrence of a pattern in the bytes of in, up to the end
+     * of the stream. Occurrences are reported as soon as their last byte has
+     * been read, and in is not closed.
+     *
+     * @throws IllegalArgumentException
+     *             if in or listener is null
+     * @throws IOException
+     *             if reading from in fails
+     */
+    public void scan(InputStream in, MatchListener<? super E> listener) throws IOException {
+        if (in == null || listener == null) {
+            throw new IllegalArgumentException();
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int state = ROOT;
+        long end = 0;
+        report(state, end, listener);
+        for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+            for (int i = 0; i < read; i++) {
+                state = next(state, this.byteCodes[buffer[i] & 0xFF]);
+                report(state, ++end, listener);
+            }
+        }
+    }
+
+    /**
+     * Reports every occurrence of a pattern in text.
+     *
+     * @throws IllegalArgumentException
+     *             if text or listener is null
+     */
+    public void scan(CharSequence text, MatchListener<? super E> listener) {
+        if (text == null || listener == null) {
+            throw new IllegalArgumentException();
+        }
+        int state = ROOT;
+        report(state, 0, listener);
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, charCode(text.charAt(i)));
+            report(state, i + 1, listener);
+        }
+    }
+
+    /**
+     * Returns the number of patterns.
+     */
+    public int size() {
+        return this.patterns.size();
+    }
+
+    /**
+     * Returns the number of states of the automaton, including the root.
+     */
+    public int states() {
+        return this.fail.length;
+    }
+}
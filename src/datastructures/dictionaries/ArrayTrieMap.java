@@ -0,0 +1,312 @@
+package datastructures.dictionaries;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.function.IntUnaryOperator;
+
+import cse332.interfaces.misc.Alphabet;
+import cse332.interfaces.misc.BString;
+import cse332.interfaces.trie.TrieMap;
+
+/**
+ * See cse332/interfaces/trie/TrieMap.java
+ * and cse332/interfaces/misc/Dictionary.java
+ * for method specifications.
+ *
+ * A TrieMap for small, fixed alphabets (bits, bytes). Instead of a HashMap per
+ * node, every node keeps its children in an array indexed by the ordinal of
+ * the letter that leads to them. The array only covers the window of ordinals
+ * between the smallest and the largest child seen so far, and a node with no
+ * children has no array at all, so leaves cost a single small object.
+ *
+ * Every node also keeps the number of keys in its subtree, so countPrefix
+ * does not have to search.
+ */
+public class ArrayTrieMap<A extends Comparable<A>, K extends BString<A>, V> extends TrieMap<A, K, V> {
+    protected final Alphabet<A> alphabet;
+
+    public class ArrayTrieNode extends TrieNode<ArrayTrieNode[], ArrayTrieNode> {
+        /**
+         * The ordinal of the letter leading to pointers[0].
+         */
+        public int base;
+
+        /**
+         * The number of non-null entries of pointers.
+         */
+        public int children;
+
+        /**
+         * The number of keys in the subtree rooted at this node.
+         */
+        public int count;
+
+        public ArrayTrieNode() {
+            this(null);
+        }
+
+        public ArrayTrieNode(V value) {
+            this.pointers = null;
+            this.value = value;
+        }
+
+        /**
+         * Returns the child reached by the letter with the given ordinal, or
+         * null if there is none.
+         */
+        public ArrayTrieNode get(int ordinal) {
+            ArrayTrieNode[] pointers = this.pointers;
+            int i = ordinal - this.base;
+            if (pointers == null || i < 0 || i >= pointers.length) {
+                return null;
+            }
+            return pointers[i];
+        }
+
+        /**
+         * Makes child the child reached by the letter with the given ordinal,
+         * widening the window of pointers if necessary.
+         */
+        public void put(int ordinal, ArrayTrieNode child) {
+            if (this.pointers == null) {
+                this.pointers = newArray(1);
+                this.base = ordinal;
+            }
+            else if (ordinal < this.base || ordinal >= this.base + this.pointers.length) {
+                grow(ordinal);
+            }
+            int i = ordinal - this.base;
+            if (this.pointers[i] == null) {
+                this.children++;
+            }
+            this.pointers[i] = child;
+        }
+
+        /**
+         * Removes the child reached by the letter with the given ordinal. The
+         * array is dropped once the last child is gone.
+         */
+        public void remove(int ordinal) {
+            int i = ordinal - this.base;
+            if (this.pointers == null || i < 0 || i >= this.pointers.length
+                    || this.pointers[i] == null) {
+                return;
+            }
+            this.pointers[i] = null;
+            this.children--;
+            if (this.children == 0) {
+                this.pointers = null;
+                this.base = 0;
+            }
+        }
+
+        private void grow(int ordinal) {
+            int length = this.pointers.length;
+            int lo = Math.min(this.base, ordinal);
+            int hi = Math.max(this.base + length, ordinal + 1);
+
+            // leave some slack on the side we are growing towards so that
+            // filling in a dense node does not copy the array every time
+            int slack = length / 2;
+            if (ordinal < this.base) {
+                lo = Math.max(0, lo - slack);
+            }
+            else {
+                hi = Math.min(ArrayTrieMap.this.alphabet.size(), hi + slack);
+            }
+
+            ArrayTrieNode[] grown = newArray(hi - lo);
+            System.arraycopy(this.pointers, 0, grown, this.base - lo, length);
+            this.pointers = grown;
+            this.base = lo;
+        }
+
+        @Override
+        protected int subtreeSize() {
+            return this.count;
+        }
+
+        @Override
+        protected ArrayTrieNode child(A letter) {
+            return get(ArrayTrieMap.this.alphabet.ordinal(letter));
+        }
+
+        @Override
+        public Iterator<Entry<A, ArrayTrieNode>> iterator() {
+            return new ChildIterator();
+        }
+
+        private class ChildIterator implements Iterator<Entry<A, ArrayTrieNode>> {
+            private final ArrayTrieNode[] pointers = ArrayTrieNode.this.pointers;
+            private int i = advance(0);
+
+            private int advance(int from) {
+                if (this.pointers == null) {
+                    return 0;
+                }
+                while (from < this.pointers.length && this.pointers[from] == null) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return this.pointers != null && this.i < this.pointers.length;
+            }
+
+            @Override
+            public Entry<A, ArrayTrieNode> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                A letter = ArrayTrieMap.this.alphabet.letter(ArrayTrieNode.this.base + this.i);
+                Entry<A, ArrayTrieNode> entry = new SimpleImmutableEntry<>(letter, this.pointers[this.i]);
+                this.i = advance(this.i + 1);
+                return entry;
+            }
+        }
+    }
+
+    public ArrayTrieMap(Class<K> KClass) {
+        this(KClass, Alphabet.forLetterType(BString.getLetterType(KClass)));
+    }
+
+    public ArrayTrieMap(Class<K> KClass, Alphabet<A> alphabet) {
+        super(KClass);
+        this.alphabet = alphabet;
+        this.root = new ArrayTrieNode();
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private ArrayTrieNode[] newArray(int length) {
+        return new ArrayTrieMap.ArrayTrieNode[length];
+    }
+
+    @SuppressWarnings("unchecked")
+    protected ArrayTrieNode root() {
+        return (ArrayTrieNode) this.root;
+    }
+
+    @Override
+    public V insert(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException();
+        }
+        return insert(key.size(), i -> this.alphabet.ordinal(key.letterAt(i)), value);
+    }
+
+    /**
+     * Associates value with the key of the given length whose ith letter has
+     * ordinal ordinalAt.applyAsInt(i). Subclasses with keys that are not a K
+     * use this to share the walk of insert(K, V).
+     */
+    protected V insert(int length, IntUnaryOperator ordinalAt, V value) {
+        ArrayTrieNode current = root();
+        for (int i = 0; i < length; i++) {
+            int ordinal = ordinalAt.applyAsInt(i);
+            ArrayTrieNode next = current.get(ordinal);
+            if (next == null) {
+                next = new ArrayTrieNode();
+                current.put(ordinal, next);
+            }
+            current = next;
+        }
+        V oldValue = current.value;
+        current.value = value;
+        if (oldValue == null) {
+            this.size++;
+            addToCounts(length, ordinalAt, 1);
+        }
+        return oldValue;
+    }
+
+    @Override
+    public V find(K key) {
+        ArrayTrieNode node = findNode(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public boolean findPrefix(K key) {
+        ArrayTrieNode node = findNode(key);
+        return node != null && (node.value != null || node.children > 0);
+    }
+
+    private ArrayTrieNode findNode(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        ArrayTrieNode current = root();
+        for (A letter : key) {
+            current = current.get(this.alphabet.ordinal(letter));
+            if (current == null) {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public void delete(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        delete(key.size(), i -> this.alphabet.ordinal(key.letterAt(i)));
+    }
+
+    /**
+     * Removes the mapping for the key of the given length whose ith letter
+     * has ordinal ordinalAt.applyAsInt(i), if present. Subclasses with keys
+     * that are not a K use this to share the walk of delete(K).
+     */
+    protected void delete(int length, IntUnaryOperator ordinalAt) {
+        // The deepest node on the path that has to survive the deletion (it
+        // has a value or another child), and the edge leading out of it.
+        ArrayTrieNode keep = root();
+        int keepOrdinal = -1;
+
+        ArrayTrieNode current = root();
+        for (int i = 0; i < length; i++) {
+            int ordinal = ordinalAt.applyAsInt(i);
+            if (current.value != null || current.children > 1 || keepOrdinal < 0) {
+                keep = current;
+                keepOrdinal = ordinal;
+            }
+            current = current.get(ordinal);
+            if (current == null) {
+                return;
+            }
+        }
+        if (current.value == null) {
+            return;
+        }
+        current.value = null;
+        this.size--;
+        addToCounts(length, ordinalAt, -1);
+        if (current.children == 0 && keepOrdinal >= 0) {
+            keep.remove(keepOrdinal);
+        }
+    }
+
+    /**
+     * Adds delta to the count of every node on the path of the key, which
+     * must exist, from the root down to the node of the key itself.
+     */
+    private void addToCounts(int length, IntUnaryOperator ordinalAt, int delta) {
+        ArrayTrieNode current = root();
+        current.count += delta;
+        for (int i = 0; i < length; i++) {
+            current = current.get(ordinalAt.applyAsInt(i));
+            current.count += delta;
+        }
+    }
+
+    @Override
+    public void clear() {
+        this.root = new ArrayTrieNode();
+        this.size = 0;
+    }
+}
@@ -0,0 +1,676 @@
+package datastructures.dictionaries;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import cse332.datastructures.containers.Item;
+import cse332.interfaces.trie.TrieMap;
+import cse332.types.BitString;
+import cse332.types.PackedBitString;
+
+/**
+ * See cse332/interfaces/trie/TrieMap.java
+ * and cse332/interfaces/misc/Dictionary.java
+ * for method specifications.
+ *
+ * A binary Patricia trie over BitString keys, meant for routing and access
+ * control tables, where the usual query is longestPrefixMatch. Every node
+ * other than the root either has a value or has both children, so a map with
+ * n keys has fewer than 2n nodes however long the keys are.
+ *
+ * Each node keeps the whole path from the root to it as bits packed into
+ * longs, most significant bit first (bit i of a key is bit 63 - i % 64 of
+ * word i / 64). A lookup compares a key against a node a word at a time, and
+ * the nodes that a split creates share the words of the node they split.
+ *
+ * Besides the BitString methods, every operation can be called on raw bits:
+ * either the low length bits of a long (most significant first, as in
+ * BitString.get), or the first length bits of an array of words laid out as
+ * above. These never box a bit or build a BitString.
+ *
+ * buildIndex() builds an index of the node reached by each string of
+ * INDEX_BITS leading bits, so that longest prefix lookups of longer keys skip
+ * the top of the trie. Any change drops the index. Lookups never write to the
+ * map, so threads may share a map that no longer changes once it is safely
+ * published to them; call buildIndex() before sharing it.
+ */
+public class BitPatriciaTrieMap<V> extends TrieMap<Boolean, BitString, V> {
+    public class PatriciaNode extends TrieNode<Void, PatriciaNode> {
+        /**
+         * The bits on the path from the root to this node. Only the first
+         * length bits are meaningful, and the array is never changed, so it
+         * may be shared.
+         */
+        private final long[] bits;
+
+        /**
+         * The first word of bits, kept inline so that short keys never read
+         * the array.
+         */
+        private final long first;
+        private final int length;
+
+        /**
+         * The length of the parent of this node, where the edge leading into
+         * this node starts.
+         */
+        private int start;
+
+        /**
+         * The number of keys in the subtree rooted at this node.
+         */
+        private int count;
+
+        private PatriciaNode zero;
+        private PatriciaNode one;
+
+        private PatriciaNode(long[] bits, int length, int start, V value) {
+            this.bits = bits;
+            this.first = bits.length > 0 ? bits[0] : 0;
+            this.length = length;
+            this.start = start;
+            this.value = value;
+        }
+
+        private PatriciaNode get(boolean bit) {
+            return bit ? this.one : this.zero;
+        }
+
+        private void set(boolean bit, PatriciaNode child) {
+            if (bit) {
+                this.one = child;
+            }
+            else {
+                this.zero = child;
+            }
+        }
+
+        /**
+         * Returns whether the path to this node is a prefix of the first
+         * length bits of words, given that the path to its parent is.
+         */
+        private boolean under(long[] words, int length) {
+            if (this.length > length) {
+                return false;
+            }
+            if (this.length <= 64) {
+                return ((this.first ^ words[0]) >>> (64 - this.length)) == 0;
+            }
+            return mismatch(this.bits, words, this.start, this.length) == this.length;
+        }
+
+        @Override
+        protected int edgeLength() {
+            return this.length - this.start;
+        }
+
+        @Override
+        protected Boolean edgeLetter(int i) {
+            return bit(this.bits, this.start + i);
+        }
+
+        @Override
+        protected PatriciaNode child(Boolean letter) {
+            return get(letter);
+        }
+
+        @Override
+        protected int subtreeSize() {
+            return this.count;
+        }
+
+        @Override
+        public Iterator<Entry<Boolean, PatriciaNode>> iterator() {
+            List<Entry<Boolean, PatriciaNode>> children = new ArrayList<>(2);
+            if (this.zero != null) {
+                children.add(new SimpleImmutableEntry<>(Boolean.FALSE, this.zero));
+            }
+            if (this.one != null) {
+                children.add(new SimpleImmutableEntry<>(Boolean.TRUE, this.one));
+            }
+            return children.iterator();
+        }
+    }
+
+    /**
+     * The number of leading bits that the index resolves at once.
+     */
+    private static final int INDEX_BITS = 16;
+
+    /**
+     * For every string x of INDEX_BITS bits, the deepest node whose path is
+     * a prefix of x, and the deepest such node with a value (or null).
+     */
+    private final class Index {
+        private final PatriciaNode[] nodes;
+        private final PatriciaNode[] longest;
+
+        private Index() {
+            this.nodes = newNodes(1 << INDEX_BITS);
+            this.longest = newNodes(1 << INDEX_BITS);
+            for (int x = 0; x < this.nodes.length; x++) {
+                long word = (long) x << (64 - INDEX_BITS);
+                PatriciaNode node = root();
+                PatriciaNode longest = node.value != null ? node : null;
+                while (node.length < INDEX_BITS) {
+                    PatriciaNode child = node.get((word << node.length) < 0);
+                    if (child == null || child.length > INDEX_BITS
+                            || ((child.first ^ word) >>> (64 - child.length)) != 0) {
+                        break;
+                    }
+                    node = child;
+                    if (node.value != null) {
+                        longest = node;
+                    }
+                }
+                this.nodes[x] = node;
+                this.longest[x] = longest;
+            }
+        }
+    }
+
+    /**
+     * The index, or null if it has not been built since the map last
+     * changed.
+     */
+    private Index index;
+
+    public BitPatriciaTrieMap() {
+        super(BitString.class);
+        this.root = new PatriciaNode(new long[0], 0, 0, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private PatriciaNode root() {
+        return (PatriciaNode) this.root;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private PatriciaNode[] newNodes(int length) {
+        return new BitPatriciaTrieMap.PatriciaNode[length];
+    }
+
+    private static boolean bit(long[] words, int i) {
+        return (words[i >>> 6] << (i & 63)) < 0;
+    }
+
+    /**
+     * Returns the first index in [from, limit) at which a and b differ, or
+     * limit if there is none. Both arrays must hold at least limit bits.
+     */
+    private static int mismatch(long[] a, long[] b, int from, int limit) {
+        for (int w = from >>> 6; (w << 6) < limit; w++) {
+            long diff = a[w] ^ b[w];
+            if (diff != 0) {
+                return Math.min((w << 6) + Long.numberOfLeadingZeros(diff), limit);
+            }
+        }
+        return limit;
+    }
+
+    private static long[] pack(BitString key) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        if (key instanceof PackedBitString) {
+            // already in this layout
+            return ((PackedBitString) key).toWords();
+        }
+        long[] words = new long[(key.size() + 63) >>> 6];
+        int i = 0;
+        for (Boolean bit : key) {
+            if (bit) {
+                words[i >>> 6] |= Long.MIN_VALUE >>> (i & 63);
+            }
+            i++;
+        }
+        return words;
+    }
+
+    private static long[] pack(long bits, int length) {
+        return new long[] { align(bits, length) };
+    }
+
+    /**
+     * Moves the low length bits of bits to the top of the word.
+     */
+    private static long align(long bits, int length) {
+        if (length < 0 || length > 64) {
+            throw new IndexOutOfBoundsException();
+        }
+        return length == 0 ? 0 : bits << (64 - length);
+    }
+
+    /**
+     * Returns a copy of the words that hold the first length bits, so that
+     * the caller can not change a key after it is in the map.
+     */
+    private static long[] copy(long[] words, int length) {
+        check(words, length);
+        return Arrays.copyOf(words, (length + 63) >>> 6);
+    }
+
+    private static void check(long[] words, int length) {
+        if (words == null) {
+            throw new IllegalArgumentException();
+        }
+        if (length < 0 || length > 64L * words.length) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private static BitString keyOf(long[] words, int length) {
+        return PackedBitString.of(words, length);
+    }
+
+    /**
+     * Builds the index that longest prefix lookups of keys of at least
+     * INDEX_BITS bits start from, unless it is already built. The index holds
+     * two arrays of 2^INDEX_BITS nodes, so it only pays off for large maps
+     * that are looked up much more often than they change. Any change to the
+     * map drops it.
+     */
+    public void buildIndex() {
+        if (this.index == null) {
+            this.index = new Index();
+        }
+    }
+
+    /**
+     * Drops the index, since the trie is about to change.
+     */
+    private void changed() {
+        this.index = null;
+    }
+
+    /**
+     * Returns the node whose path is exactly the first length bits of words,
+     * or null if there is none.
+     */
+    private PatriciaNode findNode(long[] words, int length) {
+        PatriciaNode node = root();
+        while (node.length < length) {
+            PatriciaNode child = node.get(bit(words, node.length));
+            if (child == null || !child.under(words, length)) {
+                return null;
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Returns the deepest node with a value whose path is a prefix of the
+     * first length bits of words, or null if there is none.
+     */
+    private PatriciaNode longestPrefixNode(long[] words, int length) {
+        PatriciaNode node = root();
+        PatriciaNode longest = node.value != null ? node : null;
+        Index index = length >= INDEX_BITS ? this.index : null;
+        if (index != null) {
+            int x = (int) (words[0] >>> (64 - INDEX_BITS));
+            node = index.nodes[x];
+            longest = index.longest[x];
+        }
+        while (node.length < length) {
+            PatriciaNode child = node.get(bit(words, node.length));
+            if (child == null || !child.under(words, length)) {
+                break;
+            }
+            node = child;
+            if (node.value != null) {
+                longest = node;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Does the same as longestPrefixNode for a key of at most 64 bits held
+     * at the top of word, without an array.
+     */
+    private PatriciaNode longestPrefixNode(long word, int length) {
+        PatriciaNode node = root();
+        PatriciaNode longest = node.value != null ? node : null;
+        Index index = length >= INDEX_BITS ? this.index : null;
+        if (index != null) {
+            int x = (int) (word >>> (64 - INDEX_BITS));
+            node = index.nodes[x];
+            longest = index.longest[x];
+        }
+        while (node.length < length) {
+            PatriciaNode child = node.get((word << node.length) < 0);
+            if (child == null || child.length > length || ((child.first ^ word) >>> (64 - child.length)) != 0) {
+                break;
+            }
+            node = child;
+            if (node.value != null) {
+                longest = node;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Maps the first length bits of words to value. The array may end up in
+     * the map, so the caller must not change it afterwards.
+     */
+    private V put(long[] words, int length, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException();
+        }
+        changed();
+        // the nodes whose counts change if the key is new
+        PatriciaNode[] path = newNodes(length + 1);
+        int depth = 0;
+        PatriciaNode node = root();
+        path[0] = node;
+        while (node.length < length) {
+            boolean side = bit(words, node.length);
+            PatriciaNode child = node.get(side);
+            if (child == null) {
+                PatriciaNode leaf = new PatriciaNode(words, length, node.length, value);
+                leaf.count = 1;
+                node.set(side, leaf);
+                return added(path, depth);
+            }
+
+            int split = mismatch(child.bits, words, node.length + 1, Math.min(child.length, length));
+            if (split < child.length) {
+                // the key leaves the edge part of the way along it, so split
+                // the edge in two at that point
+                PatriciaNode middle = new PatriciaNode(child.bits, split, node.length, null);
+                middle.count = child.count + 1;
+                child.start = split;
+                middle.set(bit(child.bits, split), child);
+                node.set(side, middle);
+                if (split == length) {
+                    middle.value = value;
+                }
+                else {
+                    PatriciaNode leaf = new PatriciaNode(words, length, split, value);
+                    leaf.count = 1;
+                    middle.set(bit(words, split), leaf);
+                }
+                return added(path, depth);
+            }
+            node = child;
+            path[++depth] = node;
+        }
+
+        V oldValue = node.value;
+        node.value = value;
+        if (oldValue == null) {
+            added(path, depth);
+        }
+        return oldValue;
+    }
+
+    /**
+     * Counts a new key in path[0..depth] and in size.
+     */
+    private V added(PatriciaNode[] path, int depth) {
+        for (int i = 0; i <= depth; i++) {
+            path[i].count++;
+        }
+        this.size++;
+        return null;
+    }
+
+    private void remove(long[] words, int length) {
+        PatriciaNode[] path = newNodes(length + 1);
+        int depth = 0;
+        PatriciaNode node = root();
+        path[0] = node;
+        while (node.length < length) {
+            PatriciaNode child = node.get(bit(words, node.length));
+            if (child == null || !child.under(words, length)) {
+                return;
+            }
+            node = child;
+            path[++depth] = node;
+        }
+        if (node.value == null) {
+            return;
+        }
+
+        changed();
+        node.value = null;
+        this.size--;
+        for (int i = 0; i <= depth; i++) {
+            path[i].count--;
+        }
+        if (depth == 0) {
+            return;
+        }
+
+        // a node without a value must keep both children (unless it is the
+        // root), so unlink it or merge it with its only child
+        PatriciaNode parent = path[depth - 1];
+        PatriciaNode only = onlyChild(node);
+        if (node.zero == null && node.one == null) {
+            parent.set(bit(node.bits, parent.length), null);
+            if (depth >= 2 && parent.value == null) {
+                PatriciaNode grandparent = path[depth - 2];
+                PatriciaNode sibling = onlyChild(parent);
+                sibling.start = parent.start;
+                grandparent.set(bit(parent.bits, grandparent.length), sibling);
+            }
+        }
+        else if (only != null) {
+            only.start = node.start;
+            parent.set(bit(node.bits, parent.length), only);
+        }
+    }
+
+    /**
+     * Returns the child of node if it has exactly one, or null.
+     */
+    private PatriciaNode onlyChild(PatriciaNode node) {
+        if (node.zero == null) {
+            return node.one;
+        }
+        return node.one == null ? node.zero : null;
+    }
+
+    @Override
+    public V insert(BitString key, V value) {
+        return put(pack(key), key.size(), value);
+    }
+
+    @Override
+    public V find(BitString key) {
+        PatriciaNode node = findNode(pack(key), key.size());
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public boolean findPrefix(BitString key) {
+        return findPrefix(pack(key), key.size());
+    }
+
+    @Override
+    public void delete(BitString key) {
+        remove(pack(key), key.size());
+    }
+
+    @Override
+    public void clear() {
+        changed();
+        this.root = new PatriciaNode(new long[0], 0, 0, null);
+        this.size = 0;
+    }
+
+    /**
+     * Finds the longest match in one pass over the packed key, and only
+     * builds the key of that match.
+     */
+    @Override
+    public Item<BitString, V> longestPrefixMatch(BitString key) {
+        long[] words = pack(key);
+        PatriciaNode node = longestPrefixNode(words, key.size());
+        return node == null ? null : new Item<>(keyOf(words, node.length), node.value);
+    }
+
+    @Override
+    public List<Item<BitString, V>> allPrefixMatches(BitString key) {
+        long[] words = pack(key);
+        int length = key.size();
+        List<Item<BitString, V>> matches = new ArrayList<>();
+        PatriciaNode node = root();
+        while (true) {
+            if (node.value != null) {
+                matches.add(new Item<>(keyOf(words, node.length), node.value));
+            }
+            if (node.length == length) {
+                break;
+            }
+            PatriciaNode child = node.get(bit(words, node.length));
+            if (child == null || !child.under(words, length)) {
+                break;
+            }
+            node = child;
+        }
+        return matches;
+    }
+
+    /**
+     * Associates value with the key made of the low length bits of bits,
+     * most significant first.
+     *
+     * @return the previous value associated with the key, or null if there
+     *         was no mapping for the key.
+     * @throws IllegalArgumentException
+     *             if value is null.
+     * @throws IndexOutOfBoundsException
+     *             if length is not between 0 and 64.
+     */
+    public V insert(long bits, int length, V value) {
+        return put(pack(bits, length), length, value);
+    }
+
+    /**
+     * Associates value with the key made of the first length bits of words.
+     *
+     * @return the previous value associated with the key, or null if there
+     *         was no mapping for the key.
+     * @throws IllegalArgumentException
+     *             if words or value is null.
+     * @throws IndexOutOfBoundsException
+     *             if words holds fewer than length bits.
+     */
+    public V insert(long[] words, int length, V value) {
+        return put(copy(words, length), length, value);
+    }
+
+    /**
+     * Returns the value associated with the key made of the low length bits
+     * of bits, or null if there is none.
+     *
+     * @throws IndexOutOfBoundsException
+     *             if length is not between 0 and 64.
+     */
+    public V find(long bits, int length) {
+        PatriciaNode node = longestPrefixNode(align(bits, length), length);
+        return node == null || node.length != length ? null : node.value;
+    }
+
+    /**
+     * Returns the value associated with the key made of the first length
+     * bits of words, or null if there is none.
+     *
+     * @throws IllegalArgumentException
+     *             if words is null.
+     * @throws IndexOutOfBoundsException
+     *             if words holds fewer than length bits.
+     */
+    public V find(long[] words, int length) {
+        check(words, length);
+        PatriciaNode node = findNode(words, length);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Returns true if some key in this map starts with the first length bits
+     * of words.
+     *
+     * @throws IllegalArgumentException
+     *             if words is null.
+     * @throws IndexOutOfBoundsException
+     *             if words holds fewer than length bits.
+     */
+    public boolean findPrefix(long[] words, int length) {
+        check(words, length);
+        PatriciaNode node = root();
+        while (node.length < length) {
+            PatriciaNode child = node.get(bit(words, node.length));
+            if (child == null) {
+                return false;
+            }
+            int limit = Math.min(child.length, length);
+            if (mismatch(child.bits, words, child.start, limit) < limit) {
+                return false;
+            }
+            node = child;
+        }
+        // every node other than the root has a key below it
+        return node != root() || node.value != null || node.zero != null || node.one != null;
+    }
+
+    /**
+     * Removes the mapping for the key made of the low length bits of bits,
+     * if there is one.
+     *
+     * @throws IndexOutOfBoundsException
+     *             if length is not between 0 and 64.
+     */
+    public void delete(long bits, int length) {
+        remove(pack(bits, length), length);
+    }
+
+    /**
+     * Removes the mapping for the key made of the first length bits of
+     * words, if there is one.
+     *
+     * @throws IllegalArgumentException
+     *             if words is null.
+     * @throws IndexOutOfBoundsException
+     *             if words holds fewer than length bits.
+     */
+    public void delete(long[] words, int length) {
+        check(words, length);
+        remove(words, length);
+    }
+
+    /**
+     * Returns the value of the longest key that is a prefix of the low
+     * length bits of bits, or null if there is none. This is the lookup of a
+     * routing table keyed by addresses of up to 64 bits.
+     *
+     * @throws IndexOutOfBoundsException
+     *             if length is not between 0 and 64.
+     */
+    public V longestPrefixValue(long bits, int length) {
+        PatriciaNode node = longestPrefixNode(align(bits, length), length);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Returns the value of the longest key that is a prefix of the first
+     * length bits of words, or null if there is none.
+     *
+     * @throws IllegalArgumentException
+     *             if words is null.
+     * @throws IndexOutOfBoundsException
+     *             if words holds fewer than length bits.
+     */
+    public V longestPrefixValue(long[] words, int length) {
+        check(words, length);
+        PatriciaNode node = longestPrefixNode(words, length);
+        return node == null ? null : node.value;
+    }
+}
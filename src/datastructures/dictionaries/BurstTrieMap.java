@@ -0,0 +1,593 @@
+package datastructures.dictionaries;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import cse332.interfaces.misc.Alphabet;
+import cse332.interfaces.misc.BString;
+import cse332.interfaces.trie.TrieMap;
+
+/**
+ * See cse332/interfaces/trie/TrieMap.java
+ * and cse332/interfaces/misc/Dictionary.java
+ * for method specifications.
+ *
+ * A burst trie with array-hash containers, also called a HAT-trie (Askitis
+ * and Sinha, "HAT-trie: A Cache-conscious Trie-based Data Structure for
+ * Strings", 2007). The top of the map is an ordinary trie, but its subtrees
+ * are containers: small hash tables that hold the rest of every key below
+ * them (the suffix after the path to the container). Each bucket of a
+ * container is one char[] with its suffixes packed one after the other as
+ * (length, letters...), so looking a suffix up reads one contiguous array
+ * instead of following a pointer per letter. Letters are stored as their
+ * ordinals in the alphabet of the keys.
+ *
+ * A container that grows past the burst threshold bursts: it is replaced by
+ * a trie node whose children are new containers, one per first letter of
+ * the suffixes. So frequent prefixes end up in the trie, where prefix
+ * queries can walk them, and the sparse bottom of the map stays packed.
+ *
+ * The TrieNode view that the generic iterator and prefix queries walk
+ * presents each container as a trie over its sorted suffixes.
+ */
+public class BurstTrieMap<A extends Comparable<A>, K extends BString<A>, V> extends TrieMap<A, K, V> {
+    public static final int DEFAULT_BURST_THRESHOLD = 1024;
+    private static final int BUCKETS = 64;
+    private static final char[] NO_LETTERS = new char[0];
+    private static final int MAX_SUFFIX = Character.MAX_VALUE;
+
+    private final Alphabet<A> alphabet;
+    private final int burstThreshold;
+
+    /**
+     * The top of the map: a Node or a Container.
+     */
+    private Object top;
+
+    /**
+     * A trie node. letters is sorted, and letters[i] leads to children[i],
+     * which is a Node or a Container.
+     */
+    private static final class Node {
+        private char[] letters = new char[2];
+        private Object[] children = new Object[2];
+        private int count;
+        private Object value;
+
+        private int indexOf(char letter) {
+            return Arrays.binarySearch(this.letters, 0, this.count, letter);
+        }
+
+        private void insertChild(int pos, char letter, Object child) {
+            if (this.count == this.letters.length) {
+                this.letters = Arrays.copyOf(this.letters, 2 * this.count);
+                this.children = Arrays.copyOf(this.children, 2 * this.count);
+            }
+            System.arraycopy(this.letters, pos, this.letters, pos + 1, this.count - pos);
+            System.arraycopy(this.children, pos, this.children, pos + 1, this.count - pos);
+            this.letters[pos] = letter;
+            this.children[pos] = child;
+            this.count++;
+        }
+
+        private void removeChild(int pos) {
+            this.count--;
+            System.arraycopy(this.letters, pos + 1, this.letters, pos, this.count - pos);
+            System.arraycopy(this.children, pos + 1, this.children, pos, this.count - pos);
+            this.children[this.count] = null;
+        }
+    }
+
+    /**
+     * An array hash table of suffixes. Bucket i holds counts[i] suffixes in
+     * slots[i][0...used[i] - 1], each as its length followed by its letters,
+     * and their values in the same order in values[i].
+     */
+    private static final class Container {
+        private final char[][] slots = new char[BUCKETS][];
+        private final Object[][] values = new Object[BUCKETS][];
+        private final int[] used = new int[BUCKETS];
+        private final int[] counts = new int[BUCKETS];
+        private int size;
+
+        private static int bucket(char[] key, int from) {
+            int h = 0;
+            for (int i = from; i < key.length; i++) {
+                h = 31 * h + key[i];
+            }
+            h ^= h >>> 16;
+            return h & (BUCKETS - 1);
+        }
+
+        /**
+         * Returns the offset in slots[b] of the suffix key[from...], or -1,
+         * and leaves its index among the entries of the bucket in index[0].
+         */
+        private int locate(int b, char[] key, int from, int[] index) {
+            char[] slot = this.slots[b];
+            int length = key.length - from;
+            int offset = 0;
+            for (int i = 0; i < this.counts[b]; i++) {
+                int entryLength = slot[offset];
+                if (entryLength == length
+                        && Arrays.equals(slot, offset + 1, offset + 1 + length, key, from, key.length)) {
+                    index[0] = i;
+                    return offset;
+                }
+                offset += entryLength + 1;
+            }
+            return -1;
+        }
+
+        private Object find(char[] key, int from) {
+            int b = bucket(key, from);
+            int[] index = new int[1];
+            return locate(b, key, from, index) < 0 ? null : this.values[b][index[0]];
+        }
+
+        /**
+         * Maps key[from...] to value and returns the old value, or null.
+         */
+        private Object put(char[] key, int from, Object value) {
+            int b = bucket(key, from);
+            int[] index = new int[1];
+            if (locate(b, key, from, index) >= 0) {
+                Object oldValue = this.values[b][index[0]];
+                this.values[b][index[0]] = value;
+                return oldValue;
+            }
+            int length = key.length - from;
+            if (this.slots[b] == null) {
+                this.slots[b] = new char[Math.max(8, length + 1)];
+                this.values[b] = new Object[2];
+            }
+            if (this.used[b] + length + 1 > this.slots[b].length) {
+                this.slots[b] = Arrays.copyOf(this.slots[b], Math.max(this.used[b] + length + 1, 2 * this.slots[b].length));
+            }
+            if (this.counts[b] == this.values[b].length) {
+                this.values[b] = Arrays.copyOf(this.values[b], 2 * this.counts[b]);
+            }
+            char[] slot = this.slots[b];
+            slot[this.used[b]] = (char) length;
+            System.arraycopy(key, from, slot, this.used[b] + 1, length);
+            this.used[b] += length + 1;
+            this.values[b][this.counts[b]++] = value;
+            this.size++;
+            return null;
+        }
+
+        /**
+         * Removes key[from...] and returns its value, or null.
+         */
+        private Object remove(char[] key, int from) {
+            int b = bucket(key, from);
+            int[] index = new int[1];
+            int offset = locate(b, key, from, index);
+            if (offset < 0) {
+                return null;
+            }
+            int entry = key.length - from + 1;
+            System.arraycopy(this.slots[b], offset + entry, this.slots[b], offset, this.used[b] - offset - entry);
+            this.used[b] -= entry;
+            Object oldValue = this.values[b][index[0]];
+            this.counts[b]--;
+            System.arraycopy(this.values[b], index[0] + 1, this.values[b], index[0], this.counts[b] - index[0]);
+            this.values[b][this.counts[b]] = null;
+            this.size--;
+            if (this.counts[b] == 0) {
+                this.slots[b] = null;
+                this.values[b] = null;
+            }
+            return oldValue;
+        }
+
+        /**
+         * Returns whether some suffix starts with key[from...].
+         */
+        private boolean hasPrefix(char[] key, int from) {
+            int length = key.length - from;
+            for (int b = 0; b < BUCKETS; b++) {
+                char[] slot = this.slots[b];
+                int offset = 0;
+                for (int i = 0; i < this.counts[b]; i++) {
+                    int entryLength = slot[offset];
+                    if (entryLength >= length
+                            && Arrays.equals(slot, offset + 1, offset + 1 + length, key, from, key.length)) {
+                        return true;
+                    }
+                    offset += entryLength + 1;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Calls visitor on every suffix and its value.
+         */
+        private void forEach(SuffixVisitor visitor) {
+            for (int b = 0; b < BUCKETS; b++) {
+                char[] slot = this.slots[b];
+                int offset = 0;
+                for (int i = 0; i < this.counts[b]; i++) {
+                    int entryLength = slot[offset];
+                    visitor.visit(slot, offset + 1, entryLength, this.values[b][i]);
+                    offset += entryLength + 1;
+                }
+            }
+        }
+    }
+
+    private interface SuffixVisitor {
+        void visit(char[] slot, int offset, int length, Object value);
+    }
+
+    public abstract class BurstNode extends TrieNode<Void, BurstNode> {
+    }
+
+    private class NodeView extends BurstNode {
+        private final Node node;
+
+        @SuppressWarnings("unchecked")
+        private NodeView(Node node) {
+            this.node = node;
+            this.value = (V) node.value;
+        }
+
+        @Override
+        protected BurstNode child(A letter) {
+            int pos = this.node.indexOf((char) BurstTrieMap.this.alphabet.ordinal(letter));
+            return pos < 0 ? null : view(this.node.children[pos]);
+        }
+
+        @Override
+        public Iterator<Entry<A, BurstNode>> iterator() {
+            List<Entry<A, BurstNode>> children = new ArrayList<>(this.node.count);
+            for (int i = 0; i < this.node.count; i++) {
+                children.add(new SimpleImmutableEntry<>(BurstTrieMap.this.alphabet.letter(this.node.letters[i]),
+                        view(this.node.children[i])));
+            }
+            return children.iterator();
+        }
+    }
+
+    /**
+     * A sorted copy of the suffixes of a container, made the first time a
+     * view needs the children of the container.
+     */
+    private static final class SortedSuffixes {
+        private final Container container;
+        private char[][] suffixes;
+        private Object[] values;
+
+        private SortedSuffixes(Container container) {
+            this.container = container;
+        }
+
+        private void sort() {
+            if (this.suffixes != null) {
+                return;
+            }
+            int n = this.container.size;
+            char[][] suffixes = new char[n][];
+            Object[] values = new Object[n];
+            Integer[] order = new Integer[n];
+            int[] next = new int[1];
+            this.container.forEach((slot, offset, length, value) -> {
+                suffixes[next[0]] = Arrays.copyOfRange(slot, offset, offset + length);
+                values[next[0]] = value;
+                order[next[0]] = next[0];
+                next[0]++;
+            });
+            Arrays.sort(order, (x, y) -> Arrays.compare(suffixes[x], suffixes[y]));
+            this.suffixes = new char[n][];
+            this.values = new Object[n];
+            for (int i = 0; i < n; i++) {
+                this.suffixes[i] = suffixes[order[i]];
+                this.values[i] = values[order[i]];
+            }
+        }
+    }
+
+    /**
+     * The position depth letters into the sorted suffixes[lo...hi - 1] of a
+     * container, all of which agree on those letters. The view of the whole
+     * container (depth 0) looks its value up directly, and only sorts the
+     * container when its children are asked for.
+     */
+    private class ContainerView extends BurstNode {
+        private final SortedSuffixes sorted;
+        private final int lo;
+        private final int hi;
+        private final int depth;
+
+        @SuppressWarnings("unchecked")
+        private ContainerView(Container container) {
+            this.sorted = new SortedSuffixes(container);
+            this.lo = 0;
+            this.hi = container.size;
+            this.depth = 0;
+            this.value = (V) container.find(NO_LETTERS, 0);
+        }
+
+        @SuppressWarnings("unchecked")
+        private ContainerView(SortedSuffixes sorted, int lo, int hi, int depth) {
+            this.sorted = sorted;
+            this.lo = lo;
+            this.hi = hi;
+            this.depth = depth;
+            this.value = sorted.suffixes[lo].length == depth ? (V) sorted.values[lo] : null;
+        }
+
+        @Override
+        public Iterator<Entry<A, BurstNode>> iterator() {
+            this.sorted.sort();
+            char[][] suffixes = this.sorted.suffixes;
+            List<Entry<A, BurstNode>> children = new ArrayList<>();
+            int i = this.value != null ? this.lo + 1 : this.lo;
+            while (i < this.hi) {
+                char letter = suffixes[i][this.depth];
+                int j = i + 1;
+                while (j < this.hi && suffixes[j][this.depth] == letter) {
+                    j++;
+                }
+                children.add(new SimpleImmutableEntry<>(BurstTrieMap.this.alphabet.letter(letter),
+                        new ContainerView(this.sorted, i, j, this.depth + 1)));
+                i = j;
+            }
+            return children.iterator();
+        }
+    }
+
+    private BurstNode view(Object node) {
+        return node instanceof Node ? new NodeView((Node) node) : new ContainerView((Container) node);
+    }
+
+    public BurstTrieMap(Class<K> KClass) {
+        this(KClass, DEFAULT_BURST_THRESHOLD);
+    }
+
+    /**
+     * Creates an empty map whose containers burst once they hold more than
+     * burstThreshold suffixes.
+     *
+     * @throws IllegalArgumentException
+     *             if burstThreshold is not positive.
+     */
+    public BurstTrieMap(Class<K> KClass, int burstThreshold) {
+        super(KClass);
+        if (burstThreshold <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.alphabet = Alphabet.forLetterType(BString.getLetterType(KClass));
+        this.burstThreshold = burstThreshold;
+        clear();
+    }
+
+    private char[] encode(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        char[] letters = new char[key.size()];
+        int i = 0;
+        for (A letter : key) {
+            letters[i++] = (char) this.alphabet.ordinal(letter);
+        }
+        return letters;
+    }
+
+    /**
+     * Points root at a view of the current top. The view caches the value at
+     * the top, so this has to be done after every change.
+     */
+    private void updateRoot() {
+        this.root = view(this.top);
+    }
+
+    /**
+     * Replaces a container by a trie node whose children hold its suffixes,
+     * split by their first letter.
+     */
+    private static Node burst(Container container) {
+        Node node = new Node();
+        container.forEach((slot, offset, length, value) -> {
+            if (length == 0) {
+                node.value = value;
+                return;
+            }
+            char letter = slot[offset];
+            int pos = node.indexOf(letter);
+            if (pos < 0) {
+                pos = -(pos + 1);
+                node.insertChild(pos, letter, new Container());
+            }
+            ((Container) node.children[pos]).put(Arrays.copyOfRange(slot, offset, offset + length), 1, value);
+        });
+        return node;
+    }
+
+    private void replace(Node parent, int pos, Object child) {
+        if (parent == null) {
+            this.top = child;
+        }
+        else {
+            parent.children[pos] = child;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V insert(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException();
+        }
+        char[] k = encode(key);
+        Node parent = null;
+        int parentPos = -1;
+        Object current = this.top;
+        int depth = 0;
+        while (true) {
+            if (current instanceof Container) {
+                if (k.length - depth <= MAX_SUFFIX) {
+                    break;
+                }
+                // the length of a suffix has to fit in one char
+                current = burst((Container) current);
+                replace(parent, parentPos, current);
+            }
+            Node node = (Node) current;
+            if (depth == k.length) {
+                V oldValue = (V) node.value;
+                node.value = value;
+                if (oldValue == null) {
+                    this.size++;
+                }
+                updateRoot();
+                return oldValue;
+            }
+            int pos = node.indexOf(k[depth]);
+            if (pos < 0) {
+                pos = -(pos + 1);
+                node.insertChild(pos, k[depth], new Container());
+            }
+            parent = node;
+            parentPos = pos;
+            current = node.children[pos];
+            depth++;
+        }
+        Container container = (Container) current;
+        V oldValue = (V) container.put(k, depth, value);
+        if (oldValue == null) {
+            this.size++;
+            if (container.size > this.burstThreshold) {
+                replace(parent, parentPos, burst(container));
+            }
+        }
+        updateRoot();
+        return oldValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V find(K key) {
+        char[] k = encode(key);
+        Object current = this.top;
+        int depth = 0;
+        while (current instanceof Node) {
+            Node node = (Node) current;
+            if (depth == k.length) {
+                return (V) node.value;
+            }
+            int pos = node.indexOf(k[depth++]);
+            if (pos < 0) {
+                return null;
+            }
+            current = node.children[pos];
+        }
+        return (V) ((Container) current).find(k, depth);
+    }
+
+    @Override
+    public boolean findPrefix(K key) {
+        char[] k = encode(key);
+        Object current = this.top;
+        int depth = 0;
+        while (current instanceof Node) {
+            Node node = (Node) current;
+            if (depth == k.length) {
+                // empty nodes are pruned, so every node holds some key
+                return true;
+            }
+            int pos = node.indexOf(k[depth++]);
+            if (pos < 0) {
+                return false;
+            }
+            current = node.children[pos];
+        }
+        return ((Container) current).hasPrefix(k, depth);
+    }
+
+    @Override
+    public void delete(K key) {
+        char[] k = encode(key);
+        Node[] path = new Node[k.length + 1];
+        int[] positions = new int[k.length + 1];
+        Object current = this.top;
+        int depth = 0;
+        while (current instanceof Node) {
+            Node node = (Node) current;
+            path[depth] = node;
+            if (depth == k.length) {
+                if (node.value != null) {
+                    node.value = null;
+                    this.size--;
+                    prune(path, positions, depth);
+                    updateRoot();
+                }
+                return;
+            }
+            int pos = node.indexOf(k[depth]);
+            if (pos < 0) {
+                return;
+            }
+            positions[depth] = pos;
+            current = node.children[pos];
+            depth++;
+        }
+        Container container = (Container) current;
+        if (container.remove(k, depth) != null) {
+            this.size--;
+            if (container.size == 0 && depth > 0) {
+                path[depth - 1].removeChild(positions[depth - 1]);
+                prune(path, positions, depth - 1);
+            }
+            updateRoot();
+        }
+    }
+
+    /**
+     * Removes the nodes at the end of path[0...depth] that have neither a
+     * value nor a child left.
+     */
+    private void prune(Node[] path, int[] positions, int depth) {
+        while (depth > 0 && path[depth].count == 0 && path[depth].value == null) {
+            depth--;
+            path[depth].removeChild(positions[depth]);
+        }
+        if (depth == 0 && path[0].count == 0 && path[0].value == null) {
+            this.top = new Container();
+        }
+    }
+
+    @Override
+    public void clear() {
+        this.top = new Container();
+        this.size = 0;
+        updateRoot();
+    }
+
+    /**
+     * Returns the number of trie nodes and the number of containers.
+     */
+    public int[] nodeCounts() {
+        int[] counts = new int[2];
+        count(this.top, counts);
+        return counts;
+    }
+
+    private static void count(Object node, int[] counts) {
+        if (node instanceof Node) {
+            counts[0]++;
+            Node n = (Node) node;
+            for (int i = 0; i < n.count; i++) {
+                count(n.children[i], counts);
+            }
+        }
+        else {
+            counts[1]++;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package datastructures.dictionaries;
+
+import cse332.interfaces.misc.Alphabet;
+import cse332.types.ByteString;
+
+/**
+ * See cse332/interfaces/trie/TrieMap.java
+ * and cse332/interfaces/misc/Dictionary.java
+ * for method specifications.
+ *
+ * An ArrayTrieMap over ByteString keys that can also be queried with slices of
+ * raw byte arrays. The byte[] methods index the child arrays with the bytes
+ * themselves, so they never box a letter or build a ByteString. find and
+ * findPrefix never allocate; insert and delete share the walks of
+ * ArrayTrieMap and only allocate the nodes they create and the lambda that
+ * maps a position to its ordinal.
+ */
+public class ByteTrieMap<V> extends ArrayTrieMap<Byte, ByteString, V> {
+
+    public ByteTrieMap() {
+        super(ByteString.class, Alphabet.BYTES);
+    }
+
+    /**
+     * Associates value with the key key[off], ..., key[off + len - 1].
+     *
+     * @return the previous value associated with the key, or null if there
+     *         was no mapping for the key.
+     * @throws IllegalArgumentException
+     *             if either key or value is null.
+     * @throws IndexOutOfBoundsException
+     *             if off and len do not describe a slice of key.
+     */
+    public V insert(byte[] key, int off, int len, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException();
+        }
+        checkSlice(key, off, len);
+        return insert(len, i -> key[off + i] + 128, value);
+    }
+
+    public V insert(byte[] key, V value) {
+        return insert(key, 0, key == null ? 0 : key.length, value);
+    }
+
+    /**
+     * Returns the value associated with the key key[off], ..., key[off + len - 1],
+     * or null if there is none.
+     *
+     * @throws IllegalArgumentException
+     *             if key is null.
+     * @throws IndexOutOfBoundsException
+     *             if off and len do not describe a slice of key.
+     */
+    public V find(byte[] key, int off, int len) {
+        ArrayTrieNode node = findNode(key, off, len);
+        return node == null ? null : node.value;
+    }
+
+    public V find(byte[] key) {
+        return find(key, 0, key == null ? 0 : key.length);
+    }
+
+    /**
+     * Returns true if some key in this map starts with key[off], ...,
+     * key[off + len - 1].
+     *
+     * @throws IllegalArgumentException
+     *             if key is null.
+     * @throws IndexOutOfBoundsException
+     *             if off and len do not describe a slice of key.
+     */
+    public boolean findPrefix(byte[] key, int off, int len) {
+        ArrayTrieNode node = findNode(key, off, len);
+        return node != null && (node.value != null || node.children > 0);
+    }
+
+    public boolean findPrefix(byte[] key) {
+        return findPrefix(key, 0, key == null ? 0 : key.length);
+    }
+
+    /**
+     * Removes the mapping for the key key[off], ..., key[off + len - 1] if
+     * present.
+     *
+     * @throws IllegalArgumentException
+     *             if key is null.
+     * @throws IndexOutOfBoundsException
+     *             if off and len do not describe a slice of key.
+     */
+    public void delete(byte[] key, int off, int len) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        checkSlice(key, off, len);
+        delete(len, i -> key[off + i] + 128);
+    }
+
+    public void delete(byte[] key) {
+        delete(key, 0, key == null ? 0 : key.length);
+    }
+
+    private ArrayTrieNode findNode(byte[] key, int off, int len) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        checkSlice(key, off, len);
+        ArrayTrieNode current = root();
+        for (int i = off; i < off + len && current != null; i++) {
+            current = current.get(key[i] + 128);
+        }
+        return current;
+    }
+
+    private static void checkSlice(byte[] key, int off, int len) {
+        if (off < 0 || len < 0 || off > key.length - len) {
+            throw new IndexOutOfBoundsException("off = " + off + ", len = " + len
+                    + ", length = " + key.length);
+        }
+    }
+}
@@ -0,0 +1,929 @@
+package datastructures.dictionaries;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import cse332.datastructures.containers.Item;
+import cse332.interfaces.misc.BString;
+import cse332.interfaces.trie.TrieCursor;
+import cse332.interfaces.trie.TrieMap;
+
+/**
+ * See cse332/interfaces/trie/TrieMap.java
+ * and cse332/interfaces/misc/Dictionary.java
+ * for method specifications.
+ *
+ * A lock-free, thread-safe TrieMap in the style of the Ctrie of Prokopec et
+ * al. ("Concurrent Tries with Efficient Non-Blocking Snapshots", PPoPP 2012),
+ * adapted from hash tries to tries over the letters of the keys.
+ *
+ * Every trie node is an indirection node (INode) that points to an immutable
+ * main node (a CNode holding the value and the sorted children of the node).
+ * An update copies the one CNode it changes and swaps it into the INode with
+ * a single compare-and-set, so insert, find, delete and putIfAbsent are all
+ * linearizable. compute, computeIfAbsent and merge read the old value and
+ * then install the new one only if the value is still the one they read,
+ * retrying otherwise, so they are linearizable too. A node that becomes empty
+ * is entombed (TNode) and then removed from its parent.
+ *
+ * snapshot() and readOnlySnapshot() take O(1) time: they start a new
+ * generation at the root, and the INodes of the older generation are copied
+ * lazily by the first update that walks through them (GCAS and RDCSS below).
+ * Iteration and the prefix queries of TrieMap run over a read-only snapshot,
+ * so they see a consistent state of the map no matter what other threads do.
+ */
+public class ConcurrentTrieMap<A extends Comparable<A>, K extends BString<A>, V> extends TrieMap<A, K, V> {
+    /**
+     * Returned by the recursive operations when they have to start over from
+     * the root.
+     */
+    private static final Object RESTART = new Object();
+
+    /**
+     * Passed as the expected value of the recursive insert and remove to
+     * change the value of a key whatever it is.
+     */
+    private static final Object ANY = new Object();
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<INode, MainNode> MAIN =
+            AtomicReferenceFieldUpdater.newUpdater(INode.class, MainNode.class, "main");
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<MainNode, MainNode> PREV =
+            AtomicReferenceFieldUpdater.newUpdater(MainNode.class, MainNode.class, "prev");
+
+    /**
+     * A generation of INodes. An INode may only be changed in place while it
+     * belongs to the same generation as the root.
+     */
+    private static final class Gen {
+    }
+
+    private abstract static class MainNode<A extends Comparable<A>, V> {
+        /**
+         * The main node this one replaced, while the GCAS that installed this
+         * one is still pending.
+         */
+        volatile MainNode<A, V> prev;
+    }
+
+    /**
+     * An immutable trie node: a value (possibly null) and the children of the
+     * node, sorted by letter.
+     */
+    private static final class CNode<A extends Comparable<A>, V> extends MainNode<A, V> {
+        final V value;
+        final Object[] letters;
+        final INode<A, V>[] children;
+
+        CNode(V value, Object[] letters, INode<A, V>[] children) {
+            this.value = value;
+            this.letters = letters;
+            this.children = children;
+        }
+
+        @SuppressWarnings("unchecked")
+        A letter(int i) {
+            return (A) this.letters[i];
+        }
+
+        /**
+         * Returns the index of letter, or (-(insertion point) - 1).
+         */
+        int indexOf(A letter) {
+            int lo = 0;
+            int hi = this.letters.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = letter(mid).compareTo(letter);
+                if (cmp < 0) {
+                    lo = mid + 1;
+                }
+                else if (cmp > 0) {
+                    hi = mid - 1;
+                }
+                else {
+                    return mid;
+                }
+            }
+            return -(lo + 1);
+        }
+
+        CNode<A, V> withValue(V value) {
+            return new CNode<>(value, this.letters, this.children);
+        }
+
+        CNode<A, V> inserted(int pos, A letter, INode<A, V> child) {
+            int n = this.letters.length;
+            Object[] letters = new Object[n + 1];
+            INode<A, V>[] children = newINodes(n + 1);
+            System.arraycopy(this.letters, 0, letters, 0, pos);
+            System.arraycopy(this.children, 0, children, 0, pos);
+            letters[pos] = letter;
+            children[pos] = child;
+            System.arraycopy(this.letters, pos, letters, pos + 1, n - pos);
+            System.arraycopy(this.children, pos, children, pos + 1, n - pos);
+            return new CNode<>(this.value, letters, children);
+        }
+
+        CNode<A, V> removed(int pos) {
+            int n = this.letters.length;
+            Object[] letters = new Object[n - 1];
+            INode<A, V>[] children = newINodes(n - 1);
+            System.arraycopy(this.letters, 0, letters, 0, pos);
+            System.arraycopy(this.children, 0, children, 0, pos);
+            System.arraycopy(this.letters, pos + 1, letters, pos, n - pos - 1);
+            System.arraycopy(this.children, pos + 1, children, pos, n - pos - 1);
+            return new CNode<>(this.value, letters, children);
+        }
+    }
+
+    /**
+     * The main node of an INode whose node became empty. It is immutable; the
+     * parent removes the INode from its children.
+     */
+    private static final class TNode<A extends Comparable<A>, V> extends MainNode<A, V> {
+    }
+
+    /**
+     * Marks a GCAS that has to be rolled back to prev.
+     */
+    private static final class FailedNode<A extends Comparable<A>, V> extends MainNode<A, V> {
+        FailedNode(MainNode<A, V> prev) {
+            this.prev = prev;
+        }
+    }
+
+    private static final class INode<A extends Comparable<A>, V> {
+        volatile MainNode<A, V> main;
+        final Gen gen;
+
+        INode(Gen gen, MainNode<A, V> main) {
+            this.gen = gen;
+            this.main = main;
+        }
+    }
+
+    /**
+     * A pending double-compare single-swap of the root: it replaces old by
+     * replacement if the main node of old is still expected.
+     */
+    private static final class RootDescriptor<A extends Comparable<A>, V> {
+        final INode<A, V> old;
+        final MainNode<A, V> expected;
+        final INode<A, V> replacement;
+        volatile boolean committed;
+
+        RootDescriptor(INode<A, V> old, MainNode<A, V> expected, INode<A, V> replacement) {
+            this.old = old;
+            this.expected = expected;
+            this.replacement = replacement;
+        }
+    }
+
+    /**
+     * A read-only view of a CNode of a read-only snapshot as a TrieNode, so
+     * that the iterators and prefix queries of TrieMap work on snapshots.
+     */
+    private class ViewNode extends TrieNode<CNode<A, V>, ViewNode> {
+        public ViewNode(CNode<A, V> node) {
+            this.pointers = node;
+            this.value = node.value;
+        }
+
+        private ViewNode view(INode<A, V> child) {
+            MainNode<A, V> main = gcasRead(child);
+            return main instanceof CNode ? new ViewNode((CNode<A, V>) main) : null;
+        }
+
+        @Override
+        protected ViewNode child(A letter) {
+            int pos = this.pointers.indexOf(letter);
+            return pos < 0 ? null : view(this.pointers.children[pos]);
+        }
+
+        @Override
+        public Iterator<Entry<A, ViewNode>> iterator() {
+            return new Iterator<Entry<A, ViewNode>>() {
+                private int i = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return this.i < ViewNode.this.pointers.letters.length;
+                }
+
+                @Override
+                public Entry<A, ViewNode> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    CNode<A, V> node = ViewNode.this.pointers;
+                    Entry<A, ViewNode> entry =
+                            new SimpleImmutableEntry<>(node.letter(this.i), view(node.children[this.i]));
+                    this.i++;
+                    return entry;
+                }
+            };
+        }
+    }
+
+    /**
+     * Either an INode or a RootDescriptor.
+     */
+    private final AtomicReference<Object> rootRef;
+    private final boolean readOnly;
+
+    /**
+     * The number of keys is the number of keys in uncounted (a read-only
+     * snapshot this map was created from, counted the first time size() is
+     * called) plus the number of keys added since.
+     */
+    private final AtomicInteger count;
+    private volatile ConcurrentTrieMap<A, K, V> uncounted;
+
+    public ConcurrentTrieMap(Class<K> KClass) {
+        this(KClass, new INode<A, V>(new Gen(), emptyNode()), false);
+    }
+
+    private ConcurrentTrieMap(Class<K> KClass, INode<A, V> root, boolean readOnly) {
+        super(KClass);
+        this.rootRef = new AtomicReference<Object>(root);
+        this.readOnly = readOnly;
+        this.count = new AtomicInteger();
+        if (readOnly) {
+            this.root = new ViewNode((CNode<A, V>) gcasRead(root));
+            this.uncounted = this;
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <A extends Comparable<A>, V> INode<A, V>[] newINodes(int length) {
+        return new INode[length];
+    }
+
+    private static <A extends Comparable<A>, V> CNode<A, V> emptyNode() {
+        return new CNode<A, V>(null, new Object[0], newINodes(0));
+    }
+
+    private A[] letters(K key) {
+        A[] letters = newLetters(key.size());
+        int i = 0;
+        for (A letter : key) {
+            letters[i++] = letter;
+        }
+        return letters;
+    }
+
+    /* ---------------- RDCSS: swapping the root ---------------- */
+
+    @SuppressWarnings("unchecked")
+    private INode<A, V> readRoot(boolean abort) {
+        Object r = this.rootRef.get();
+        if (r instanceof INode) {
+            return (INode<A, V>) r;
+        }
+        return completeRoot(abort);
+    }
+
+    private boolean casRoot(INode<A, V> old, MainNode<A, V> expected, INode<A, V> replacement) {
+        RootDescriptor<A, V> desc = new RootDescriptor<>(old, expected, replacement);
+        if (this.rootRef.compareAndSet(old, desc)) {
+            completeRoot(false);
+            return desc.committed;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private INode<A, V> completeRoot(boolean abort) {
+        while (true) {
+            Object r = this.rootRef.get();
+            if (r instanceof INode) {
+                return (INode<A, V>) r;
+            }
+            RootDescriptor<A, V> desc = (RootDescriptor<A, V>) r;
+            if (abort) {
+                if (this.rootRef.compareAndSet(desc, desc.old)) {
+                    return desc.old;
+                }
+            }
+            else if (gcasRead(desc.old) == desc.expected) {
+                if (this.rootRef.compareAndSet(desc, desc.replacement)) {
+                    desc.committed = true;
+                    return desc.replacement;
+                }
+            }
+            else if (this.rootRef.compareAndSet(desc, desc.old)) {
+                return desc.old;
+            }
+        }
+    }
+
+    /* ---------------- GCAS: generation-checked updates of INodes ---------------- */
+
+    private MainNode<A, V> gcasRead(INode<A, V> in) {
+        MainNode<A, V> m = in.main;
+        if (m.prev == null) {
+            return m;
+        }
+        return gcasComplete(in, m);
+    }
+
+    private boolean gcas(INode<A, V> in, MainNode<A, V> old, MainNode<A, V> n) {
+        n.prev = old;
+        if (MAIN.compareAndSet(in, old, n)) {
+            gcasComplete(in, n);
+            return n.prev == null;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private MainNode<A, V> gcasComplete(INode<A, V> in, MainNode<A, V> m) {
+        while (m != null) {
+            MainNode<A, V> prev = m.prev;
+            INode<A, V> root = readRoot(true);
+            if (prev == null) {
+                return m;
+            }
+            if (prev instanceof FailedNode) {
+                if (MAIN.compareAndSet(in, m, prev.prev)) {
+                    return prev.prev;
+                }
+                m = in.main;
+            }
+            else if (root.gen == in.gen && !this.readOnly) {
+                if (PREV.compareAndSet(m, prev, null)) {
+                    return m;
+                }
+            }
+            else {
+                PREV.compareAndSet(m, prev, new FailedNode<A, V>(prev));
+                m = in.main;
+            }
+        }
+        return null;
+    }
+
+    private INode<A, V> copyToGen(INode<A, V> in, Gen gen) {
+        return new INode<A, V>(gen, gcasRead(in));
+    }
+
+    private CNode<A, V> renewed(CNode<A, V> cn, Gen gen) {
+        INode<A, V>[] children = newINodes(cn.children.length);
+        for (int i = 0; i < children.length; i++) {
+            children[i] = copyToGen(cn.children[i], gen);
+        }
+        return new CNode<>(cn.value, cn.letters, children);
+    }
+
+    /**
+     * Returns node, or a tomb if node is empty and is not the root.
+     */
+    private MainNode<A, V> contracted(CNode<A, V> node, int depth) {
+        if (depth > 0 && node.value == null && node.children.length == 0) {
+            return new TNode<A, V>();
+        }
+        return node;
+    }
+
+    /**
+     * Drops the entombed children of node.
+     */
+    private MainNode<A, V> compressed(CNode<A, V> node, int depth) {
+        CNode<A, V> result = node;
+        for (int i = node.children.length - 1; i >= 0; i--) {
+            if (gcasRead(node.children[i]) instanceof TNode) {
+                result = result.removed(i);
+            }
+        }
+        return contracted(result, depth);
+    }
+
+    /* ---------------- the recursive operations ---------------- */
+
+    /**
+     * Sets the value of key to value if it is expected (null meaning that key
+     * is not mapped), or whatever it is if expected is ANY. Returns the value
+     * key had, or RESTART.
+     */
+    private Object insert(INode<A, V> i, A[] key, int depth, V value, Object expected,
+            INode<A, V> parent, Gen startGen) {
+        while (true) {
+            MainNode<A, V> m = gcasRead(i);
+            if (m instanceof TNode) {
+                clean(parent, depth - 1);
+                return RESTART;
+            }
+            CNode<A, V> cn = (CNode<A, V>) m;
+            if (depth == key.length) {
+                if (expected != ANY && cn.value != expected) {
+                    return cn.value;
+                }
+                return gcas(i, cn, cn.withValue(value)) ? cn.value : RESTART;
+            }
+
+            int pos = cn.indexOf(key[depth]);
+            if (pos < 0) {
+                if (expected != ANY && expected != null) {
+                    return null;
+                }
+                INode<A, V> chain = chain(key, depth + 1, value, i.gen);
+                return gcas(i, cn, cn.inserted(-pos - 1, key[depth], chain)) ? null : RESTART;
+            }
+            INode<A, V> child = cn.children[pos];
+            if (child.gen == startGen) {
+                return insert(child, key, depth + 1, value, expected, i, startGen);
+            }
+            if (!gcas(i, cn, renewed(cn, startGen))) {
+                return RESTART;
+            }
+        }
+    }
+
+    /**
+     * Builds the (unpublished) path of new nodes for key[from...].
+     */
+    private INode<A, V> chain(A[] key, int from, V value, Gen gen) {
+        INode<A, V> node = new INode<A, V>(gen, new CNode<A, V>(value, new Object[0], newINodes(0)));
+        for (int j = key.length - 1; j >= from; j--) {
+            INode<A, V>[] children = newINodes(1);
+            children[0] = node;
+            node = new INode<A, V>(gen, new CNode<A, V>(null, new Object[] { key[j] }, children));
+        }
+        return node;
+    }
+
+    /**
+     * Returns the CNode at the end of key (or null if there is none), or
+     * RESTART.
+     */
+    private Object lookup(INode<A, V> i, A[] key, int depth, Gen startGen) {
+        while (true) {
+            MainNode<A, V> m = gcasRead(i);
+            if (m instanceof TNode) {
+                return null;
+            }
+            CNode<A, V> cn = (CNode<A, V>) m;
+            if (depth == key.length) {
+                return cn;
+            }
+            int pos = cn.indexOf(key[depth]);
+            if (pos < 0) {
+                return null;
+            }
+            INode<A, V> child = cn.children[pos];
+            if (this.readOnly || child.gen == startGen) {
+                return lookup(child, key, depth + 1, startGen);
+            }
+            if (!gcas(i, cn, renewed(cn, startGen))) {
+                return RESTART;
+            }
+        }
+    }
+
+    /**
+     * Removes key if its value is expected, or whatever it is if expected is
+     * ANY. Returns the removed value (or null if nothing was removed), or
+     * RESTART.
+     */
+    private Object remove(INode<A, V> i, A[] key, int depth, Object expected, INode<A, V> parent,
+            Gen startGen) {
+        while (true) {
+            MainNode<A, V> m = gcasRead(i);
+            if (m instanceof TNode) {
+                clean(parent, depth - 1);
+                return RESTART;
+            }
+            CNode<A, V> cn = (CNode<A, V>) m;
+            if (depth == key.length) {
+                if (cn.value == null || (expected != ANY && cn.value != expected)) {
+                    return null;
+                }
+                MainNode<A, V> updated = contracted(cn.withValue(null), depth);
+                if (!gcas(i, cn, updated)) {
+                    return RESTART;
+                }
+                if (updated instanceof TNode) {
+                    cleanParent(parent, i, key, depth - 1, startGen);
+                }
+                return cn.value;
+            }
+
+            int pos = cn.indexOf(key[depth]);
+            if (pos < 0) {
+                return null;
+            }
+            INode<A, V> child = cn.children[pos];
+            if (child.gen != startGen) {
+                if (!gcas(i, cn, renewed(cn, startGen))) {
+                    return RESTART;
+                }
+                continue;
+            }
+            Object result = remove(child, key, depth + 1, expected, i, startGen);
+            // removing the child may have emptied (and entombed) this node
+            if (result != null && result != RESTART && parent != null
+                    && gcasRead(i) instanceof TNode) {
+                cleanParent(parent, i, key, depth - 1, startGen);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Compresses the CNode of parent, which lies at the given depth.
+     */
+    private void clean(INode<A, V> parent, int depth) {
+        MainNode<A, V> m = gcasRead(parent);
+        if (m instanceof CNode) {
+            gcas(parent, m, compressed((CNode<A, V>) m, depth));
+        }
+    }
+
+    /**
+     * Removes the entombed child i, reached by key[depth], from parent.
+     */
+    private void cleanParent(INode<A, V> parent, INode<A, V> i, A[] key, int depth, Gen startGen) {
+        while (true) {
+            MainNode<A, V> m = gcasRead(parent);
+            if (!(m instanceof CNode)) {
+                return;
+            }
+            CNode<A, V> cn = (CNode<A, V>) m;
+            int pos = cn.indexOf(key[depth]);
+            if (pos < 0 || cn.children[pos] != i || !(gcasRead(i) instanceof TNode)) {
+                return;
+            }
+            if (gcas(parent, cn, contracted(cn.removed(pos), depth))
+                    || readRoot(false).gen != startGen) {
+                return;
+            }
+        }
+    }
+
+    /* ---------------- the public interface ---------------- */
+
+    private void checkWritable() {
+        if (this.readOnly) {
+            throw new UnsupportedOperationException("read-only snapshot");
+        }
+    }
+
+    /**
+     * Sets the value of the key with the given letters to value if it is
+     * expected, or whatever it is if expected is ANY, and returns the value
+     * the key had. The map changed if that is expected (or expected is ANY).
+     */
+    @SuppressWarnings("unchecked")
+    private V insert(A[] letters, V value, Object expected) {
+        while (true) {
+            INode<A, V> r = readRoot(false);
+            Object result = insert(r, letters, 0, value, expected, null, r.gen);
+            if (result != RESTART) {
+                if (result == null && (expected == ANY || expected == null)) {
+                    this.count.incrementAndGet();
+                }
+                return (V) result;
+            }
+        }
+    }
+
+    /**
+     * Removes the key with the given letters if its value is expected, or
+     * whatever it is if expected is ANY, and returns the removed value (or
+     * null if nothing was removed).
+     */
+    @SuppressWarnings("unchecked")
+    private V remove(A[] letters, Object expected) {
+        while (true) {
+            INode<A, V> r = readRoot(false);
+            Object result = remove(r, letters, 0, expected, null, r.gen);
+            if (result != RESTART) {
+                if (result != null) {
+                    this.count.decrementAndGet();
+                }
+                return (V) result;
+            }
+        }
+    }
+
+    /**
+     * Replaces the value of the key with the given letters by
+     * remapping(old value), where the old value is null if the key is not
+     * mapped, and removes the key if the new value is null. The new value is
+     * installed only if the old one is still there, so remapping is called
+     * again whenever another thread changed the key in the meantime.
+     */
+    private V update(A[] letters, Function<? super V, ? extends V> remapping) {
+        while (true) {
+            V oldValue = find(letters);
+            V value = remapping.apply(oldValue);
+            if (value == oldValue) {
+                return value;
+            }
+            if (value == null) {
+                if (remove(letters, oldValue) == oldValue) {
+                    return null;
+                }
+            }
+            else if (insert(letters, value, oldValue) == oldValue) {
+                return value;
+            }
+        }
+    }
+
+    @Override
+    public V insert(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException();
+        }
+        checkWritable();
+        return insert(letters(key), value, ANY);
+    }
+
+    /**
+     * Atomically associates value with key unless key is already mapped.
+     *
+     * @return the value already associated with key, or null if there was
+     *         none (in which case value is now associated with key).
+     * @throws IllegalArgumentException
+     *             if either key or value is null.
+     */
+    @Override
+    public V putIfAbsent(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException();
+        }
+        checkWritable();
+        return insert(letters(key), value, null);
+    }
+
+    /**
+     * Atomically associates key with mapping(key) if key is not mapped.
+     * mapping may be called even if another thread maps key first, in which
+     * case the value of that thread is kept and returned.
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mapping) {
+        if (key == null || mapping == null) {
+            throw new IllegalArgumentException();
+        }
+        checkWritable();
+        return update(letters(key), oldValue -> oldValue != null ? oldValue : mapping.apply(key));
+    }
+
+    /**
+     * Atomically replaces the value of key by remapping(key, old value).
+     * remapping may be called more than once if other threads change key at
+     * the same time, so it should not have side effects.
+     */
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        if (key == null || remapping == null) {
+            throw new IllegalArgumentException();
+        }
+        checkWritable();
+        return update(letters(key), oldValue -> remapping.apply(key, oldValue));
+    }
+
+    /**
+     * Atomically associates key with value, or with remapping(old value,
+     * value) if key is mapped, so that merge(word, 1, Integer::sum) counts
+     * correctly from any number of threads. remapping may be called more than
+     * once if other threads change key at the same time.
+     */
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remapping) {
+        if (key == null || value == null || remapping == null) {
+            throw new IllegalArgumentException();
+        }
+        checkWritable();
+        return update(letters(key), oldValue -> oldValue == null ? value : remapping.apply(oldValue, value));
+    }
+
+    private V find(A[] letters) {
+        CNode<A, V> node = lookupNode(letters);
+        return node == null ? null : node.value;
+    }
+
+    private CNode<A, V> lookupNode(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        return lookupNode(letters(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    private CNode<A, V> lookupNode(A[] letters) {
+        while (true) {
+            INode<A, V> r = readRoot(false);
+            Object result = lookup(r, letters, 0, r.gen);
+            if (result != RESTART) {
+                return (CNode<A, V>) result;
+            }
+        }
+    }
+
+    @Override
+    public V find(K key) {
+        CNode<A, V> node = lookupNode(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public boolean findPrefix(K key) {
+        CNode<A, V> node = lookupNode(key);
+        return node != null && hasKeys(node);
+    }
+
+    /**
+     * Returns true if there is a value somewhere in the subtree of node
+     * (its children may be tombs that have not been cleaned up yet).
+     */
+    private boolean hasKeys(CNode<A, V> node) {
+        if (node.value != null) {
+            return true;
+        }
+        for (INode<A, V> child : node.children) {
+            MainNode<A, V> m = gcasRead(child);
+            if (m instanceof CNode && hasKeys((CNode<A, V>) m)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int countKeys(CNode<A, V> node) {
+        int count = node.value == null ? 0 : 1;
+        for (INode<A, V> child : node.children) {
+            MainNode<A, V> m = gcasRead(child);
+            if (m instanceof CNode) {
+                count += countKeys((CNode<A, V>) m);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void delete(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        checkWritable();
+        remove(letters(key), ANY);
+    }
+
+    /**
+     * Updates that committed to the old root may still be about to adjust
+     * count, so instead of setting count to 0, this takes away the keys of
+     * the old root. Once the new root is in place nothing can commit to the
+     * old one, so the two always balance out.
+     */
+    @Override
+    public void clear() {
+        checkWritable();
+        // the keys of uncounted are in the old root too
+        countUncounted();
+        while (true) {
+            INode<A, V> r = readRoot(false);
+            MainNode<A, V> expected = gcasRead(r);
+            if (casRoot(r, expected, new INode<A, V>(new Gen(), emptyNode()))) {
+                this.count.addAndGet(-countKeys((CNode<A, V>) expected));
+                return;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        countUncounted();
+        return this.count.get();
+    }
+
+    /**
+     * Adds the keys of uncounted, if any, to count.
+     */
+    private void countUncounted() {
+        if (this.uncounted != null) {
+            synchronized (this) {
+                ConcurrentTrieMap<A, K, V> image = this.uncounted;
+                if (image != null) {
+                    this.count.addAndGet(image.countKeys((CNode<A, V>) image.gcasRead(image.readRoot(false))));
+                    this.uncounted = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns an independent, writable copy of this map in O(1) time. Later
+     * changes to either map are not visible in the other.
+     *
+     * @return a snapshot of this map
+     */
+    public ConcurrentTrieMap<A, K, V> snapshot() {
+        while (true) {
+            INode<A, V> r = readRoot(false);
+            MainNode<A, V> expected = gcasRead(r);
+            if (casRoot(r, expected, copyToGen(r, new Gen()))) {
+                ConcurrentTrieMap<A, K, V> copy =
+                        new ConcurrentTrieMap<>(this.KClass, copyToGen(r, new Gen()), false);
+                copy.uncounted = new ConcurrentTrieMap<>(this.KClass, r, true);
+                return copy;
+            }
+        }
+    }
+
+    /**
+     * Returns a read-only copy of this map in O(1) time. The copy does not
+     * change when this map does, and all of its methods that would modify it
+     * throw UnsupportedOperationException.
+     *
+     * @return a read-only snapshot of this map
+     */
+    public ConcurrentTrieMap<A, K, V> readOnlySnapshot() {
+        if (this.readOnly) {
+            return this;
+        }
+        while (true) {
+            INode<A, V> r = readRoot(false);
+            MainNode<A, V> expected = gcasRead(r);
+            if (casRoot(r, expected, copyToGen(r, new Gen()))) {
+                return new ConcurrentTrieMap<>(this.KClass, r, true);
+            }
+        }
+    }
+
+    /**
+     * Iterates over a read-only snapshot of this map.
+     */
+    @Override
+    public Iterator<Item<K, V>> iterator() {
+        return this.readOnly ? super.iterator() : readOnlySnapshot().iterator();
+    }
+
+    /**
+     * Walks a read-only snapshot of this map, taken when the cursor is
+     * created. reset() walks the same snapshot again.
+     */
+    @Override
+    public TrieCursor<A, K, V> cursor() {
+        return this.readOnly ? super.cursor() : readOnlySnapshot().cursor();
+    }
+
+    /**
+     * Splits a read-only snapshot of this map.
+     */
+    @Override
+    public Spliterator<Item<K, V>> spliterator() {
+        return this.readOnly ? super.spliterator() : readOnlySnapshot().spliterator();
+    }
+
+    @Override
+    public Iterator<Item<K, V>> prefixIterator(K prefix) {
+        return this.readOnly ? super.prefixIterator(prefix) : readOnlySnapshot().prefixIterator(prefix);
+    }
+
+    @Override
+    public Item<K, V> longestPrefixMatch(K key) {
+        return this.readOnly ? super.longestPrefixMatch(key) : readOnlySnapshot().longestPrefixMatch(key);
+    }
+
+    @Override
+    public List<Item<K, V>> allPrefixMatches(K key) {
+        return this.readOnly ? super.allPrefixMatches(key) : readOnlySnapshot().allPrefixMatches(key);
+    }
+
+    @Override
+    public int countPrefix(K prefix) {
+        return this.readOnly ? super.countPrefix(prefix) : readOnlySnapshot().countPrefix(prefix);
+    }
+
+    @Override
+    public List<Item<K, V>> topK(K prefix, int k, Comparator<? super V> ranking) {
+        return this.readOnly ? super.topK(prefix, k, ranking) : readOnlySnapshot().topK(prefix, k, ranking);
+    }
+
+    @Override
+    public void forEachNodeInLevelOrder(BiConsumer<? super V, ? super List<A>> visit) {
+        if (this.readOnly) {
+            super.forEachNodeInLevelOrder(visit);
+        }
+        else {
+            readOnlySnapshot().forEachNodeInLevelOrder(visit);
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package datastructures.dictionaries;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+import cse332.interfaces.misc.BString;
+import cse332.interfaces.trie.TrieMap;
+import cse332.interfaces.trie.TrieSet;
+
+/**
+ * A read-only TrieSet stored as a minimal acyclic automaton (a DAWG): a trie
+ * in which equivalent subtrees, i.e. nodes from which exactly the same
+ * suffixes lead to the end of an element, are stored only once. Word lists
+ * share a great many suffixes, so a DAWG usually has a small fraction of the
+ * nodes of the corresponding HashTrieSet.
+ *
+ * A DawgSet is made by a Builder, which takes the elements in increasing
+ * order and minimizes the automaton as it goes (Daciuk, Mihov, Watson and
+ * Watson, "Incremental Construction of Minimal Acyclic Finite-State Automata",
+ * 2000). Adding and deleting elements of a DawgSet throws
+ * UnsupportedOperationException.
+ */
+public class DawgSet<A extends Comparable<A>, E extends BString<A>> extends TrieSet<A, E> {
+
+    /**
+     * The backing map. Since nodes are shared, a node stands for all of the
+     * keys that reach it, but every path from the root still spells exactly
+     * one key, so the TrieMap iterators and prefix queries work unchanged.
+     */
+    private static class DawgMap<A extends Comparable<A>, E extends BString<A>> extends TrieMap<A, E, Boolean> {
+        private static final Object[] NO_LETTERS = new Object[0];
+
+        private class DawgNode extends TrieNode<DawgNode[], DawgNode> {
+            /**
+             * The letters leading to the children, sorted; only the first
+             * degree entries of letters and pointers are used.
+             */
+            private Object[] letters = NO_LETTERS;
+            private int degree;
+
+            /**
+             * The number of keys below this node, set when the node is
+             * registered.
+             */
+            private int count;
+            private int hash;
+
+            public DawgNode() {
+                this.pointers = newNodes(0);
+            }
+
+            @SuppressWarnings("unchecked")
+            private A letter(int i) {
+                return (A) this.letters[i];
+            }
+
+            /**
+             * Appends a child; its letter must be greater than all others.
+             */
+            private void append(A letter, DawgNode child) {
+                if (this.degree == this.letters.length) {
+                    int capacity = Math.max(2, 2 * this.degree);
+                    this.letters = Arrays.copyOf(this.letters, capacity);
+                    this.pointers = Arrays.copyOf(this.pointers, capacity);
+                }
+                this.letters[this.degree] = letter;
+                this.pointers[this.degree] = child;
+                this.degree++;
+            }
+
+            /**
+             * Trims the arrays and computes count and hash. The node does not
+             * change afterwards.
+             */
+            private void seal() {
+                this.letters = Arrays.copyOf(this.letters, this.degree);
+                this.pointers = Arrays.copyOf(this.pointers, this.degree);
+                int count = this.value != null ? 1 : 0;
+                int hash = this.value != null ? 1 : 0;
+                for (int i = 0; i < this.degree; i++) {
+                    count += this.pointers[i].count;
+                    hash = 31 * (31 * hash + this.letters[i].hashCode())
+                            + System.identityHashCode(this.pointers[i]);
+                }
+                this.count = count;
+                this.hash = hash;
+            }
+
+            /**
+             * Two sealed nodes are equivalent if they have the same value and
+             * the same letters leading to the same (already minimized)
+             * children.
+             */
+            @Override
+            public boolean equals(Object o) {
+                if (!(o instanceof DawgMap.DawgNode)) {
+                    return false;
+                }
+                @SuppressWarnings("unchecked")
+                DawgNode other = (DawgNode) o;
+                if (this.value != other.value || this.degree != other.degree) {
+                    return false;
+                }
+                for (int i = 0; i < this.degree; i++) {
+                    if (this.pointers[i] != other.pointers[i] || !this.letters[i].equals(other.letters[i])) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public int hashCode() {
+                return this.hash;
+            }
+
+            @Override
+            protected DawgNode child(A letter) {
+                int lo = 0;
+                int hi = this.degree - 1;
+                while (lo <= hi) {
+                    int mid = (lo + hi) >>> 1;
+                    int cmp = letter(mid).compareTo(letter);
+                    if (cmp < 0) {
+                        lo = mid + 1;
+                    }
+                    else if (cmp > 0) {
+                        hi = mid - 1;
+                    }
+                    else {
+                        return this.pointers[mid];
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            protected int subtreeSize() {
+                return this.count;
+            }
+
+            @Override
+            public Iterator<Entry<A, DawgNode>> iterator() {
+                return new Iterator<Entry<A, DawgNode>>() {
+                    private int i = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.i < DawgNode.this.degree;
+                    }
+
+                    @Override
+                    public Entry<A, DawgNode> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<A, DawgNode> entry =
+                                new SimpleImmutableEntry<>(letter(this.i), DawgNode.this.pointers[this.i]);
+                        this.i++;
+                        return entry;
+                    }
+                };
+            }
+        }
+
+        private int nodes;
+
+        public DawgMap(Class<E> KClass) {
+            super(KClass);
+            this.root = new DawgNode();
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private DawgNode[] newNodes(int length) {
+            return new DawgMap.DawgNode[length];
+        }
+
+        private A[] letters(E key) {
+            A[] letters = newLetters(key.size());
+            int i = 0;
+            for (A letter : key) {
+                letters[i++] = letter;
+            }
+            return letters;
+        }
+
+        @SuppressWarnings("unchecked")
+        private DawgNode root() {
+            return (DawgNode) this.root;
+        }
+
+        @Override
+        public Boolean find(E key) {
+            DawgNode node = findNode(key);
+            return node == null ? null : node.value;
+        }
+
+        @Override
+        public boolean findPrefix(E key) {
+            DawgNode node = findNode(key);
+            return node != null && node.count > 0;
+        }
+
+        private DawgNode findNode(E key) {
+            if (key == null) {
+                throw new IllegalArgumentException();
+            }
+            DawgNode current = root();
+            for (A letter : key) {
+                current = current.child(letter);
+                if (current == null) {
+                    return null;
+                }
+            }
+            return current;
+        }
+
+        @Override
+        public int size() {
+            return root().count;
+        }
+
+        @Override
+        public Boolean insert(E key, Boolean value) {
+            throw new UnsupportedOperationException("DawgSet is read-only");
+        }
+
+        @Override
+        public void delete(E key) {
+            throw new UnsupportedOperationException("DawgSet is read-only");
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException("DawgSet is read-only");
+        }
+    }
+
+    /**
+     * Builds a DawgSet from elements given in increasing order, where a
+     * proper prefix comes before the longer elements that start with it and
+     * otherwise the first differing letter decides.
+     *
+     * Only the path of the previous element is still open to changes; every
+     * node that falls off that path is replaced by an equivalent node that is
+     * already in the register, or registered itself. So the builder takes
+     * time linear in the total length of the elements, and apart from the
+     * automaton itself only keeps the register and one path.
+     */
+    public static class Builder<A extends Comparable<A>, E extends BString<A>> {
+        private final DawgMap<A, E> map;
+
+        /**
+         * The minimized nodes, each mapped to itself.
+         */
+        private final Map<DawgMap<A, E>.DawgNode, DawgMap<A, E>.DawgNode> register = new HashMap<>();
+
+        /**
+         * The nodes on the path of the previous element (path[0] is the root)
+         * and its letters.
+         */
+        private DawgMap<A, E>.DawgNode[] path;
+        private A[] previous;
+        private int previousLength;
+        private int trieNodes;
+        private boolean built;
+
+        public Builder(Class<E> KClass) {
+            this.map = new DawgMap<>(KClass);
+            this.path = this.map.newNodes(16);
+            this.path[0] = this.map.root();
+            this.previous = null;
+            this.trieNodes = 1;
+        }
+
+        /**
+         * Adds e to the set.
+         *
+         * @throws IllegalArgumentException
+         *             if e is null or not greater than the previous element
+         *             (adding the same element twice in a row is allowed).
+         * @throws IllegalStateException
+         *             if build() has been called.
+         */
+        public void add(E e) {
+            if (e == null) {
+                throw new IllegalArgumentException();
+            }
+            if (this.built) {
+                throw new IllegalStateException("the DawgSet has already been built");
+            }
+            A[] letters = this.map.letters(e);
+            int n = letters.length;
+
+            int common = 0;
+            if (this.previous != null) {
+                while (common < n && common < this.previousLength
+                        && letters[common].equals(this.previous[common])) {
+                    common++;
+                }
+                if (common == n && common == this.previousLength) {
+                    return;
+                }
+                if (common == n || (common < this.previousLength
+                        && letters[common].compareTo(this.previous[common]) < 0)) {
+                    throw new IllegalArgumentException("elements must be added in increasing order");
+                }
+                minimize(common);
+            }
+
+            if (n + 1 > this.path.length) {
+                this.path = Arrays.copyOf(this.path, Math.max(n + 1, 2 * this.path.length));
+            }
+            DawgMap<A, E>.DawgNode node = this.path[common];
+            for (int i = common; i < n; i++) {
+                DawgMap<A, E>.DawgNode next = this.map.new DawgNode();
+                node.append(letters[i], next);
+                this.path[i + 1] = next;
+                node = next;
+            }
+            node.value = true;
+            this.trieNodes += n - common;
+            this.previous = letters;
+            this.previousLength = n;
+        }
+
+        /**
+         * Replaces or registers the nodes of the previous path below depth.
+         */
+        private void minimize(int depth) {
+            for (int i = this.previousLength; i > depth; i--) {
+                DawgMap<A, E>.DawgNode node = this.path[i];
+                node.seal();
+                DawgMap<A, E>.DawgNode equivalent = this.register.putIfAbsent(node, node);
+                if (equivalent != null) {
+                    DawgMap<A, E>.DawgNode parent = this.path[i - 1];
+                    parent.pointers[parent.degree - 1] = equivalent;
+                }
+                this.path[i] = null;
+            }
+        }
+
+        /**
+         * Finishes the automaton and returns it as a DawgSet. The builder
+         * cannot be used afterwards.
+         *
+         * @return the set of the elements added to this builder
+         */
+        public DawgSet<A, E> build() {
+            if (this.built) {
+                throw new IllegalStateException("the DawgSet has already been built");
+            }
+            if (this.previous != null) {
+                minimize(0);
+            }
+            this.map.root().seal();
+            this.map.nodes = this.register.size() + 1;
+            this.built = true;
+            return new DawgSet<>(this.map);
+        }
+
+        /**
+         * Returns the number of nodes a HashTrieSet with the elements added so
+         * far would have (the number of nodes before minimization).
+         *
+         * @return the number of trie nodes
+         */
+        public int trieNodes() {
+            return this.trieNodes;
+        }
+
+        /**
+         * Returns the number of nodes of the minimized automaton. Only
+         * available once build() has been called.
+         *
+         * @return the number of DAWG nodes
+         * @throws IllegalStateException
+         *             if build() has not been called.
+         */
+        public int dawgNodes() {
+            if (!this.built) {
+                throw new IllegalStateException("the DawgSet has not been built yet");
+            }
+            return this.map.nodes;
+        }
+    }
+
+    private DawgSet(DawgMap<A, E> map) {
+        super(map);
+    }
+
+    /**
+     * Returns the number of distinct nodes of the automaton.
+     *
+     * @return the number of nodes
+     */
+    public int nodes() {
+        return ((DawgMap<?, ?>) this.map).nodes;
+    }
+}
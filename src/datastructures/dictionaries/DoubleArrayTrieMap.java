@@ -0,0 +1,449 @@
+package datastructures.dictionaries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+import cse332.datastructures.containers.Item;
+import cse332.interfaces.misc.Alphabet;
+import cse332.interfaces.misc.BString;
+import cse332.interfaces.misc.Codec;
+import cse332.interfaces.trie.TrieMap;
+
+/**
+ * See cse332/interfaces/trie/TrieMap.java
+ * and cse332/interfaces/misc/Dictionary.java
+ * for method specifications.
+ *
+ * A read-only TrieMap compiled into a double-array trie (Aoe, "An Efficient
+ * Digital Search Algorithm by Using a Double-Array Structure", 1989). The
+ * letters that occur in the keys are renumbered 1, ..., m in increasing
+ * order, and every node is a number s. The child of s by the letter with
+ * code c is t = base[s] + c, and it exists iff check[t] == s. So following a
+ * letter costs two reads from two int arrays and no object is touched.
+ *
+ * A key ends at s iff the transition by code 0 exists; its target t is a
+ * terminal slot that stores the index of the value as base[t] = -(index + 1).
+ *
+ * write() saves the arrays and read() loads them back with a single bulk read
+ * of the file.
+ */
+public class DoubleArrayTrieMap<A extends Comparable<A>, K extends BString<A>, V> extends TrieMap<A, K, V> {
+    private static final int MAGIC = 0x44415254;
+    private static final int VERSION = 1;
+    private static final int FREE = -1;
+    private static final int NO_PARENT = -2;
+    private static final int ROOT = 0;
+
+    private final Alphabet<A> alphabet;
+
+    /**
+     * The code of the letter with each ordinal (0 if it occurs in no key), and
+     * the ordinal of the letter with each code.
+     */
+    private final int[] codes;
+    private final int[] ordinals;
+
+    private int[] base;
+    private int[] check;
+    private final Object[] values;
+
+    public class DoubleArrayNode extends TrieNode<Void, DoubleArrayNode> {
+        private final int state;
+
+        private DoubleArrayNode(int state) {
+            this.state = state;
+            this.value = valueOf(state);
+        }
+
+        @Override
+        protected DoubleArrayNode child(A letter) {
+            int code = code(letter);
+            if (code == 0) {
+                return null;
+            }
+            int child = transition(this.state, code);
+            return child < 0 ? null : new DoubleArrayNode(child);
+        }
+
+        @Override
+        public Iterator<Entry<A, DoubleArrayNode>> iterator() {
+            return new Iterator<Entry<A, DoubleArrayNode>>() {
+                private int code = advance(1);
+
+                private int advance(int code) {
+                    while (code < DoubleArrayTrieMap.this.ordinals.length
+                            && transition(DoubleArrayNode.this.state, code) < 0) {
+                        code++;
+                    }
+                    return code;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return this.code < DoubleArrayTrieMap.this.ordinals.length;
+                }
+
+                @Override
+                public Entry<A, DoubleArrayNode> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    A letter = DoubleArrayTrieMap.this.alphabet.letter(DoubleArrayTrieMap.this.ordinals[this.code]);
+                    DoubleArrayNode child = new DoubleArrayNode(transition(DoubleArrayNode.this.state, this.code));
+                    this.code = advance(this.code + 1);
+                    return new SimpleImmutableEntry<>(letter, child);
+                }
+            };
+        }
+    }
+
+    /**
+     * Compiles the mappings of source into a double array.
+     *
+     * @param KClass
+     *            the key class of source
+     * @param source
+     *            the map to compile; it is not changed
+     */
+    public DoubleArrayTrieMap(Class<K> KClass, TrieMap<A, K, V> source) {
+        super(KClass);
+        this.alphabet = Alphabet.forLetterType(BString.getLetterType(KClass));
+
+        // turn the keys into arrays of ordinals, and find the letters in use
+        List<int[]> keys = new ArrayList<>();
+        List<V> values = new ArrayList<>();
+        boolean[] used = new boolean[this.alphabet.size()];
+        for (Item<K, V> item : source) {
+            int[] key = new int[item.key.size()];
+            int i = 0;
+            for (A letter : item.key) {
+                key[i] = this.alphabet.ordinal(letter);
+                used[key[i++]] = true;
+            }
+            keys.add(key);
+            values.add(item.value);
+        }
+        this.codes = new int[used.length];
+        int m = 0;
+        for (int ordinal = 0; ordinal < used.length; ordinal++) {
+            if (used[ordinal]) {
+                this.codes[ordinal] = ++m;
+            }
+        }
+        this.ordinals = new int[m + 1];
+        for (int ordinal = 0; ordinal < used.length; ordinal++) {
+            if (used[ordinal]) {
+                this.ordinals[this.codes[ordinal]] = ordinal;
+            }
+        }
+
+        int n = keys.size();
+        int[][] sorted = new int[n][];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            int[] key = keys.get(i);
+            for (int j = 0; j < key.length; j++) {
+                key[j] = this.codes[key[j]];
+            }
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> Arrays.compare(keys.get(x), keys.get(y)));
+        this.values = new Object[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = keys.get(order[i]);
+            this.values[i] = values.get(order[i]);
+        }
+
+        new Compiler(sorted).compile();
+        this.size = n;
+        this.root = new DoubleArrayNode(ROOT);
+    }
+
+    private DoubleArrayTrieMap(Class<K> KClass, int[] codes, int[] ordinals, int[] base, int[] check,
+            Object[] values) {
+        super(KClass);
+        this.alphabet = Alphabet.forLetterType(BString.getLetterType(KClass));
+        this.codes = codes;
+        this.ordinals = ordinals;
+        this.base = base;
+        this.check = check;
+        this.values = values;
+        this.size = values.length;
+        this.root = new DoubleArrayNode(ROOT);
+    }
+
+    /**
+     * Places the nodes of the trie of the sorted keys into the double array,
+     * depth first. For every node it looks for the first base at which all
+     * the slots of its children (and of its terminal, if it has a value) are
+     * free.
+     */
+    private class Compiler {
+        private final int[][] keys;
+        private int nextFree = 1;
+        private int used = 1;
+
+        Compiler(int[][] keys) {
+            this.keys = keys;
+        }
+
+        void compile() {
+            DoubleArrayTrieMap.this.base = new int[1024];
+            DoubleArrayTrieMap.this.check = new int[1024];
+            Arrays.fill(DoubleArrayTrieMap.this.check, FREE);
+            DoubleArrayTrieMap.this.check[ROOT] = NO_PARENT;
+            place(ROOT, 0, this.keys.length, 0);
+            DoubleArrayTrieMap.this.base = Arrays.copyOf(DoubleArrayTrieMap.this.base, this.used);
+            DoubleArrayTrieMap.this.check = Arrays.copyOf(DoubleArrayTrieMap.this.check, this.used);
+        }
+
+        /**
+         * Places the children of state, which stands for keys[lo...hi - 1],
+         * all of which agree on their first depth letters.
+         */
+        private void place(int state, int lo, int hi, int depth) {
+            boolean hasValue = lo < hi && this.keys[lo].length == depth;
+            int first = hasValue ? lo + 1 : lo;
+
+            // the distinct codes of the children, and where their keys start
+            int[] childCodes = new int[hi - first];
+            int[] starts = new int[hi - first + 1];
+            int children = 0;
+            for (int i = first; i < hi; i++) {
+                int code = this.keys[i][depth];
+                if (children == 0 || childCodes[children - 1] != code) {
+                    childCodes[children] = code;
+                    starts[children] = i;
+                    children++;
+                }
+            }
+            starts[children] = hi;
+
+            int b = findBase(hasValue, childCodes, children);
+            DoubleArrayTrieMap.this.base[state] = b;
+            if (hasValue) {
+                claim(b, state);
+                DoubleArrayTrieMap.this.base[b] = -(lo + 1);
+            }
+            for (int i = 0; i < children; i++) {
+                claim(b + childCodes[i], state);
+            }
+            for (int i = 0; i < children; i++) {
+                place(b + childCodes[i], starts[i], starts[i + 1], depth + 1);
+            }
+        }
+
+        private int findBase(boolean hasValue, int[] childCodes, int children) {
+            if (!hasValue && children == 0) {
+                return 1;
+            }
+            int lowest = hasValue ? 0 : childCodes[0];
+            for (int slot = Math.max(this.nextFree, lowest + 1);; slot++) {
+                ensureCapacity(slot + 1);
+                if (DoubleArrayTrieMap.this.check[slot] != FREE) {
+                    continue;
+                }
+                int b = slot - lowest;
+                boolean fits = true;
+                for (int i = 0; i < children && fits; i++) {
+                    int target = b + childCodes[i];
+                    ensureCapacity(target + 1);
+                    fits = DoubleArrayTrieMap.this.check[target] == FREE;
+                }
+                if (fits) {
+                    return b;
+                }
+            }
+        }
+
+        private void claim(int slot, int owner) {
+            ensureCapacity(slot + 1);
+            DoubleArrayTrieMap.this.check[slot] = owner;
+            this.used = Math.max(this.used, slot + 1);
+            while (this.nextFree < DoubleArrayTrieMap.this.check.length
+                    && DoubleArrayTrieMap.this.check[this.nextFree] != FREE) {
+                this.nextFree++;
+            }
+        }
+
+        private void ensureCapacity(int length) {
+            int capacity = DoubleArrayTrieMap.this.check.length;
+            if (length > capacity) {
+                int grown = Math.max(length, 2 * capacity);
+                DoubleArrayTrieMap.this.base = Arrays.copyOf(DoubleArrayTrieMap.this.base, grown);
+                DoubleArrayTrieMap.this.check = Arrays.copyOf(DoubleArrayTrieMap.this.check, grown);
+                Arrays.fill(DoubleArrayTrieMap.this.check, capacity, grown, FREE);
+            }
+        }
+    }
+
+    private int code(A letter) {
+        return this.codes[this.alphabet.ordinal(letter)];
+    }
+
+    /**
+     * Returns the child of state by code, or -1 if there is none.
+     */
+    private int transition(int state, int code) {
+        int target = this.base[state] + code;
+        if (target < 0 || target >= this.check.length || this.check[target] != state) {
+            return -1;
+        }
+        return target;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueOf(int state) {
+        int terminal = transition(state, 0);
+        return terminal < 0 ? null : (V) this.values[-this.base[terminal] - 1];
+    }
+
+    /**
+     * Returns the state at the end of key, or -1.
+     */
+    private int findState(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        int state = ROOT;
+        for (A letter : key) {
+            int code = code(letter);
+            if (code == 0) {
+                return -1;
+            }
+            state = transition(state, code);
+            if (state < 0) {
+                return -1;
+            }
+        }
+        return state;
+    }
+
+    @Override
+    public V find(K key) {
+        int state = findState(key);
+        return state < 0 ? null : valueOf(state);
+    }
+
+    @Override
+    public boolean findPrefix(K key) {
+        int state = findState(key);
+        // every state other than the root leads to at least one key
+        return state > ROOT || (state == ROOT && this.size > 0);
+    }
+
+    /**
+     * Returns the length of the base and check arrays.
+     *
+     * @return the number of slots of the double array
+     */
+    public int slots() {
+        return this.check.length;
+    }
+
+    /**
+     * Writes this map to a file that read() can load.
+     *
+     * @param path
+     *            the file to write (it is replaced if it exists)
+     * @param codec
+     *            converts the values to bytes
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    @SuppressWarnings("unchecked")
+    public void write(Path path, Codec<V> codec) throws IOException {
+        byte[][] encoded = new byte[this.values.length][];
+        int data = 0;
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = codec.encode((V) this.values[i]);
+            data = Math.addExact(data, encoded[i].length);
+        }
+        int n = this.check.length;
+        ByteBuffer buffer = ByteBuffer.allocate(
+                4 * (5 + 2 * n + this.ordinals.length + encoded.length + 1) + data);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(this.ordinals.length).putInt(encoded.length);
+        buffer.asIntBuffer().put(this.base).put(this.check).put(this.ordinals);
+        buffer.position(buffer.position() + 4 * (2 * n + this.ordinals.length));
+        int offset = 0;
+        for (byte[] bytes : encoded) {
+            buffer.putInt(offset);
+            offset += bytes.length;
+        }
+        buffer.putInt(offset);
+        for (byte[] bytes : encoded) {
+            buffer.put(bytes);
+        }
+        Files.write(path, buffer.array());
+    }
+
+    /**
+     * Loads a map written by write(), reading the file with a single bulk
+     * read.
+     *
+     * @param path
+     *            the file to read
+     * @param KClass
+     *            the key class of the map
+     * @param codec
+     *            converts bytes back to values
+     * @return the map stored in the file
+     * @throws IOException
+     *             if the file cannot be read or was not written by write()
+     */
+    public static <A extends Comparable<A>, K extends BString<A>, V> DoubleArrayTrieMap<A, K, V> read(
+            Path path, Class<K> KClass, Codec<V> codec) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < 20 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException(path + " is not a DoubleArrayTrieMap file");
+        }
+        int n = buffer.getInt();
+        int m = buffer.getInt();
+        int count = buffer.getInt();
+        int[] base = new int[n];
+        int[] check = new int[n];
+        int[] ordinals = new int[m];
+        int[] offsets = new int[count + 1];
+        buffer.asIntBuffer().get(base).get(check).get(ordinals).get(offsets);
+        int dataAt = buffer.position() + 4 * (2 * n + m + count + 1);
+
+        Object[] values = new Object[count];
+        for (int i = 0; i < count; i++) {
+            ByteBuffer bytes = buffer.duplicate();
+            bytes.limit(dataAt + offsets[i + 1]);
+            bytes.position(dataAt + offsets[i]);
+            values[i] = codec.decode(bytes);
+        }
+
+        Alphabet<A> alphabet = Alphabet.forLetterType(BString.getLetterType(KClass));
+        int[] codes = new int[alphabet.size()];
+        for (int code = 1; code < m; code++) {
+            codes[ordinals[code]] = code;
+        }
+        return new DoubleArrayTrieMap<>(KClass, codes, ordinals, base, check, values);
+    }
+
+    @Override
+    public V insert(K key, V value) {
+        throw new UnsupportedOperationException("DoubleArrayTrieMap is read-only");
+    }
+
+    @Override
+    public void delete(K key) {
+        throw new UnsupportedOperationException("DoubleArrayTrieMap is read-only");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("DoubleArrayTrieMap is read-only");
+    }
+}
@@ -1,21 +1,58 @@
 package datastructures.dictionaries;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
+import cse332.datastructures.containers.Item;
 import cse332.interfaces.misc.BString;
+import cse332.interfaces.misc.BStringFactory;
 import cse332.interfaces.trie.TrieMap;
 
 /**
  * See cse332/interfaces/trie/TrieMap.java
  * and cse332/interfaces/misc/Dictionary.java
  * for method specifications.
+ *
+ * Every node keeps the number of keys in its subtree, so countPrefix does not
+ * have to search. If the map is created with a ranking, every node also keeps
+ * the best value in its subtree according to that ranking, so topK with that
+ * ranking only explores the subtrees that contribute to its result.
  */
 public class HashTrieMap<A extends Comparable<A>, K extends BString<A>, V> extends TrieMap<A, K, V> {
+    /**
+     * The ranking whose best value is kept in every node, or null if none is.
+     */
+    protected final Comparator<? super V> ranking;
+
+    /**
+     * parallelBulkLoad stops splitting a group of keys into tasks once it is
+     * at most this large.
+     */
+    private static final int BULK_LOAD_THRESHOLD = 4096;
 
     public class HashTrieNode extends TrieNode<Map<A, HashTrieNode>, HashTrieNode> {
+        /**
+         * The number of keys in the subtree rooted at this node.
+         */
+        public int count;
+
+        /**
+         * The best value in the subtree rooted at this node according to
+         * ranking. This is always null if the map has no ranking.
+         */
+        public V best;
+
         public HashTrieNode() {
             this(null);
         }
@@ -29,13 +66,80 @@ public class HashTrieMap<A extends Comparable<A>, K extends BString<A>, V> exten
         public Iterator<Entry<A, HashTrieMap<A, K, V>.HashTrieNode>> iterator() {
             return pointers.entrySet().iterator();
         }
+
+        @Override
+        protected void forEachChild(BiConsumer<? super A, ? super HashTrieNode> action) {
+            pointers.forEach(action);
+        }
+
+        @Override
+        protected HashTrieNode child(A letter) {
+            return this.pointers.get(letter);
+        }
+
+        @Override
+        protected int subtreeSize() {
+            return this.count;
+        }
+
+        @Override
+        protected V subtreeBest(Comparator<? super V> ranking) {
+            return ranking == HashTrieMap.this.ranking ? this.best : null;
+        }
+
+        /**
+         * Recomputes best from the value of this node and the best values of
+         * its children.
+         */
+        protected void updateBest() {
+            V best = this.value;
+            for (HashTrieNode child : this.pointers.values()) {
+                if (child.best != null && (best == null || ranking.compare(child.best, best) > 0)) {
+                    best = child.best;
+                }
+            }
+            this.best = best;
+        }
     }
 
     public HashTrieMap(Class<K> KClass) {
+        this(KClass, null);
+    }
+
+    /**
+     * Creates an empty map that keeps the best value of every subtree
+     * according to ranking, so that topK(prefix, k, ranking) does not have
+     * to scan the subtree below prefix.
+     *
+     * @param ranking
+     *            the ranking to maintain, or null for none
+     */
+    public HashTrieMap(Class<K> KClass, Comparator<? super V> ranking) {
         super(KClass);
+        this.ranking = ranking;
+        this.root = new HashTrieNode();
+    }
+
+    public HashTrieMap(BStringFactory<A, K> keyFactory) {
+        this(keyFactory, null);
+    }
+
+    public HashTrieMap(BStringFactory<A, K> keyFactory, Comparator<? super V> ranking) {
+        super(keyFactory);
+        this.ranking = ranking;
         this.root = new HashTrieNode();
     }
 
+    @SuppressWarnings("unchecked")
+    protected HashTrieNode root() {
+        return (HashTrieNode) this.root;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private HashTrieNode[] newPath(int length) {
+        return new HashTrieMap.HashTrieNode[length + 1];
+    }
+
     /**
      *
      * @param key
@@ -52,33 +156,74 @@ public class HashTrieMap<A extends Comparable<A>, K extends BString<A>, V> exten
         if (key == null || value == null) {
             throw new IllegalArgumentException();
         }
-        HashTrieNode curNode = (HashTrieMap<A, K, V>.HashTrieNode) root;
-        V oldValue = null;
-        if(key.size()==0){
-            curNode.value = value;
+        V oldValue = insertBelow(root(), key, key.size(), value);
+        if (oldValue == null) {
             this.size++;
-            return curNode.value;
         }
-        Iterator<A> keyIterator = key.iterator();
-        // travese key from root
-        while(keyIterator.hasNext()) {
-            A keyElement = keyIterator.next();
-            if (curNode.pointers.get(keyElement) == null) {
+        return oldValue;
+    }
+
+    /**
+     * Maps the string of letters below start to value, and fixes the counts
+     * and best values of start and of the nodes on the way down. Does not
+     * change size.
+     *
+     * @param length
+     *            the number of letters
+     * @return the previous value of the string, or null
+     */
+    private V insertBelow(HashTrieNode start, Iterable<A> letters, int length, V value) {
+        // remember the nodes on the path so that their counts can be fixed
+        // once we know whether the key is new
+        HashTrieNode[] path = newPath(length);
+        HashTrieNode curNode = start;
+        int depth = 0;
+        path[0] = curNode;
+        for (A keyElement : letters) {
+            HashTrieNode next = curNode.pointers.get(keyElement);
+            if (next == null) {
                 // put new key element to map
-                curNode.pointers.put(keyElement, new HashTrieNode());
-            }
-            curNode = curNode.pointers.get(keyElement);
-            //if hasNext == false
-            //  put value in node
-            if(!keyIterator.hasNext()) {
-                oldValue = curNode.value;
-                curNode.value = value;
+                next = new HashTrieNode();
+                curNode.pointers.put(keyElement, next);
             }
+            curNode = next;
+            path[++depth] = curNode;
         }
-        this.size++;
+
+        V oldValue = curNode.value;
+        curNode.value = value;
+        fixPath(path, depth, oldValue, value);
         return oldValue;
     }
 
+    /**
+     * Fixes the counts and best values of path[0..depth] after the value of
+     * path[depth] changed from oldValue (which may be null) to value (which
+     * may not).
+     */
+    private void fixPath(HashTrieNode[] path, int depth, V oldValue, V value) {
+        if (oldValue == null) {
+            for (int i = 0; i <= depth; i++) {
+                path[i].count++;
+            }
+        }
+        if (this.ranking != null) {
+            if (oldValue == null || this.ranking.compare(value, oldValue) >= 0) {
+                for (int i = 0; i <= depth; i++) {
+                    if (path[i].best == null || this.ranking.compare(value, path[i].best) > 0) {
+                        path[i].best = value;
+                    }
+                }
+            }
+            else {
+                // the value got worse, so it may no longer be the best anywhere
+                for (int i = depth; i >= 0; i--) {
+                    path[i].updateBest();
+                }
+            }
+        }
+    }
+
     /**
      * Returns the value to which the key is mapped in this dictionary. if contains an entry for the specified key,
      * the associated value is returned; otherwise, null is returned.
@@ -89,28 +234,12 @@ public class HashTrieMap<A extends Comparable<A>, K extends BString<A>, V> exten
      */
     @Override
     public V find(K key) {
-        if (key == null) {
-            throw new IllegalArgumentException();
-        }
-        HashTrieNode curNode = (HashTrieMap<A, K, V>.HashTrieNode) root;
-        if(key.size()==0){
-            return curNode.value;
-        }
-        Iterator<A> keyIterator = key.iterator();
-        while(keyIterator.hasNext()) {
-            A subKey = keyIterator.next();
-            if (curNode.pointers.get(subKey) != null) {
-                curNode = curNode.pointers.get(subKey);
-            }else {
-                return null;
-            }
-        }
-
-        return curNode.value;
+        HashTrieNode node = findNode(key);
+        return node == null ? null : node.value;
     }
 
     /**
-     * Returns true if this muapr contains a mapping for which the key
+     * Returns true if this map contains a mapping for which the key
      * starts with the specified key prefix.
      *
      * @param key
@@ -122,21 +251,23 @@ public class HashTrieMap<A extends Comparable<A>, K extends BString<A>, V> exten
      */
     @Override
     public boolean findPrefix(K key) {
-        if(key == null) {
+        HashTrieNode node = findNode(key);
+        return node != null && (node.value != null || !node.pointers.isEmpty());
+    }
+
+    private HashTrieNode findNode(K key) {
+        if (key == null) {
             throw new IllegalArgumentException();
         }
-        boolean result = true;
-        HashTrieNode curNode = (HashTrieMap<A, K, V>.HashTrieNode) this.root;
-        Iterator<A> keyIterator = key.iterator();
-        while(keyIterator.hasNext()) {
-            A subKey = keyIterator.next();
-            if (curNode.pointers.get(subKey) != null) {
-                curNode = curNode.pointers.get(subKey);
-            } else {
-                result = false;
+        // letterAt rather than an iterator, so a lookup allocates nothing
+        HashTrieNode curNode = root();
+        for (int i = 0, length = key.size(); i < length; i++) {
+            curNode = curNode.pointers.get(key.letterAt(i));
+            if (curNode == null) {
+                return null;
             }
         }
-        return result;
+        return curNode;
     }
 
     /**
@@ -149,76 +280,528 @@ public class HashTrieMap<A extends Comparable<A>, K extends BString<A>, V> exten
      */
     @Override
     public void delete(K key) {
-        //exception
         if (key == null) {
             throw new IllegalArgumentException();
         }
-        // test if key in map
-        if(this.find(key) == null) {
-            return;
+        update(key, (k, oldValue) -> null, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException();
+        }
+        return update(key, (k, oldValue) -> oldValue != null ? oldValue : value, true);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mapping) {
+        if (key == null || mapping == null) {
+            throw new IllegalArgumentException();
         }
-        HashTrieNode curNode = (HashTrieMap<A, K, V>.HashTrieNode)this.root;
+        return update(key, (k, oldValue) -> oldValue != null ? oldValue : mapping.apply(k), false);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        if (key == null || remapping == null) {
+            throw new IllegalArgumentException();
+        }
+        return update(key, remapping, false);
+    }
+
+    /**
+     * Walks down the trie along key once, and replaces the value there by
+     * remapping(key, old value), where the old value is null if key is not
+     * mapped. Missing nodes are only created if the new value is not null,
+     * and if it is null, the branch that is left empty is pruned. Fixes size,
+     * and the counts and best values of the nodes on the path.
+     *
+     * @param returnOld
+     *            whether to return the old value instead of the new one
+     * @return the new value (or the old value, if returnOld), which is null
+     *         if there is none
+     */
+    private V update(K key, BiFunction<? super K, ? super V, ? extends V> remapping, boolean returnOld) {
+        HashTrieNode[] path = newPath(key.size());
+        HashTrieNode curNode = root();
+        path[0] = curNode;
+        int depth = 0;
+
+        // the deepest node on the path that has to survive a removal (it
+        // has a value or another child), and the edge leading out of it
+        HashTrieNode lstNode = curNode;
         A lstKey = null;
-        if(key.isEmpty()) { //empty string key
+        int lstDepth = 0;
+
+        // the first letter that has no node yet, if any
+        int length = key.size();
+        int missing = length;
+        for (int i = 0; i < length; i++) {
+            A subKey = key.letterAt(i);
+            if (lstKey == null || curNode.value != null || curNode.pointers.size() > 1) {
+                lstNode = curNode;
+                lstKey = subKey;
+                lstDepth = depth;
+            }
+            HashTrieNode next = curNode.pointers.get(subKey);
+            if (next == null) {
+                missing = i;
+                break;
+            }
+            curNode = next;
+            path[++depth] = curNode;
+        }
+
+        V oldValue = missing == length ? curNode.value : null;
+        V value = remapping.apply(key, oldValue);
+        if (value == oldValue) {
+            return value;
+        }
+
+        if (value == null) {
             curNode.value = null;
             this.size--;
-            return;
-        }
-        HashTrieNode lstNode = (HashTrieMap<A, K, V>.HashTrieNode)this.root;
-        Iterator<A> keyIterator = key.iterator();
-        if (keyIterator.hasNext() ) { // find last node
-            lstKey = keyIterator.next();
+            for (int i = 0; i <= depth; i++) {
+                path[i].count--;
+            }
+            if (curNode.pointers.isEmpty() && lstKey != null) {
+                lstNode.pointers.remove(lstKey);
+                depth = lstDepth;
+            }
+            if (this.ranking != null) {
+                for (int i = depth; i >= 0; i--) {
+                    path[i].updateBest();
+                }
+            }
         }
-        keyIterator = key.iterator();
-        while (keyIterator.hasNext()) {
-            A subKey = keyIterator.next();
-            if (curNode == null) {
-                return;
+        else {
+            for (int i = missing; i < length; i++) {
+                HashTrieNode next = new HashTrieNode();
+                curNode.pointers.put(key.letterAt(i), next);
+                curNode = next;
+                path[++depth] = curNode;
             }
-            // mark multi pointer node
-            if (curNode.value != null || curNode.pointers.size() > 1) {
+            curNode.value = value;
+            if (oldValue == null) {
+                this.size++;
+            }
+            fixPath(path, depth, oldValue, value);
+        }
+        return returnOld ? oldValue : value;
+    }
+
+    /**
+     * Detaches the subtree below prefix from its parent, so this takes time
+     * proportional to the length of prefix however many keys it removes.
+     */
+    @Override
+    public int deletePrefix(K prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException();
+        }
+        if (prefix.size() == 0) {
+            int removed = this.size;
+            clear();
+            return removed;
+        }
+        HashTrieNode[] path = newPath(prefix.size());
+        HashTrieNode curNode = root();
+        path[0] = curNode;
+        int depth = 0;
+
+        // the deepest node on the path that survives the removal, and the
+        // edge leading out of it
+        HashTrieNode lstNode = curNode;
+        A lstKey = null;
+        int lstDepth = 0;
+        for (A subKey : prefix) {
+            if (lstKey == null || curNode.value != null || curNode.pointers.size() > 1) {
                 lstNode = curNode;
                 lstKey = subKey;
+                lstDepth = depth;
+            }
+            curNode = curNode.pointers.get(subKey);
+            if (curNode == null) {
+                return 0;
             }
-            if (!curNode.pointers.isEmpty()) {
-                curNode = curNode.pointers.get(subKey);
-            } else {
+            path[++depth] = curNode;
+        }
+
+        int removed = curNode.count;
+        lstNode.pointers.remove(lstKey);
+        this.size -= removed;
+        for (int i = lstDepth; i >= 0; i--) {
+            path[i].count -= removed;
+            if (this.ranking != null) {
+                path[i].updateBest();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * If other is a HashTrieMap, it is copied node by node, without going
+     * through its keys. Either way, other is left unchanged.
+     */
+    @Override
+    public void replaceSubtree(K prefix, TrieMap<A, K, V> other) {
+        if (prefix == null || other == null) {
+            throw new IllegalArgumentException();
+        }
+        if (!(other instanceof HashTrieMap)) {
+            super.replaceSubtree(prefix, other);
+            return;
+        }
+        HashTrieMap<A, K, V> that = (HashTrieMap<A, K, V>) other;
+        // copy first, since other may be this map
+        HashTrieNode subtree = that.isEmpty() ? null : copyOf(that.root());
+        deletePrefix(prefix);
+        graft(prefix, subtree);
+    }
+
+    /**
+     * Does the same as replaceSubtree(prefix, other), but moves the nodes of
+     * other instead of copying them, and leaves other empty. If other keeps
+     * the same ranking as this map, this takes time proportional to the
+     * length of prefix; otherwise, other is copied first.
+     *
+     * @throws IllegalArgumentException
+     *             if prefix or other is null, or other is this map.
+     */
+    public void transplantSubtree(K prefix, HashTrieMap<A, K, V> other) {
+        if (prefix == null || other == null || other == this) {
+            throw new IllegalArgumentException();
+        }
+        deletePrefix(prefix);
+        HashTrieNode subtree = null;
+        if (!other.isEmpty()) {
+            // the nodes only depend on the map through its ranking
+            subtree = other.ranking == this.ranking ? other.root() : copyOf(other.root());
+        }
+        other.clear();
+        graft(prefix, subtree);
+    }
+
+    /**
+     * Attaches subtree, which holds nodes of this map only, below prefix,
+     * where there is nothing yet, and fixes the counts and best values of
+     * the nodes above it. Does nothing if subtree is null.
+     */
+    private void graft(K prefix, HashTrieNode subtree) {
+        if (subtree == null) {
+            return;
+        }
+        Iterator<A> letters = prefix.iterator();
+        if (!letters.hasNext()) {
+            this.root = subtree;
+            this.size = subtree.count;
+            return;
+        }
+        HashTrieNode[] path = newPath(prefix.size());
+        HashTrieNode curNode = root();
+        path[0] = curNode;
+        int depth = 0;
+        A letter = letters.next();
+        while (letters.hasNext()) {
+            HashTrieNode next = curNode.pointers.get(letter);
+            if (next == null) {
+                next = new HashTrieNode();
+                curNode.pointers.put(letter, next);
+            }
+            curNode = next;
+            path[++depth] = curNode;
+            letter = letters.next();
+        }
+        curNode.pointers.put(letter, subtree);
+        this.size += subtree.count;
+        for (int i = 0; i <= depth; i++) {
+            path[i].count += subtree.count;
+            if (subtree.best != null && (path[i].best == null || this.ranking.compare(subtree.best, path[i].best) > 0)) {
+                path[i].best = subtree.best;
+            }
+        }
+    }
+
+    /**
+     * Does the same as bulkLoad(items), but builds the subtries below
+     * different letters at the same time on the common ForkJoinPool.
+     *
+     * @throws IllegalArgumentException
+     *             if items, or any key or value in it, is null.
+     */
+    public void parallelBulkLoad(Iterable<Item<K, V>> items) {
+        parallelBulkLoad(items, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Does the same as bulkLoad(items), but builds the subtries below
+     * different letters at the same time on pool. The keys are split by
+     * their first letter, and each group that is still large is split again
+     * by its next letter, and so on. Since no two tasks ever touch the same
+     * node, no locking is needed: a task fills in its node's children, and
+     * grafts the new ones onto the node once they are complete. The result
+     * is the same as inserting the mappings one at a time, in order.
+     *
+     * The mappings are checked before the map is changed, so if this throws,
+     * the map is unchanged.
+     *
+     * @throws IllegalArgumentException
+     *             if items or pool, or any key or value in items, is null.
+     */
+    public void parallelBulkLoad(Iterable<Item<K, V>> items, ForkJoinPool pool) {
+        if (items == null || pool == null) {
+            throw new IllegalArgumentException();
+        }
+        List<A[]> keys = new ArrayList<>();
+        List<V> values = new ArrayList<>();
+        for (Item<K, V> item : items) {
+            if (item.key == null || item.value == null) {
+                throw new IllegalArgumentException();
+            }
+            A[] letters = newLetters(item.key.size());
+            int i = 0;
+            for (A letter : item.key) {
+                letters[i++] = letter;
+            }
+            keys.add(letters);
+            values.add(item.value);
+        }
+        int[] all = new int[keys.size()];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        pool.invoke(new BulkLoadTask(root(), keys, values, all, 0));
+        this.size = root().count;
+    }
+
+    /**
+     * Loads the mappings keys[i] -> values[i], for i in indices, into the
+     * subtree of node, which is at the given depth. The keys all agree on
+     * their first depth letters, and indices is in increasing order, so later
+     * mappings still replace earlier ones.
+     */
+    private class BulkLoadTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final HashTrieNode node;
+        private final List<A[]> keys;
+        private final List<V> values;
+        private final int[] indices;
+        private final int depth;
+
+        public BulkLoadTask(HashTrieNode node, List<A[]> keys, List<V> values, int[] indices, int depth) {
+            this.node = node;
+            this.keys = keys;
+            this.values = values;
+            this.indices = indices;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.indices.length <= BULK_LOAD_THRESHOLD) {
+                for (int i : this.indices) {
+                    A[] key = this.keys.get(i);
+                    insertBelow(this.node, Arrays.asList(key).subList(this.depth, key.length),
+                            key.length - this.depth, this.values.get(i));
+                }
                 return;
             }
+
+            // group the keys by their next letter, keeping their order
+            Map<A, int[]> sizes = new HashMap<>();
+            for (int i : this.indices) {
+                A[] key = this.keys.get(i);
+                if (key.length == this.depth) {
+                    this.node.value = this.values.get(i);
+                }
+                else {
+                    sizes.computeIfAbsent(key[this.depth], letter -> new int[1])[0]++;
+                }
+            }
+            Map<A, int[]> groups = new HashMap<>();
+            for (Entry<A, int[]> entry : sizes.entrySet()) {
+                groups.put(entry.getKey(), new int[entry.getValue()[0]]);
+                entry.getValue()[0] = 0;
+            }
+            for (int i : this.indices) {
+                A[] key = this.keys.get(i);
+                if (key.length > this.depth) {
+                    int[] filled = sizes.get(key[this.depth]);
+                    groups.get(key[this.depth])[filled[0]++] = i;
+                }
+            }
+
+            List<BulkLoadTask> tasks = new ArrayList<>(groups.size());
+            for (Entry<A, int[]> group : groups.entrySet()) {
+                HashTrieNode child = this.node.pointers.get(group.getKey());
+                tasks.add(new BulkLoadTask(child != null ? child : new HashTrieNode(), this.keys, this.values,
+                        group.getValue(), this.depth + 1));
+            }
+            invokeAll(tasks);
+
+            // graft the new subtries, and recount this node
+            for (BulkLoadTask task : tasks) {
+                A letter = task.keys.get(task.indices[0])[this.depth];
+                this.node.pointers.putIfAbsent(letter, task.node);
+            }
+            recount(this.node);
         }
-        if (curNode != null && curNode.value != null) {
-            if (!curNode.pointers.isEmpty()) {
-                curNode.value = null;
-            } else if (lstKey != null) {
-                lstNode.pointers.remove(lstKey);
-            } else {
-                this.root.value = null;
+    }
+
+    /**
+     * Walks both tries at once. A subtree that is only in other is copied
+     * node by node, without building its keys, and a subtree that is only in
+     * this map is not visited at all.
+     */
+    @Override
+    public void merge(TrieMap<A, K, V> other, BiFunction<? super V, ? super V, ? extends V> combine) {
+        if (other == null || combine == null) {
+            throw new IllegalArgumentException();
+        }
+        if (!(other instanceof HashTrieMap)) {
+            super.merge(other, combine);
+            return;
+        }
+        HashTrieMap<A, K, V> that = (HashTrieMap<A, K, V>) other;
+        // merging with itself would change the nodes it is walking
+        mergeBelow(root(), that == this ? copyOf(root()) : that.root(), combine);
+        this.size = root().count;
+    }
+
+    /**
+     * Walks both tries at once. A subtree that is only in this map is
+     * dropped as a whole, and a subtree that is only in other is not visited.
+     */
+    @Override
+    public void intersect(TrieMap<A, K, ?> other) {
+        if (other == null) {
+            throw new IllegalArgumentException();
+        }
+        if (!(other instanceof HashTrieMap)) {
+            super.intersect(other);
+            return;
+        }
+        if (other != this) {
+            intersectBelow(root(), ((HashTrieMap<A, K, ?>) other).root());
+            this.size = root().count;
+        }
+    }
+
+    /**
+     * Walks both tries at once. A subtree that is only in either map is not
+     * visited.
+     */
+    @Override
+    public void subtract(TrieMap<A, K, ?> other) {
+        if (other == null) {
+            throw new IllegalArgumentException();
+        }
+        if (!(other instanceof HashTrieMap)) {
+            super.subtract(other);
+            return;
+        }
+        if (other == this) {
+            clear();
+            return;
+        }
+        subtractBelow(root(), ((HashTrieMap<A, K, ?>) other).root());
+        this.size = root().count;
+    }
+
+    private void mergeBelow(HashTrieNode node, HashTrieMap<A, K, V>.HashTrieNode other,
+            BiFunction<? super V, ? super V, ? extends V> combine) {
+        if (other.value != null) {
+            node.value = node.value == null ? other.value : combine.apply(node.value, other.value);
+        }
+        for (Entry<A, HashTrieMap<A, K, V>.HashTrieNode> entry : other.pointers.entrySet()) {
+            HashTrieNode child = node.pointers.get(entry.getKey());
+            if (child == null) {
+                if (entry.getValue().count > 0) {
+                    node.pointers.put(entry.getKey(), copyOf(entry.getValue()));
+                }
+            }
+            else {
+                mergeBelow(child, entry.getValue(), combine);
+                if (child.count == 0) {
+                    node.pointers.remove(entry.getKey());
+                }
             }
-            this.size--;
         }
-//        // null key exception
-//        if(key == null) {
-//            throw new IllegalArgumentException();
-//        }
-//        HashTrieNode curNode = (HashTrieMap<A, K, V>.HashTrieNode)this.root;
-//
-//        // only root node
-//        if(curNode.pointers.size() == 0){
-//            if(this.find(key) != null){
-//                this.root = null;
-//            }
-//        } else if(this.find(key) != null) {
-//            deleteChildren((HashTrieNode) this.root, key);
-//        }
+        recount(node);
     }
 
+    private <W> void intersectBelow(HashTrieNode node, HashTrieMap<A, K, W>.HashTrieNode other) {
+        if (other.value == null) {
+            node.value = null;
+        }
+        Iterator<Entry<A, HashTrieNode>> children = node.pointers.entrySet().iterator();
+        while (children.hasNext()) {
+            Entry<A, HashTrieNode> entry = children.next();
+            HashTrieMap<A, K, W>.HashTrieNode otherChild = other.pointers.get(entry.getKey());
+            if (otherChild == null) {
+                children.remove();
+                continue;
+            }
+            intersectBelow(entry.getValue(), otherChild);
+            if (entry.getValue().count == 0) {
+                children.remove();
+            }
+        }
+        recount(node);
+    }
 
+    private <W> void subtractBelow(HashTrieNode node, HashTrieMap<A, K, W>.HashTrieNode other) {
+        if (other.value != null) {
+            node.value = null;
+        }
+        for (Entry<A, HashTrieMap<A, K, W>.HashTrieNode> entry : other.pointers.entrySet()) {
+            HashTrieNode child = node.pointers.get(entry.getKey());
+            if (child != null) {
+                subtractBelow(child, entry.getValue());
+                if (child.count == 0) {
+                    node.pointers.remove(entry.getKey());
+                }
+            }
+        }
+        recount(node);
+    }
+
+    /**
+     * Returns a copy, made of nodes of this map, of the subtree rooted at
+     * other.
+     */
+    private HashTrieNode copyOf(HashTrieMap<A, K, V>.HashTrieNode other) {
+        HashTrieNode node = new HashTrieNode(other.value);
+        for (Entry<A, HashTrieMap<A, K, V>.HashTrieNode> entry : other.pointers.entrySet()) {
+            node.pointers.put(entry.getKey(), copyOf(entry.getValue()));
+        }
+        node.count = other.count;
+        if (this.ranking != null) {
+            // other may keep a different ranking
+            node.updateBest();
+        }
+        return node;
+    }
+
+    /**
+     * Recomputes count and best of node from its value and its children.
+     */
+    private void recount(HashTrieNode node) {
+        int count = node.value != null ? 1 : 0;
+        for (HashTrieNode child : node.pointers.values()) {
+            count += child.count;
+        }
+        node.count = count;
+        if (this.ranking != null) {
+            node.updateBest();
+        }
+    }
 
     @Override
     public void clear() {
-//        throw new NotYetImplementedException();
-        HashTrieNode hashTrieNode = (HashTrieMap<A, K, V>.HashTrieNode) this.root;
-        hashTrieNode.pointers.clear();
+        this.root = new HashTrieNode();
         this.size = 0;
     }
 }
@@ -0,0 +1,533 @@
+package datastructures.dictionaries;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+import cse332.interfaces.misc.BString;
+import cse332.interfaces.trie.TrieMap;
+
+/**
+ * See cse332/interfaces/trie/TrieMap.java
+ * and cse332/interfaces/misc/Dictionary.java
+ * for method specifications.
+ *
+ * An immutable TrieMap. A PersistentTrieMap never changes once it has been
+ * created, so any number of threads can read it without locking. Instead of
+ * insert and delete, plus and minus return a new version of the map. The new
+ * version copies only the nodes on the path to the key that changed and shares
+ * every other subtree with the old version, so an update costs O(key length)
+ * time and memory no matter how large the map is.
+ *
+ * For bulk edits, asTransient() returns a mutable Transient map that starts
+ * out sharing all of its nodes with this version. The first time the
+ * Transient changes a node it copies it, and after that it changes its own
+ * copy in place. persistent() turns the Transient back into a
+ * PersistentTrieMap in O(1) time.
+ *
+ * Every node keeps the number of keys in its subtree, so size and countPrefix
+ * take O(1) and O(prefix length) time.
+ */
+public class PersistentTrieMap<A extends Comparable<A>, K extends BString<A>, V> extends TrieMap<A, K, V> {
+    private static final Object[] NO_LETTERS = new Object[0];
+
+    /**
+     * Identifies the nodes that a single Transient (or a single call to plus
+     * or minus) created, and that it may therefore change in place.
+     */
+    private static final class Edit {
+        /**
+         * The value replaced or removed by the last put or remove.
+         */
+        private Object displaced;
+    }
+
+    public class PersistentNode extends TrieNode<PersistentNode[], PersistentNode> {
+        /**
+         * The owner of this node; only the owner may change it in place.
+         */
+        private final Edit edit;
+
+        /**
+         * The letters leading to the children, sorted; letters[i] leads to
+         * pointers[i].
+         */
+        private Object[] letters;
+
+        /**
+         * The number of keys in the subtree rooted at this node.
+         */
+        private int count;
+
+        private PersistentNode(Edit edit, V value, Object[] letters, PersistentNode[] pointers, int count) {
+            this.edit = edit;
+            this.value = value;
+            this.letters = letters;
+            this.pointers = pointers;
+            this.count = count;
+        }
+
+        @SuppressWarnings("unchecked")
+        private A letter(int i) {
+            return (A) this.letters[i];
+        }
+
+        /**
+         * Returns the index of letter, or (-(insertion point) - 1).
+         */
+        private int indexOf(A letter) {
+            int lo = 0;
+            int hi = this.letters.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = letter(mid).compareTo(letter);
+                if (cmp < 0) {
+                    lo = mid + 1;
+                }
+                else if (cmp > 0) {
+                    hi = mid - 1;
+                }
+                else {
+                    return mid;
+                }
+            }
+            return -(lo + 1);
+        }
+
+        /**
+         * Inserts child at pos, in place. Only the owner may call this.
+         */
+        private void insertChild(int pos, A letter, PersistentNode child) {
+            int n = this.letters.length;
+            Object[] letters = new Object[n + 1];
+            PersistentNode[] pointers = newNodes(n + 1);
+            System.arraycopy(this.letters, 0, letters, 0, pos);
+            System.arraycopy(this.pointers, 0, pointers, 0, pos);
+            letters[pos] = letter;
+            pointers[pos] = child;
+            System.arraycopy(this.letters, pos, letters, pos + 1, n - pos);
+            System.arraycopy(this.pointers, pos, pointers, pos + 1, n - pos);
+            this.letters = letters;
+            this.pointers = pointers;
+        }
+
+        /**
+         * Removes the child at pos, in place. Only the owner may call this.
+         */
+        private void removeChild(int pos) {
+            int n = this.letters.length;
+            if (n == 1) {
+                this.letters = NO_LETTERS;
+                this.pointers = newNodes(0);
+                return;
+            }
+            Object[] letters = new Object[n - 1];
+            PersistentNode[] pointers = newNodes(n - 1);
+            System.arraycopy(this.letters, 0, letters, 0, pos);
+            System.arraycopy(this.pointers, 0, pointers, 0, pos);
+            System.arraycopy(this.letters, pos + 1, letters, pos, n - pos - 1);
+            System.arraycopy(this.pointers, pos + 1, pointers, pos, n - pos - 1);
+            this.letters = letters;
+            this.pointers = pointers;
+        }
+
+        @Override
+        protected PersistentNode child(A letter) {
+            int pos = indexOf(letter);
+            return pos < 0 ? null : this.pointers[pos];
+        }
+
+        @Override
+        protected int subtreeSize() {
+            return this.count;
+        }
+
+        @Override
+        public Iterator<Entry<A, PersistentNode>> iterator() {
+            return new Iterator<Entry<A, PersistentNode>>() {
+                private int i = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return this.i < PersistentNode.this.letters.length;
+                }
+
+                @Override
+                public Entry<A, PersistentNode> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Entry<A, PersistentNode> entry =
+                            new SimpleImmutableEntry<>(letter(this.i), PersistentNode.this.pointers[this.i]);
+                    this.i++;
+                    return entry;
+                }
+            };
+        }
+    }
+
+    /**
+     * A mutable TrieMap for making many changes to a PersistentTrieMap at
+     * once. It shares its nodes with the version it was created from until it
+     * changes them. A Transient must not be used by more than one thread at a
+     * time, and it cannot be used at all after persistent() has been called.
+     */
+    public class Transient extends TrieMap<A, K, V> {
+        private Edit edit;
+
+        private Transient(PersistentNode root) {
+            super(PersistentTrieMap.this.KClass);
+            this.root = root;
+            this.edit = new Edit();
+        }
+
+        @SuppressWarnings("unchecked")
+        private PersistentNode root() {
+            return (PersistentNode) this.root;
+        }
+
+        private void checkEditable() {
+            if (this.edit == null) {
+                throw new IllegalStateException("Transient used after persistent()");
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public V insert(K key, V value) {
+            if (key == null || value == null) {
+                throw new IllegalArgumentException();
+            }
+            checkEditable();
+            this.root = put(root(), letters(key), value, this.edit);
+            V oldValue = (V) this.edit.displaced;
+            this.edit.displaced = null;
+            return oldValue;
+        }
+
+        @Override
+        public V find(K key) {
+            PersistentNode node = findNode(root(), key);
+            return node == null ? null : node.value;
+        }
+
+        @Override
+        public boolean findPrefix(K key) {
+            PersistentNode node = findNode(root(), key);
+            return node != null && node.count > 0;
+        }
+
+        @Override
+        public void delete(K key) {
+            if (key == null) {
+                throw new IllegalArgumentException();
+            }
+            checkEditable();
+            this.root = remove(root(), letters(key), this.edit);
+            this.edit.displaced = null;
+        }
+
+        @Override
+        public void clear() {
+            checkEditable();
+            this.root = emptyNode(this.edit);
+        }
+
+        @Override
+        public int size() {
+            return root().count;
+        }
+
+        /**
+         * Returns a PersistentTrieMap with the contents of this map, in O(1)
+         * time. This map cannot be used any more afterwards.
+         *
+         * @return the persistent version of this map
+         * @throws IllegalStateException
+         *             if persistent() has already been called.
+         */
+        public PersistentTrieMap<A, K, V> persistent() {
+            checkEditable();
+            this.edit = null;
+            return new PersistentTrieMap<>(this.KClass, root());
+        }
+    }
+
+    /**
+     * Creates an empty map.
+     */
+    public PersistentTrieMap(Class<K> KClass) {
+        super(KClass);
+        this.root = emptyNode(new Edit());
+    }
+
+    private PersistentTrieMap(Class<K> KClass, PersistentNode root) {
+        super(KClass);
+        this.root = root;
+        this.size = root.count;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private PersistentNode[] newNodes(int length) {
+        return new PersistentTrieMap.PersistentNode[length];
+    }
+
+    private PersistentNode emptyNode(Edit edit) {
+        return new PersistentNode(edit, null, NO_LETTERS, newNodes(0), 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private PersistentNode root() {
+        return (PersistentNode) this.root;
+    }
+
+    private A[] letters(K key) {
+        A[] letters = newLetters(key.size());
+        int i = 0;
+        for (A letter : key) {
+            letters[i++] = letter;
+        }
+        return letters;
+    }
+
+    /**
+     * Returns node if edit owns it, and otherwise a copy of node owned by
+     * edit.
+     */
+    private PersistentNode editable(PersistentNode node, Edit edit) {
+        if (node.edit == edit) {
+            return node;
+        }
+        return new PersistentNode(edit, node.value, node.letters, node.pointers.clone(), node.count);
+    }
+
+    /**
+     * Returns the root of the trie with key mapped to value, copying (or, if
+     * edit owns them, changing) only the nodes on the path to key. The
+     * previous value of key is left in edit.displaced.
+     */
+    private PersistentNode put(PersistentNode root, A[] key, V value, Edit edit) {
+        int n = key.length;
+        PersistentNode[] path = newNodes(n + 1);
+        int[] positions = new int[n];
+        PersistentNode node = root;
+        path[0] = root;
+        int depth = 0;
+        while (depth < n) {
+            int pos = node.indexOf(key[depth]);
+            positions[depth] = pos;
+            if (pos < 0) {
+                break;
+            }
+            node = node.pointers[pos];
+            path[++depth] = node;
+        }
+
+        V oldValue = null;
+        PersistentNode replacement = editable(node, edit);
+        if (depth == n) {
+            oldValue = node.value;
+            replacement.value = value;
+        }
+        else {
+            replacement.insertChild(-positions[depth] - 1, key[depth], chain(key, depth + 1, value, edit));
+        }
+        int added = oldValue == null ? 1 : 0;
+        replacement.count += added;
+
+        for (int i = depth - 1; i >= 0; i--) {
+            PersistentNode parent = editable(path[i], edit);
+            parent.pointers[positions[i]] = replacement;
+            parent.count += added;
+            replacement = parent;
+        }
+        edit.displaced = oldValue;
+        return replacement;
+    }
+
+    /**
+     * Returns a new path of nodes spelling key[from...] and ending in value.
+     */
+    private PersistentNode chain(A[] key, int from, V value, Edit edit) {
+        PersistentNode node = new PersistentNode(edit, value, NO_LETTERS, newNodes(0), 1);
+        for (int j = key.length - 1; j >= from; j--) {
+            PersistentNode[] pointers = newNodes(1);
+            pointers[0] = node;
+            node = new PersistentNode(edit, null, new Object[] { key[j] }, pointers, 1);
+        }
+        return node;
+    }
+
+    /**
+     * Returns the root of the trie without key, copying (or, if edit owns
+     * them, changing) only the nodes on the path to key, and pruning the
+     * nodes that no longer lead to a key. The removed value is left in
+     * edit.displaced.
+     */
+    private PersistentNode remove(PersistentNode root, A[] key, Edit edit) {
+        int n = key.length;
+        PersistentNode[] path = newNodes(n + 1);
+        int[] positions = new int[n];
+        PersistentNode node = root;
+        path[0] = root;
+        for (int depth = 0; depth < n; depth++) {
+            int pos = node.indexOf(key[depth]);
+            if (pos < 0) {
+                edit.displaced = null;
+                return root;
+            }
+            positions[depth] = pos;
+            node = node.pointers[pos];
+            path[depth + 1] = node;
+        }
+        if (node.value == null) {
+            edit.displaced = null;
+            return root;
+        }
+        edit.displaced = node.value;
+
+        PersistentNode replacement = null;
+        if (n == 0 || node.pointers.length > 0) {
+            replacement = editable(node, edit);
+            replacement.value = null;
+            replacement.count--;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            PersistentNode parent = path[i];
+            if (replacement == null) {
+                if (i > 0 && parent.value == null && parent.pointers.length == 1) {
+                    // the parent only led to the removed key, so it goes too
+                    continue;
+                }
+                parent = editable(parent, edit);
+                parent.removeChild(positions[i]);
+            }
+            else {
+                parent = editable(parent, edit);
+                parent.pointers[positions[i]] = replacement;
+            }
+            parent.count--;
+            replacement = parent;
+        }
+        return replacement;
+    }
+
+    private PersistentNode findNode(PersistentNode root, K key) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        PersistentNode current = root;
+        for (A letter : key) {
+            current = current.child(letter);
+            if (current == null) {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns a version of this map in which key is mapped to value. This map
+     * does not change.
+     *
+     * @param key
+     *            key with which the specified value is to be associated
+     * @param value
+     *            value to be associated with the specified key
+     * @return the new version of this map
+     * @throws IllegalArgumentException
+     *             if either key or value is null.
+     */
+    public PersistentTrieMap<A, K, V> plus(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException();
+        }
+        if (value.equals(find(key))) {
+            return this;
+        }
+        return new PersistentTrieMap<>(this.KClass, put(root(), letters(key), value, new Edit()));
+    }
+
+    /**
+     * Returns a version of this map without a mapping for key. This map does
+     * not change.
+     *
+     * @param key
+     *            key whose mapping is to be removed
+     * @return the new version of this map (this map itself if there was no
+     *         mapping for key)
+     * @throws IllegalArgumentException
+     *             if key is null.
+     */
+    public PersistentTrieMap<A, K, V> minus(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        PersistentNode root = remove(root(), letters(key), new Edit());
+        return root == this.root ? this : new PersistentTrieMap<>(this.KClass, root);
+    }
+
+    /**
+     * Returns an empty map with the same key type as this one.
+     *
+     * @return an empty map
+     */
+    public PersistentTrieMap<A, K, V> empty() {
+        return new PersistentTrieMap<>(this.KClass);
+    }
+
+    /**
+     * Returns a mutable copy of this map for bulk edits, in O(1) time.
+     *
+     * @return a Transient that starts out with the contents of this map
+     */
+    public Transient asTransient() {
+        return new Transient(root());
+    }
+
+    @Override
+    public V find(K key) {
+        PersistentNode node = findNode(root(), key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public boolean findPrefix(K key) {
+        PersistentNode node = findNode(root(), key);
+        return node != null && node.count > 0;
+    }
+
+    /**
+     * A PersistentTrieMap cannot be changed; use plus instead.
+     *
+     * @throws UnsupportedOperationException
+     *             always.
+     */
+    @Override
+    public V insert(K key, V value) {
+        throw new UnsupportedOperationException("PersistentTrieMap is immutable; use plus");
+    }
+
+    /**
+     * A PersistentTrieMap cannot be changed; use minus instead.
+     *
+     * @throws UnsupportedOperationException
+     *             always.
+     */
+    @Override
+    public void delete(K key) {
+        throw new UnsupportedOperationException("PersistentTrieMap is immutable; use minus");
+    }
+
+    /**
+     * A PersistentTrieMap cannot be changed; use empty instead.
+     *
+     * @throws UnsupportedOperationException
+     *             always.
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("PersistentTrieMap is immutable; use empty");
+    }
+}
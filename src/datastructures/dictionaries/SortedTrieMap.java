@@ -0,0 +1,518 @@
+package datastructures.dictionaries;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+import cse332.datastructures.containers.Item;
+import cse332.interfaces.misc.BString;
+import cse332.interfaces.misc.SimpleIterator;
+import cse332.interfaces.trie.TrieMap;
+import cse332.interfaces.worklists.LIFOWorkList;
+import datastructures.worklists.ArrayStack;
+
+/**
+ * See cse332/interfaces/trie/TrieMap.java
+ * and cse332/interfaces/misc/Dictionary.java
+ * for method specifications.
+ *
+ * A TrieMap whose nodes keep their children sorted by letter, so iterator()
+ * returns the mappings in lexicographic order of their keys. On top of that
+ * order it offers floor, ceiling, range iteration and paging. All of them
+ * find their starting point by walking down the trie along a single key, so
+ * they cost O(key length) plus the number of mappings they return, no matter
+ * how large the map is.
+ *
+ * Every node keeps the number of keys in its subtree, so countPrefix does not
+ * have to search.
+ */
+public class SortedTrieMap<A extends Comparable<A>, K extends BString<A>, V> extends TrieMap<A, K, V> {
+    private static final Object[] NO_LETTERS = new Object[0];
+
+    public class SortedTrieNode extends TrieNode<SortedTrieNode[], SortedTrieNode> {
+        /**
+         * The letters leading to the children, sorted; letters[i] leads to
+         * pointers[i] for i < children.
+         */
+        private Object[] letters;
+
+        /**
+         * The number of children.
+         */
+        private int children;
+
+        /**
+         * The number of keys in the subtree rooted at this node.
+         */
+        private int count;
+
+        public SortedTrieNode() {
+            this.letters = NO_LETTERS;
+            this.pointers = newNodes(0);
+        }
+
+        @SuppressWarnings("unchecked")
+        private A letter(int i) {
+            return (A) this.letters[i];
+        }
+
+        /**
+         * Returns the index of letter, or (-(insertion point) - 1).
+         */
+        private int indexOf(A letter) {
+            int lo = 0;
+            int hi = this.children - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = letter(mid).compareTo(letter);
+                if (cmp < 0) {
+                    lo = mid + 1;
+                }
+                else if (cmp > 0) {
+                    hi = mid - 1;
+                }
+                else {
+                    return mid;
+                }
+            }
+            return -(lo + 1);
+        }
+
+        private void insertChild(int pos, A letter, SortedTrieNode child) {
+            if (this.children == this.letters.length) {
+                int capacity = Math.max(2, 2 * this.children);
+                this.letters = Arrays.copyOf(this.letters, capacity);
+                this.pointers = Arrays.copyOf(this.pointers, capacity);
+            }
+            System.arraycopy(this.letters, pos, this.letters, pos + 1, this.children - pos);
+            System.arraycopy(this.pointers, pos, this.pointers, pos + 1, this.children - pos);
+            this.letters[pos] = letter;
+            this.pointers[pos] = child;
+            this.children++;
+        }
+
+        private void removeChild(int pos) {
+            this.children--;
+            System.arraycopy(this.letters, pos + 1, this.letters, pos, this.children - pos);
+            System.arraycopy(this.pointers, pos + 1, this.pointers, pos, this.children - pos);
+            this.letters[this.children] = null;
+            this.pointers[this.children] = null;
+        }
+
+        @Override
+        protected SortedTrieNode child(A letter) {
+            int pos = indexOf(letter);
+            return pos < 0 ? null : this.pointers[pos];
+        }
+
+        @Override
+        protected int subtreeSize() {
+            return this.count;
+        }
+
+        @Override
+        public Iterator<Entry<A, SortedTrieNode>> iterator() {
+            return new Iterator<Entry<A, SortedTrieNode>>() {
+                private int i = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return this.i < SortedTrieNode.this.children;
+                }
+
+                @Override
+                public Entry<A, SortedTrieNode> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Entry<A, SortedTrieNode> entry =
+                            new SimpleImmutableEntry<>(letter(this.i), SortedTrieNode.this.pointers[this.i]);
+                    this.i++;
+                    return entry;
+                }
+            };
+        }
+    }
+
+    /**
+     * One page of mappings returned by page(), together with the cursor to
+     * pass to page() to get the page after it.
+     */
+    public static class Page<K, V> {
+        /**
+         * The mappings of this page, in order.
+         */
+        public final List<Item<K, V>> items;
+
+        /**
+         * The key to resume after, or null if this is the last page.
+         */
+        public final K next;
+
+        private Page(List<Item<K, V>> items, K next) {
+            this.items = items;
+            this.next = next;
+        }
+    }
+
+    public SortedTrieMap(Class<K> KClass) {
+        super(KClass);
+        this.root = new SortedTrieNode();
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private SortedTrieNode[] newNodes(int length) {
+        return new SortedTrieMap.SortedTrieNode[length];
+    }
+
+    @SuppressWarnings("unchecked")
+    protected SortedTrieNode root() {
+        return (SortedTrieNode) this.root;
+    }
+
+    private A[] lettersOf(K key) {
+        A[] letters = newLetters(key.size());
+        int i = 0;
+        for (A letter : key) {
+            letters[i++] = letter;
+        }
+        return letters;
+    }
+
+    @Override
+    public V insert(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException();
+        }
+        SortedTrieNode[] path = newNodes(key.size() + 1);
+        SortedTrieNode current = root();
+        int depth = 0;
+        path[0] = current;
+        for (A letter : key) {
+            int pos = current.indexOf(letter);
+            SortedTrieNode next;
+            if (pos >= 0) {
+                next = current.pointers[pos];
+            }
+            else {
+                next = new SortedTrieNode();
+                current.insertChild(-(pos + 1), letter, next);
+            }
+            current = next;
+            path[++depth] = current;
+        }
+        V oldValue = current.value;
+        current.value = value;
+        if (oldValue == null) {
+            this.size++;
+            for (int i = 0; i <= depth; i++) {
+                path[i].count++;
+            }
+        }
+        return oldValue;
+    }
+
+    @Override
+    public V find(K key) {
+        SortedTrieNode node = findNode(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public boolean findPrefix(K key) {
+        SortedTrieNode node = findNode(key);
+        return node != null && node.count > 0;
+    }
+
+    private SortedTrieNode findNode(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        SortedTrieNode current = root();
+        for (A letter : key) {
+            current = current.child(letter);
+            if (current == null) {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public void delete(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        SortedTrieNode[] path = newNodes(key.size() + 1);
+        SortedTrieNode current = root();
+        path[0] = current;
+        int depth = 0;
+
+        // the deepest node on the path that has to survive the deletion (it
+        // has a value or another child), and the index of the edge leading
+        // out of it
+        SortedTrieNode keep = current;
+        int keepPos = -1;
+        for (A letter : key) {
+            int pos = current.indexOf(letter);
+            if (pos < 0) {
+                return;
+            }
+            if (keepPos < 0 || current.value != null || current.children > 1) {
+                keep = current;
+                keepPos = pos;
+            }
+            current = current.pointers[pos];
+            path[++depth] = current;
+        }
+        if (current.value == null) {
+            return;
+        }
+        current.value = null;
+        this.size--;
+        for (int i = 0; i <= depth; i++) {
+            path[i].count--;
+        }
+        if (current.children == 0 && keepPos >= 0) {
+            keep.removeChild(keepPos);
+        }
+    }
+
+    @Override
+    public void clear() {
+        this.root = new SortedTrieNode();
+        this.size = 0;
+    }
+
+    /**
+     * Returns the mapping with the greatest key that is less than or equal to
+     * key, or null if there is none.
+     *
+     * @throws IllegalArgumentException
+     *             if key is null.
+     */
+    public Item<K, V> floor(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        A[] letters = lettersOf(key);
+
+        // The best candidate so far is either a node on the path (whose key
+        // is a prefix of key), or the greatest key below a child that comes
+        // before the path. Deeper candidates are always greater.
+        SortedTrieNode candidate = null;
+        int candidateDepth = 0;
+        int candidatePos = -1;
+
+        SortedTrieNode current = root();
+        int depth = 0;
+        while (depth < letters.length) {
+            int pos = current.indexOf(letters[depth]);
+            int before = (pos >= 0 ? pos : -(pos + 1)) - 1;
+            if (before >= 0) {
+                candidate = current;
+                candidateDepth = depth;
+                candidatePos = before;
+            }
+            else if (current.value != null) {
+                candidate = current;
+                candidateDepth = depth;
+                candidatePos = -1;
+            }
+            if (pos < 0) {
+                break;
+            }
+            current = current.pointers[pos];
+            depth++;
+        }
+        if (depth == letters.length && current.value != null) {
+            return new Item<K, V>(key, current.value);
+        }
+        if (candidate == null) {
+            return null;
+        }
+        if (candidatePos < 0) {
+            return new Item<K, V>(keyFromLetters(Arrays.copyOf(letters, candidateDepth)), candidate.value);
+        }
+
+        // the greatest key below a node is reached by always taking the last child
+        List<A> path = new ArrayList<>();
+        for (int i = 0; i < candidateDepth; i++) {
+            path.add(letters[i]);
+        }
+        path.add(candidate.letter(candidatePos));
+        SortedTrieNode node = candidate.pointers[candidatePos];
+        while (node.children > 0) {
+            path.add(node.letter(node.children - 1));
+            node = node.pointers[node.children - 1];
+        }
+        return new Item<K, V>(keyFromLetters(path.toArray(newLetters(path.size()))), node.value);
+    }
+
+    /**
+     * Returns the mapping with the least key that is greater than or equal to
+     * key, or null if there is none.
+     *
+     * @throws IllegalArgumentException
+     *             if key is null.
+     */
+    public Item<K, V> ceiling(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        Iterator<Item<K, V>> items = new OrderedIterator(lettersOf(key), true, null);
+        return items.hasNext() ? items.next() : null;
+    }
+
+    /**
+     * Returns an iterator over the mappings whose keys are greater than or
+     * equal to from and less than to, in order.
+     *
+     * @throws IllegalArgumentException
+     *             if from or to is null.
+     */
+    public Iterator<Item<K, V>> range(K from, K to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException();
+        }
+        return new OrderedIterator(lettersOf(from), true, lettersOf(to));
+    }
+
+    /**
+     * Returns the (at most) limit mappings that follow the key after, in
+     * order. Pass null to get the first page, and the next field of a page
+     * to get the page after it. The cursor is just the last key of the page,
+     * so it stays valid while the map changes: the next page starts at the
+     * first key after it that is in the map at the time.
+     *
+     * @param after
+     *            the cursor returned with the previous page, or null
+     * @param limit
+     *            the maximum number of mappings to return
+     * @throws IllegalArgumentException
+     *             if limit is not positive.
+     */
+    public Page<K, V> page(K after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException();
+        }
+        Iterator<Item<K, V>> items = after == null ? iterator() : new OrderedIterator(lettersOf(after), false, null);
+        List<Item<K, V>> page = new ArrayList<>(limit);
+        while (page.size() < limit && items.hasNext()) {
+            page.add(items.next());
+        }
+        K next = items.hasNext() ? page.get(page.size() - 1).key : null;
+        return new Page<K, V>(page, next);
+    }
+
+    /**
+     * Iterates over the mappings in order, starting at a given key and
+     * stopping before another.
+     *
+     * Like the other iterators of TrieMap, this iterator is not guaranteed to
+     * behave sensibly if the map is modified while it is in use.
+     */
+    private class OrderedIterator extends SimpleIterator<Item<K, V>> {
+        private final LIFOWorkList<Frame> frames = new ArrayStack<>();
+        private final A[] to;
+        private A[] letters;
+        private int length;
+
+        private SortedTrieNode next;
+        private boolean advanced;
+
+        /**
+         * A node on the path to the current node, the index of its next child
+         * to visit, and whether its own mapping is still to be returned.
+         */
+        private class Frame {
+            private final SortedTrieNode node;
+            private final int depth;
+            private int nextChild;
+            private boolean pending;
+
+            public Frame(SortedTrieNode node, int depth, int nextChild, boolean pending) {
+                this.node = node;
+                this.depth = depth;
+                this.nextChild = nextChild;
+                this.pending = pending;
+            }
+        }
+
+        /**
+         * Starts at the least key greater than from (or equal to it, if
+         * inclusive), and stops before the first key that is not less than to,
+         * or at the end if to is null.
+         */
+        public OrderedIterator(A[] from, boolean inclusive, A[] to) {
+            this.to = to;
+            this.letters = Arrays.copyOf(from, Math.max(16, from.length));
+            SortedTrieNode current = root();
+            for (int depth = 0; depth < from.length; depth++) {
+                int pos = current.indexOf(from[depth]);
+                if (pos < 0) {
+                    // every child from the insertion point on comes after from
+                    this.frames.add(new Frame(current, depth, -(pos + 1), false));
+                    return;
+                }
+                this.frames.add(new Frame(current, depth, pos + 1, false));
+                current = current.pointers[pos];
+            }
+            this.frames.add(new Frame(current, from.length, 0, inclusive));
+        }
+
+        private void advance() {
+            this.next = null;
+            while (this.frames.hasWork()) {
+                Frame top = this.frames.peek();
+                if (top.pending) {
+                    top.pending = false;
+                    if (top.node.value != null) {
+                        this.next = top.node;
+                        this.length = top.depth;
+                        break;
+                    }
+                }
+                else if (top.nextChild < top.node.children) {
+                    int i = top.nextChild++;
+                    if (top.depth == this.letters.length) {
+                        this.letters = Arrays.copyOf(this.letters, 2 * this.letters.length);
+                    }
+                    this.letters[top.depth] = top.node.letter(i);
+                    this.frames.add(new Frame(top.node.pointers[i], top.depth + 1, 0, true));
+                }
+                else {
+                    this.frames.next();
+                }
+            }
+            if (this.next != null && this.to != null && Arrays.compare(this.letters, 0, this.length, this.to, 0,
+                    this.to.length) >= 0) {
+                // keys only grow from here on
+                this.next = null;
+                this.frames.clear();
+            }
+        }
+
+        @Override
+        public Item<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.advanced = false;
+            return new Item<K, V>(keyFromLetters(Arrays.copyOf(this.letters, this.length)), this.next.value);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!this.advanced) {
+                advance();
+                this.advanced = true;
+            }
+            return this.next != null;
+        }
+    }
+}
@@ -0,0 +1,585 @@
+package datastructures.dictionaries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+import cse332.interfaces.misc.Alphabet;
+import cse332.interfaces.misc.BString;
+import cse332.interfaces.misc.Codec;
+import cse332.interfaces.trie.TrieMap;
+
+/**
+ * See cse332/interfaces/trie/TrieMap.java
+ * and cse332/interfaces/misc/Dictionary.java
+ * for method specifications.
+ *
+ * A read-only TrieMap stored in a handful of flat arrays instead of one object
+ * per node. Use freeze() to create one from another TrieMap, write() to save
+ * it to a file and open() to memory-map that file again.
+ *
+ * The nodes are numbered in level order (the root is 0). The shape of the trie
+ * is a LOUDS bit vector: for every node, one 1 per child followed by a 0, all
+ * preceded by "10" for a virtual parent of the root. The kth 1 stands for
+ * node k and the kth 0 (counting from 0) closes the children of node k - 1,
+ * so the children of node i are the nodes select0(i) - i, ...,
+ * select0(i + 1) - i - 2. Next to it are one label per node (the ordinal of
+ * the letter leading to the node, which fits in 16 bits for every Alphabet),
+ * a bit vector marking the nodes with values, and the values themselves, the
+ * value of node i being value number rank1(i) of that bit vector.
+ *
+ * The whole structure is about 2 bits plus 17 bits per node, plus the values.
+ * All reads use absolute positions in ByteBuffers, so an opened file needs no
+ * deserialization and concurrent readers need no locking.
+ */
+public class SuccinctTrie<A extends Comparable<A>, K extends BString<A>, V> extends TrieMap<A, K, V> {
+    private static final int MAGIC = 0x4C4F5544;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private interface Values<V> {
+        V get(int index);
+
+        int size();
+    }
+
+    /**
+     * A bit vector in a ByteBuffer with a rank index (the number of 1s before
+     * every 512-bit block) and a select index (the block holding every 512th
+     * 0). The layout is: length, #words, #blocks, #samples, the words, the
+     * ranks and the samples.
+     */
+    private static final class Bits {
+        private static final int BLOCK_BITS = 9;
+        private static final int SAMPLE_BITS = 9;
+
+        private final ByteBuffer buffer;
+        private final int words;
+        private final int blocks;
+        private final int samples;
+        private final int wordsAt;
+        private final int ranksAt;
+        private final int samplesAt;
+        private final int end;
+
+        Bits(ByteBuffer buffer, int at) {
+            this.buffer = buffer;
+            this.words = buffer.getInt(at + 4);
+            this.blocks = buffer.getInt(at + 8);
+            this.samples = buffer.getInt(at + 12);
+            this.wordsAt = at + 16;
+            this.ranksAt = this.wordsAt + 8 * this.words;
+            this.samplesAt = this.ranksAt + 4 * this.blocks;
+            this.end = this.samplesAt + 4 * this.samples;
+        }
+
+        private long word(int w) {
+            return this.buffer.getLong(this.wordsAt + 8 * w);
+        }
+
+        boolean get(int i) {
+            return (word(i >>> 6) >>> (i & 63) & 1) != 0;
+        }
+
+        /**
+         * Returns the number of 1s before position i.
+         */
+        int rank1(int i) {
+            int block = i >>> BLOCK_BITS;
+            int rank = this.buffer.getInt(this.ranksAt + 4 * block);
+            int last = i >>> 6;
+            for (int w = block << (BLOCK_BITS - 6); w < last; w++) {
+                rank += Long.bitCount(word(w));
+            }
+            if ((i & 63) != 0) {
+                rank += Long.bitCount(word(last) & ((1L << (i & 63)) - 1));
+            }
+            return rank;
+        }
+
+        private int zerosBefore(int block) {
+            return (block << BLOCK_BITS) - this.buffer.getInt(this.ranksAt + 4 * block);
+        }
+
+        /**
+         * Returns the position of the jth 0 (counting from 0).
+         */
+        int select0(int j) {
+            int sample = j >>> SAMPLE_BITS;
+            int lo = this.buffer.getInt(this.samplesAt + 4 * sample);
+            int hi = sample + 1 < this.samples
+                    ? this.buffer.getInt(this.samplesAt + 4 * (sample + 1))
+                    : this.blocks - 2;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (zerosBefore(mid) <= j) {
+                    lo = mid;
+                }
+                else {
+                    hi = mid - 1;
+                }
+            }
+            int remaining = j - zerosBefore(lo);
+            for (int w = lo << (BLOCK_BITS - 6);; w++) {
+                long zeros = ~word(w);
+                int count = Long.bitCount(zeros);
+                if (remaining < count) {
+                    for (int k = 0; k < remaining; k++) {
+                        zeros &= zeros - 1;
+                    }
+                    return (w << 6) + Long.numberOfTrailingZeros(zeros);
+                }
+                remaining -= count;
+            }
+        }
+    }
+
+    /**
+     * Builds the byte layout of a Bits one bit at a time.
+     */
+    private static final class BitsWriter {
+        private long[] words = new long[16];
+        private int length;
+
+        void add(boolean bit) {
+            if (this.length == this.words.length * 64) {
+                this.words = Arrays.copyOf(this.words, 2 * this.words.length);
+            }
+            if (bit) {
+                this.words[this.length >>> 6] |= 1L << (this.length & 63);
+            }
+            this.length++;
+        }
+
+        private int words() {
+            return (this.length + 63) >>> 6;
+        }
+
+        private int blocks() {
+            return (this.length >>> Bits.BLOCK_BITS) + 2;
+        }
+
+        private int samples() {
+            int zeros = this.length - ones(this.words());
+            return (zeros >>> Bits.SAMPLE_BITS) + 1;
+        }
+
+        private int ones(int words) {
+            int ones = 0;
+            for (int w = 0; w < words; w++) {
+                ones += Long.bitCount(this.words[w]);
+            }
+            return ones;
+        }
+
+        int byteSize() {
+            return 16 + 8 * words() + 4 * blocks() + 4 * samples();
+        }
+
+        void writeTo(ByteBuffer buffer) {
+            int words = words();
+            int blocks = blocks();
+            int samples = samples();
+            buffer.putInt(this.length).putInt(words).putInt(blocks).putInt(samples);
+            for (int w = 0; w < words; w++) {
+                buffer.putLong(this.words[w]);
+            }
+            int perBlock = 1 << (Bits.BLOCK_BITS - 6);
+            int ones = 0;
+            for (int b = 0; b < blocks; b++) {
+                buffer.putInt(ones);
+                for (int w = b * perBlock; w < Math.min(words, (b + 1) * perBlock); w++) {
+                    ones += Long.bitCount(this.words[w]);
+                }
+            }
+            int zeros = 0;
+            int next = 0;
+            for (int i = 0; i < this.length && next < samples; i++) {
+                if ((this.words[i >>> 6] >>> (i & 63) & 1) == 0) {
+                    if (zeros == next << Bits.SAMPLE_BITS) {
+                        buffer.putInt(i >>> Bits.BLOCK_BITS);
+                        next++;
+                    }
+                    zeros++;
+                }
+            }
+            for (; next < samples; next++) {
+                buffer.putInt(blocks - 2);
+            }
+        }
+    }
+
+    /**
+     * Builds a SuccinctTrie from its nodes, which must be added in level
+     * order with the letters of the children of every node sorted. This is
+     * what freeze() uses.
+     */
+    public static class Builder<A extends Comparable<A>, K extends BString<A>, V> {
+        private final Class<K> KClass;
+        private final Alphabet<A> alphabet;
+        private final BitsWriter louds = new BitsWriter();
+        private final BitsWriter hasValue = new BitsWriter();
+        private final List<V> values = new ArrayList<>();
+        private char[] labels = new char[16];
+        private int nodes;
+        private int children;
+
+        public Builder(Class<K> KClass) {
+            this.KClass = KClass;
+            this.alphabet = Alphabet.forLetterType(BString.getLetterType(KClass));
+            this.louds.add(true);
+            this.louds.add(false);
+            this.children = 1;
+        }
+
+        /**
+         * Adds the next node in level order.
+         *
+         * @param value
+         *            the value of the node, or null if it has none
+         * @param childLetters
+         *            the letters leading to the children of the node, sorted
+         */
+        public void add(V value, List<A> childLetters) {
+            if (this.nodes == this.labels.length) {
+                this.labels = Arrays.copyOf(this.labels, 2 * this.labels.length);
+            }
+            this.nodes++;
+            for (A letter : childLetters) {
+                if (this.children == this.labels.length) {
+                    this.labels = Arrays.copyOf(this.labels, 2 * this.labels.length);
+                }
+                this.labels[this.children++] = (char) this.alphabet.ordinal(letter);
+                this.louds.add(true);
+            }
+            this.louds.add(false);
+            this.hasValue.add(value != null);
+            if (value != null) {
+                this.values.add(value);
+            }
+        }
+
+        public SuccinctTrie<A, K, V> build() {
+            if (this.children != this.nodes) {
+                throw new IllegalStateException("the trie has " + this.children
+                        + " nodes but only " + this.nodes + " were added");
+            }
+            ByteBuffer structure = ByteBuffer.allocate(
+                    8 + this.louds.byteSize() + this.hasValue.byteSize() + 2 * this.nodes);
+            structure.putInt(this.nodes).putInt(this.values.size());
+            this.louds.writeTo(structure);
+            this.hasValue.writeTo(structure);
+            for (int i = 0; i < this.nodes; i++) {
+                structure.putChar(this.labels[i]);
+            }
+            List<V> values = this.values;
+            return new SuccinctTrie<>(this.KClass, structure, new Values<V>() {
+                @Override
+                public V get(int index) {
+                    return values.get(index);
+                }
+
+                @Override
+                public int size() {
+                    return values.size();
+                }
+            });
+        }
+    }
+
+    public class SuccinctNode extends TrieNode<Void, SuccinctNode> {
+        private final int id;
+
+        private SuccinctNode(int id) {
+            this.id = id;
+            this.value = valueOf(id);
+        }
+
+        @Override
+        protected SuccinctNode child(A letter) {
+            int child = childOf(this.id, SuccinctTrie.this.alphabet.ordinal(letter));
+            return child < 0 ? null : new SuccinctNode(child);
+        }
+
+        /**
+         * Counts the values level by level: the descendants of a node on
+         * every level are a contiguous range of node numbers.
+         */
+        @Override
+        protected int subtreeSize() {
+            int count = 0;
+            int lo = this.id;
+            int hi = this.id + 1;
+            while (lo < hi) {
+                count += SuccinctTrie.this.hasValue.rank1(hi) - SuccinctTrie.this.hasValue.rank1(lo);
+                lo = firstChild(lo);
+                hi = firstChild(hi);
+            }
+            return count;
+        }
+
+        @Override
+        public Iterator<Entry<A, SuccinctNode>> iterator() {
+            int first = firstChild(this.id);
+            int end = firstChild(this.id + 1);
+            return new Iterator<Entry<A, SuccinctNode>>() {
+                private int next = first;
+
+                @Override
+                public boolean hasNext() {
+                    return this.next < end;
+                }
+
+                @Override
+                public Entry<A, SuccinctNode> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int child = this.next++;
+                    return new SimpleImmutableEntry<>(
+                            SuccinctTrie.this.alphabet.letter(label(child)), new SuccinctNode(child));
+                }
+            };
+        }
+    }
+
+    private final Alphabet<A> alphabet;
+    private final ByteBuffer structure;
+    private final int nodes;
+    private final Bits louds;
+    private final Bits hasValue;
+    private final int labelsAt;
+    private final Values<V> values;
+
+    private SuccinctTrie(Class<K> KClass, ByteBuffer structure, Values<V> values) {
+        super(KClass);
+        this.alphabet = Alphabet.forLetterType(BString.getLetterType(KClass));
+        this.structure = structure;
+        this.nodes = structure.getInt(0);
+        this.size = structure.getInt(4);
+        this.louds = new Bits(structure, 8);
+        this.hasValue = new Bits(structure, this.louds.end);
+        this.labelsAt = this.hasValue.end;
+        this.values = values;
+        this.root = new SuccinctNode(0);
+    }
+
+    /**
+     * Returns the number of the first child of node i (or, if it has no
+     * children, of the first child of the next node that has some).
+     */
+    private int firstChild(int i) {
+        return this.louds.select0(i) - i;
+    }
+
+    private int label(int i) {
+        return this.structure.getChar(this.labelsAt + 2 * i);
+    }
+
+    /**
+     * Returns the child of node i whose label is ordinal, or -1.
+     */
+    private int childOf(int i, int ordinal) {
+        int lo = firstChild(i);
+        int hi = firstChild(i + 1) - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int label = label(mid);
+            if (label < ordinal) {
+                lo = mid + 1;
+            }
+            else if (label > ordinal) {
+                hi = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private V valueOf(int i) {
+        return this.hasValue.get(i) ? this.values.get(this.hasValue.rank1(i)) : null;
+    }
+
+    /**
+     * Returns the number of the node at the end of key, or -1.
+     */
+    private int findNode(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        int current = 0;
+        for (A letter : key) {
+            current = childOf(current, this.alphabet.ordinal(letter));
+            if (current < 0) {
+                return -1;
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public V find(K key) {
+        int node = findNode(key);
+        return node < 0 ? null : valueOf(node);
+    }
+
+    @Override
+    public boolean findPrefix(K key) {
+        int node = findNode(key);
+        return node >= 0 && (this.hasValue.get(node) || firstChild(node) < firstChild(node + 1));
+    }
+
+    /**
+     * Returns the number of nodes of this trie.
+     *
+     * @return the number of nodes
+     */
+    public int nodes() {
+        return this.nodes;
+    }
+
+    /**
+     * Writes this trie to a file that open() can map back in.
+     *
+     * @param path
+     *            the file to write (it is replaced if it exists)
+     * @param codec
+     *            converts the values to bytes
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public void write(Path path, Codec<V> codec) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int structureBytes = this.structure.capacity();
+            int count = this.values.size();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(structureBytes).putInt(count).flip();
+            writeFully(channel, header, 0);
+            ByteBuffer structure = this.structure.duplicate();
+            structure.clear();
+            writeFully(channel, structure, HEADER_BYTES);
+
+            // the values are an array of count + 1 offsets followed by the
+            // data; write the data first so that it can be streamed
+            long offsetsAt = HEADER_BYTES + (long) structureBytes;
+            long dataAt = offsetsAt + 4L * (count + 1);
+            ByteBuffer offsets = ByteBuffer.allocate(4 * (count + 1));
+            int offset = 0;
+            for (int i = 0; i < count; i++) {
+                offsets.putInt(offset);
+                byte[] bytes = codec.encode(this.values.get(i));
+                writeFully(channel, ByteBuffer.wrap(bytes), dataAt + offset);
+                offset = Math.addExact(offset, bytes.length);
+            }
+            offsets.putInt(offset).flip();
+            writeFully(channel, offsets, offsetsAt);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Memory-maps a file written by write(). Nothing is read until it is
+     * needed, so this takes O(1) time no matter how large the file is.
+     *
+     * @param path
+     *            the file to map
+     * @param KClass
+     *            the key class of the trie
+     * @param codec
+     *            converts bytes back to values
+     * @return the trie stored in the file
+     * @throws IOException
+     *             if the file cannot be mapped or was not written by write()
+     */
+    public static <A extends Comparable<A>, K extends BString<A>, V> SuccinctTrie<A, K, V> open(
+            Path path, Class<K> KClass, Codec<V> codec) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException(path + " is not a SuccinctTrie file");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException(path + " is not a SuccinctTrie file");
+            }
+            int structureBytes = header.getInt(8);
+            int count = header.getInt(12);
+            long valuesAt = HEADER_BYTES + (long) structureBytes;
+            ByteBuffer structure = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, structureBytes);
+            ByteBuffer values = channel.map(FileChannel.MapMode.READ_ONLY, valuesAt, channel.size() - valuesAt);
+            int dataAt = 4 * (count + 1);
+            return new SuccinctTrie<>(KClass, structure, new Values<V>() {
+                @Override
+                public V get(int index) {
+                    ByteBuffer bytes = values.duplicate();
+                    bytes.limit(dataAt + values.getInt(4 * (index + 1)));
+                    bytes.position(dataAt + values.getInt(4 * index));
+                    return codec.decode(bytes);
+                }
+
+                @Override
+                public int size() {
+                    return count;
+                }
+            });
+        }
+    }
+
+    @Override
+    public V insert(K key, V value) {
+        throw new UnsupportedOperationException("SuccinctTrie is read-only");
+    }
+
+    @Override
+    public void delete(K key) {
+        throw new UnsupportedOperationException("SuccinctTrie is read-only");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("SuccinctTrie is read-only");
+    }
+
+    /**
+     * Returns a read-only copy of map in the flat, level-ordered layout of
+     * SuccinctTrie, which can be written to a file and memory-mapped back in.
+     * Every letter of a multi-letter edge becomes a node of its own. If map
+     * is a SuccinctTrie already, it is returned as is.
+     *
+     * @param map
+     *            the map to copy
+     * @return a SuccinctTrie with the same mappings as map
+     * @throws IllegalArgumentException
+     *             if map is null.
+     */
+    public static <A extends Comparable<A>, K extends BString<A>, V> SuccinctTrie<A, K, V> freeze(
+            TrieMap<A, K, V> map) {
+        if (map == null) {
+            throw new IllegalArgumentException();
+        }
+        if (map instanceof SuccinctTrie) {
+            return (SuccinctTrie<A, K, V>) map;
+        }
+        Builder<A, K, V> builder = new Builder<>(map.keyType());
+        map.forEachNodeInLevelOrder(builder::add);
+        return builder.build();
+    }
+}
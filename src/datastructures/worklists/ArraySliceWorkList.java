@@ -0,0 +1,39 @@
+package datastructures.worklists;
+
+import cse332.interfaces.worklists.SliceWorkList;
+
+/**
+ * See cse332/interfaces/worklists/SliceWorkList.java
+ * for method specifications.
+ *
+ * A slice of an array of elements.
+ */
+public class ArraySliceWorkList<E> extends SliceWorkList<E> {
+    private final E[] array;
+    private final int offset;
+
+    public ArraySliceWorkList(E[] array) {
+        this(array, 0, array.length);
+    }
+
+    /**
+     * Presents array[offset], ..., array[offset + length - 1].
+     *
+     * @throws IndexOutOfBoundsException
+     *             if offset and length do not describe a slice of array.
+     */
+    public ArraySliceWorkList(E[] array, int offset, int length) {
+        super(length);
+        if (offset < 0 || offset > array.length - length) {
+            throw new IndexOutOfBoundsException();
+        }
+        this.array = array;
+        this.offset = offset;
+    }
+
+    @Override
+    public E peek(int i) {
+        checkIndex(i);
+        return this.array[this.offset + i];
+    }
+}
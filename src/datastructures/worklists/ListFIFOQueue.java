@@ -65,6 +65,9 @@ public class ListFIFOQueue<E> extends FIFOWorkList<E> {
         if(this.hasWork()) {
             ListNode next = this.first;
             this.first = this.first.next;
+            if(this.first == null) {
+                this.last = null;   // the list is empty again
+            }
             this.size--;
             return next.work;
         } else {
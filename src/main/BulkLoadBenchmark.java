@@ -0,0 +1,59 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import cse332.datastructures.containers.Item;
+import cse332.types.AlphabeticString;
+import datastructures.dictionaries.HashTrieMap;
+
+/**
+ * Compares the time it takes to load the same mappings into an empty
+ * HashTrieMap with insert, with bulkLoad, and with parallelBulkLoad on pools
+ * of 1, 2, 4, ... threads, up to the number of cores.
+ *
+ * Usage: BulkLoadBenchmark [keys] [rounds]
+ */
+public class BulkLoadBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        Random random = new Random(332);
+        List<Item<AlphabeticString, Integer>> items = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            items.add(new Item<>(new AlphabeticString(Long.toString(random.nextLong() >>> 20, 36)), i));
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            HashTrieMap<Character, AlphabeticString, Integer> map = new HashTrieMap<>(AlphabeticString.class);
+            for (Item<AlphabeticString, Integer> item : items) {
+                map.insert(item.key, item.value);
+            }
+            report(round, "insert", start, map);
+
+            start = System.nanoTime();
+            map = new HashTrieMap<>(AlphabeticString.class);
+            map.bulkLoad(items);
+            report(round, "bulkLoad", start, map);
+
+            for (int threads = 1; threads <= cores; threads *= 2) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                start = System.nanoTime();
+                map = new HashTrieMap<>(AlphabeticString.class);
+                map.parallelBulkLoad(items, pool);
+                report(round, "parallelBulkLoad x" + threads, start, map);
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static void report(int round, String name, long start, HashTrieMap<Character, AlphabeticString, Integer> map) {
+        System.out.printf("round %d: %-20s %6d ms (%d keys)%n", round, name, (System.nanoTime() - start) / 1000000,
+                map.size());
+    }
+}
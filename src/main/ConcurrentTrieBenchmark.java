@@ -0,0 +1,132 @@
+package main;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import cse332.interfaces.trie.TrieMap;
+import cse332.types.AlphabeticString;
+import datastructures.dictionaries.ConcurrentTrieMap;
+import datastructures.dictionaries.HashTrieMap;
+
+/**
+ * Compares the throughput of ConcurrentTrieMap with a HashTrieMap behind a
+ * single lock, for a mix of 80% finds, 10% inserts and 10% deletes over a
+ * shared set of keys.
+ *
+ * Usage: ConcurrentTrieBenchmark [max threads] [milliseconds per run]
+ */
+public class ConcurrentTrieBenchmark {
+    private static final int KEYS = 100000;
+
+    private interface Operations {
+        void insert(AlphabeticString key, String value);
+
+        String find(AlphabeticString key);
+
+        void delete(AlphabeticString key);
+    }
+
+    private static Operations concurrent() {
+        ConcurrentTrieMap<Character, AlphabeticString, String> map =
+                new ConcurrentTrieMap<>(AlphabeticString.class);
+        return new Operations() {
+            public void insert(AlphabeticString key, String value) {
+                map.insert(key, value);
+            }
+
+            public String find(AlphabeticString key) {
+                return map.find(key);
+            }
+
+            public void delete(AlphabeticString key) {
+                map.delete(key);
+            }
+        };
+    }
+
+    private static Operations synchronizedHashTrie() {
+        TrieMap<Character, AlphabeticString, String> map = new HashTrieMap<>(AlphabeticString.class);
+        return new Operations() {
+            public synchronized void insert(AlphabeticString key, String value) {
+                map.insert(key, value);
+            }
+
+            public synchronized String find(AlphabeticString key) {
+                return map.find(key);
+            }
+
+            public synchronized void delete(AlphabeticString key) {
+                map.delete(key);
+            }
+        };
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+
+        AlphabeticString[] keys = new AlphabeticString[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = new AlphabeticString(Integer.toString(i * 7919, 36));
+        }
+
+        System.out.printf("%8s %20s %20s%n", "threads", "ConcurrentTrieMap", "synchronized HTM");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double concurrent = run(concurrent(), keys, threads, millis);
+            double locked = run(synchronizedHashTrie(), keys, threads, millis);
+            System.out.printf("%8d %15.0f op/s %15.0f op/s%n", threads, concurrent, locked);
+        }
+    }
+
+    private static double run(Operations map, AlphabeticString[] keys, int threads, long millis)
+            throws InterruptedException {
+        for (int i = 0; i < keys.length; i += 2) {
+            map.insert(keys[i], "v");
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong operations = new AtomicLong();
+        long[] deadline = new long[1];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int seed = t * 31 + 17;
+            workers[t] = new Thread(() -> {
+                int x = seed;
+                long done = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.nanoTime() < deadline[0]) {
+                    for (int j = 0; j < 100; j++) {
+                        // xorshift, so that the threads do not share a Random
+                        x ^= x << 13;
+                        x ^= x >>> 17;
+                        x ^= x << 5;
+                        AlphabeticString key = keys[(x & Integer.MAX_VALUE) % keys.length];
+                        int op = (x >>> 8) % 10;
+                        if (op == 0) {
+                            map.insert(key, "v");
+                        }
+                        else if (op == 1) {
+                            map.delete(key);
+                        }
+                        else {
+                            map.find(key);
+                        }
+                    }
+                    done += 100;
+                }
+                operations.addAndGet(done);
+            });
+            workers[t].start();
+        }
+        deadline[0] = System.nanoTime() + millis * 1000000;
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return operations.get() * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,43 @@
+package main;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.TreeSet;
+
+import cse332.types.AlphabeticString;
+import datastructures.dictionaries.DawgSet;
+
+/**
+ * Builds a DawgSet from a word list (one word per line) and reports how many
+ * nodes minimization saved compared to a HashTrieSet with the same words.
+ *
+ * Usage: DawgStats words.txt
+ */
+public class DawgStats {
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: DawgStats words.txt");
+            System.exit(1);
+        }
+        List<String> lines = Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8);
+        TreeSet<String> words = new TreeSet<>(lines);
+
+        long start = System.nanoTime();
+        DawgSet.Builder<Character, AlphabeticString> builder = new DawgSet.Builder<>(AlphabeticString.class);
+        for (String word : words) {
+            builder.add(new AlphabeticString(word));
+        }
+        DawgSet<Character, AlphabeticString> set = builder.build();
+        long millis = (System.nanoTime() - start) / 1000000;
+
+        System.out.println("words:                  " + set.size());
+        System.out.println("HashTrieSet nodes:      " + builder.trieNodes());
+        System.out.println("DawgSet nodes:          " + builder.dawgNodes());
+        System.out.printf("saved:                  %.1f%%%n",
+                100.0 * (builder.trieNodes() - builder.dawgNodes()) / builder.trieNodes());
+        System.out.println("build time:             " + millis + " ms");
+    }
+}
@@ -0,0 +1,66 @@
+package main;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import cse332.types.AlphabeticString;
+import datastructures.dictionaries.HashTrieMap;
+
+/**
+ * Looks up words cut out of one long request line in a HashTrieMap, once by
+ * copying each word into a new AlphabeticString and once through a view of
+ * the line, and reports the time and the bytes allocated per lookup.
+ *
+ * Usage: KeyAllocationBenchmark [keys] [lookups] [rounds]
+ */
+public class KeyAllocationBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        Random random = new Random(332);
+        HashTrieMap<Character, AlphabeticString, Integer> map = new HashTrieMap<>(AlphabeticString.class);
+        StringBuilder line = new StringBuilder();
+        int[] starts = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            String word = Long.toString(random.nextLong() >>> 24, 36);
+            map.insert(new AlphabeticString(word), i);
+            starts[i] = line.length();
+            line.append(word);
+        }
+        starts[n] = line.length();
+        String text = line.toString();
+
+        for (int round = 0; round < rounds; round++) {
+            long found = 0;
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                int w = i % n;
+                found += map.find(new AlphabeticString(text.substring(starts[w], starts[w + 1])));
+            }
+            report(round, "copy", start, bytes, lookups, found);
+
+            found = 0;
+            bytes = allocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                int w = i % n;
+                found += map.find(AlphabeticString.view(text, starts[w], starts[w + 1]));
+            }
+            report(round, "view", start, bytes, lookups, found);
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static void report(int round, String name, long start, long bytes, int lookups, long found) {
+        long nanos = System.nanoTime() - start;
+        System.out.printf("round %d: %-5s %6d ms %8.1f bytes/lookup (checksum %d)%n", round, name, nanos / 1000000,
+                (allocatedBytes() - bytes) / (double) lookups, found);
+    }
+}
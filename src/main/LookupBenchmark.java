@@ -0,0 +1,59 @@
+package main;
+
+import cse332.interfaces.trie.TrieMap;
+import cse332.types.AlphabeticString;
+import datastructures.dictionaries.DoubleArrayTrieMap;
+import datastructures.dictionaries.HashTrieMap;
+import datastructures.dictionaries.SuccinctTrie;
+
+/**
+ * Compares the speed of find on a HashTrieMap, its frozen SuccinctTrie and
+ * its compiled DoubleArrayTrieMap.
+ *
+ * Usage: LookupBenchmark [keys] [rounds]
+ */
+public class LookupBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        AlphabeticString[] keys = new AlphabeticString[n];
+        HashTrieMap<Character, AlphabeticString, Integer> map = new HashTrieMap<>(AlphabeticString.class);
+        for (int i = 0; i < n; i++) {
+            keys[i] = new AlphabeticString(Integer.toString(i * 7919 + 104729, 36));
+            map.insert(keys[i], i);
+        }
+        // look the keys up in a different order than they were inserted in
+        for (int i = n - 1; i > 0; i--) {
+            int j = (int) ((i * 2654435761L) % (i + 1));
+            AlphabeticString t = keys[i];
+            keys[i] = keys[j];
+            keys[j] = t;
+        }
+
+        long start = System.nanoTime();
+        DoubleArrayTrieMap<Character, AlphabeticString, Integer> compiled =
+                new DoubleArrayTrieMap<>(AlphabeticString.class, map);
+        System.out.printf("compiled %d keys into %d slots in %d ms%n", n, compiled.slots(),
+                (System.nanoTime() - start) / 1000000);
+
+        for (int round = 0; round < rounds; round++) {
+            System.out.printf("round %d: HashTrieMap %6.1f ns/find, SuccinctTrie %6.1f ns/find, "
+                    + "DoubleArrayTrieMap %6.1f ns/find%n", round,
+                    time(map, keys), time(SuccinctTrie.freeze(map), keys), time(compiled, keys));
+        }
+    }
+
+    private static double time(TrieMap<Character, AlphabeticString, Integer> map, AlphabeticString[] keys) {
+        long sum = 0;
+        long start = System.nanoTime();
+        for (AlphabeticString key : keys) {
+            sum += map.find(key);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sum == 42) {
+            System.out.println();
+        }
+        return (double) elapsed / keys.length;
+    }
+}
@@ -0,0 +1,80 @@
+package main;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import cse332.types.ByteString;
+import datastructures.dictionaries.AhoCorasickMatcher;
+import datastructures.dictionaries.HashTrieSet;
+
+/**
+ * Compares AhoCorasickMatcher with probing a HashTrieSet at every offset of
+ * the text (extending each probe while findPrefix succeeds), for a random
+ * set of keywords over a random text.
+ *
+ * Usage: MatcherBenchmark [keywords] [text length] [rounds]
+ */
+public class MatcherBenchmark {
+    public static void main(String[] args) {
+        int keywords = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int length = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        Random random = new Random(332);
+        HashTrieSet<Byte, ByteString> set = new HashTrieSet<>(ByteString.class);
+        for (int i = 0; i < keywords; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int j = 3 + random.nextInt(6); j > 0; j--) {
+                word.append((char) ('a' + random.nextInt(8)));
+            }
+            set.add(new ByteString(word.toString()));
+        }
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(10)));
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.US_ASCII);
+
+        long start = System.nanoTime();
+        AhoCorasickMatcher<Byte, ByteString> matcher = new AhoCorasickMatcher<>(ByteString.class, set);
+        System.out.printf("compiled %d keywords into %d states in %d ms%n", matcher.size(), matcher.states(),
+                (System.nanoTime() - start) / 1000000);
+
+        for (int round = 0; round < rounds; round++) {
+            long[] count = new long[1];
+            start = System.nanoTime();
+            matcher.scan(bytes, (s, e, p) -> count[0]++);
+            long automaton = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long probed = naive(set, bytes);
+            long naive = System.nanoTime() - start;
+
+            System.out.printf("round %d: %d matches; AhoCorasickMatcher %5d ms, HashTrieSet probing %5d ms%n",
+                    round, count[0], automaton / 1000000, naive / 1000000);
+            if (probed != count[0]) {
+                throw new AssertionError(probed + " != " + count[0]);
+            }
+        }
+    }
+
+    private static long naive(HashTrieSet<Byte, ByteString> set, byte[] text) {
+        long count = 0;
+        for (int i = 0; i < text.length; i++) {
+            for (int j = i + 1; j <= text.length; j++) {
+                Byte[] probe = new Byte[j - i];
+                for (int k = i; k < j; k++) {
+                    probe[k - i] = text[k];
+                }
+                ByteString s = new ByteString(probe);
+                if (!set.findPrefix(s)) {
+                    break;
+                }
+                if (set.contains(s)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
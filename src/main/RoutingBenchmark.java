@@ -0,0 +1,89 @@
+package main;
+
+import java.util.Random;
+
+import cse332.types.BitString;
+import datastructures.dictionaries.BitPatriciaTrieMap;
+import datastructures.dictionaries.HashTrieMap;
+
+/**
+ * Measures longest-prefix-match lookups of random IPv4 addresses in a routing
+ * table of random prefixes (mostly /24s, as in real tables): on a
+ * BitPatriciaTrieMap with raw bits, and, for comparison, with the generic
+ * longestPrefixMatch on a HashTrieMap of BitStrings. The HashTrieMap takes a
+ * node per bit, so it only gets the first tenth of the prefixes.
+ *
+ * Usage: RoutingBenchmark [prefixes] [lookups] [rounds]
+ */
+public class RoutingBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 10000000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        Random random = new Random(332);
+        long[] prefixes = new long[n];
+        int[] lengths = new int[n];
+        for (int i = 0; i < n; i++) {
+            lengths[i] = random.nextInt(10) < 6 ? 24 : 8 + random.nextInt(25);
+            prefixes[i] = (random.nextLong() & 0xFFFFFFFFL) >>> (32 - lengths[i]);
+        }
+        long[] addresses = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            // half of the addresses fall under a prefix of the table
+            int j = random.nextInt(n);
+            addresses[i] = random.nextBoolean()
+                    ? prefixes[j] << (32 - lengths[j]) | (random.nextLong() & ((1L << (32 - lengths[j])) - 1))
+                    : random.nextLong() & 0xFFFFFFFFL;
+        }
+
+        long start = System.nanoTime();
+        BitPatriciaTrieMap<Integer> patricia = new BitPatriciaTrieMap<>();
+        for (int i = 0; i < n; i++) {
+            patricia.insert(prefixes[i], lengths[i], i);
+        }
+        patricia.buildIndex();
+        System.out.printf("BitPatriciaTrieMap: %d prefixes in %d ms%n", patricia.size(),
+                (System.nanoTime() - start) / 1000000);
+
+        HashTrieMap<Boolean, BitString, Integer> plain = new HashTrieMap<>(BitString.class);
+        for (int i = 0; i < n / 10; i++) {
+            plain.insert(bits(prefixes[i], lengths[i]), i);
+        }
+
+        for (int round = 0; round < rounds; round++) {
+            start = System.nanoTime();
+            long found = 0;
+            for (long address : addresses) {
+                if (patricia.longestPrefixValue(address, 32) != null) {
+                    found++;
+                }
+            }
+            report(round, "BitPatriciaTrieMap", start, lookups, found);
+
+            int few = lookups / 100;
+            start = System.nanoTime();
+            found = 0;
+            for (int i = 0; i < few; i++) {
+                if (plain.longestPrefixMatch(bits(addresses[i], 32)) != null) {
+                    found++;
+                }
+            }
+            report(round, "HashTrieMap (n/10)", start, few, found);
+        }
+    }
+
+    private static BitString bits(long bits, int length) {
+        Boolean[] letters = new Boolean[length];
+        for (int i = 0; i < length; i++) {
+            letters[i] = (bits >>> (length - 1 - i) & 1) == 1;
+        }
+        return new BitString(letters);
+    }
+
+    private static void report(int round, String name, long start, int lookups, long found) {
+        long nanos = System.nanoTime() - start;
+        System.out.printf("round %d: %-20s %10.0f lookups/s (%d of %d matched)%n", round, name,
+                lookups * 1e9 / nanos, found, lookups);
+    }
+}
@@ -0,0 +1,66 @@
+package main;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import cse332.datastructures.containers.Item;
+import cse332.interfaces.trie.TrieCursor;
+import cse332.types.AlphabeticString;
+import datastructures.dictionaries.HashTrieMap;
+
+/**
+ * Scans every mapping of a HashTrieMap with its iterator, with forEach, and
+ * with a reused cursor that reads the letters of each key in place, and
+ * reports the time and the bytes allocated per mapping.
+ *
+ * Usage: ScanBenchmark [keys] [rounds]
+ */
+public class ScanBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        Random random = new Random(332);
+        HashTrieMap<Character, AlphabeticString, Integer> map = new HashTrieMap<>(AlphabeticString.class);
+        while (map.size() < n) {
+            map.insert(new AlphabeticString(Long.toString(random.nextLong() >>> 24, 36)), map.size());
+        }
+        TrieCursor<Character, AlphabeticString, Integer> cursor = map.cursor();
+
+        for (int round = 0; round < rounds; round++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            long sum = 0;
+            for (Item<AlphabeticString, Integer> item : map) {
+                sum += item.value + item.key.size();
+            }
+            report(round, "iterator", start, bytes, n, sum);
+
+            bytes = allocatedBytes();
+            start = System.nanoTime();
+            long[] total = new long[1];
+            map.forEach((key, value) -> total[0] += value + key.size());
+            report(round, "forEach", start, bytes, n, total[0]);
+
+            bytes = allocatedBytes();
+            start = System.nanoTime();
+            sum = 0;
+            cursor.reset();
+            while (cursor.advance()) {
+                sum += cursor.value() + cursor.length();
+            }
+            report(round, "cursor", start, bytes, n, sum);
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static void report(int round, String name, long start, long bytes, int n, long sum) {
+        long nanos = System.nanoTime() - start;
+        System.out.printf("round %d: %-8s %6d ms %8.1f bytes/mapping (checksum %d)%n", round, name, nanos / 1000000,
+                (allocatedBytes() - bytes) / (double) n, sum);
+    }
+}
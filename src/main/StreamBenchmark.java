@@ -0,0 +1,59 @@
+package main;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import cse332.datastructures.containers.Item;
+import cse332.types.AlphabeticString;
+import datastructures.dictionaries.HashTrieMap;
+
+/**
+ * Compares the time it takes to build a histogram of the values of a
+ * HashTrieMap with its iterator, with stream(), and with parallelStream() on
+ * pools of 1, 2, 4, ... threads, up to the number of cores.
+ *
+ * Usage: StreamBenchmark [keys] [rounds]
+ */
+public class StreamBenchmark {
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        Random random = new Random(332);
+        HashTrieMap<Character, AlphabeticString, Integer> map = new HashTrieMap<>(AlphabeticString.class);
+        for (int i = 0; i < n; i++) {
+            map.insert(new AlphabeticString(Long.toString(random.nextLong() >>> 20, 36)), random.nextInt(100));
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            long[] counts = new long[100];
+            for (Item<AlphabeticString, Integer> item : map) {
+                counts[item.value]++;
+            }
+            report(round, "iterator", start, counts.length);
+
+            start = System.nanoTime();
+            Map<Integer, Long> histogram = map.stream()
+                    .collect(Collectors.groupingBy(item -> item.value, Collectors.counting()));
+            report(round, "stream", start, histogram.size());
+
+            for (int threads = 1; threads <= cores; threads *= 2) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                start = System.nanoTime();
+                histogram = pool.submit(() -> map.parallelStream()
+                        .collect(Collectors.groupingByConcurrent(item -> item.value, Collectors.counting()))).get();
+                report(round, "parallelStream x" + threads, start, histogram.size());
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static void report(int round, String name, long start, int buckets) {
+        System.out.printf("round %d: %-20s %6d ms (%d buckets)%n", round, name, (System.nanoTime() - start) / 1000000,
+                buckets);
+    }
+}
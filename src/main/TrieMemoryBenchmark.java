@@ -0,0 +1,89 @@
+package main;
+
+import java.util.Random;
+
+import cse332.interfaces.trie.TrieMap;
+import cse332.types.AlphabeticString;
+import datastructures.dictionaries.AdaptiveTrieMap;
+import datastructures.dictionaries.BurstTrieMap;
+import datastructures.dictionaries.HashTrieMap;
+
+/**
+ * Compares the heap used by and the speed of insert and find on a
+ * HashTrieMap, an AdaptiveTrieMap and a BurstTrieMap holding the same keys,
+ * for two key sets: uniform random strings over 62 letters, and skewed keys
+ * that look like paths, where most nodes have one or a few children and a
+ * few have hundreds.
+ *
+ * Usage: TrieMemoryBenchmark [keys] [rounds]
+ */
+public class TrieMemoryBenchmark {
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    private interface MapFactory {
+        TrieMap<Character, AlphabeticString, Integer> create();
+    }
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        Random random = new Random(332);
+        AlphabeticString[] uniform = new AlphabeticString[n];
+        for (int i = 0; i < n; i++) {
+            StringBuilder key = new StringBuilder();
+            for (int j = 6 + random.nextInt(6); j > 0; j--) {
+                key.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+            }
+            uniform[i] = new AlphabeticString(key.toString());
+        }
+        AlphabeticString[] skewed = new AlphabeticString[n];
+        for (int i = 0; i < n; i++) {
+            // a few hundred directories with long shared names, each holding many files
+            int directory = (int) Math.abs(random.nextGaussian() * 60);
+            skewed[i] = new AlphabeticString("/home/user/projects/module" + directory + "/src/main/file"
+                    + Integer.toString(random.nextInt(1 << 20), 36) + ".java");
+        }
+
+        MapFactory hash = () -> new HashTrieMap<>(AlphabeticString.class);
+        MapFactory adaptive = () -> new AdaptiveTrieMap<>(AlphabeticString.class);
+        MapFactory burst = () -> new BurstTrieMap<>(AlphabeticString.class);
+        for (int round = 0; round < rounds; round++) {
+            run("uniform", uniform, "HashTrieMap", hash);
+            run("uniform", uniform, "AdaptiveTrieMap", adaptive);
+            run("uniform", uniform, "BurstTrieMap", burst);
+            run("skewed", skewed, "HashTrieMap", hash);
+            run("skewed", skewed, "AdaptiveTrieMap", adaptive);
+            run("skewed", skewed, "BurstTrieMap", burst);
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void run(String keySet, AlphabeticString[] keys, String name, MapFactory factory) {
+        long before = usedMemory();
+        TrieMap<Character, AlphabeticString, Integer> map = factory.create();
+        long start = System.nanoTime();
+        for (int i = 0; i < keys.length; i++) {
+            map.insert(keys[i], i);
+        }
+        long insert = System.nanoTime() - start;
+        long memory = usedMemory() - before;
+
+        long sum = 0;
+        start = System.nanoTime();
+        for (int i = keys.length - 1; i >= 0; i--) {
+            sum += map.find(keys[i]);
+        }
+        long find = System.nanoTime() - start;
+
+        System.out.printf("%-8s %-16s %7.1f MB, insert %6.1f ns, find %6.1f ns (%d)%n", keySet, name,
+                memory / 1048576.0, (double) insert / keys.length, (double) find / keys.length, sum % 10);
+    }
+}
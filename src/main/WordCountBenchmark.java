@@ -0,0 +1,53 @@
+package main;
+
+import java.util.Random;
+
+import cse332.types.AlphabeticString;
+import datastructures.dictionaries.HashTrieMap;
+
+/**
+ * Compares the time it takes to count word frequencies in a HashTrieMap with
+ * find followed by insert, and with merge.
+ *
+ * Usage: WordCountBenchmark [words] [distinct words] [rounds]
+ */
+public class WordCountBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+        int distinct = args.length > 1 ? Integer.parseInt(args[1]) : 50000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        Random random = new Random(332);
+        AlphabeticString[] vocabulary = new AlphabeticString[distinct];
+        for (int i = 0; i < distinct; i++) {
+            vocabulary[i] = new AlphabeticString(Long.toString(random.nextLong() >>> 24, 36));
+        }
+        AlphabeticString[] text = new AlphabeticString[n];
+        for (int i = 0; i < n; i++) {
+            // skew towards the front of the vocabulary, like real text
+            text[i] = vocabulary[(int) (distinct * Math.pow(random.nextDouble(), 3))];
+        }
+
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            HashTrieMap<Character, AlphabeticString, Integer> counts = new HashTrieMap<>(AlphabeticString.class);
+            for (AlphabeticString word : text) {
+                Integer count = counts.find(word);
+                counts.insert(word, count == null ? 1 : count + 1);
+            }
+            report(round, "find + insert", start, counts);
+
+            start = System.nanoTime();
+            counts = new HashTrieMap<>(AlphabeticString.class);
+            for (AlphabeticString word : text) {
+                counts.merge(word, 1, Integer::sum);
+            }
+            report(round, "merge", start, counts);
+        }
+    }
+
+    private static void report(int round, String name, long start, HashTrieMap<Character, AlphabeticString, Integer> counts) {
+        System.out.printf("round %d: %-14s %6d ms (%d words)%n", round, name, (System.nanoTime() - start) / 1000000,
+                counts.size());
+    }
+}
@@ -0,0 +1,97 @@
+package tests.gitlab.duedate;
+
+import cse332.types.AlphabeticString;
+import cse332.types.ByteString;
+import datastructures.dictionaries.AdaptiveTrieMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Runs the TrieMap tests against an AdaptiveTrieMap, and checks that its
+ * nodes grow, shrink and collapse as children come and go.
+ */
+public class AdaptiveTrieMapTests extends TrieMapGradingTests {
+
+    @Before
+    public void init() {
+        STUDENT = new AdaptiveTrieMap<Character, AlphabeticString, String>(AlphabeticString.class);
+    }
+
+    private static ByteString bytes(int... bytes) {
+        byte[] key = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            key[i] = (byte) bytes[i];
+        }
+        return new ByteString(key);
+    }
+
+    @Test(timeout = 3000)
+    public void testNodesGrowAndShrink() {
+        AdaptiveTrieMap<Byte, ByteString, Integer> map = new AdaptiveTrieMap<>(ByteString.class);
+        map.insert(bytes(7, 0), 0);
+        assertEquals(Arrays.toString(new int[] { 0, 0, 0, 0, 1 }), Arrays.toString(map.nodeCounts()));
+
+        int[][] expected = {
+                { 1, 0, 0, 0, 2 },   // after 2 children
+                { 0, 1, 0, 0, 5 },   // after 5
+                { 0, 0, 1, 0, 17 },  // after 17
+                { 0, 0, 0, 1, 49 },  // after 49
+        };
+        int[] checkpoints = { 2, 5, 17, 49 };
+        int next = 0;
+        for (int i = 1; i < 256; i++) {
+            map.insert(bytes(7, i), i);
+            if (next < checkpoints.length && i + 1 == checkpoints[next]) {
+                assertEquals(Arrays.toString(expected[next++]), Arrays.toString(map.nodeCounts()));
+            }
+        }
+        assertEquals(256, map.size());
+        for (int i = 0; i < 256; i++) {
+            assertEquals(i, (int) map.find(bytes(7, i)));
+        }
+
+        // shrink back down, then collapse into a single leaf
+        for (int i = 255; i > 0; i--) {
+            map.delete(bytes(7, i));
+        }
+        assertEquals(1, map.size());
+        assertEquals(Arrays.toString(new int[] { 0, 0, 0, 0, 1 }), Arrays.toString(map.nodeCounts()));
+        assertEquals(0, (int) map.find(bytes(7, 0)));
+        assertTrue(map.findPrefix(bytes(7)));
+        assertFalse(map.findPrefix(bytes(8)));
+    }
+
+    @Test(timeout = 3000)
+    public void testPathCompression() {
+        AdaptiveTrieMap<Character, AlphabeticString, String> map = new AdaptiveTrieMap<>(AlphabeticString.class);
+        map.insert(a("/usr/local/bin"), "1");
+        map.insert(a("/usr/local/lib"), "2");
+        // one inner node holding the shared path, and two leaves
+        assertEquals(Arrays.toString(new int[] { 1, 0, 0, 0, 2 }), Arrays.toString(map.nodeCounts()));
+        assertTrue(map.findPrefix(a("/usr/lo")));
+        assertFalse(map.findPrefix(a("/usr/lx")));
+        assertNull(map.find(a("/usr/local/")));
+
+        map.insert(a("/usr"), "3");
+        map.insert(a("/usr/local"), "4");
+        assertEquals(4, map.size());
+        map.delete(a("/usr/local/bin"));
+        map.delete(a("/usr/local"));
+        assertEquals("2", map.find(a("/usr/local/lib")));
+        assertEquals("3", map.find(a("/usr")));
+        assertEquals(Arrays.toString(new int[] { 1, 0, 0, 0, 1 }), Arrays.toString(map.nodeCounts()));
+    }
+
+    @Test(timeout = 3000)
+    public void testRandomAgainstHashMap() {
+        Random random = new Random(332);
+        // a skewed alphabet: mostly a few letters, sometimes any character
+        checkRandomUpdates(STUDENT, random, 20000, 5,
+                () -> random.nextInt(10) == 0 ? (char) random.nextInt(0x3000) : (char) ('a' + random.nextInt(3)));
+    }
+}
@@ -0,0 +1,195 @@
+package tests.gitlab.duedate;
+
+import cse332.types.AlphabeticString;
+import cse332.types.ByteString;
+import datastructures.dictionaries.AhoCorasickMatcher;
+import datastructures.dictionaries.HashTrieSet;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class AhoCorasickMatcherTests {
+
+    private static HashTrieSet<Byte, ByteString> bytePatterns(String... patterns) {
+        HashTrieSet<Byte, ByteString> set = new HashTrieSet<>(ByteString.class);
+        for (String p : patterns) {
+            set.add(new ByteString(p));
+        }
+        return set;
+    }
+
+    private static AhoCorasickMatcher<Byte, ByteString> byteMatcher(String... patterns) {
+        return new AhoCorasickMatcher<>(ByteString.class, bytePatterns(patterns));
+    }
+
+    /**
+     * Every occurrence as "start-end:pattern", sorted.
+     */
+    private static List<String> naive(String text, String... patterns) {
+        List<String> matches = new ArrayList<>();
+        for (String p : patterns) {
+            for (int i = 0; i + p.length() <= text.length(); i++) {
+                if (text.startsWith(p, i)) {
+                    matches.add(i + "-" + (i + p.length()) + ":" + p);
+                }
+            }
+        }
+        Collections.sort(matches);
+        return matches;
+    }
+
+    private static <E> AhoCorasickMatcher.MatchListener<E> into(List<String> matches) {
+        return (start, end, pattern) -> matches.add(start + "-" + end + ":" + pattern);
+    }
+
+    private static List<String> sorted(List<String> matches) {
+        List<String> copy = new ArrayList<>(matches);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    @Test(timeout = 3000)
+    public void testClassicExample() {
+        AhoCorasickMatcher<Byte, ByteString> matcher = byteMatcher("he", "she", "his", "hers");
+        List<String> matches = new ArrayList<>();
+        matcher.scan("ushers".getBytes(StandardCharsets.US_ASCII), into(matches));
+        // in order of end offset, longest first
+        assertEquals(List.of("1-4:she", "2-4:he", "2-6:hers"), matches);
+        assertEquals(4, matcher.size());
+    }
+
+    @Test(timeout = 3000)
+    public void testOverlappingAndNested() {
+        String[] patterns = { "a", "aa", "aaa", "ab", "bab", "b" };
+        String text = "aaabababaab";
+        List<String> matches = new ArrayList<>();
+        byteMatcher(patterns).scan(text.getBytes(StandardCharsets.US_ASCII), into(matches));
+        assertEquals(naive(text, patterns), sorted(matches));
+    }
+
+    @Test(timeout = 3000)
+    public void testRandomAgainstNaive() {
+        Random random = new Random(332);
+        for (int round = 0; round < 50; round++) {
+            String[] patterns = new String[1 + random.nextInt(30)];
+            for (int i = 0; i < patterns.length; i++) {
+                StringBuilder p = new StringBuilder();
+                for (int j = 1 + random.nextInt(5); j > 0; j--) {
+                    p.append((char) ('a' + random.nextInt(3)));
+                }
+                patterns[i] = p.toString();
+            }
+            StringBuilder text = new StringBuilder();
+            for (int j = random.nextInt(200); j > 0; j--) {
+                text.append((char) ('a' + random.nextInt(4)));
+            }
+            String[] distinct = new TreeSet<>(List.of(patterns)).toArray(new String[0]);
+            List<String> matches = new ArrayList<>();
+            byteMatcher(patterns).scan(text.toString().getBytes(StandardCharsets.US_ASCII), into(matches));
+            assertEquals(naive(text.toString(), distinct), sorted(matches));
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testAllInputsAgree() throws Exception {
+        AhoCorasickMatcher<Byte, ByteString> matcher = byteMatcher("needle", "eed", "le", "hay");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            text.append(i % 7 == 0 ? "needle" : "hay");
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.US_ASCII);
+
+        List<String> fromArray = new ArrayList<>();
+        matcher.scan(bytes, into(fromArray));
+        assertEquals(naive(text.toString(), "needle", "eed", "le", "hay"), sorted(fromArray));
+
+        // the stream is read through a buffer, so matches span buffer boundaries
+        List<String> fromStream = new ArrayList<>();
+        matcher.scan(new ByteArrayInputStream(bytes), into(fromStream));
+        assertEquals(fromArray, fromStream);
+
+        List<String> fromHeap = new ArrayList<>();
+        ByteBuffer heap = ByteBuffer.wrap(bytes);
+        matcher.scan(heap, into(fromHeap));
+        assertEquals(fromArray, fromHeap);
+        assertFalse(heap.hasRemaining());
+
+        List<String> fromDirect = new ArrayList<>();
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        matcher.scan(direct, into(fromDirect));
+        assertEquals(fromArray, fromDirect);
+
+        // offsets are relative to the position of the buffer
+        List<String> fromSlice = new ArrayList<>();
+        ByteBuffer slice = ByteBuffer.wrap(bytes);
+        slice.position(3);
+        matcher.scan(slice, into(fromSlice));
+        assertEquals(naive(text.substring(3), "needle", "eed", "le", "hay"), sorted(fromSlice));
+
+        List<String> fromChars = new ArrayList<>();
+        matcher.scan(text, into(fromChars));
+        assertEquals(fromArray, fromChars);
+    }
+
+    @Test(timeout = 3000)
+    public void testAlphabeticStringPatterns() {
+        HashTrieSet<Character, AlphabeticString> set = new HashTrieSet<>(AlphabeticString.class);
+        for (String p : new String[] { "\u65e5\u672c", "\u672c\u8a9e", "caf\u00e9" }) {
+            set.add(new AlphabeticString(p));
+        }
+        AhoCorasickMatcher<Character, AlphabeticString> matcher = new AhoCorasickMatcher<>(AlphabeticString.class, set);
+        List<String> matches = new ArrayList<>();
+        matcher.scan("\u65e5\u672c\u8a9e caf\u00e9", into(matches));
+        assertEquals(List.of("0-2:\u65e5\u672c", "1-3:\u672c\u8a9e", "4-8:caf\u00e9"), matches);
+
+        // bytes are read as ISO-8859-1 characters
+        matches.clear();
+        matcher.scan("un caf\u00e9".getBytes(StandardCharsets.ISO_8859_1), into(matches));
+        assertEquals(List.of("3-7:caf\u00e9"), matches);
+    }
+
+    @Test(timeout = 3000)
+    public void testNoPatternsAndEmptyPattern() {
+        List<String> matches = new ArrayList<>();
+        byteMatcher().scan("abc".getBytes(StandardCharsets.US_ASCII), into(matches));
+        assertTrue(matches.isEmpty());
+        assertEquals(1, byteMatcher().states());
+
+        // the empty string occurs at every offset
+        byteMatcher("", "b").scan("abc".getBytes(StandardCharsets.US_ASCII), into(matches));
+        assertEquals(List.of("0-0:", "1-1:", "1-2:b", "2-2:", "3-3:"), matches);
+    }
+
+    @Test(timeout = 3000)
+    public void testNullArguments() {
+        AhoCorasickMatcher<Byte, ByteString> matcher = byteMatcher("x");
+        try {
+            new AhoCorasickMatcher<Byte, ByteString>(ByteString.class, null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            matcher.scan((byte[]) null, into(new ArrayList<>()));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            matcher.scan(new byte[1], null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
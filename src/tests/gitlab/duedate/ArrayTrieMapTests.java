@@ -0,0 +1,92 @@
+package tests.gitlab.duedate;
+
+import cse332.interfaces.trie.TrieMap;
+import cse332.types.AlphabeticString;
+import cse332.types.BitString;
+import cse332.types.ByteString;
+import datastructures.dictionaries.ArrayTrieMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+
+public class ArrayTrieMapTests extends TrieMapGradingTests {
+
+    @Before
+    public void init() {
+        STUDENT = new ArrayTrieMap<>(AlphabeticString.class);
+    }
+
+    @Test(timeout = 3000)
+    public void testByteStringKeys() {
+        ArrayTrieMap<Byte, ByteString, Integer> map = new ArrayTrieMap<>(ByteString.class);
+        byte[][] keys = {{0}, {-128}, {127}, {-1, 0, 1}, {-1, 0}, {}};
+        for (int i = 0; i < keys.length; i++) {
+            assertNull(map.insert(new ByteString(keys[i]), i));
+        }
+        assertEquals(keys.length, map.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, map.find(new ByteString(keys[i])).intValue());
+        }
+        assertTrue(map.findPrefix(new ByteString(new byte[]{-1})));
+        assertNull(map.find(new ByteString(new byte[]{-1})));
+
+        map.delete(new ByteString(new byte[]{-1, 0, 1}));
+        map.delete(new ByteString(new byte[]{-1, 0}));
+        assertFalse(map.findPrefix(new ByteString(new byte[]{-1})));
+        assertEquals(keys.length - 2, map.size());
+    }
+
+    @Test(timeout = 3000)
+    public void testBitStringKeys() {
+        ArrayTrieMap<Boolean, BitString, String> map = new ArrayTrieMap<>(BitString.class);
+        map.insert(new BitString(new Boolean[]{true, false, true}), "101");
+        map.insert(new BitString(new Boolean[]{false}), "0");
+        assertEquals("101", map.find(new BitString(new Boolean[]{true, false, true})));
+        assertEquals("0", map.find(new BitString(new Boolean[]{false})));
+        assertTrue(map.findPrefix(new BitString(new Boolean[]{true, false})));
+        assertFalse(map.findPrefix(new BitString(new Boolean[]{true, true})));
+    }
+
+    @Test(timeout = 3000)
+    public void testDeletePrunesBranches() {
+        addAll(STUDENT, "fez", "fezzy", "jazzy");
+        STUDENT.delete(a("fezzy"));
+        STUDENT.delete(a("jazzy"));
+        STUDENT.delete(a("fez"));
+        ArrayTrieMap<Character, ?, ?>.ArrayTrieNode root = getRoot();
+        assertEquals(0, root.children);
+        assertNull(root.pointers);
+    }
+
+    @Test(timeout = 3000)
+    public void testCountsFollowUpdates() {
+        addAll(STUDENT, "car", "card", "care", "cat", "dog");
+        STUDENT.insert(a("card"), "again");
+        assertEquals(4, STUDENT.countPrefix(a("ca")));
+        assertEquals(3, STUDENT.countPrefix(a("car")));
+
+        STUDENT.delete(a("car"));
+        STUDENT.delete(a("cart"));
+        assertEquals(2, STUDENT.countPrefix(a("car")));
+        assertEquals(3, STUDENT.countPrefix(a("c")));
+        assertEquals(4, getRoot().count);
+
+        STUDENT.deletePrefix(a("ca"));
+        assertEquals(0, STUDENT.countPrefix(a("c")));
+        assertEquals(1, getRoot().count);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArrayTrieMap<Character, ?, ?>.ArrayTrieNode getRoot() {
+        try {
+            Field field = TrieMap.class.getDeclaredField("root");
+            field.setAccessible(true);
+            return (ArrayTrieMap<Character, ?, ?>.ArrayTrieNode) field.get(STUDENT);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package tests.gitlab.duedate;
+
+import cse332.datastructures.containers.Item;
+import cse332.interfaces.misc.BString;
+import cse332.interfaces.misc.BStringFactory;
+import cse332.interfaces.worklists.FixedSizeFIFOWorkList;
+import cse332.types.AlphabeticString;
+import cse332.types.BitString;
+import cse332.types.ByteString;
+import cse332.types.PackedBitString;
+import datastructures.dictionaries.HashTrieMap;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class BStringTests {
+
+    /**
+     * A key type that does not supply a factory.
+     */
+    public static class Word extends BString<Character> {
+        public Word(FixedSizeFIFOWorkList<Character> q) {
+            super(q);
+        }
+
+        public static Class<Character> getLetterType() {
+            return Character.class;
+        }
+    }
+
+    /**
+     * A key type that can not be built from letters.
+     */
+    public static class Broken extends BString<Character> {
+        public Broken(String s) {
+            super(new Character[0]);
+        }
+    }
+
+    private static Character[] boxed(String s) {
+        Character[] letters = new Character[s.length()];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = s.charAt(i);
+        }
+        return letters;
+    }
+
+    private static String randomText(Random random, int length, int letters) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(letters)));
+        }
+        return text.toString();
+    }
+
+    @Test(timeout = 3000)
+    public void testSubstringFingerprintsMatchWholeStrings() {
+        Random random = new Random(332);
+        String text = randomText(random, 300, 3);
+        AlphabeticString whole = new AlphabeticString(text);
+        ByteString bytes = new ByteString(text);
+        Map<String, Long> seen = new HashMap<>();
+        Set<Long> fingerprints = new HashSet<>();
+        for (int from = 0; from <= text.length(); from++) {
+            for (int to = from; to <= text.length(); to++) {
+                String sub = text.substring(from, to);
+                long fingerprint = whole.fingerprint(from, to);
+                assertEquals(new AlphabeticString(boxed(sub)).fingerprint(), fingerprint);
+                assertEquals(AlphabeticString.view(text, from, to).fingerprint(), fingerprint);
+                assertEquals(bytes.fingerprint(from, to), new ByteString(sub).fingerprint());
+                Long previous = seen.put(sub, fingerprint);
+                if (previous == null) {
+                    // distinct substrings must not collide
+                    assertTrue(fingerprints.add(fingerprint));
+                }
+                else {
+                    assertEquals(previous.longValue(), fingerprint);
+                }
+            }
+        }
+        assertEquals(whole.fingerprint(), whole.fingerprint(0, text.length()));
+    }
+
+    @Test(timeout = 3000)
+    public void testByteStringsAreHashMapKeys() {
+        Random random = new Random(332);
+        Map<ByteString, Integer> counts = new HashMap<>();
+        Map<String, Integer> expected = new HashMap<>();
+        byte[] buffer = randomText(random, 20000, 4).getBytes();
+        for (int i = 0; i + 6 <= buffer.length; i++) {
+            ByteString key = i % 2 == 0 ? ByteString.view(buffer, i, 6) : new ByteString(new String(buffer, i, 6));
+            counts.merge(key, 1, Integer::sum);
+            expected.merge(new String(buffer, i, 6), 1, Integer::sum);
+        }
+        assertEquals(expected.size(), counts.size());
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), counts.get(new ByteString(entry.getKey())));
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testEqualsAndCompareToAgreeWithStrings() {
+        Random random = new Random(332);
+        for (int i = 0; i < 5000; i++) {
+            String a = randomText(random, random.nextInt(6), 3);
+            String b = randomText(random, random.nextInt(6), 3);
+            AlphabeticString x = i % 3 == 0 ? new AlphabeticString(boxed(a)) : new AlphabeticString(a);
+            AlphabeticString y = i % 2 == 0 ? AlphabeticString.view("[" + b + "]", 1, b.length() + 1)
+                    : new AlphabeticString(boxed(b));
+            if (i % 5 == 0) {
+                // a cached fingerprint on one side only must not matter
+                x.hashCode();
+            }
+            assertEquals(a.equals(b), x.equals(y));
+            assertEquals(Integer.signum(a.compareTo(b)), Integer.signum(x.compareTo(y)));
+            assertEquals(Integer.signum(b.compareTo(a)), Integer.signum(y.compareTo(x)));
+            if (a.equals(b)) {
+                assertEquals(x.hashCode(), y.hashCode());
+                assertEquals(-1, x.mismatch(y));
+            }
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testMismatchAndByteOrder() {
+        ByteString a = new ByteString(new byte[] { 1, 2, 3, -1 });
+        ByteString b = ByteString.view(new byte[] { 0, 1, 2, 3, 4 }, 1, 4);
+        assertEquals(3, a.mismatch(b));
+        assertEquals(3, new ByteString(new Byte[] { 1, 2, 3, -1 }).mismatch(b));
+        // bytes are ordered as signed numbers, like Byte.compareTo
+        assertTrue(a.compareTo(b) < 0);
+        assertEquals(2, a.mismatch(ByteString.view(new byte[] { 1, 2 })));
+        assertTrue(ByteString.view(new byte[] { 1, 2 }).compareTo(a) < 0);
+
+        BitString bits = new BitString(new Boolean[] { true, false, true });
+        BitString same = new BitString(new Boolean[] { true, false, true });
+        assertEquals(bits, same);
+        assertEquals(bits.hashCode(), same.hashCode());
+        assertEquals(bits.fingerprint(1, 2), new BitString(new Boolean[] { false }).fingerprint());
+        assertTrue(bits.fingerprint(0, 1) != bits.fingerprint(1, 2));
+
+        try {
+            a.fingerprint(2, 1);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            a.mismatch(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testKeyFactories() {
+        assertSame(AlphabeticString.FACTORY, BStringFactory.forKeyType(AlphabeticString.class));
+        assertSame(PackedBitString.FACTORY, BStringFactory.forKeyType(PackedBitString.class));
+        assertEquals(Byte.class, BString.getLetterType(ByteString.class));
+        assertEquals(5, ByteString.FACTORY.newLetters(5).length);
+
+        HashTrieMap<Character, AlphabeticString, Integer> map = new HashTrieMap<>(AlphabeticString.FACTORY);
+        map.insert(new AlphabeticString("ab"), 1);
+        map.insert(new AlphabeticString("b"), 2);
+        List<String> keys = new ArrayList<>();
+        for (Item<AlphabeticString, Integer> item : map) {
+            keys.add(item.key.toString());
+        }
+        assertEquals("[ab, b]", keys.toString());
+
+        // key types without a factory still work through reflection
+        HashTrieMap<Character, Word, Integer> words = new HashTrieMap<>(Word.class);
+        Character[] letters = { 'h', 'i' };
+        words.insert(BStringFactory.forKeyType(Word.class).keyOf(letters), 1);
+        for (Item<Word, Integer> item : words) {
+            assertEquals("hi", item.key.toString());
+        }
+        assertEquals(Character.class, BString.getLetterType(Word.class));
+
+        HashTrieMap<Character, Broken, Integer> broken = new HashTrieMap<>(Broken.class);
+        try {
+            BString.getLetterType(Broken.class);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            broken.keyFromLetters(letters);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new HashTrieMap<Character, AlphabeticString, Integer>((BStringFactory<Character, AlphabeticString>) null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package tests.gitlab.duedate;
+
+import cse332.datastructures.containers.Item;
+import cse332.types.AlphabeticString;
+import cse332.types.ByteString;
+import datastructures.dictionaries.ByteTrieMap;
+import datastructures.dictionaries.HashTrieMap;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BStringViewTests {
+
+    @Test(timeout = 3000)
+    public void testCharSequenceViewsFindKeys() {
+        HashTrieMap<Character, AlphabeticString, Integer> map = new HashTrieMap<>(AlphabeticString.class);
+        map.insert(new AlphabeticString("cat"), 1);
+        map.insert(AlphabeticString.view("category"), 2);
+
+        StringBuilder request = new StringBuilder("GET /category?x");
+        assertEquals(Integer.valueOf(2), map.find(AlphabeticString.view(request, 5, 13)));
+        assertEquals(Integer.valueOf(1), map.find(AlphabeticString.view(request, 5, 8)));
+        assertNull(map.find(AlphabeticString.view(request, 5, 9)));
+        assertTrue(map.findPrefix(AlphabeticString.view(request, 5, 9)));
+        assertEquals(Integer.valueOf(1), map.find(AlphabeticString.view("cat")));
+
+        map.insert(AlphabeticString.view(request, 5, 8), 3);
+        assertEquals(2, map.size());
+        map.delete(AlphabeticString.view("category"));
+        assertEquals(1, map.size());
+        assertEquals(Integer.valueOf(3), map.find(new AlphabeticString("cat")));
+    }
+
+    @Test(timeout = 3000)
+    public void testByteViewsFindKeys() {
+        ByteTrieMap<String> map = new ByteTrieMap<>();
+        map.insert(new ByteString("abc"), "abc");
+        map.insert(new ByteString("abd"), "abd");
+
+        byte[] packet = "xxabdyy".getBytes();
+        assertEquals("abd", map.find(ByteString.view(packet, 2, 3)));
+        assertNull(map.find(ByteString.view(packet, 2, 4)));
+
+        HashTrieMap<Byte, ByteString, String> hash = new HashTrieMap<>(ByteString.class);
+        hash.insert(new ByteString("abd"), "abd");
+        assertEquals("abd", hash.find(ByteString.view(packet, 2, 3)));
+
+        ByteBuffer heap = ByteBuffer.wrap(packet);
+        heap.position(2).limit(5);
+        ByteBuffer direct = ByteBuffer.allocateDirect(packet.length);
+        direct.put(packet);
+        direct.position(2).limit(5);
+        assertEquals("abd", hash.find(ByteString.view(heap.slice())));
+        assertEquals("abd", hash.find(ByteString.view(direct)));
+        assertEquals(2, direct.position());
+    }
+
+    @Test(timeout = 3000)
+    public void testViewsAgreeWithCopies() {
+        String text = "the quick brown fox";
+        AlphabeticString view = AlphabeticString.view(text, 4, 9);
+        AlphabeticString copy = new AlphabeticString("quick");
+        assertEquals(copy.size(), view.size());
+        assertEquals(view, copy);
+        assertEquals(0, view.compareTo(copy));
+        assertEquals("quick", view.toString());
+        for (int i = 0; i < view.size(); i++) {
+            assertEquals(copy.charAt(i), view.charAt(i));
+            assertEquals(copy.letterAt(i), view.letterAt(i));
+        }
+        assertTrue(AlphabeticString.view("quic").compareTo(view) < 0);
+        assertEquals(AlphabeticString.view("quick").hashCode(), view.hashCode());
+
+        byte[] bytes = { 1, -2, 3 };
+        ByteString bytesView = ByteString.view(bytes);
+        assertEquals(-2, bytesView.byteAt(1));
+        assertEquals(-2, ByteString.view((ByteBuffer) ByteBuffer.allocateDirect(3).put(bytes).flip()).byteAt(1));
+        assertEquals(new ByteString(bytes).toString(), bytesView.toString());
+    }
+
+    @Test(timeout = 3000)
+    public void testIteratorKeysAreUsable() {
+        HashTrieMap<Character, AlphabeticString, Integer> map = new HashTrieMap<>(AlphabeticString.class);
+        String[] words = { "a", "ab", "abc", "b" };
+        for (int i = 0; i < words.length; i++) {
+            map.insert(AlphabeticString.view(words[i]), i);
+        }
+        List<String> keys = new ArrayList<>();
+        for (Item<AlphabeticString, Integer> item : map) {
+            keys.add(item.key.toString());
+            assertEquals(item.value, map.find(item.key));
+            assertEquals(AlphabeticString.view(words[item.value]), item.key);
+        }
+        assertEquals(4, keys.size());
+    }
+
+    @Test(timeout = 3000)
+    public void testViewsCheckTheirBounds() {
+        AlphabeticString view = AlphabeticString.view("abc");
+        try {
+            view.letterAt(3);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            ByteString.view(new byte[2]).byteAt(-1);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            AlphabeticString.view("abc", 2, 1);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            ByteString.view(new byte[2], 1, 2);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            ByteString.view((byte[]) null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            AlphabeticString.view((CharSequence) null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(0, AlphabeticString.view("").size());
+    }
+}
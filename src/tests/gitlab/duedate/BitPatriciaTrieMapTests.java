@@ -0,0 +1,241 @@
+package tests.gitlab.duedate;
+
+import aboveandbeyond.CompressedHashTrieMap;
+import cse332.datastructures.containers.Item;
+import cse332.interfaces.trie.TrieMap;
+import cse332.types.BitString;
+import datastructures.dictionaries.BitPatriciaTrieMap;
+import datastructures.dictionaries.HashTrieMap;
+import datastructures.dictionaries.SuccinctTrie;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class BitPatriciaTrieMapTests {
+
+    private static BitString b(String bits) {
+        Boolean[] letters = new Boolean[bits.length()];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = bits.charAt(i) == '1';
+        }
+        return new BitString(letters);
+    }
+
+    private static long[] words(String bits) {
+        long[] words = new long[(bits.length() + 63) / 64];
+        for (int i = 0; i < bits.length(); i++) {
+            if (bits.charAt(i) == '1') {
+                words[i / 64] |= Long.MIN_VALUE >>> (i % 64);
+            }
+        }
+        return words;
+    }
+
+    private static String randomBits(Random random, int maxLength) {
+        StringBuilder bits = new StringBuilder();
+        for (int length = random.nextInt(maxLength + 1); length > 0; length--) {
+            bits.append(random.nextInt(4) == 0 ? '1' : '0');
+        }
+        return bits.toString();
+    }
+
+    private static Map<String, Integer> contents(TrieMap<Boolean, BitString, Integer> map) {
+        Map<String, Integer> contents = new HashMap<>();
+        for (Item<BitString, Integer> item : map) {
+            assertNull(contents.put(item.key.toString(), item.value));
+        }
+        return contents;
+    }
+
+    private static String matches(List<Item<BitString, Integer>> items) {
+        List<String> matches = new ArrayList<>();
+        for (Item<BitString, Integer> item : items) {
+            matches.add(item.key + "=" + item.value);
+        }
+        return matches.toString();
+    }
+
+    @Test(timeout = 10000)
+    public void testMatchesHashTrieMap() {
+        Random random = new Random(332);
+        BitPatriciaTrieMap<Integer> patricia = new BitPatriciaTrieMap<>();
+        HashTrieMap<Boolean, BitString, Integer> plain = new HashTrieMap<>(BitString.class);
+        CompressedHashTrieMap<Boolean, BitString, Integer> compressed = new CompressedHashTrieMap<>(BitString.class);
+
+        for (int i = 0; i < 4000; i++) {
+            // long keys cross word boundaries; skewed bits share long prefixes
+            BitString key = b(randomBits(random, i % 2 == 0 ? 12 : 140));
+            if (random.nextInt(3) == 0) {
+                patricia.delete(key);
+                plain.delete(key);
+                compressed.delete(key);
+            }
+            else {
+                assertEquals(plain.insert(key, i), patricia.insert(key, i));
+                compressed.insert(key, i);
+            }
+
+            if (i % 200 == 0) {
+                assertEquals(plain.size(), patricia.size());
+                assertEquals(contents(plain), contents(patricia));
+            }
+            BitString query = b(randomBits(random, i % 2 == 0 ? 16 : 150));
+            assertEquals(plain.find(query), patricia.find(query));
+            assertEquals(plain.findPrefix(query), patricia.findPrefix(query));
+            assertEquals(plain.countPrefix(query), patricia.countPrefix(query));
+            String expected = matches(plain.allPrefixMatches(query));
+            assertEquals(expected, matches(compressed.allPrefixMatches(query)));
+            assertEquals(expected, matches(patricia.allPrefixMatches(query)));
+
+            Item<BitString, Integer> longest = plain.longestPrefixMatch(query);
+            Item<BitString, Integer> actual = patricia.longestPrefixMatch(query);
+            assertEquals(longest == null ? null : longest.key.toString(), actual == null ? null : actual.key.toString());
+            assertEquals(longest == null ? null : longest.value,
+                    patricia.longestPrefixValue(words(query.toString()), query.size()));
+        }
+        assertEquals(contents(plain), contents(patricia));
+    }
+
+    @Test(timeout = 3000)
+    public void testIterationIsInBitOrder() {
+        BitPatriciaTrieMap<Integer> map = new BitPatriciaTrieMap<>();
+        String[] keys = {"1", "", "0110", "01", "0111", "011", "10000000", "0"};
+        for (int i = 0; i < keys.length; i++) {
+            map.insert(b(keys[i]), i);
+        }
+        List<String> order = new ArrayList<>();
+        for (Item<BitString, Integer> item : map) {
+            order.add(item.key.toString());
+        }
+        assertEquals("[, 0, 01, 011, 0110, 0111, 1, 10000000]", order.toString());
+        assertEquals(4, map.countPrefix(b("01")));
+        assertEquals(8, SuccinctTrie.freeze(map).size());
+    }
+
+    @Test(timeout = 3000)
+    public void testRoutingTable() {
+        BitPatriciaTrieMap<String> routes = new BitPatriciaTrieMap<>();
+        routes.insert(0L, 0, "default");
+        routes.insert(0x0AL, 8, "10/8");
+        routes.insert(0x0A01L, 16, "10.1/16");
+        routes.insert(0x0A0102L, 24, "10.1.2/24");
+
+        assertEquals("10.1.2/24", routes.longestPrefixValue(0x0A010203L, 32));
+        assertEquals("10.1/16", routes.longestPrefixValue(0x0A010303L, 32));
+        assertEquals("10/8", routes.longestPrefixValue(0x0A020304L, 32));
+        assertEquals("default", routes.longestPrefixValue(0xC0A80001L, 32));
+        assertEquals("10.1/16", routes.find(b("0000101000000001")));
+        assertEquals("0000101000000001", routes.longestPrefixMatch(b("00001010000000010000001100000011")).key.toString());
+
+        // the same table over IPv6-sized keys in words
+        long[] address = { 0x20010DB800000000L, 0x0000000000000001L };
+        routes.insert(new long[] { 0x20010DB800000000L }, 32, "2001:db8::/32");
+        assertEquals("2001:db8::/32", routes.longestPrefixValue(address, 128));
+        assertEquals("default", routes.longestPrefixValue(new long[] { -1L, -1L }, 128));
+        assertEquals(4, routes.allPrefixMatches(b("00001010000000010000001011111111")).size());
+
+        routes.delete(0x0A01L, 16);
+        assertEquals("10/8", routes.longestPrefixValue(0x0A010303L, 32));
+        assertEquals("10.1.2/24", routes.longestPrefixValue(0x0A010203L, 32));
+        routes.delete(0L, 0);
+        assertNull(routes.longestPrefixValue(0xC0A80001L, 32));
+        assertEquals(3, routes.size());
+    }
+
+    @Test(timeout = 10000)
+    public void testLookupsStayRightAcrossIndexRebuilds() {
+        Random random = new Random(332);
+        BitPatriciaTrieMap<Integer> routes = new BitPatriciaTrieMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 6000; i++) {
+            int length = 4 + random.nextInt(29);
+            long prefix = (random.nextLong() & 0xFFFFFFFFL) >>> (32 - length);
+            routes.insert(prefix, length, i);
+            expected.put((long) length << 32 | prefix, i);
+        }
+        // lookups without and with the index, then changes that must drop it
+        for (int round = 0; round < 6; round++) {
+            if (round % 2 == 1) {
+                routes.buildIndex();
+            }
+            for (int i = 0; i < 20000; i++) {
+                long address = random.nextLong() & 0xFFFFFFFFL;
+                Integer longest = null;
+                for (int length = 32; length >= 0 && longest == null; length--) {
+                    longest = expected.get((long) length << 32 | address >>> (32 - length));
+                }
+                assertEquals(longest, routes.longestPrefixValue(address, 32));
+            }
+            if (round % 2 == 0) {
+                continue;
+            }
+            for (int i = 0; i < 500; i++) {
+                int length = 4 + random.nextInt(13);
+                long prefix = (random.nextLong() & 0xFFFFFFFFL) >>> (32 - length);
+                if (round == 3) {
+                    routes.delete(prefix, length);
+                    expected.remove((long) length << 32 | prefix);
+                }
+                else {
+                    routes.insert(prefix, length, -i);
+                    expected.put((long) length << 32 | prefix, -i);
+                }
+            }
+        }
+        assertEquals(expected.size(), routes.size());
+    }
+
+    @Test(timeout = 3000)
+    public void testRawBitsAgreeWithBitStrings() {
+        Random random = new Random(332);
+        BitPatriciaTrieMap<Integer> map = new BitPatriciaTrieMap<>();
+        for (int i = 0; i < 1000; i++) {
+            int length = random.nextInt(65);
+            long bits = length == 64 ? random.nextLong() : random.nextLong() & ((1L << length) - 1);
+            StringBuilder key = new StringBuilder();
+            for (int j = length - 1; j >= 0; j--) {
+                key.append((bits >>> j & 1) == 1 ? '1' : '0');
+            }
+            map.insert(bits, length, i);
+            assertEquals(Integer.valueOf(i), map.find(b(key.toString())));
+            assertEquals(Integer.valueOf(i), map.find(new long[] { length == 0 ? 0 : bits << (64 - length) }, length));
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testRejectsBadArguments() {
+        BitPatriciaTrieMap<Integer> map = new BitPatriciaTrieMap<>();
+        try {
+            map.insert(b("01"), null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            map.longestPrefixMatch(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            map.insert(0L, 65, 1);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            map.find(new long[1], 65);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        assertTrue(map.isEmpty());
+        assertFalse(map.findPrefix(b("")));
+    }
+}
@@ -0,0 +1,108 @@
+package tests.gitlab.duedate;
+
+import cse332.datastructures.containers.Item;
+import cse332.types.AlphabeticString;
+import cse332.types.ByteString;
+import datastructures.dictionaries.BurstTrieMap;
+import datastructures.dictionaries.HashTrieMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Runs the TrieMap tests against a BurstTrieMap whose containers burst
+ * early, and checks bursting and the container view against reference maps.
+ */
+public class BurstTrieMapTests extends TrieMapGradingTests {
+
+    @Before
+    public void init() {
+        STUDENT = new BurstTrieMap<Character, AlphabeticString, String>(AlphabeticString.class, 4);
+    }
+
+    @Test(timeout = 3000)
+    public void testRandomAgainstTreeMap() {
+        Random random = new Random(332);
+        for (int threshold : new int[] { 1, 8, 1000 }) {
+            BurstTrieMap<Character, AlphabeticString, String> map = new BurstTrieMap<>(AlphabeticString.class, threshold);
+            TreeMap<String, String> expected =
+                    checkRandomUpdates(map, random, 5000, 6, () -> (char) ('a' + random.nextInt(4)));
+
+            // the view of the containers is sorted, so iteration is in key order
+            List<String> keys = new ArrayList<>();
+            for (Item<AlphabeticString, String> item : map) {
+                assertEquals(expected.get(item.key.toString()), item.value);
+                keys.add(item.key.toString());
+            }
+            assertEquals(new ArrayList<>(expected.keySet()), keys);
+            for (String prefix : new String[] { "", "a", "ab", "dcb", "abcda" }) {
+                assertEquals(expected.subMap(prefix, prefix + Character.MAX_VALUE).size(), map.countPrefix(a(prefix)));
+                assertEquals(!expected.subMap(prefix, prefix + Character.MAX_VALUE).isEmpty(), map.findPrefix(a(prefix)));
+            }
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testBursting() {
+        BurstTrieMap<Character, AlphabeticString, String> map = new BurstTrieMap<>(AlphabeticString.class, 100);
+        for (int i = 0; i < 100; i++) {
+            map.insert(a("k" + i), "v" + i);
+        }
+        assertEquals("[0, 1]", Arrays.toString(map.nodeCounts()));
+        map.insert(a("k100"), "v100");
+        // the container burst into a node with one container below "k"
+        assertEquals("[1, 1]", Arrays.toString(map.nodeCounts()));
+        for (int i = 0; i <= 100; i++) {
+            assertEquals("v" + i, map.find(a("k" + i)));
+        }
+        for (int i = 0; i <= 100; i++) {
+            map.delete(a("k" + i));
+        }
+        assertEquals(0, map.size());
+        assertFalse(map.findPrefix(a("")));
+        assertFalse(map.iterator().hasNext());
+    }
+
+    @Test(timeout = 3000)
+    public void testByteKeys() {
+        BurstTrieMap<Byte, ByteString, Integer> map = new BurstTrieMap<>(ByteString.class, 16);
+        HashTrieMap<Byte, ByteString, Integer> expected = new HashTrieMap<>(ByteString.class);
+        Random random = new Random(333);
+        for (int i = 0; i < 3000; i++) {
+            byte[] key = new byte[random.nextInt(5)];
+            random.nextBytes(key);
+            assertEquals(expected.insert(new ByteString(key), i), map.insert(new ByteString(key), i));
+        }
+        assertEquals(expected.size(), map.size());
+        int count = 0;
+        for (Item<ByteString, Integer> item : map) {
+            assertEquals(expected.find(item.key), item.value);
+            count++;
+        }
+        assertEquals(expected.size(), count);
+    }
+
+    @Test(timeout = 3000)
+    public void testLongKey() {
+        BurstTrieMap<Character, AlphabeticString, String> map = new BurstTrieMap<>(AlphabeticString.class);
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < 70000; i++) {
+            key.append((char) ('a' + i % 26));
+        }
+        map.insert(a(key.toString()), "long");
+        map.insert(a("abc"), "short");
+        assertEquals("long", map.find(a(key.toString())));
+        assertEquals("short", map.find(a("abc")));
+        assertTrue(map.findPrefix(a(key.substring(0, 69000))));
+        map.delete(a(key.toString()));
+        assertNull(map.find(a(key.toString())));
+        assertEquals(1, map.size());
+    }
+}
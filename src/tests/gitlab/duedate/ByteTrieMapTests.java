@@ -0,0 +1,81 @@
+package tests.gitlab.duedate;
+
+import cse332.datastructures.containers.Item;
+import cse332.types.ByteString;
+import datastructures.dictionaries.ByteTrieMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ByteTrieMapTests {
+    protected static ByteTrieMap<String> STUDENT;
+
+    @Before
+    public void init() {
+        STUDENT = new ByteTrieMap<>();
+    }
+
+    @Test(timeout = 3000)
+    public void testSlicesAndByteStringsAgree() {
+        byte[] buffer = "xxdoggyxx".getBytes();
+        assertNull(STUDENT.insert(buffer, 2, 3, "DOG"));
+        assertNull(STUDENT.insert(buffer, 2, 5, "DOGGY"));
+        assertEquals(2, STUDENT.size());
+
+        assertEquals("DOG", STUDENT.find(new ByteString("dog")));
+        assertEquals("DOGGY", STUDENT.find("doggy".getBytes()));
+        assertEquals("DOG", STUDENT.find(buffer, 2, 3));
+        assertNull(STUDENT.find(buffer, 2, 4));
+        assertTrue(STUDENT.findPrefix(buffer, 2, 4));
+        assertFalse(STUDENT.findPrefix(buffer, 1, 3));
+
+        assertEquals("DOG", STUDENT.insert(new ByteString("dog"), "D"));
+        assertEquals("D", STUDENT.find(buffer, 2, 3));
+        assertEquals(2, STUDENT.size());
+    }
+
+    @Test(timeout = 3000)
+    public void testNegativeBytes() {
+        byte[] key = {-128, -1, 0, 127};
+        STUDENT.insert(key, "K");
+        assertEquals("K", STUDENT.find(new ByteString(key)));
+        assertTrue(STUDENT.findPrefix(key, 0, 2));
+        assertFalse(STUDENT.findPrefix(new byte[]{-1}));
+    }
+
+    @Test(timeout = 3000)
+    public void testDelete() {
+        STUDENT.insert("ab".getBytes(), "AB");
+        STUDENT.insert("abc".getBytes(), "ABC");
+        STUDENT.delete("abc".getBytes(), 0, 3);
+        assertNull(STUDENT.find("abc".getBytes()));
+        assertFalse(STUDENT.findPrefix("abc".getBytes()));
+        assertEquals("AB", STUDENT.find("ab".getBytes()));
+        STUDENT.delete(new ByteString("ab"));
+        assertTrue(STUDENT.isEmpty());
+        assertFalse(STUDENT.findPrefix("a".getBytes()));
+    }
+
+    @Test(timeout = 3000)
+    public void testIteratorSeesRawInserts() {
+        STUDENT.insert("hi".getBytes(), "HI");
+        STUDENT.insert(new byte[0], "EMPTY");
+        int count = 0;
+        for (Item<ByteString, String> item : STUDENT) {
+            assertEquals(item.value, STUDENT.find(item.key));
+            count++;
+        }
+        assertEquals(2, count);
+    }
+
+    @Test(timeout = 3000, expected = IndexOutOfBoundsException.class)
+    public void testBadSliceCausesError() {
+        STUDENT.find(new byte[3], 2, 2);
+    }
+
+    @Test(timeout = 3000, expected = IllegalArgumentException.class)
+    public void testNullKeyCausesError() {
+        STUDENT.find(null, 0, 0);
+    }
+}
@@ -0,0 +1,101 @@
+package tests.gitlab.duedate;
+
+import aboveandbeyond.CompressedHashTrieMap;
+import cse332.interfaces.trie.TrieMap;
+import cse332.types.AlphabeticString;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+
+public class CompressedHashTrieMapTests extends TrieMapGradingTests {
+
+    @Before
+    public void init() {
+        STUDENT = new CompressedHashTrieMap<>(AlphabeticString.class);
+    }
+
+    @Test(timeout = 3000)
+    public void testEdgesSplitAndMerge() {
+        addAll(STUDENT, "/usr/local/bin");
+        assertEquals(2, countNodes(getRoot()));
+
+        addAll(STUDENT, "/usr/local/lib");
+        // root -> "/usr/local/" -> {"bin", "lib"}
+        assertEquals(4, countNodes(getRoot()));
+
+        addAll(STUDENT, "/usr");
+        assertEquals(5, countNodes(getRoot()));
+        assertTrue(containsAllPaths(STUDENT, "/usr/local/bin", "/usr/local/lib", "/usr"));
+        assertTrue(STUDENT.findPrefix(a("/usr/lo")));
+        assertFalse(STUDENT.findPrefix(a("/usr/la")));
+        assertNull(STUDENT.find(a("/usr/local/")));
+
+        STUDENT.delete(a("/usr/local/lib"));
+        // root -> "/usr" -> "/local/bin"
+        assertEquals(3, countNodes(getRoot()));
+        STUDENT.delete(a("/usr"));
+        assertEquals(2, countNodes(getRoot()));
+        assertTrue(containsAllPaths(STUDENT, "/usr/local/bin"));
+
+        STUDENT.delete(a("/usr/local/bin"));
+        assertEquals(1, countNodes(getRoot()));
+    }
+
+    @Test(timeout = 3000)
+    public void testCountsFollowSplitsAndMerges() {
+        addAll(STUDENT, "/usr/local/bin", "/usr/local/lib", "/usr/lib");
+        STUDENT.insert(a("/usr/local/lib"), "again");
+        assertEquals(3, STUDENT.countPrefix(a("/usr")));
+        assertEquals(2, STUDENT.countPrefix(a("/usr/lo")));
+
+        // splits "/usr/" into "/usr" and "/"
+        addAll(STUDENT, "/usr");
+        assertEquals(4, STUDENT.countPrefix(a("/us")));
+        assertEquals(3, STUDENT.countPrefix(a("/usr/")));
+
+        // merges "/local/" with "bin"
+        STUDENT.delete(a("/usr/local/lib"));
+        STUDENT.delete(a("/usr/local/libs"));
+        assertEquals(1, STUDENT.countPrefix(a("/usr/local/b")));
+        assertEquals(3, STUDENT.countPrefix(a("")));
+
+        STUDENT.delete(a("/usr"));
+        assertEquals(2, STUDENT.countPrefix(a("/usr")));
+        assertEquals(0, STUDENT.countPrefix(a("/usr/local/lib")));
+    }
+
+    @Test(timeout = 3000)
+    public void testNodeCountIsLinearInKeys() {
+        for (int i = 0; i < 100; i++) {
+            STUDENT.insert(a("https://example.com/a/very/long/shared/path/" + i), "" + i);
+        }
+        assertEquals(100, STUDENT.size());
+        assertTrue(countNodes(getRoot()) < 2 * 100);
+        for (int i = 0; i < 100; i++) {
+            assertEquals("" + i, STUDENT.find(a("https://example.com/a/very/long/shared/path/" + i)));
+        }
+    }
+
+    private static int countNodes(CompressedHashTrieMap<Character, AlphabeticString, String>.CompressedHashTrieNode node) {
+        int count = 1;
+        for (Map.Entry<Character, CompressedHashTrieMap<Character, AlphabeticString, String>.CompressedHashTrieNode> entry : node) {
+            count += countNodes(entry.getValue());
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompressedHashTrieMap<Character, AlphabeticString, String>.CompressedHashTrieNode getRoot() {
+        try {
+            Field field = TrieMap.class.getDeclaredField("root");
+            field.setAccessible(true);
+            return (CompressedHashTrieMap<Character, AlphabeticString, String>.CompressedHashTrieNode) field.get(STUDENT);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package tests.gitlab.duedate;
+
+import cse332.datastructures.containers.Item;
+import cse332.interfaces.trie.TrieCursor;
+import cse332.types.AlphabeticString;
+import datastructures.dictionaries.ConcurrentTrieMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ConcurrentTrieMapTests extends TrieMapGradingTests {
+    private static final int THREADS = 8;
+
+    @Before
+    public void init() {
+        STUDENT = new ConcurrentTrieMap<>(AlphabeticString.class);
+    }
+
+    private static ConcurrentTrieMap<Character, AlphabeticString, String> map() {
+        return (ConcurrentTrieMap<Character, AlphabeticString, String>) STUDENT;
+    }
+
+    private interface Work {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Runs work on THREADS threads that all start at the same time and
+     * rethrows the first failure.
+     */
+    private static void inParallel(Work work) throws Throwable {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    work.run(id);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testConcurrentInsertsOfDisjointKeys() throws Throwable {
+        inParallel(t -> {
+            for (int i = 0; i < 500; i++) {
+                String word = "k" + i + "-" + t;
+                assertNull(STUDENT.insert(a(word), word.toUpperCase()));
+            }
+        });
+        assertEquals(THREADS * 500, STUDENT.size());
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < 500; i++) {
+                assertTrue(containsPath(STUDENT, "k" + i + "-" + t));
+            }
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testPutIfAbsentHasExactlyOneWinner() throws Throwable {
+        int[][] won = new int[THREADS][300];
+        inParallel(t -> {
+            for (int i = 0; i < 300; i++) {
+                if (map().putIfAbsent(a("key" + i), "" + t) == null) {
+                    won[t][i]++;
+                }
+            }
+        });
+        assertEquals(300, STUDENT.size());
+        for (int i = 0; i < 300; i++) {
+            int winners = 0;
+            for (int t = 0; t < THREADS; t++) {
+                if (won[t][i] > 0) {
+                    winners++;
+                    assertEquals("" + t, STUDENT.find(a("key" + i)));
+                }
+            }
+            assertEquals(1, winners);
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testConcurrentCountsAreExact() throws Throwable {
+        ConcurrentTrieMap<Character, AlphabeticString, Integer> counts = new ConcurrentTrieMap<>(AlphabeticString.class);
+        Integer[][] firsts = new Integer[THREADS][50];
+        inParallel(t -> {
+            for (int i = 0; i < 2000; i++) {
+                counts.merge(a("w" + (i % 50)), 1, Integer::sum);
+                counts.compute(a("total"), (key, old) -> old == null ? 1 : old + 1);
+                // every thread adds and then takes away one, so "gone" ends up unmapped
+                counts.merge(a("gone"), 1, Integer::sum);
+                counts.compute(a("gone"), (key, old) -> old == 1 ? null : old - 1);
+            }
+            for (int i = 0; i < 50; i++) {
+                firsts[t][i] = counts.computeIfAbsent(a("first" + i), key -> t);
+            }
+        });
+        for (int i = 0; i < 50; i++) {
+            assertEquals(Integer.valueOf(THREADS * 40), counts.find(a("w" + i)));
+            for (int t = 0; t < THREADS; t++) {
+                assertEquals(counts.find(a("first" + i)), firsts[t][i]);
+            }
+        }
+        assertEquals(Integer.valueOf(THREADS * 2000), counts.find(a("total")));
+        assertNull(counts.find(a("gone")));
+        assertEquals(101, counts.size());
+    }
+
+    @Test(timeout = 10000)
+    public void testSizeSurvivesConcurrentClears() throws Throwable {
+        for (int trial = 0; trial < 20; trial++) {
+            ConcurrentTrieMap<Character, AlphabeticString, String> map = new ConcurrentTrieMap<>(AlphabeticString.class);
+            AtomicInteger writing = new AtomicInteger(THREADS - 1);
+            inParallel(t -> {
+                if (t == 0) {
+                    // clear until every other thread is done
+                    while (writing.get() > 0) {
+                        map.clear();
+                    }
+                    return;
+                }
+                for (int i = 0; i < 5000; i++) {
+                    String word = "k" + (i * 31 + t) % 300;
+                    if (i % 3 == 2) {
+                        map.delete(a(word));
+                    }
+                    else {
+                        map.insert(a(word), word);
+                    }
+                }
+                writing.decrementAndGet();
+            });
+            int actual = 0;
+            for (Item<AlphabeticString, String> item : map) {
+                actual++;
+            }
+            assertEquals(actual, map.size());
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testConcurrentInsertsAndDeletesOfSharedPrefixes() throws Throwable {
+        addAll(STUDENT, "stay", "st", "stayed");
+        inParallel(t -> {
+            for (int round = 0; round < 50; round++) {
+                for (int i = 0; i < 20; i++) {
+                    String word = "stay" + i + "/" + t;
+                    STUDENT.insert(a(word), word.toUpperCase());
+                }
+                for (int i = 0; i < 20; i++) {
+                    STUDENT.delete(a("stay" + i + "/" + t));
+                }
+            }
+        });
+        assertEquals(3, STUDENT.size());
+        assertTrue(containsAllPaths(STUDENT, "stay", "st", "stayed"));
+        assertFalse(STUDENT.findPrefix(a("stay0")));
+
+        STUDENT.delete(a("stay"));
+        STUDENT.delete(a("st"));
+        STUDENT.delete(a("stayed"));
+        assertEquals(0, STUDENT.size());
+        assertFalse(STUDENT.findPrefix(a("")));
+        assertFalse(STUDENT.iterator().hasNext());
+    }
+
+    @Test(timeout = 3000)
+    public void testSnapshotsAreConsistentUnderUpdates() throws Throwable {
+        for (int i = 0; i < 1000; i++) {
+            addAll(STUDENT, "w" + i);
+        }
+        ConcurrentTrieMap<Character, AlphabeticString, String> frozen = map().readOnlySnapshot();
+        ConcurrentTrieMap<Character, AlphabeticString, String> copy = map().snapshot();
+
+        inParallel(t -> {
+            for (int i = t; i < 1000; i += THREADS) {
+                STUDENT.delete(a("w" + i));
+                STUDENT.insert(a("x" + i), "X" + i);
+            }
+        });
+
+        Set<String> seen = new HashSet<>();
+        for (Item<AlphabeticString, String> item : frozen) {
+            assertTrue(seen.add(item.key.toString()));
+        }
+        assertEquals(1000, seen.size());
+        assertTrue(seen.contains("w999"));
+        assertEquals(1000, frozen.size());
+        assertEquals(1000, frozen.countPrefix(a("w")));
+
+        assertEquals(1000, copy.size());
+        assertNull(copy.find(a("x0")));
+        copy.delete(a("w0"));
+        assertEquals(999, copy.size());
+        assertEquals("W0", frozen.find(a("w0")));
+
+        assertEquals(1000, STUDENT.size());
+        assertFalse(STUDENT.findPrefix(a("w")));
+        assertEquals(1000, map().countPrefix(a("x")));
+    }
+
+    @Test(timeout = 3000)
+    public void testReadOnlySnapshotRejectsUpdates() {
+        addAll(STUDENT, "a");
+        ConcurrentTrieMap<Character, AlphabeticString, String> frozen = map().readOnlySnapshot();
+        try {
+            frozen.insert(a("b"), "B");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            frozen.delete(a("a"));
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertTrue(containsPath(frozen, "a"));
+    }
+
+    @Test(timeout = 3000)
+    public void testCursorWalksASnapshot() {
+        addAll(STUDENT, "a", "ab", "b");
+        TrieCursor<Character, AlphabeticString, String> cursor = map().cursor();
+        assertTrue(cursor.advance());
+        assertEquals("a", cursor.key().toString());
+        map().insert(a("c"), "C");
+        map().delete(a("b"));
+        Set<String> keys = new HashSet<>();
+        keys.add(cursor.key().toString());
+        while (cursor.advance()) {
+            keys.add(cursor.key().toString());
+        }
+        assertEquals(new HashSet<>(Arrays.asList("a", "ab", "b")), keys);
+        Set<String> now = new HashSet<>();
+        map().forEach((key, value) -> now.add(key.toString()));
+        assertEquals(new HashSet<>(Arrays.asList("a", "ab", "c")), now);
+    }
+}
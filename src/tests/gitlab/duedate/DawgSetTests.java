@@ -0,0 +1,153 @@
+package tests.gitlab.duedate;
+
+import cse332.interfaces.trie.TrieMap;
+import cse332.types.AlphabeticString;
+import datastructures.dictionaries.DawgSet;
+import datastructures.dictionaries.HashTrieSet;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+public class DawgSetTests {
+
+    private static AlphabeticString a(String s) {
+        return new AlphabeticString(s);
+    }
+
+    private static DawgSet.Builder<Character, AlphabeticString> builder(String... words) {
+        DawgSet.Builder<Character, AlphabeticString> builder = new DawgSet.Builder<>(AlphabeticString.class);
+        for (String word : words) {
+            builder.add(a(word));
+        }
+        return builder;
+    }
+
+    @Test(timeout = 3000)
+    public void testSharedSuffixesAreStoredOnce() {
+        DawgSet.Builder<Character, AlphabeticString> builder = builder("tap", "taps", "top", "tops");
+        DawgSet<Character, AlphabeticString> set = builder.build();
+        // root -t-> x -a,o-> y -p-> (final) -s-> (final)
+        assertEquals(8, builder.trieNodes());
+        assertEquals(5, builder.dawgNodes());
+        assertEquals(5, set.nodes());
+
+        assertEquals(4, set.size());
+        for (String word : new String[] { "tap", "taps", "top", "tops" }) {
+            assertTrue(set.contains(a(word)));
+        }
+        for (String word : new String[] { "", "t", "ta", "to", "tapss", "tip", "topsy" }) {
+            assertFalse(set.contains(a(word)));
+        }
+        assertTrue(set.findPrefix(a("to")));
+        assertTrue(set.findPrefix(a("")));
+        assertFalse(set.findPrefix(a("ti")));
+        assertEquals(2, set.countPrefix(a("ta")));
+    }
+
+    @Test(timeout = 3000)
+    public void testIterationMatchesInput() {
+        TreeSet<String> words = new TreeSet<>();
+        for (int i = 0; i < 2000; i++) {
+            words.add(Integer.toString(i * 37, 7) + (i % 3 == 0 ? "ing" : i % 3 == 1 ? "ed" : ""));
+        }
+        words.add("");
+        DawgSet.Builder<Character, AlphabeticString> builder = builder(words.toArray(new String[0]));
+        DawgSet<Character, AlphabeticString> set = builder.build();
+
+        assertEquals(words.size(), set.size());
+        List<String> seen = new ArrayList<>();
+        for (AlphabeticString word : set) {
+            seen.add(word.toString());
+        }
+        seen.sort(null);
+        assertEquals(new ArrayList<>(words), seen);
+        for (String word : words) {
+            assertTrue(set.contains(a(word)));
+            assertFalse(set.contains(a(word + "x")));
+        }
+
+        Iterator<AlphabeticString> ing = set.prefixIterator(a("1"));
+        int count = 0;
+        while (ing.hasNext()) {
+            assertTrue(ing.next().toString().startsWith("1"));
+            count++;
+        }
+        assertEquals(words.subSet("1", "2").size(), count);
+        assertEquals(count, set.countPrefix(a("1")));
+        assertTrue(builder.dawgNodes() < builder.trieNodes());
+    }
+
+    @Test(timeout = 3000)
+    public void testTrieNodesMatchHashTrieSet() throws Exception {
+        String[] words = { "car", "card", "care", "cared", "cars", "cat", "cats", "dog", "dogs" };
+        DawgSet.Builder<Character, AlphabeticString> builder = builder(words);
+        HashTrieSet<Character, AlphabeticString> trie = new HashTrieSet<>(AlphabeticString.class);
+        for (String word : words) {
+            trie.add(a(word));
+        }
+        assertEquals(countNodes(trie), builder.trieNodes());
+        builder.build();
+        assertTrue(builder.dawgNodes() < builder.trieNodes());
+    }
+
+    @Test(timeout = 3000)
+    public void testOrderIsEnforced() {
+        DawgSet.Builder<Character, AlphabeticString> builder = builder("b", "b", "bc");
+        for (String word : Arrays.asList("a", "b", "ba")) {
+            try {
+                builder.add(a(word));
+                fail(word);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        builder.add(a("c"));
+        DawgSet<Character, AlphabeticString> set = builder.build();
+        assertEquals(3, set.size());
+        try {
+            builder.add(a("d"));
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testEmptyAndReadOnly() {
+        DawgSet<Character, AlphabeticString> set = builder().build();
+        assertEquals(0, set.size());
+        assertFalse(set.findPrefix(a("")));
+        assertFalse(set.iterator().hasNext());
+        try {
+            set.add(a("x"));
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    private static int countNodes(HashTrieSet<Character, AlphabeticString> set) throws Exception {
+        Field map = cse332.interfaces.misc.Set.class.getDeclaredField("map");
+        map.setAccessible(true);
+        Field root = TrieMap.class.getDeclaredField("root");
+        root.setAccessible(true);
+        return countNodes(root.get(map.get(set)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int countNodes(Object node) {
+        int count = 1;
+        for (Map.Entry<Object, Object> child : (Iterable<Map.Entry<Object, Object>>) node) {
+            count += countNodes(child.getValue());
+        }
+        return count;
+    }
+}
@@ -0,0 +1,156 @@
+package tests.gitlab.duedate;
+
+import cse332.datastructures.containers.Item;
+import cse332.interfaces.misc.Codec;
+import cse332.interfaces.trie.TrieMap;
+import cse332.types.AlphabeticString;
+import cse332.types.ByteString;
+import datastructures.dictionaries.DoubleArrayTrieMap;
+import datastructures.dictionaries.HashTrieMap;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DoubleArrayTrieMapTests {
+
+    private static AlphabeticString a(String s) {
+        return new AlphabeticString(s);
+    }
+
+    private static HashTrieMap<Character, AlphabeticString, String> words(String... extra) {
+        HashTrieMap<Character, AlphabeticString, String> map = new HashTrieMap<>(AlphabeticString.class);
+        for (int i = 0; i < 3000; i++) {
+            String word = Integer.toString(i * 7919, 36);
+            map.insert(a(word), word.toUpperCase());
+        }
+        for (String word : extra) {
+            map.insert(a(word), word.toUpperCase());
+        }
+        return map;
+    }
+
+    private static DoubleArrayTrieMap<Character, AlphabeticString, String> compile(
+            TrieMap<Character, AlphabeticString, String> map) {
+        return new DoubleArrayTrieMap<>(AlphabeticString.class, map);
+    }
+
+    private static void assertSameMappings(TrieMap<Character, AlphabeticString, String> expected,
+            TrieMap<Character, AlphabeticString, String> actual) {
+        assertEquals(expected.size(), actual.size());
+        Map<String, String> seen = new HashMap<>();
+        List<String> order = new ArrayList<>();
+        for (Item<AlphabeticString, String> item : actual) {
+            assertNull(seen.put(item.key.toString(), item.value));
+            order.add(item.key.toString());
+        }
+        for (int i = 1; i < order.size(); i++) {
+            assertTrue(order.get(i - 1).compareTo(order.get(i)) < 0);
+        }
+        assertEquals(expected.size(), seen.size());
+        for (Item<AlphabeticString, String> item : expected) {
+            String key = item.key.toString();
+            assertEquals(item.value, seen.get(key));
+            assertEquals(item.value, actual.find(item.key));
+            for (int i = 0; i <= key.length(); i++) {
+                assertTrue(actual.findPrefix(a(key.substring(0, i))));
+            }
+            assertNull(actual.find(a(key + "~")));
+            assertFalse(actual.findPrefix(a(key + "~")));
+            assertFalse(actual.findPrefix(a(key + "A")));
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testCompileHashTrieMap() {
+        HashTrieMap<Character, AlphabeticString, String> map = words("", "a", "ab", "abc");
+        DoubleArrayTrieMap<Character, AlphabeticString, String> compiled = compile(map);
+        assertSameMappings(map, compiled);
+        assertEquals("", compiled.find(a("")));
+        assertEquals(map.countPrefix(a("a")), compiled.countPrefix(a("a")));
+    }
+
+    @Test(timeout = 3000)
+    public void testLettersOutsideTheAlphabet() {
+        HashTrieMap<Character, AlphabeticString, String> map = words("ab", "abc");
+        DoubleArrayTrieMap<Character, AlphabeticString, String> compiled = compile(map);
+        // '~' never occurs in the map, so it has no code of its own
+        assertEquals(0, compiled.countPrefix(a("ab~")));
+        assertFalse(compiled.prefixIterator(a("ab~")).hasNext());
+        assertEquals("AB", compiled.longestPrefixMatch(a("ab~")).value);
+        assertEquals(2, compiled.allPrefixMatches(a("abc~c")).size());
+    }
+
+    @Test(timeout = 3000)
+    public void testWideAlphabet() {
+        HashTrieMap<Character, AlphabeticString, String> map = new HashTrieMap<>(AlphabeticString.class);
+        for (String word : new String[] { "\u65e5\u672c", "\u65e5\u672c\u8a9e", "\u4e2d\u6587", "\uffff", "\u0000" }) {
+            map.insert(a(word), word + "!");
+        }
+        DoubleArrayTrieMap<Character, AlphabeticString, String> compiled = compile(map);
+        assertSameMappings(map, compiled);
+        assertNull(compiled.find(a("\u65e5")));
+        assertTrue(compiled.findPrefix(a("\u65e5")));
+    }
+
+    @Test(timeout = 3000)
+    public void testEmptyMap() {
+        DoubleArrayTrieMap<Character, AlphabeticString, String> compiled =
+                compile(new HashTrieMap<Character, AlphabeticString, String>(AlphabeticString.class));
+        assertEquals(0, compiled.size());
+        assertNull(compiled.find(a("")));
+        assertFalse(compiled.findPrefix(a("")));
+        assertFalse(compiled.findPrefix(a("x")));
+        assertFalse(compiled.iterator().hasNext());
+    }
+
+    @Test(timeout = 3000)
+    public void testWriteAndRead() throws Exception {
+        HashTrieMap<Character, AlphabeticString, String> map = words("");
+        File file = File.createTempFile("double", ".array");
+        file.deleteOnExit();
+        DoubleArrayTrieMap<Character, AlphabeticString, String> compiled = compile(map);
+        compiled.write(file.toPath(), Codec.STRINGS);
+
+        DoubleArrayTrieMap<Character, AlphabeticString, String> read =
+                DoubleArrayTrieMap.read(file.toPath(), AlphabeticString.class, Codec.STRINGS);
+        assertSameMappings(map, read);
+        assertEquals(compiled.slots(), read.slots());
+    }
+
+    @Test(timeout = 3000)
+    public void testByteKeys() {
+        HashTrieMap<Byte, ByteString, Integer> map = new HashTrieMap<>(ByteString.class);
+        for (int i = 0; i < 1000; i++) {
+            map.insert(new ByteString(new Byte[] { (byte) i, (byte) (i >> 8), (byte) -i }), i);
+        }
+        DoubleArrayTrieMap<Byte, ByteString, Integer> compiled = new DoubleArrayTrieMap<>(ByteString.class, map);
+        assertEquals(1000, compiled.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) compiled.find(new ByteString(new Byte[] { (byte) i, (byte) (i >> 8), (byte) -i })));
+        }
+        assertNull(compiled.find(new ByteString(new Byte[] { 1, 2 })));
+    }
+
+    @Test(timeout = 3000)
+    public void testReadOnly() {
+        DoubleArrayTrieMap<Character, AlphabeticString, String> compiled = compile(words());
+        try {
+            compiled.insert(a("x"), "X");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            compiled.delete(a("0"));
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+}
@@ -5,7 +5,23 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 
 @Suite.SuiteClasses({
-        HashTrieMapTests.class
+        HashTrieMapTests.class,
+        ArrayTrieMapTests.class,
+        ByteTrieMapTests.class,
+        CompressedHashTrieMapTests.class,
+        ConcurrentTrieMapTests.class,
+        PersistentTrieMapTests.class,
+        SuccinctTrieTests.class,
+        DawgSetTests.class,
+        DoubleArrayTrieMapTests.class,
+        AhoCorasickMatcherTests.class,
+        SortedTrieMapTests.class,
+        AdaptiveTrieMapTests.class,
+        BurstTrieMapTests.class,
+        BitPatriciaTrieMapTests.class,
+        BStringViewTests.class,
+        BStringTests.class,
+        PackedBitStringTests.class
 })
 public class DueDateTests {
 
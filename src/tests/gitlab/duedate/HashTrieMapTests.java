@@ -1,167 +1,41 @@
 package tests.gitlab.duedate;
 
+import cse332.datastructures.containers.Item;
+import cse332.interfaces.trie.TrieCursor;
+import cse332.interfaces.trie.TrieMap;
 import cse332.types.AlphabeticString;
 import datastructures.dictionaries.HashTrieMap;
-import org.junit.Assert;
+import datastructures.dictionaries.HashTrieSet;
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
-public class HashTrieMapTests {
-    protected static HashTrieMap<Character, AlphabeticString, String> STUDENT;
+public class HashTrieMapTests extends TrieMapGradingTests {
 
     @Before
     public void init() {
         STUDENT = new HashTrieMap<>(AlphabeticString.class);
     }
 
-    /**
-     * Tests if insert, find, and findPrefix work in general.
-     */
-    @Test(timeout = 3000)
-    public void testBasic() {
-        String[] words = {"dog", "doggy", "doge", "dragon", "cat", "draggin"};
-        String[] invalid = {"d", "cataract", "", "do"};
-        addAll(STUDENT, words);
-        assertTrue(containsAllPaths(STUDENT, words));
-        assertTrue(doesNotContainAll(STUDENT, invalid));
-    }
-
-    /**
-     * Checks to see if basic delete functionality works.
-     */
-    @Test(timeout = 3000)
-    public void testBasicDelete() {
-        String[] words = {"dog", "doggy", "dreamer", "cat"};
-        addAll(STUDENT, words);
-        assertTrue(containsAllPaths(STUDENT, words));
-
-        STUDENT.delete(a("I don't exist"));
-        STUDENT.delete(a("dreamer"));
-        assertFalse(!containsAllPaths(STUDENT, "dog", "doggy", "cat") &&
-                !containsAllPrefixes(STUDENT, "dreamer", "dreame", "dream", "drea", "dre", "dr") &&
-                !STUDENT.findPrefix(a("d")));
-
-        STUDENT.delete(a("dog"));
-        assertTrue(containsAllPaths(STUDENT, "doggy", "cat"));
-
-        STUDENT.delete(a("doggy"));
-        assertTrue(containsAllPaths(STUDENT, "cat") );
-    }
-
-    /**
-     * Test findPrefix more rigorously.
-     */
-    @Test(timeout = 3000)
-    public void testFindPrefixes() {
-        String[] words = {"dog", "doggy", "doge", "dragon", "cat", "draggin"};
-        addAll(STUDENT, words);
-
-        assertTrue(containsAllPrefixes(STUDENT, "d", "", "do"));
-        assertTrue(doesNotContainAllPrefixes(STUDENT, "batarang", "dogee", "dragging"));
-    }
-
-    /**
-     * Tests that trying to find a non-existent entity does the correct thing
-     */
-    @Test(timeout = 3000)
-    public void testFindNonexistentDoesNotCrash() {
-        addAll(STUDENT, "foo", "bar", "baz");
-        assertNull(STUDENT.find(a("orangutan")));
-        assertNull(STUDENT.find(a("z")));
-        assertNull(STUDENT.find(a("ba")));
-        assertNull(STUDENT.find(a("bazz")));
-        assertFalse(STUDENT.findPrefix(a("boor")));
-        assertFalse(STUDENT.findPrefix(a("z")) );
-    }
-
-    @Test(timeout = 3000, expected = IllegalArgumentException.class)
-    public void testFindNullEntriesCausesError() {
-        STUDENT.find(null);
-    }
-
-    @Test(timeout = 3000, expected = IllegalArgumentException.class)
-    public void testFindPrefixNullEntriesCausesError() {
-        STUDENT.findPrefix(null);
-    }
-
-    /**
-     * Tests that inserts correctly wipe out old values.
-     */
-    @Test(timeout = 3000)
-    public void testInsertReplacesOldValue() {
-        AlphabeticString key = a("myKey");
-        assertNull(STUDENT.insert(key, "foo"));
-        assertEquals("foo", STUDENT.insert(key, "bar"));
-        assertEquals("bar", STUDENT.insert(key, "baz"));
-    }
-
-    @Test(timeout = 3000, expected = IllegalArgumentException.class)
-    public void testInsertingNullKeyCausesError() {
-        STUDENT.insert(null, "foo");
-    }
-
-    @Test(timeout = 3000, expected = IllegalArgumentException.class)
-    public void testInsertingNullValueCausesError() {
-        STUDENT.insert(a("foo"), null);
-    }
-
-    /**
-     * Checks to see the trie correctly handles the case where you delete
-     * absolutely everything.
-     */
-    @Test(timeout = 3000)
-    public void testDeleteAll() {
-        AlphabeticString keyA = a("keyboard");
-        AlphabeticString keyB = a("keyesian");
-        AlphabeticString keyC = a("bayesian");
-
-        assertEquals(0, STUDENT.size());
-        assertTrue(STUDENT.isEmpty());
-
-        STUDENT.insert(keyA, "KEYBOARD");
-        STUDENT.insert(keyB, "KEYESIAN");
-        STUDENT.insert(keyC, "BAYESIAN");
-
-        assertTrue(containsAllPaths(STUDENT, "keyboard", "keyesian", "bayesian"));
-        assertEquals(3, STUDENT.size());
-        assertFalse(STUDENT.isEmpty());
-
-        STUDENT.delete(keyA);
-        STUDENT.delete(keyB);
-        STUDENT.delete(keyC);
-
-        assertEquals(0, STUDENT.size());
-        assertTrue(STUDENT.isEmpty());
-        assertTrue(doesNotContainAll(STUDENT, "keyboard", "keyesian", "bayesian"));
-    }
-
-    /**
-     * Tests what happens if you attempt deleting something that doesn't exist
-     * in the trie (but _does_ partially overlap).
-     */
-    @Test(timeout = 3000)
-    public void testDeleteNothing() {
-        STUDENT.insert(a("aaaa"), "foo");
-        assertTrue(containsPath(STUDENT, "aaaa", "foo"));
-        assertEquals(1, STUDENT.size());
-        assertFalse(STUDENT.isEmpty());
-
-        // Should not change the trie
-        STUDENT.delete(a("aa"));
-        STUDENT.delete(a("a"));
-        STUDENT.delete(a("abc"));
-        STUDENT.delete(a("aaaaa"));
-        STUDENT.delete(a(""));
-        STUDENT.delete(a("foobar"));
-
-        assertTrue(containsPath(STUDENT, "aaaa", "foo"));
-        assertEquals(1, STUDENT.size());
-        assertFalse(STUDENT.isEmpty());
+    private static HashTrieMap<Character, AlphabeticString, String> map() {
+        return (HashTrieMap<Character, AlphabeticString, String>) STUDENT;
     }
 
     /**
@@ -180,30 +54,6 @@ public class HashTrieMapTests {
         assertTrue(equals(expected, getField(STUDENT, "root")));
     }
 
-    /**
-     * Tests to see if HashTrieMap correctly handles a trie where everything is in a straight
-     * line/the trie has no branching.
-     */
-    @Test(timeout = 3000)
-    public void  testDeleteWorksWhenTrieHasNoBranches() {
-        AlphabeticString keyA = a("ghost");
-        AlphabeticString keyB = a("gh");
-        STUDENT.insert(keyA, "A");
-        STUDENT.insert(keyB, "B");
-
-        // Trie should still contain "ghost -> A"
-        STUDENT.delete(keyB);
-        assertNull(STUDENT.find(keyB) );
-        assertTrue(STUDENT.findPrefix(keyB));
-
-        // Trie should now contain "gh -> C", but not "ghost -> A"
-        STUDENT.insert(keyB, "C");
-        STUDENT.delete(keyA);
-        assertEquals("C", STUDENT.find(keyB));
-        assertNull(STUDENT.find(keyA));
-        assertTrue(!STUDENT.findPrefix(a("gho")));
-    }
-
     /**
      * A slight variation of the previous test.
      */
@@ -221,41 +71,6 @@ public class HashTrieMapTests {
         assertTrue(equals(expected, getField(STUDENT, "root")));
     }
 
-    /**
-     * Tests that just working with empty strings does the correct thing.
-     */
-    @Test(timeout = 3000)
-    public void testDeletingEmptyString() {
-        STUDENT.insert(a(""), "Foo");
-        assertEquals("Foo", (STUDENT.find(a(""))));
-        assertEquals(1, STUDENT.size());
-        assertFalse(STUDENT.isEmpty());
-
-        STUDENT.delete(a(""));
-        assertNull(STUDENT.find(a("")));
-        assertEquals(0, STUDENT.size());
-        assertTrue(STUDENT.isEmpty());
-
-        STUDENT.insert(a(""), "Bar");
-        assertEquals(1, STUDENT.size());
-        assertFalse(STUDENT.isEmpty());
-        assertEquals("Bar", STUDENT.find(a("")));
-    }
-
-    @Test(timeout = 3000, expected = IllegalArgumentException.class)
-    public void testDeletingNullEntriesCausesError() {
-        STUDENT.delete((AlphabeticString) null);
-    }
-
-    @Test(timeout = 3000)
-    public void testClear() {
-        addAll(STUDENT, "keyboard", "keyesian", "bayesian");
-        STUDENT.clear();
-        assertEquals(0, STUDENT.size());
-        assertTrue(STUDENT.isEmpty());
-        assertTrue(doesNotContainAll(STUDENT, "keyboard", "keyesian", "bayesian"));
-    }
-
     @Test(timeout = 3000)
     public void checkUnderlyingStructure() {
         STUDENT.insert(a(""), "A");
@@ -329,188 +144,627 @@ public class HashTrieMapTests {
         assertTrue(rootIsSingleNode || rootIsNull);
     }
 
-    protected static boolean equals(MockNode expected, HashTrieMap<Character, AlphabeticString, String>.HashTrieNode student) {
-        if (expected == null && student == null) {
-            return true;
-        } else if (expected == null || student == null) {
-            // If only one of the two is null
-            return false;
-        } else if (expected.value != null && !expected.value.equals(student.value)) {
-            // If values don't match
-            return false;
-        } else if (expected.value == null && student.value != null) {
-            // If only one of the values are null
-            return false;
-        } else if (expected.pointers.size() != student.pointers.size()) {
-            // If number of pointers is not the same
-            return false;
-        } else {
-            // If student doesn't contain the given char, 'equals' will fail one level down
-            // in one of the base cases
-            for (char c : expected.pointers.keySet()) {
-                boolean result = equals(expected.pointers.get(c), student.pointers.get(c));
-                if (!result) {
-                    return false;
-                }
+    @Test(timeout = 3000)
+    public void testCountsAreMaintained() {
+        addAll(STUDENT, "car", "card", "care", "cat");
+        assertEquals(4, STUDENT.countPrefix(a("ca")));
+        STUDENT.insert(a("car"), "again");
+        assertEquals(4, STUDENT.size());
+        assertEquals(4, STUDENT.countPrefix(a("")));
+        STUDENT.delete(a("card"));
+        STUDENT.delete(a("card"));
+        assertEquals(3, STUDENT.size());
+        assertEquals(2, STUDENT.countPrefix(a("car")));
+    }
+
+    @Test(timeout = 3000)
+    public void testTopKWithMaintainedRanking() {
+        Comparator<Integer> byValue = Comparator.naturalOrder();
+        HashTrieMap<Character, AlphabeticString, Integer> ranked = new HashTrieMap<>(AlphabeticString.class, byValue);
+        String[] words = {"the", "then", "there", "these", "they", "this", "to"};
+        int[] counts = {100, 20, 50, 30, 70, 60, 90};
+        for (int i = 0; i < words.length; i++) {
+            ranked.insert(a(words[i]), counts[i]);
+        }
+
+        List<Item<AlphabeticString, Integer>> top = ranked.topK(a("the"), 3, byValue);
+        assertEquals(3, top.size());
+        assertEquals("the", top.get(0).key.toString());
+        assertEquals("they", top.get(1).key.toString());
+        assertEquals("there", top.get(2).key.toString());
+
+        // make "the" worse and delete "they": both summaries must be repaired
+        ranked.insert(a("the"), 1);
+        ranked.delete(a("they"));
+        top = ranked.topK(a("th"), 2, byValue);
+        assertEquals("this", top.get(0).key.toString());
+        assertEquals("there", top.get(1).key.toString());
+
+        // a different ranking falls back to scanning
+        top = ranked.topK(a("th"), 1, byValue.reversed());
+        assertEquals("the", top.get(0).key.toString());
+    }
+
+    @Test(timeout = 10000)
+    public void testBulkLoadMatchesInserts() {
+        Comparator<Integer> byValue = Comparator.naturalOrder();
+        Random random = new Random(332);
+        List<Item<AlphabeticString, Integer>> items = new ArrayList<>();
+        for (int i = 0; i < 30000; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int j = random.nextInt(7); j > 0; j--) {
+                word.append((char) ('a' + random.nextInt(5)));
             }
-            return true;
+            items.add(new Item<>(a(word.toString()), random.nextInt(1000)));
         }
-    }
 
-    protected static MockNode node() {
-        return new MockNode();
-    }
+        List<HashTrieMap<Character, AlphabeticString, Integer>> maps = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            HashTrieMap<Character, AlphabeticString, Integer> map = new HashTrieMap<>(AlphabeticString.class, byValue);
+            map.insert(a("abc"), 5000);
+            map.insert(a(""), 7);
+            maps.add(map);
+        }
+        for (Item<AlphabeticString, Integer> item : items) {
+            maps.get(0).insert(item.key, item.value);
+        }
+        maps.get(1).bulkLoad(items);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            maps.get(2).parallelBulkLoad(items, pool);
+        } finally {
+            pool.shutdown();
+        }
 
-    protected static MockNode node(String value) {
-        return new MockNode(value);
+        for (int i = 1; i < 3; i++) {
+            assertEquals(maps.get(0).size(), maps.get(i).size());
+            assertTrue(sameTrie(getField(maps.get(0), "root"), getField(maps.get(i), "root")));
+        }
     }
 
-    protected static class MockNode {
-        public Map<Character, MockNode> pointers;
-        public String value;
+    @Test(timeout = 3000)
+    public void testParallelBulkLoadRejectsNulls() {
+        addAll(STUDENT, "dog", "cat");
+        List<Item<AlphabeticString, String>> items = new ArrayList<>();
+        items.add(new Item<>(a("bird"), "BIRD"));
+        items.add(new Item<>(a("fish"), null));
+        try {
+            map().parallelBulkLoad(items);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(2, STUDENT.size());
+        assertNull(STUDENT.find(a("bird")));
+    }
 
-        public MockNode() {
-            this(null);
+    @Test(timeout = 3000)
+    public void testSpliteratorSplitsInIteratorOrder() {
+        Random random = new Random(332);
+        addAll(STUDENT, "", "a", "ab", "abc");
+        for (int i = 0; i < 2000; i++) {
+            String word = Long.toString(random.nextLong() >>> 30, 36);
+            STUDENT.insert(a(word), word);
         }
 
-        public MockNode(String value) {
-            this.pointers = new HashMap<>();
-            this.value = value;
+        List<String> expected = new ArrayList<>();
+        for (Item<AlphabeticString, String> item : STUDENT) {
+            expected.add(item.key.toString());
         }
+        List<Spliterator<Item<AlphabeticString, String>>> parts = new ArrayList<>();
+        split(STUDENT.spliterator(), 6, parts);
+        assertTrue(parts.size() > 8);
 
-        public MockNode branch(char c, MockNode child) {
-            this.pointers.put(c, child);
-            return this;
+        List<String> actual = new ArrayList<>();
+        for (Spliterator<Item<AlphabeticString, String>> part : parts) {
+            part.forEachRemaining(item -> actual.add(item.key.toString()));
         }
+        assertEquals(expected, actual);
+    }
+
+    @Test(timeout = 10000)
+    public void testParallelStreamHistogram() {
+        Random random = new Random(332);
+        HashTrieMap<Character, AlphabeticString, Integer> map = new HashTrieMap<>(AlphabeticString.class);
+        Map<Integer, Long> expected = new HashMap<>();
+        for (int i = 0; i < 50000; i++) {
+            String word = Long.toString(random.nextLong() >>> 24, 36);
+            Integer old = map.insert(a(word), i % 10);
+            if (old != null) {
+                expected.merge(old, -1L, Long::sum);
+            }
+            expected.merge(i % 10, 1L, Long::sum);
+        }
+
+        Map<Integer, Long> sequential = map.stream()
+                .collect(Collectors.groupingBy(item -> item.value, Collectors.counting()));
+        Map<Integer, Long> parallel = map.parallelStream()
+                .collect(Collectors.groupingBy(item -> item.value, Collectors.counting()));
+        assertEquals(expected, sequential);
+        assertEquals(expected, parallel);
+
+        HashTrieSet<Character, AlphabeticString> set = new HashTrieSet<>(AlphabeticString.class);
+        map.forEach(item -> set.add(item.key));
+        assertEquals(map.size(), set.parallelStream().distinct().count());
     }
 
     @Test(timeout = 3000)
-    public void stressTest() {
-        // Should contain 30 characters
-        char[] symbols = "abcdefghijklmnopqrstuvwxyz!@#$".toCharArray();
-        long i = 0;
-        for (char a : symbols) {
-            for (char b : symbols) {
-                for (char c : symbols) {
-                    for (char d : symbols) {
-                        Character[] word = new Character[]{a, b, c, d};
-                        STUDENT.insert(new AlphabeticString(word), "" + i);
-                        i += 1;
-                    }
-                }
+    public void testMergeIntersectSubtract() {
+        Comparator<Integer> byValue = Comparator.naturalOrder();
+        Random random = new Random(332);
+        for (int round = 0; round < 20; round++) {
+            Map<String, Integer> left = randomWords(random, 200);
+            Map<String, Integer> right = randomWords(random, 200);
+
+            HashTrieMap<Character, AlphabeticString, Integer> merged = trieOf(left, byValue);
+            merged.merge(trieOf(right, null), (mine, theirs) -> mine + theirs > 40 ? null : mine + theirs);
+            Map<String, Integer> expected = new HashMap<>(left);
+            for (Map.Entry<String, Integer> entry : right.entrySet()) {
+                expected.merge(entry.getKey(), entry.getValue(), (mine, theirs) -> mine + theirs > 40 ? null : mine + theirs);
             }
+            assertMapEquals(expected, merged);
+
+            HashTrieMap<Character, AlphabeticString, Integer> intersected = trieOf(left, byValue);
+            intersected.intersect(trieOf(right, null));
+            expected = new HashMap<>(left);
+            expected.keySet().retainAll(right.keySet());
+            assertMapEquals(expected, intersected);
+
+            HashTrieMap<Character, AlphabeticString, Integer> subtracted = trieOf(left, byValue);
+            subtracted.subtract(trieOf(right, null));
+            expected = new HashMap<>(left);
+            expected.keySet().removeAll(right.keySet());
+            assertMapEquals(expected, subtracted);
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testSetAlgebra() {
+        HashTrieSet<Character, AlphabeticString> animals = new HashTrieSet<>(AlphabeticString.class);
+        HashTrieSet<Character, AlphabeticString> pets = new HashTrieSet<>(AlphabeticString.class);
+        for (String word : new String[] {"cat", "catfish", "dog", "doge", "eel"}) {
+            animals.add(a(word));
         }
+        for (String word : new String[] {"cat", "dog", "dogfish", "hamster"}) {
+            pets.add(a(word));
+        }
+
+        HashTrieSet<Character, AlphabeticString> both = new HashTrieSet<>(AlphabeticString.class);
+        both.union(animals);
+        both.intersect(pets);
+        assertEquals("[cat, dog]", sorted(both));
+
+        HashTrieSet<Character, AlphabeticString> wild = new HashTrieSet<>(AlphabeticString.class);
+        wild.union(animals);
+        wild.subtract(pets);
+        assertEquals("[catfish, doge, eel]", sorted(wild));
+        assertEquals(5, animals.size());
+
+        animals.union(pets);
+        assertEquals(7, animals.size());
+        assertEquals(3, animals.countPrefix(a("dog")));
+        animals.union(animals);
+        assertEquals(7, animals.size());
+        animals.subtract(animals);
+        assertTrue(animals.isEmpty());
+    }
 
-        for (char a : symbols) {
-            for (char b : symbols) {
-                assertTrue(STUDENT.findPrefix(new AlphabeticString(new Character[]{a, b})));
+    @Test(timeout = 3000)
+    public void testComputeMatchesHashMap() {
+        Random random = new Random(332);
+        HashTrieMap<Character, AlphabeticString, Integer> trie = new HashTrieMap<>(AlphabeticString.class,
+                Comparator.naturalOrder());
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            String word = randomWords(random, 1).keySet().iterator().next();
+            int delta = random.nextInt(11) - 5;
+            switch (random.nextInt(4)) {
+            case 0:
+                assertEquals(expected.putIfAbsent(word, delta), trie.putIfAbsent(a(word), delta));
+                break;
+            case 1:
+                assertEquals(expected.computeIfAbsent(word, w -> delta < 0 ? null : w.length()),
+                        trie.computeIfAbsent(a(word), w -> delta < 0 ? null : w.size()));
+                break;
+            case 2:
+                assertEquals(expected.compute(word, (w, old) -> old == null || old + delta < 0 ? null : old + delta),
+                        trie.compute(a(word), (w, old) -> old == null || old + delta < 0 ? null : old + delta));
+                break;
+            default:
+                assertEquals(expected.merge(word, delta, (old, d) -> old + d < 0 ? null : old + d),
+                        trie.merge(a(word), delta, (old, d) -> old + d < 0 ? null : old + d));
+                break;
             }
         }
+        assertMapEquals(expected, trie);
+    }
+
+    @Test(timeout = 3000)
+    public void testComputeDoesNotLeaveEmptyNodes() {
+        addAll(STUDENT, "do");
+        assertNull(STUDENT.compute(a("dog"), (key, old) -> null));
+        assertNull(STUDENT.computeIfAbsent(a("cat"), key -> null));
+        assertFalse(STUDENT.findPrefix(a("dog")));
+        assertFalse(STUDENT.findPrefix(a("c")));
+
+        assertEquals("1", STUDENT.merge(a("doggy"), "1", (old, one) -> old + one));
+        assertEquals("11", STUDENT.merge(a("doggy"), "1", (old, one) -> old + one));
+        assertEquals(2, STUDENT.size());
+        assertNull(STUDENT.compute(a("doggy"), (key, old) -> null));
+        assertFalse(STUDENT.findPrefix(a("dog")));
+        assertEquals(1, STUDENT.size());
+        assertEquals("DO", STUDENT.putIfAbsent(a("do"), "again"));
+        assertEquals("DO", STUDENT.find(a("do")));
+    }
+
+    @Test(timeout = 3000)
+    public void testDeletePrefix() {
+        Random random = new Random(332);
+        for (String prefix : new String[] {"", "a", "ab", "abc", "cc", "bbbbbbbb"}) {
+            Map<String, Integer> words = randomWords(random, 300);
+            HashTrieMap<Character, AlphabeticString, Integer> trie = trieOf(words, Comparator.naturalOrder());
+            int expected = words.size();
+            words.keySet().removeIf(word -> word.startsWith(prefix));
+            assertEquals(expected - words.size(), trie.deletePrefix(a(prefix)));
+            assertMapEquals(words, trie);
+            assertFalse(trie.findPrefix(a(prefix)));
+        }
 
-        i = 0;
-        for (char a : symbols) {
-            for (char b : symbols) {
-                for (char c : symbols) {
-                    for (char d : symbols) {
-                        Character[] word = new Character[]{a, b, c, d};
-                        assertEquals("" + i,  STUDENT.find(new AlphabeticString(word)));
-                        i += 1;
-                    }
+        addAll(STUDENT, "tenant", "tenantx", "tenantxy", "ten");
+        assertEquals(2, STUDENT.deletePrefix(a("tenantx")));
+        assertEquals(0, STUDENT.deletePrefix(a("tenantx")));
+        assertEquals(1, STUDENT.deletePrefix(a("tena")));
+        assertFalse(STUDENT.findPrefix(a("tena")));
+        assertEquals(1, STUDENT.size());
+    }
+
+    @Test(timeout = 3000)
+    public void testReplaceSubtree() {
+        Random random = new Random(332);
+        for (String prefix : new String[] {"", "a", "ab", "ccc", "bbbbbbbb"}) {
+            Map<String, Integer> words = randomWords(random, 300);
+            Map<String, Integer> replacement = randomWords(random, 50);
+            for (Comparator<Integer> ranking : Arrays.asList(Comparator.<Integer>naturalOrder(), null)) {
+                HashTrieMap<Character, AlphabeticString, Integer> trie = trieOf(words, Comparator.naturalOrder());
+                HashTrieMap<Character, AlphabeticString, Integer> other = trieOf(replacement, ranking);
+                trie.replaceSubtree(a(prefix), other);
+
+                Map<String, Integer> expected = new HashMap<>(words);
+                expected.keySet().removeIf(word -> word.startsWith(prefix));
+                for (Map.Entry<String, Integer> entry : replacement.entrySet()) {
+                    expected.put(prefix + entry.getKey(), entry.getValue());
                 }
+                assertMapEquals(expected, trie);
+                // other is copied, so changing it afterwards does not show
+                assertMapEquals(replacement, other);
+                other.clear();
+                assertMapEquals(expected, trie);
             }
         }
+
+        STUDENT.insert(a("ab"), "AB");
+        STUDENT.replaceSubtree(a("x"), STUDENT);
+        assertEquals("AB", STUDENT.find(a("xab")));
+        assertEquals("AB", STUDENT.find(a("ab")));
     }
 
-    /**
-     * Converts a String into an AlphabeticString
-     */
-    private static AlphabeticString a(String s) {
-        return new AlphabeticString(s);
+    @Test(timeout = 3000)
+    public void testTransplantSubtree() {
+        Random random = new Random(332);
+        for (String prefix : new String[] {"", "a", "ab", "ccc", "bbbbbbbb"}) {
+            Map<String, Integer> words = randomWords(random, 300);
+            Map<String, Integer> replacement = randomWords(random, 50);
+            for (Comparator<Integer> ranking : Arrays.asList(Comparator.<Integer>naturalOrder(), null)) {
+                HashTrieMap<Character, AlphabeticString, Integer> trie = trieOf(words, Comparator.naturalOrder());
+                HashTrieMap<Character, AlphabeticString, Integer> other = trieOf(replacement, ranking);
+                trie.transplantSubtree(a(prefix), other);
+
+                Map<String, Integer> expected = new HashMap<>(words);
+                expected.keySet().removeIf(word -> word.startsWith(prefix));
+                for (Map.Entry<String, Integer> entry : replacement.entrySet()) {
+                    expected.put(prefix + entry.getKey(), entry.getValue());
+                }
+                assertMapEquals(expected, trie);
+                assertEquals(0, other.size());
+                assertFalse(other.findPrefix(a("")));
+            }
+        }
+
+        try {
+            map().transplantSubtree(a("x"), map());
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
     }
 
     /**
-     * Checks if the trie contains the word and the expected value, and that all prefixes of
-     * the word exist in the trie.
+     * A TrieMap that counts how many times the children of its nodes are
+     * listed, to see how much of the trie an iterator has walked.
      */
-    private static boolean containsPath(HashTrieMap<Character, AlphabeticString, String> trie, String word, String expectedValue) {
-        AlphabeticString key = a(word);
+    private static class CountingTrieMap extends TrieMap<Character, AlphabeticString, String> {
+        private int opened;
 
-        boolean valueCorrect = expectedValue.equals(trie.find(key));
-        boolean fullWordIsPrefix = trie.findPrefix(key);
-        boolean invalidWordDoesNotExist = trie.find(a(word + "$")) == null;
+        private class Node extends TrieNode<TreeMap<Character, Node>, Node> {
+            public Node() {
+                this.pointers = new TreeMap<>();
+            }
 
-        if (!valueCorrect || !fullWordIsPrefix || !invalidWordDoesNotExist) {
-            return false;
+            @Override
+            public Iterator<Entry<Character, Node>> iterator() {
+                CountingTrieMap.this.opened++;
+                return this.pointers.entrySet().iterator();
+            }
         }
 
-        return allPrefixesExist(trie, word);
+        public CountingTrieMap() {
+            super(AlphabeticString.class);
+            this.root = new Node();
+        }
+
+        @Override
+        public String insert(AlphabeticString key, String value) {
+            Node node = (Node) this.root;
+            for (Character letter : key) {
+                node = node.pointers.computeIfAbsent(letter, l -> new Node());
+            }
+            String oldValue = node.value;
+            node.value = value;
+            if (oldValue == null) {
+                this.size++;
+            }
+            return oldValue;
+        }
+
+        @Override
+        public String find(AlphabeticString key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean findPrefix(AlphabeticString key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void delete(AlphabeticString key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
     }
 
-    /**
-     * Checks if the trie contains the word, and that all prefixes of the word exist in the trie.
-     *
-     * Assumes that the expected value is word.toUpperCase().
-     */
-    private static boolean containsPath(HashTrieMap<Character, AlphabeticString, String> trie, String word) {
-        return containsPath(trie, word, word.toUpperCase());
+    @Test(timeout = 3000)
+    public void testIteratorIsLazy() {
+        CountingTrieMap map = new CountingTrieMap();
+        String[] words = {"a", "ab", "abc", "b", "bc", "c", "cd", "cde"};
+        addAll(map, words);
+
+        Iterator<Item<AlphabeticString, String>> it = map.iterator();
+        // at most the children of the root are looked at up front
+        assertTrue(map.opened <= 1);
+        assertTrue(it.hasNext());
+        assertTrue(it.hasNext());
+        assertTrue(map.opened <= 2);
+        assertEquals("a", it.next().key.toString());
+        assertTrue(map.opened <= 2);
+        assertEquals("ab", it.next().key.toString());
+        assertTrue(map.opened <= 3);
+
+        List<String> rest = new ArrayList<>();
+        while (it.hasNext()) {
+            rest.add(it.next().key.toString());
+        }
+        assertEquals(Arrays.asList("abc", "b", "bc", "c", "cd", "cde"), rest);
+        // every node, the root included, was looked at exactly once
+        assertEquals(words.length + 1, map.opened);
     }
 
-    /**
-     * Returns true if all prefixes of a word exist in the trie.
-     *
-     * That is, if we do `trie.insert(new AlphabeticString("dog"), "some-value")`, this method
-     * would check to see if "dog", "do", "d", and "" are all prefixes of the trie.
-     */
-    private static boolean allPrefixesExist(HashTrieMap<Character, AlphabeticString, String> trie, String word) {
-        String accum = "";
-        for (char c : word.toCharArray()) {
-            accum += c;
-            if (!trie.findPrefix(a(accum))) {
-                return false;
+    @Test(timeout = 3000)
+    public void testCursorMatchesIterator() {
+        Random random = new Random(332);
+        Map<String, Integer> words = randomWords(random, 500);
+        HashTrieMap<Character, AlphabeticString, Integer> trie = trieOf(words, null);
+        List<String> expected = new ArrayList<>();
+        for (Item<AlphabeticString, Integer> item : trie) {
+            expected.add(item.toString());
+        }
+
+        TrieCursor<Character, AlphabeticString, Integer> cursor = trie.cursor();
+        for (int pass = 0; pass < 2; pass++) {
+            List<String> actual = new ArrayList<>();
+            while (cursor.advance()) {
+                StringBuilder letters = new StringBuilder();
+                for (int i = 0; i < cursor.length(); i++) {
+                    letters.append(cursor.letterAt(i));
+                }
+                assertEquals(letters.toString(), cursor.key().toString());
+                assertSame(cursor.key(), cursor.key());
+                actual.add(letters + "=" + cursor.value());
+            }
+            assertEquals(expected, actual);
+            assertFalse(cursor.advance());
+            try {
+                cursor.value();
+                fail();
+            } catch (NoSuchElementException e) {
+                // expected
             }
+            cursor.reset();
         }
-        return true;
+
+        assertFalse(new HashTrieMap<Character, AlphabeticString, Integer>(AlphabeticString.class).cursor().advance());
     }
 
-    private static boolean containsAllPaths(HashTrieMap<Character, AlphabeticString, String> trie, String... words) {
-        for (String word : words) {
-            if (!containsPath(trie, word)) {
-                return false;
-            }
+    @Test(timeout = 3000)
+    public void testCursorResetSeesChanges() {
+        addAll(STUDENT, "cat", "dog");
+        TrieCursor<Character, AlphabeticString, String> cursor = map().cursor();
+        assertTrue(cursor.advance());
+        assertEquals("cat", cursor.key().toString());
+
+        STUDENT.insert(a("ant"), "ANT");
+        cursor.reset();
+        assertTrue(cursor.advance());
+        assertEquals("ant", cursor.key().toString());
+
+        STUDENT.clear();
+        STUDENT.insert(a("eel"), "EEL");
+        cursor.reset();
+        assertTrue(cursor.advance());
+        assertEquals("EEL", cursor.value());
+        assertFalse(cursor.advance());
+    }
+
+    @Test(timeout = 3000)
+    public void testForEach() {
+        Random random = new Random(332);
+        Map<String, Integer> words = randomWords(random, 500);
+        HashTrieMap<Character, AlphabeticString, Integer> trie = trieOf(words, null);
+        Map<String, Integer> seen = new HashMap<>();
+        trie.forEach((key, value) -> assertNull(seen.put(key.toString(), value)));
+        assertEquals(words, seen);
+
+        HashTrieSet<Character, AlphabeticString> set = new HashTrieSet<>(AlphabeticString.class);
+        for (String word : words.keySet()) {
+            set.add(a(word));
         }
-        return true;
+        List<String> keys = new ArrayList<>();
+        set.forEach(key -> keys.add(key.toString()));
+        List<String> iterated = new ArrayList<>();
+        for (AlphabeticString key : set) {
+            iterated.add(key.toString());
+        }
+        assertEquals(iterated, keys);
+        assertEquals(words.size(), keys.size());
     }
 
-    private static boolean doesNotContainAll(HashTrieMap<Character, AlphabeticString, String> trie, String... words) {
-        for (String word : words) {
-            if (trie.find(a(word)) != null) {
-                return false;
+    private static Map<String, Integer> randomWords(Random random, int n) {
+        Map<String, Integer> words = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int length = random.nextInt(7); length > 0; length--) {
+                word.append((char) ('a' + random.nextInt(3)));
             }
+            words.put(word.toString(), random.nextInt(30));
         }
-        return true;
+        return words;
+    }
+
+    private static HashTrieMap<Character, AlphabeticString, Integer> trieOf(Map<String, Integer> words,
+            Comparator<Integer> ranking) {
+        HashTrieMap<Character, AlphabeticString, Integer> trie = new HashTrieMap<>(AlphabeticString.class, ranking);
+        for (Map.Entry<String, Integer> entry : words.entrySet()) {
+            trie.insert(a(entry.getKey()), entry.getValue());
+        }
+        return trie;
+    }
+
+    private static void assertMapEquals(Map<String, Integer> expected, HashTrieMap<Character, AlphabeticString, Integer> trie) {
+        Map<String, Integer> actual = new HashMap<>();
+        for (Item<AlphabeticString, Integer> item : trie) {
+            actual.put(item.key.toString(), item.value);
+        }
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), trie.size());
+        assertEquals(expected.size(), trie.countPrefix(a("")));
+        int best = -1;
+        for (int value : expected.values()) {
+            best = Math.max(best, value);
+        }
+        List<Item<AlphabeticString, Integer>> top = trie.topK(a(""), 1, Comparator.naturalOrder());
+        assertEquals(best, top.isEmpty() ? -1 : (int) top.get(0).value);
+    }
+
+    private static String sorted(HashTrieSet<Character, AlphabeticString> set) {
+        List<String> words = new ArrayList<>();
+        for (AlphabeticString word : set) {
+            words.add(word.toString());
+        }
+        words.sort(null);
+        return words.toString();
+    }
+
+    private static <T> void split(Spliterator<T> spliterator, int depth, List<Spliterator<T>> parts) {
+        Spliterator<T> prefix = depth == 0 ? null : spliterator.trySplit();
+        if (prefix == null) {
+            parts.add(spliterator);
+            return;
+        }
+        split(prefix, depth - 1, parts);
+        split(spliterator, depth - 1, parts);
     }
 
-    private static boolean containsAllPrefixes(HashTrieMap<Character, AlphabeticString, String> trie, String... words) {
-        for (String word : words) {
-            if (!trie.findPrefix(a(word))) {
+    private static <V> boolean sameTrie(HashTrieMap<Character, AlphabeticString, V>.HashTrieNode expected,
+            HashTrieMap<Character, AlphabeticString, V>.HashTrieNode actual) {
+        if (!Objects.equals(expected.value, actual.value) || expected.count != actual.count
+                || !Objects.equals(expected.best, actual.best)
+                || !expected.pointers.keySet().equals(actual.pointers.keySet())) {
+            return false;
+        }
+        for (Character letter : expected.pointers.keySet()) {
+            if (!sameTrie(expected.pointers.get(letter), actual.pointers.get(letter))) {
                 return false;
             }
         }
         return true;
     }
 
-    private static boolean doesNotContainAllPrefixes(HashTrieMap<Character, AlphabeticString, String> trie, String... words) {
-        for (String word : words) {
-            if (trie.findPrefix(a(word))) {
-                return false;
+    protected static boolean equals(MockNode expected, HashTrieMap<Character, AlphabeticString, String>.HashTrieNode student) {
+        if (expected == null && student == null) {
+            return true;
+        } else if (expected == null || student == null) {
+            // If only one of the two is null
+            return false;
+        } else if (expected.value != null && !expected.value.equals(student.value)) {
+            // If values don't match
+            return false;
+        } else if (expected.value == null && student.value != null) {
+            // If only one of the values are null
+            return false;
+        } else if (expected.pointers.size() != student.pointers.size()) {
+            // If number of pointers is not the same
+            return false;
+        } else {
+            // If student doesn't contain the given char, 'equals' will fail one level down
+            // in one of the base cases
+            for (char c : expected.pointers.keySet()) {
+                boolean result = equals(expected.pointers.get(c), student.pointers.get(c));
+                if (!result) {
+                    return false;
+                }
             }
+            return true;
         }
-        return true;
     }
 
-    private static void addAll(HashTrieMap<Character, AlphabeticString, String> trie, String... words) {
-        for (String word : words) {
-            trie.insert(a(word), word.toUpperCase());
+    protected static MockNode node() {
+        return new MockNode();
+    }
+
+    protected static MockNode node(String value) {
+        return new MockNode(value);
+    }
+
+    protected static class MockNode {
+        public Map<Character, MockNode> pointers;
+        public String value;
+
+        public MockNode() {
+            this(null);
+        }
+
+        public MockNode(String value) {
+            this.pointers = new HashMap<>();
+            this.value = value;
+        }
+
+        public MockNode branch(char c, MockNode child) {
+            this.pointers.put(c, child);
+            return this;
         }
     }
 
@@ -0,0 +1,142 @@
+package tests.gitlab.duedate;
+
+import cse332.datastructures.containers.Item;
+import cse332.types.BitString;
+import cse332.types.PackedBitString;
+import datastructures.dictionaries.BitPatriciaTrieMap;
+import datastructures.dictionaries.HashTrieMap;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class PackedBitStringTests {
+
+    private static BitString b(String bits) {
+        Boolean[] letters = new Boolean[bits.length()];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = bits.charAt(i) == '1';
+        }
+        return new BitString(letters);
+    }
+
+    private static String randomBits(Random random, int maxLength) {
+        StringBuilder bits = new StringBuilder();
+        for (int length = random.nextInt(maxLength + 1); length > 0; length--) {
+            bits.append(random.nextBoolean() ? '1' : '0');
+        }
+        return bits.toString();
+    }
+
+    private static void assertBits(String expected, PackedBitString actual) {
+        assertEquals(expected, actual.toString());
+        assertEquals(expected.length(), actual.size());
+        assertEquals(PackedBitString.valueOf(expected), actual);
+        assertEquals(PackedBitString.valueOf(expected).hashCode(), actual.hashCode());
+    }
+
+    @Test(timeout = 3000)
+    public void testOperationsMatchStrings() {
+        Random random = new Random(332);
+        for (int i = 0; i < 3000; i++) {
+            String s = randomBits(random, 200);
+            String t = randomBits(random, 200);
+            PackedBitString x = PackedBitString.valueOf(s);
+            PackedBitString y = PackedBitString.valueOf(t);
+            int n = random.nextInt(s.length() + 1);
+
+            assertBits(s + t, x.append(y));
+            assertBits(s + t, x.append(b(t)));
+            assertBits(s + "1", x.append(true));
+            assertBits(s.substring(0, n), x.prefix(n));
+            assertBits(s.substring(n), x.shiftLeft(n));
+            assertBits("0".repeat(n) + s, x.shiftRight(n));
+
+            assertEquals(Integer.signum(s.compareTo(t)), Integer.signum(x.compareTo(y)));
+            assertEquals(s.equals(t), x.equals(y));
+            int mismatch = x.mismatch(y);
+            assertEquals(mismatch, b(s).mismatch(b(t)));
+            if (s.length() > 0) {
+                assertEquals(s.charAt(n % s.length()) == '1', x.bit(n % s.length()));
+            }
+            // the same bits hash the same as a plain BitString
+            assertEquals(b(s), x);
+            assertEquals(x, b(s));
+            assertEquals(b(s).hashCode(), x.hashCode());
+            if (s.length() <= 32) {
+                assertEquals(b(s).get(), x.get());
+            }
+            assertEquals(b(s).fingerprint(), x.fingerprint());
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testLongsAndWords() {
+        PackedBitString five = PackedBitString.of(5, 4);
+        assertBits("0101", five);
+        assertEquals(5, five.toLong());
+        assertEquals(5, five.get());
+        assertEquals(-1L, PackedBitString.of(-1L, 64).toLong());
+        assertSame(PackedBitString.EMPTY, PackedBitString.of(7, 0));
+
+        long[] words = { 0xF000000000000000L, 0xFFFFFFFFFFFFFFFFL };
+        PackedBitString packed = PackedBitString.of(words, 66);
+        assertBits("1111" + "0".repeat(60) + "11", packed);
+        long[] copy = packed.toWords();
+        assertEquals(2, copy.length);
+        assertEquals(0xC000000000000000L, copy[1]);
+        copy[0] = 0;
+        assertBits("1111" + "0".repeat(60) + "11", packed);
+
+        try {
+            PackedBitString.of(words, 129);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            PackedBitString.valueOf("012");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            packed.toLong();
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            five.shiftLeft(5);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testWorksAsTrieKey() {
+        Random random = new Random(332);
+        HashTrieMap<Boolean, PackedBitString, Integer> map = new HashTrieMap<>(PackedBitString.class);
+        BitPatriciaTrieMap<Integer> patricia = new BitPatriciaTrieMap<>();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            String bits = randomBits(random, 80);
+            map.insert(PackedBitString.valueOf(bits), i);
+            patricia.insert(PackedBitString.valueOf(bits), i);
+            expected.put(bits, i);
+        }
+        assertEquals(expected.size(), map.size());
+        for (Item<PackedBitString, Integer> item : map) {
+            assertEquals(expected.get(item.key.toString()), item.value);
+            assertEquals(item.value, patricia.find(item.key));
+        }
+        for (Item<BitString, Integer> item : patricia) {
+            assertEquals(item.value, map.find(PackedBitString.valueOf(item.key.toString())));
+            assertEquals(item.value, patricia.find(b(item.key.toString())));
+        }
+    }
+}
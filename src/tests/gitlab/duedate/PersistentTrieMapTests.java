@@ -0,0 +1,156 @@
+package tests.gitlab.duedate;
+
+import cse332.types.AlphabeticString;
+import datastructures.dictionaries.PersistentTrieMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Runs the TrieMap tests against a Transient, and checks that the persistent
+ * versions never change and share their unchanged subtrees.
+ */
+public class PersistentTrieMapTests extends TrieMapGradingTests {
+
+    @Before
+    public void init() {
+        STUDENT = new PersistentTrieMap<Character, AlphabeticString, String>(AlphabeticString.class).asTransient();
+    }
+
+    private static PersistentTrieMap<Character, AlphabeticString, String> empty() {
+        return new PersistentTrieMap<>(AlphabeticString.class);
+    }
+
+    private static PersistentTrieMap<Character, AlphabeticString, String> plusAll(
+            PersistentTrieMap<Character, AlphabeticString, String> map, String... words) {
+        for (String word : words) {
+            map = map.plus(a(word), word.toUpperCase());
+        }
+        return map;
+    }
+
+    @Test(timeout = 3000)
+    public void testOldVersionsDoNotChange() {
+        PersistentTrieMap<Character, AlphabeticString, String> v1 = plusAll(empty(), "cat", "car", "dog");
+        PersistentTrieMap<Character, AlphabeticString, String> v2 = v1.plus(a("cart"), "CART");
+        PersistentTrieMap<Character, AlphabeticString, String> v3 = v2.minus(a("cat")).plus(a("dog"), "WOOF");
+
+        assertEquals(3, v1.size());
+        assertTrue(containsAllPaths(v1, "cat", "car", "dog"));
+        assertNull(v1.find(a("cart")));
+
+        assertEquals(4, v2.size());
+        assertTrue(containsAllPaths(v2, "cat", "car", "dog", "cart"));
+
+        assertEquals(3, v3.size());
+        assertNull(v3.find(a("cat")));
+        assertEquals("WOOF", v3.find(a("dog")));
+        assertEquals("DOG", v2.find(a("dog")));
+        assertEquals(2, v3.countPrefix(a("car")));
+    }
+
+    @Test(timeout = 3000)
+    public void testUnchangedSubtreesAreShared() throws Exception {
+        PersistentTrieMap<Character, AlphabeticString, String> v1 = empty();
+        for (int i = 0; i < 200; i++) {
+            v1 = v1.plus(a("key" + i), "" + i);
+        }
+        PersistentTrieMap<Character, AlphabeticString, String> v2 = v1.plus(a("key17"), "changed");
+
+        Map<Object, Boolean> nodes = new IdentityHashMap<>();
+        collect(getRoot(v1), nodes);
+        int before = nodes.size();
+        collect(getRoot(v2), nodes);
+        // only the path root -> k -> e -> y -> 1 -> 7 is new
+        assertEquals(before + 6, nodes.size());
+        assertEquals("17", v1.find(a("key17")));
+        assertEquals("changed", v2.find(a("key17")));
+    }
+
+    @Test(timeout = 3000)
+    public void testMinusPrunesAndIgnoresMissingKeys() {
+        PersistentTrieMap<Character, AlphabeticString, String> v1 = plusAll(empty(), "a", "abc");
+        assertSame(v1, v1.minus(a("ab")));
+        assertSame(v1, v1.minus(a("zzz")));
+
+        PersistentTrieMap<Character, AlphabeticString, String> v2 = v1.minus(a("abc"));
+        assertFalse(v2.findPrefix(a("ab")));
+        assertTrue(v2.findPrefix(a("a")));
+        assertEquals(1, v2.size());
+        assertTrue(v1.findPrefix(a("ab")));
+
+        PersistentTrieMap<Character, AlphabeticString, String> v3 = v2.minus(a("a"));
+        assertEquals(0, v3.size());
+        assertFalse(v3.findPrefix(a("")));
+    }
+
+    @Test(timeout = 3000)
+    public void testTransientDoesNotChangeItsSource() {
+        PersistentTrieMap<Character, AlphabeticString, String> v1 = plusAll(empty(), "one", "two", "three");
+        PersistentTrieMap<Character, AlphabeticString, String>.Transient edits = v1.asTransient();
+        edits.delete(a("two"));
+        for (int i = 0; i < 100; i++) {
+            edits.insert(a("t" + i), "T" + i);
+        }
+        edits.insert(a("one"), "1");
+        PersistentTrieMap<Character, AlphabeticString, String> v2 = edits.persistent();
+
+        assertEquals(3, v1.size());
+        assertTrue(containsAllPaths(v1, "one", "two", "three"));
+        assertEquals(102, v2.size());
+        assertEquals("1", v2.find(a("one")));
+        assertNull(v2.find(a("two")));
+        assertEquals(101, v2.countPrefix(a("t")));
+
+        try {
+            edits.insert(a("late"), "LATE");
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertNull(v2.find(a("late")));
+    }
+
+    @Test(timeout = 3000)
+    public void testPersistentVersionRejectsMutation() {
+        PersistentTrieMap<Character, AlphabeticString, String> v1 = plusAll(empty(), "a");
+        try {
+            v1.insert(a("b"), "B");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            v1.delete(a("a"));
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            v1.clear();
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertTrue(containsPath(v1, "a"));
+    }
+
+    private static Object getRoot(Object map) throws Exception {
+        Field field = cse332.interfaces.trie.TrieMap.class.getDeclaredField("root");
+        field.setAccessible(true);
+        return field.get(map);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collect(Object node, Map<Object, Boolean> nodes) {
+        nodes.put(node, true);
+        for (Map.Entry<Object, Object> child : (Iterable<Map.Entry<Object, Object>>) node) {
+            collect(child.getValue(), nodes);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package tests.gitlab.duedate;
+
+import cse332.datastructures.containers.Item;
+import cse332.types.AlphabeticString;
+import datastructures.dictionaries.SortedTrieMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Runs the TrieMap tests against a SortedTrieMap, and checks its ordered
+ * queries against a java.util.TreeMap.
+ */
+public class SortedTrieMapTests extends TrieMapGradingTests {
+
+    @Before
+    public void init() {
+        STUDENT = new SortedTrieMap<Character, AlphabeticString, String>(AlphabeticString.class);
+    }
+
+    private static SortedTrieMap<Character, AlphabeticString, String> sorted() {
+        return new SortedTrieMap<>(AlphabeticString.class);
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        for (int j = random.nextInt(5); j > 0; j--) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+
+    private static List<String> keys(Iterator<Item<AlphabeticString, String>> items) {
+        List<String> keys = new ArrayList<>();
+        while (items.hasNext()) {
+            Item<AlphabeticString, String> item = items.next();
+            assertEquals(item.key.toString().toUpperCase(), item.value);
+            keys.add(item.key.toString());
+        }
+        return keys;
+    }
+
+    private static String key(Item<AlphabeticString, String> item) {
+        return item == null ? null : item.key.toString();
+    }
+
+    @Test(timeout = 3000)
+    public void testIteratorIsOrdered() {
+        SortedTrieMap<Character, AlphabeticString, String> map = sorted();
+        TreeMap<String, String> expected = new TreeMap<>();
+        Random random = new Random(332);
+        for (int i = 0; i < 500; i++) {
+            String word = randomWord(random);
+            map.insert(a(word), word.toUpperCase());
+            expected.put(word, word.toUpperCase());
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), keys(map.iterator()));
+    }
+
+    @Test(timeout = 3000)
+    public void testFloorAndCeilingAgainstTreeMap() {
+        Random random = new Random(332);
+        for (int round = 0; round < 20; round++) {
+            SortedTrieMap<Character, AlphabeticString, String> map = sorted();
+            TreeMap<String, String> expected = new TreeMap<>();
+            for (int i = random.nextInt(40); i > 0; i--) {
+                String word = randomWord(random);
+                map.insert(a(word), word.toUpperCase());
+                expected.put(word, word.toUpperCase());
+            }
+            for (int i = random.nextInt(10); i > 0; i--) {
+                String word = randomWord(random);
+                map.delete(a(word));
+                expected.remove(word);
+            }
+            for (int i = 0; i < 50; i++) {
+                String probe = randomWord(random);
+                Map.Entry<String, String> floor = expected.floorEntry(probe);
+                Map.Entry<String, String> ceiling = expected.ceilingEntry(probe);
+                assertEquals(floor == null ? null : floor.getKey(), key(map.floor(a(probe))));
+                assertEquals(ceiling == null ? null : ceiling.getKey(), key(map.ceiling(a(probe))));
+                if (floor != null) {
+                    assertEquals(floor.getValue(), map.floor(a(probe)).value);
+                }
+            }
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testRangeAgainstTreeMap() {
+        Random random = new Random(333);
+        SortedTrieMap<Character, AlphabeticString, String> map = sorted();
+        TreeMap<String, String> expected = new TreeMap<>();
+        for (int i = 0; i < 200; i++) {
+            String word = randomWord(random);
+            map.insert(a(word), word.toUpperCase());
+            expected.put(word, word.toUpperCase());
+        }
+        for (int i = 0; i < 100; i++) {
+            String from = randomWord(random);
+            String to = randomWord(random);
+            List<String> range = keys(map.range(a(from), a(to)));
+            if (from.compareTo(to) <= 0) {
+                assertEquals(new ArrayList<>(expected.subMap(from, to).keySet()), range);
+            }
+            else {
+                assertTrue(range.isEmpty());
+            }
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testEmptyMap() {
+        SortedTrieMap<Character, AlphabeticString, String> map = sorted();
+        assertNull(map.floor(a("x")));
+        assertNull(map.ceiling(a("")));
+        assertFalse(map.range(a(""), a("zzz")).hasNext());
+        SortedTrieMap.Page<AlphabeticString, String> page = map.page(null, 10);
+        assertTrue(page.items.isEmpty());
+        assertNull(page.next);
+    }
+
+    @Test(timeout = 3000)
+    public void testPaging() {
+        SortedTrieMap<Character, AlphabeticString, String> map = sorted();
+        TreeMap<String, String> expected = new TreeMap<>();
+        for (int i = 0; i < 1000; i++) {
+            String word = Integer.toString(i * 7919, 36);
+            map.insert(a(word), word.toUpperCase());
+            expected.put(word, word.toUpperCase());
+        }
+        List<String> all = new ArrayList<>();
+        AlphabeticString cursor = null;
+        int pages = 0;
+        do {
+            SortedTrieMap.Page<AlphabeticString, String> page = map.page(cursor, 64);
+            assertTrue(page.items.size() <= 64);
+            for (Item<AlphabeticString, String> item : page.items) {
+                all.add(item.key.toString());
+            }
+            cursor = page.next;
+            pages++;
+        } while (cursor != null);
+        assertEquals(new ArrayList<>(expected.keySet()), all);
+        assertEquals(16, pages);
+    }
+
+    @Test(timeout = 3000)
+    public void testPagingSurvivesChanges() {
+        SortedTrieMap<Character, AlphabeticString, String> map = sorted();
+        for (String word : new String[] { "a", "b", "c", "d", "e" }) {
+            map.insert(a(word), word.toUpperCase());
+        }
+        SortedTrieMap.Page<AlphabeticString, String> first = map.page(null, 2);
+        assertEquals("b", first.next.toString());
+
+        // the cursor key itself is gone, and a key was added right after it
+        map.delete(a("b"));
+        map.insert(a("bb"), "BB");
+        SortedTrieMap.Page<AlphabeticString, String> second = map.page(first.next, 2);
+        assertEquals("bb", second.items.get(0).key.toString());
+        assertEquals("c", second.items.get(1).key.toString());
+        assertEquals("c", second.next.toString());
+    }
+}
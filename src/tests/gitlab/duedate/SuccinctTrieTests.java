@@ -0,0 +1,148 @@
+package tests.gitlab.duedate;
+
+import aboveandbeyond.CompressedHashTrieMap;
+import cse332.datastructures.containers.Item;
+import cse332.interfaces.misc.Codec;
+import cse332.interfaces.trie.TrieMap;
+import cse332.types.AlphabeticString;
+import cse332.types.ByteString;
+import datastructures.dictionaries.HashTrieMap;
+import datastructures.dictionaries.SuccinctTrie;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+public class SuccinctTrieTests {
+
+    private static AlphabeticString a(String s) {
+        return new AlphabeticString(s);
+    }
+
+    private static HashTrieMap<Character, AlphabeticString, String> words(int n) {
+        HashTrieMap<Character, AlphabeticString, String> map = new HashTrieMap<>(AlphabeticString.class);
+        for (int i = 0; i < n; i++) {
+            String word = Integer.toString(i * 7919, 36);
+            map.insert(a(word), word.toUpperCase());
+        }
+        map.insert(a(""), "EMPTY");
+        return map;
+    }
+
+    private static Map<String, String> contents(TrieMap<Character, AlphabeticString, String> map) {
+        Map<String, String> contents = new HashMap<>();
+        for (Item<AlphabeticString, String> item : map) {
+            assertNull(contents.put(item.key.toString(), item.value));
+        }
+        return contents;
+    }
+
+    private static void assertSameMappings(TrieMap<Character, AlphabeticString, String> expected,
+            TrieMap<Character, AlphabeticString, String> actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(contents(expected), contents(actual));
+        for (Item<AlphabeticString, String> item : expected) {
+            String key = item.key.toString();
+            assertEquals(item.value, actual.find(item.key));
+            for (int i = 0; i <= key.length(); i++) {
+                AlphabeticString prefix = a(key.substring(0, i));
+                assertTrue(actual.findPrefix(prefix));
+                assertEquals(expected.countPrefix(prefix), actual.countPrefix(prefix));
+            }
+            assertNull(actual.find(a(key + "~")));
+            assertFalse(actual.findPrefix(a(key + "~")));
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testFreezeHashTrieMap() {
+        HashTrieMap<Character, AlphabeticString, String> map = words(3000);
+        SuccinctTrie<Character, AlphabeticString, String> frozen = SuccinctTrie.freeze(map);
+        assertSameMappings(map, frozen);
+        assertEquals("EMPTY", frozen.find(a("")));
+    }
+
+    @Test(timeout = 3000)
+    public void testFreezeExpandsCompressedEdges() {
+        CompressedHashTrieMap<Character, AlphabeticString, String> map =
+                new CompressedHashTrieMap<>(AlphabeticString.class);
+        for (String word : new String[] { "/usr/local/bin", "/usr/local/lib", "/usr", "/etc" }) {
+            map.insert(a(word), word.toUpperCase());
+        }
+        SuccinctTrie<Character, AlphabeticString, String> frozen = SuccinctTrie.freeze(map);
+        assertSameMappings(map, frozen);
+        assertTrue(frozen.findPrefix(a("/usr/lo")));
+        assertNull(frozen.find(a("/usr/local")));
+        // one node per letter: root, "/", "usr", "/local/", "bin", "lib", "etc"
+        assertEquals(1 + 1 + 3 + 7 + 3 + 3 + 3, frozen.nodes());
+    }
+
+    @Test(timeout = 3000)
+    public void testFreezeEmptyMap() {
+        SuccinctTrie<Character, AlphabeticString, String> frozen =
+                SuccinctTrie.freeze(new HashTrieMap<Character, AlphabeticString, String>(AlphabeticString.class));
+        assertEquals(0, frozen.size());
+        assertEquals(1, frozen.nodes());
+        assertNull(frozen.find(a("")));
+        assertFalse(frozen.findPrefix(a("")));
+        assertFalse(frozen.iterator().hasNext());
+    }
+
+    @Test(timeout = 3000)
+    public void testWriteAndMap() throws Exception {
+        HashTrieMap<Character, AlphabeticString, String> map = words(2000);
+        File file = File.createTempFile("succinct", ".trie");
+        file.deleteOnExit();
+        SuccinctTrie.freeze(map).write(file.toPath(), Codec.STRINGS);
+
+        SuccinctTrie<Character, AlphabeticString, String> opened =
+                SuccinctTrie.open(file.toPath(), AlphabeticString.class, Codec.STRINGS);
+        assertSameMappings(map, opened);
+        assertEquals(SuccinctTrie.freeze(map).nodes(), opened.nodes());
+    }
+
+    @Test(timeout = 3000)
+    public void testByteKeysAndIntegerValues() throws Exception {
+        HashTrieMap<Byte, ByteString, Integer> map = new HashTrieMap<>(ByteString.class);
+        for (int i = 0; i < 500; i++) {
+            map.insert(new ByteString(new Byte[] { (byte) i, (byte) -i, (byte) (i >> 3) }), i);
+        }
+        File file = File.createTempFile("succinct", ".trie");
+        file.deleteOnExit();
+        SuccinctTrie.freeze(map).write(file.toPath(), Codec.INTEGERS);
+        SuccinctTrie<Byte, ByteString, Integer> opened =
+                SuccinctTrie.open(file.toPath(), ByteString.class, Codec.INTEGERS);
+
+        assertEquals(500, opened.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, (int) opened.find(new ByteString(new Byte[] { (byte) i, (byte) -i, (byte) (i >> 3) })));
+        }
+        int count = 0;
+        for (Item<ByteString, Integer> item : opened) {
+            assertEquals(item.value, map.find(item.key));
+            count++;
+        }
+        assertEquals(500, count);
+    }
+
+    @Test(timeout = 3000)
+    public void testReadOnly() {
+        SuccinctTrie<Character, AlphabeticString, String> frozen = SuccinctTrie.freeze(words(10));
+        try {
+            frozen.insert(a("x"), "X");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            frozen.delete(a("0"));
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertSame(frozen, SuccinctTrie.freeze(frozen));
+    }
+}
@@ -0,0 +1,473 @@
+package tests.gitlab.duedate;
+
+import cse332.datastructures.containers.Item;
+import cse332.interfaces.trie.TrieMap;
+import cse332.types.AlphabeticString;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * The tests that every TrieMap has to pass, whatever its nodes look like.
+ * Subclasses set STUDENT to a fresh, empty TrieMap before every test and add
+ * the tests of their own implementation.
+ */
+public abstract class TrieMapGradingTests {
+    protected static TrieMap<Character, AlphabeticString, String> STUDENT;
+
+    /**
+     * Tests if insert, find, and findPrefix work in general.
+     */
+    @Test(timeout = 3000)
+    public void testBasic() {
+        String[] words = {"dog", "doggy", "doge", "dragon", "cat", "draggin"};
+        String[] invalid = {"d", "cataract", "", "do"};
+        addAll(STUDENT, words);
+        assertTrue(containsAllPaths(STUDENT, words));
+        assertTrue(doesNotContainAll(STUDENT, invalid));
+    }
+
+    /**
+     * Checks to see if basic delete functionality works.
+     */
+    @Test(timeout = 3000)
+    public void testBasicDelete() {
+        String[] words = {"dog", "doggy", "dreamer", "cat"};
+        addAll(STUDENT, words);
+        assertTrue(containsAllPaths(STUDENT, words));
+
+        STUDENT.delete(a("I don't exist"));
+        STUDENT.delete(a("dreamer"));
+        assertTrue(containsAllPaths(STUDENT, "dog", "doggy", "cat"));
+        assertTrue(doesNotContainAllPrefixes(STUDENT, "dreamer", "dream", "dr"));
+        assertTrue(STUDENT.findPrefix(a("d")));
+
+        STUDENT.delete(a("dog"));
+        assertTrue(containsAllPaths(STUDENT, "doggy", "cat"));
+
+        STUDENT.delete(a("doggy"));
+        assertTrue(containsAllPaths(STUDENT, "cat"));
+        assertFalse(STUDENT.findPrefix(a("d")));
+    }
+
+    /**
+     * Test findPrefix more rigorously.
+     */
+    @Test(timeout = 3000)
+    public void testFindPrefixes() {
+        String[] words = {"dog", "doggy", "doge", "dragon", "cat", "draggin"};
+        addAll(STUDENT, words);
+
+        assertTrue(containsAllPrefixes(STUDENT, "d", "", "do"));
+        assertTrue(doesNotContainAllPrefixes(STUDENT, "batarang", "dogee", "dragging"));
+    }
+
+    /**
+     * Tests that trying to find a non-existent entity does the correct thing
+     */
+    @Test(timeout = 3000)
+    public void testFindNonexistentDoesNotCrash() {
+        addAll(STUDENT, "foo", "bar", "baz");
+        assertNull(STUDENT.find(a("orangutan")));
+        assertNull(STUDENT.find(a("z")));
+        assertNull(STUDENT.find(a("ba")));
+        assertNull(STUDENT.find(a("bazz")));
+        assertFalse(STUDENT.findPrefix(a("boor")));
+        assertFalse(STUDENT.findPrefix(a("z")));
+    }
+
+    @Test(timeout = 3000, expected = IllegalArgumentException.class)
+    public void testFindNullEntriesCausesError() {
+        STUDENT.find(null);
+    }
+
+    @Test(timeout = 3000, expected = IllegalArgumentException.class)
+    public void testFindPrefixNullEntriesCausesError() {
+        STUDENT.findPrefix(null);
+    }
+
+    /**
+     * Tests that inserts correctly wipe out old values.
+     */
+    @Test(timeout = 3000)
+    public void testInsertReplacesOldValue() {
+        AlphabeticString key = a("myKey");
+        assertNull(STUDENT.insert(key, "foo"));
+        assertEquals("foo", STUDENT.insert(key, "bar"));
+        assertEquals("bar", STUDENT.insert(key, "baz"));
+        assertEquals(1, STUDENT.size());
+    }
+
+    @Test(timeout = 3000, expected = IllegalArgumentException.class)
+    public void testInsertingNullKeyCausesError() {
+        STUDENT.insert(null, "foo");
+    }
+
+    @Test(timeout = 3000, expected = IllegalArgumentException.class)
+    public void testInsertingNullValueCausesError() {
+        STUDENT.insert(a("foo"), null);
+    }
+
+    /**
+     * Checks to see the trie correctly handles the case where you delete
+     * absolutely everything.
+     */
+    @Test(timeout = 3000)
+    public void testDeleteAll() {
+        AlphabeticString keyA = a("keyboard");
+        AlphabeticString keyB = a("keyesian");
+        AlphabeticString keyC = a("bayesian");
+
+        assertEquals(0, STUDENT.size());
+        assertTrue(STUDENT.isEmpty());
+
+        STUDENT.insert(keyA, "KEYBOARD");
+        STUDENT.insert(keyB, "KEYESIAN");
+        STUDENT.insert(keyC, "BAYESIAN");
+
+        assertTrue(containsAllPaths(STUDENT, "keyboard", "keyesian", "bayesian"));
+        assertEquals(3, STUDENT.size());
+        assertFalse(STUDENT.isEmpty());
+
+        STUDENT.delete(keyA);
+        STUDENT.delete(keyB);
+        STUDENT.delete(keyC);
+
+        assertEquals(0, STUDENT.size());
+        assertTrue(STUDENT.isEmpty());
+        assertTrue(doesNotContainAll(STUDENT, "keyboard", "keyesian", "bayesian"));
+        assertFalse(STUDENT.findPrefix(a("k")));
+        assertFalse(STUDENT.iterator().hasNext());
+    }
+
+    /**
+     * Tests what happens if you attempt deleting something that doesn't exist
+     * in the trie (but _does_ partially overlap).
+     */
+    @Test(timeout = 3000)
+    public void testDeleteNothing() {
+        STUDENT.insert(a("aaaa"), "foo");
+        assertTrue(containsPath(STUDENT, "aaaa", "foo"));
+        assertEquals(1, STUDENT.size());
+        assertFalse(STUDENT.isEmpty());
+
+        // Should not change the trie
+        STUDENT.delete(a("aa"));
+        STUDENT.delete(a("a"));
+        STUDENT.delete(a("abc"));
+        STUDENT.delete(a("aaaaa"));
+        STUDENT.delete(a(""));
+        STUDENT.delete(a("foobar"));
+
+        assertTrue(containsPath(STUDENT, "aaaa", "foo"));
+        assertEquals(1, STUDENT.size());
+        assertFalse(STUDENT.isEmpty());
+    }
+
+    /**
+     * Tests to see if the trie correctly handles a trie where everything is
+     * in a straight line/the trie has no branching.
+     */
+    @Test(timeout = 3000)
+    public void testDeleteWorksWhenTrieHasNoBranches() {
+        AlphabeticString keyA = a("ghost");
+        AlphabeticString keyB = a("gh");
+        STUDENT.insert(keyA, "A");
+        STUDENT.insert(keyB, "B");
+
+        // Trie should still contain "ghost -> A"
+        STUDENT.delete(keyB);
+        assertNull(STUDENT.find(keyB));
+        assertTrue(STUDENT.findPrefix(keyB));
+
+        // Trie should now contain "gh -> C", but not "ghost -> A"
+        STUDENT.insert(keyB, "C");
+        STUDENT.delete(keyA);
+        assertEquals("C", STUDENT.find(keyB));
+        assertNull(STUDENT.find(keyA));
+        assertFalse(STUDENT.findPrefix(a("gho")));
+    }
+
+    /**
+     * Tests that just working with empty strings does the correct thing.
+     */
+    @Test(timeout = 3000)
+    public void testDeletingEmptyString() {
+        STUDENT.insert(a(""), "Foo");
+        assertEquals("Foo", STUDENT.find(a("")));
+        assertEquals(1, STUDENT.size());
+        assertFalse(STUDENT.isEmpty());
+
+        STUDENT.delete(a(""));
+        assertNull(STUDENT.find(a("")));
+        assertEquals(0, STUDENT.size());
+        assertTrue(STUDENT.isEmpty());
+
+        assertNull(STUDENT.insert(a(""), "Bar"));
+        assertEquals(1, STUDENT.size());
+        assertFalse(STUDENT.isEmpty());
+        assertEquals("Bar", STUDENT.find(a("")));
+    }
+
+    @Test(timeout = 3000, expected = IllegalArgumentException.class)
+    public void testDeletingNullEntriesCausesError() {
+        STUDENT.delete((AlphabeticString) null);
+    }
+
+    @Test(timeout = 3000)
+    public void testClear() {
+        addAll(STUDENT, "keyboard", "keyesian", "bayesian");
+        STUDENT.clear();
+        assertEquals(0, STUDENT.size());
+        assertTrue(STUDENT.isEmpty());
+        assertTrue(doesNotContainAll(STUDENT, "keyboard", "keyesian", "bayesian"));
+        addAll(STUDENT, "keyboard");
+        assertTrue(containsPath(STUDENT, "keyboard"));
+    }
+
+    @Test(timeout = 3000)
+    public void testIterator() {
+        String[] words = {"", "a", "ab", "abc", "b", "bcd", "zzz"};
+        addAll(STUDENT, words);
+        Set<String> seen = new HashSet<>();
+        for (Item<AlphabeticString, String> item : STUDENT) {
+            assertEquals(item.key.toString().toUpperCase(), item.value);
+            assertTrue(seen.add(item.key.toString()));
+        }
+        assertEquals(words.length, seen.size());
+    }
+
+    @Test(timeout = 3000)
+    public void testIteratorStopsAtTheEnd() {
+        addAll(STUDENT, "a", "ab", "b");
+        Iterator<Item<AlphabeticString, String>> it = STUDENT.iterator();
+        assertTrue(it.hasNext());
+        assertTrue(it.hasNext());
+        Item<AlphabeticString, String> first = it.next();
+        assertEquals(first.key.toString().toUpperCase(), first.value);
+        it.next();
+        it.next();
+        assertFalse(it.hasNext());
+        try {
+            it.next();
+            fail();
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testPrefixQueries() {
+        addAll(STUDENT, "car", "card", "care", "careful", "cat", "dog", "");
+        Set<String> seen = new HashSet<>();
+        Iterator<Item<AlphabeticString, String>> it = STUDENT.prefixIterator(a("car"));
+        while (it.hasNext()) {
+            Item<AlphabeticString, String> item = it.next();
+            assertEquals(item.key.toString().toUpperCase(), item.value);
+            seen.add(item.key.toString());
+        }
+        assertEquals(new HashSet<>(Arrays.asList("car", "card", "care", "careful")), seen);
+
+        assertEquals(4, STUDENT.countPrefix(a("car")));
+        assertEquals(2, STUDENT.countPrefix(a("care")));
+        assertEquals(1, STUDENT.countPrefix(a("caref")));
+        assertEquals(5, STUDENT.countPrefix(a("ca")));
+        assertEquals(7, STUDENT.countPrefix(a("")));
+        assertEquals(0, STUDENT.countPrefix(a("cb")));
+        assertFalse(STUDENT.prefixIterator(a("x")).hasNext());
+
+        List<Item<AlphabeticString, String>> top =
+                STUDENT.topK(a("car"), 2, Comparator.comparing(String::length));
+        assertEquals(2, top.size());
+        assertEquals("CAREFUL", top.get(0).value);
+        assertEquals(4, top.get(1).value.length());
+        assertEquals(0, STUDENT.topK(a("x"), 2, Comparator.comparing(String::length)).size());
+
+        STUDENT.delete(a("careful"));
+        assertEquals(3, STUDENT.countPrefix(a("car")));
+        assertEquals(0, STUDENT.countPrefix(a("caref")));
+    }
+
+    @Test(timeout = 3000)
+    public void stressTest() {
+        // Should contain 30 characters
+        char[] symbols = "abcdefghijklmnopqrstuvwxyz!@#$".toCharArray();
+        long i = 0;
+        for (char a : symbols) {
+            for (char b : symbols) {
+                for (char c : symbols) {
+                    for (char d : symbols) {
+                        STUDENT.insert(new AlphabeticString(new Character[]{a, b, c, d}), "" + i);
+                        i += 1;
+                    }
+                }
+            }
+        }
+        assertEquals(i, STUDENT.size());
+
+        for (char a : symbols) {
+            for (char b : symbols) {
+                assertTrue(STUDENT.findPrefix(new AlphabeticString(new Character[]{a, b})));
+            }
+        }
+
+        i = 0;
+        for (char a : symbols) {
+            for (char b : symbols) {
+                for (char c : symbols) {
+                    for (char d : symbols) {
+                        assertEquals("" + i, STUDENT.find(new AlphabeticString(new Character[]{a, b, c, d})));
+                        i += 1;
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(timeout = 3000)
+    public void testRandomUpdates() {
+        Random random = new Random(332);
+        checkRandomUpdates(STUDENT, random, 5000, 6, () -> (char) ('a' + random.nextInt(4)));
+    }
+
+    /**
+     * Makes the given number of random inserts and deletes of words of up to
+     * maxLength letters drawn from letters, both on trie and on a TreeMap,
+     * and checks that trie ends up with the same mappings. Returns the
+     * TreeMap.
+     */
+    protected static TreeMap<String, String> checkRandomUpdates(TrieMap<Character, AlphabeticString, String> trie,
+            Random random, int updates, int maxLength, Supplier<Character> letters) {
+        TreeMap<String, String> expected = new TreeMap<>();
+        for (int i = 0; i < updates; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int j = random.nextInt(maxLength + 1); j > 0; j--) {
+                word.append(letters.get());
+            }
+            String key = word.toString();
+            if (random.nextInt(3) == 0) {
+                trie.delete(a(key));
+                expected.remove(key);
+            }
+            else {
+                assertEquals(expected.put(key, "v" + i), trie.insert(a(key), "v" + i));
+            }
+        }
+        assertEquals(expected.size(), trie.size());
+        Map<String, String> seen = new HashMap<>();
+        for (Item<AlphabeticString, String> item : trie) {
+            assertNull(seen.put(item.key.toString(), item.value));
+        }
+        assertEquals(expected, seen);
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), trie.find(a(entry.getKey())));
+        }
+        return expected;
+    }
+
+    /**
+     * Converts a String into an AlphabeticString
+     */
+    protected static AlphabeticString a(String s) {
+        return new AlphabeticString(s);
+    }
+
+    /**
+     * Checks if the trie contains the word and the expected value, and that all prefixes of
+     * the word exist in the trie.
+     */
+    protected static boolean containsPath(TrieMap<Character, AlphabeticString, String> trie, String word, String expectedValue) {
+        AlphabeticString key = a(word);
+
+        boolean valueCorrect = expectedValue.equals(trie.find(key));
+        boolean fullWordIsPrefix = trie.findPrefix(key);
+        boolean invalidWordDoesNotExist = trie.find(a(word + "$")) == null;
+
+        if (!valueCorrect || !fullWordIsPrefix || !invalidWordDoesNotExist) {
+            return false;
+        }
+
+        return allPrefixesExist(trie, word);
+    }
+
+    /**
+     * Checks if the trie contains the word, and that all prefixes of the word exist in the trie.
+     *
+     * Assumes that the expected value is word.toUpperCase().
+     */
+    protected static boolean containsPath(TrieMap<Character, AlphabeticString, String> trie, String word) {
+        return containsPath(trie, word, word.toUpperCase());
+    }
+
+    /**
+     * Returns true if all prefixes of a word exist in the trie.
+     *
+     * That is, if we do `trie.insert(new AlphabeticString("dog"), "some-value")`, this method
+     * would check to see if "dog", "do", "d", and "" are all prefixes of the trie.
+     */
+    protected static boolean allPrefixesExist(TrieMap<Character, AlphabeticString, String> trie, String word) {
+        String accum = "";
+        for (char c : word.toCharArray()) {
+            accum += c;
+            if (!trie.findPrefix(a(accum))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected static boolean containsAllPaths(TrieMap<Character, AlphabeticString, String> trie, String... words) {
+        for (String word : words) {
+            if (!containsPath(trie, word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected static boolean doesNotContainAll(TrieMap<Character, AlphabeticString, String> trie, String... words) {
+        for (String word : words) {
+            if (trie.find(a(word)) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected static boolean containsAllPrefixes(TrieMap<Character, AlphabeticString, String> trie, String... words) {
+        for (String word : words) {
+            if (!trie.findPrefix(a(word))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected static boolean doesNotContainAllPrefixes(TrieMap<Character, AlphabeticString, String> trie, String... words) {
+        for (String word : words) {
+            if (trie.findPrefix(a(word))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected static void addAll(TrieMap<Character, AlphabeticString, String> trie, String... words) {
+        for (String word : words) {
+            trie.insert(a(word), word.toUpperCase());
+        }
+    }
+}